@@ -1,7 +1,7 @@
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.kotlin.android)
-    alias(libs.plugins.kotlin.compose)
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -16,9 +16,25 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Opt in with -Ppizzeria.watchdog=true to watch the main thread in a release build
+        buildConfigField("boolean", "MAIN_THREAD_WATCHDOG",
+            (findProperty("pizzeria.watchdog") ?: "false").toString())
+
+        // Opt in with -Ppizzeria.intake=true to take orders from other systems. The server listens
+        // only on -Ppizzeria.intakeAddress and clients must send -Ppizzeria.intakeToken as a bearer token
+        buildConfigField("boolean", "ORDER_INTAKE",
+            (findProperty("pizzeria.intake") ?: "false").toString())
+        buildConfigField("String", "ORDER_INTAKE_ADDRESS",
+            "\"${findProperty("pizzeria.intakeAddress") ?: "127.0.0.1"}\"")
+        buildConfigField("String", "ORDER_INTAKE_TOKEN",
+            "\"${findProperty("pizzeria.intakeToken") ?: ""}\"")
     }
 
     buildTypes {
+        debug {
+            buildConfigField("boolean", "MAIN_THREAD_WATCHDOG", "true")
+        }
         release {
             isMinifyEnabled = false
             proguardFiles(
@@ -31,24 +47,23 @@ android {
         sourceCompatibility = JavaVersion.VERSION_17
         targetCompatibility = JavaVersion.VERSION_17
     }
+    buildFeatures {
+        buildConfig = true
+    }
+    testOptions {
+        unitTests.isReturnDefaultValues = true  // android.util.Log and friends do nothing in JVM tests
+    }
     kotlinOptions {
         jvmTarget = "11"
     }
-    buildFeatures {
-        compose = true
-    }
 }
 
 dependencies {
 
     implementation(libs.androidx.core.ktx)
     implementation(libs.androidx.lifecycle.runtime.ktx)
-    implementation(libs.androidx.activity.compose)
-    implementation(platform(libs.androidx.compose.bom))
-    implementation(libs.androidx.ui)
-    implementation(libs.androidx.ui.graphics)
-    implementation(libs.androidx.ui.tooling.preview)
-    implementation(libs.androidx.material3)
+    implementation(libs.androidx.profileinstaller)
+    implementation(libs.androidx.startup.runtime)
     implementation("androidx.recyclerview:recyclerview:1.3.0")
     implementation("com.google.android.material:material:1.9.0")
     implementation("androidx.appcompat:appcompat:1.6.1")
@@ -58,8 +73,5 @@ dependencies {
     testImplementation(libs.junit)
     androidTestImplementation(libs.androidx.junit)
     androidTestImplementation(libs.androidx.espresso.core)
-    androidTestImplementation(platform(libs.androidx.compose.bom))
-    androidTestImplementation(libs.androidx.ui.test.junit4)
-    debugImplementation(libs.androidx.ui.tooling)
-    debugImplementation(libs.androidx.ui.test.manifest)
+    baselineProfile(project(":macrobenchmark"))
 }
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.example.pizzeria.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.PizzaSpecs;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instrumented tests for OrderDatabase on the device's SQLite: a version 1
+ * database is upgraded to the current schema with its line items, specs
+ * and cancellations, and keyset pages and readOrdersAfter batches meet at
+ * their boundaries without skipping or repeating orders.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderDatabaseUpgradeTest {
+
+    private static final String NAME = "order_history_upgrade_test.db";
+    private static final int STORE = 1;
+    private static final int OTHER_STORE = 2;
+    private static final long PLACED_AT = 1_700_000_000_000L;
+
+    private Context context;
+    private OrderDatabase database;
+
+    @Before
+    public void deleteDatabase() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(NAME);
+    }
+
+    @After
+    public void closeDatabase() {
+        if (database != null) {
+            database.close();
+        }
+        context.deleteDatabase(NAME);
+    }
+
+    @Test
+    public void versionOneIsUpgradedWithItsLineItemsAndSpecs() {
+        PizzaSpec deluxe = PizzaSpecs.of(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, "New York Style"));
+        Pizza custom = PizzaType.BUILD_YOUR_OWN.create(Crust.PAN, Size.SMALL, "Chicago Style");
+        custom.addTopping(Topping.HAM);
+        custom.addTopping(Topping.ONION);
+        PizzaSpec byo = PizzaSpecs.of(custom);
+
+        try (SQLiteDatabase v1 = createVersionOne()) {
+            long first = insertOrder(v1, STORE, 1, PLACED_AT, null);
+            insertLineItem(v1, first, 0, deluxe, 1895);
+            insertLineItem(v1, first, 1, deluxe, 1895);
+            insertLineItem(v1, first, 2, byo, 1107);
+            long second = insertOrder(v1, STORE, 2, PLACED_AT + 1, PLACED_AT + 60_000);
+            insertLineItem(v1, second, 0, byo, 1107);
+            long third = insertOrder(v1, OTHER_STORE, 1, PLACED_AT + 2, PLACED_AT + 30_000);
+            insertLineItem(v1, third, 0, deluxe, 1895);
+        }
+
+        database = new OrderDatabase(context, NAME);
+        assertEquals(4, database.getReadableDatabase().getVersion());
+
+        // Version 1 kept one line item per pizza; the order merges them again when loaded
+        Order order = database.loadOrder(STORE, 1);
+        List<LineItem> lines = order.getLineItems();
+        assertEquals(PLACED_AT, order.getPlacedAtMillis());
+        assertEquals(3, order.getPizzaCount());
+        assertEquals(2, lines.size());
+        assertSame(deluxe, lines.get(0).getSpec());
+        assertEquals(2, lines.get(0).getQuantity());
+        assertSame(byo, lines.get(1).getSpec());
+        assertEquals(2, database.countPizzas(PizzaType.DELUXE, Size.LARGE));
+        assertEquals(1, database.countPizzas(PizzaType.BUILD_YOUR_OWN, Size.SMALL));
+
+        // Each configuration is stored once, however many line items used it
+        assertEquals(2, count("SELECT COUNT(*) FROM pizza_specs"));
+        assertEquals(5, count("SELECT COUNT(*) FROM line_items WHERE quantity = 1"));
+
+        // Canceled orders are logged in order of cancellation, across stores
+        assertNull(database.loadOrder(STORE, 2));
+        List<Integer> canceled = new ArrayList<>();
+        database.readCancellationsAfter(OTHER_STORE, 0, database.getLastCancellationId(), 10,
+                (id, number, at) -> {
+                    assertEquals(1, id);
+                    canceled.add(number);
+                });
+        database.readCancellationsAfter(STORE, 0, database.getLastCancellationId(), 10,
+                (id, number, at) -> {
+                    assertEquals(2, id);
+                    assertEquals(PLACED_AT + 60_000, at);
+                    canceled.add(number);
+                });
+        assertEquals(List.of(1, 2), canceled);
+    }
+
+    @Test
+    public void pagesMeetAtTheirBoundaries() {
+        PizzaSpec deluxe = PizzaSpecs.of(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, "New York Style"));
+        try (SQLiteDatabase v1 = createVersionOne()) {
+            // Orders 3 to 5 share a placement time, so the row id breaks the tie
+            long[] placedAt = {PLACED_AT, PLACED_AT + 1, PLACED_AT + 2, PLACED_AT + 2, PLACED_AT + 2, PLACED_AT + 3};
+            for (int number = 1; number <= placedAt.length; number++) {
+                long id = insertOrder(v1, STORE, number, placedAt[number - 1], number == 4 ? PLACED_AT + 9 : null);
+                insertLineItem(v1, id, 0, deluxe, 1895);
+                insertLineItem(v1, id, 1, deluxe, 1895);
+            }
+            insertOrder(v1, OTHER_STORE, 1, PLACED_AT + 5, null);
+        }
+        database = new OrderDatabase(context, NAME);
+
+        List<Integer> paged = new ArrayList<>();
+        OrderHistoryRow after = null;
+        List<OrderHistoryRow> page;
+        do {
+            page = database.loadPage(STORE, after, 2);
+            assertTrue(page.size() <= 2);
+            for (OrderHistoryRow row : page) {
+                paged.add(row.getOrderNumber());
+                after = row;
+            }
+        } while (page.size() == 2);
+        assertEquals(List.of(6, 5, 3, 2, 1), paged);
+
+        // Batches hold whole orders, canceled or not, and resume after the last row read
+        List<Integer> batched = new ArrayList<>();
+        long last = database.getLastOrderRowId();
+        long readThrough = 0;
+        while (true) {
+            long next = database.readOrdersAfter(STORE, readThrough, last, 4, (rowId, order, subtotal) -> {
+                assertEquals(2, order.getPizzaCount());
+                batched.add(order.getOrderNumber());
+            });
+            if (next == readThrough) {
+                break;
+            }
+            readThrough = next;
+        }
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), batched);
+    }
+
+    /**
+     * Creates the database file with the version 1 schema.
+     */
+    private SQLiteDatabase createVersionOne() {
+        SQLiteDatabase db = context.openOrCreateDatabase(NAME, Context.MODE_PRIVATE, null);
+        db.execSQL("CREATE TABLE orders ("
+                + "_id INTEGER PRIMARY KEY, "
+                + "store_id INTEGER NOT NULL, "
+                + "order_number INTEGER NOT NULL, "
+                + "placed_at INTEGER NOT NULL, "
+                + "canceled_at INTEGER, "
+                + "subtotal_cents INTEGER NOT NULL, "
+                + "pizza_count INTEGER NOT NULL)");
+        db.execSQL("CREATE UNIQUE INDEX orders_by_number ON orders (store_id, order_number)");
+        db.execSQL("CREATE INDEX orders_by_placed_at ON orders (store_id, placed_at)");
+        db.execSQL("CREATE TABLE line_items ("
+                + "order_id INTEGER NOT NULL REFERENCES orders (_id) ON DELETE CASCADE, "
+                + "position INTEGER NOT NULL, "
+                + "pizza_type INTEGER NOT NULL, "
+                + "size INTEGER NOT NULL, "
+                + "crust INTEGER NOT NULL, "
+                + "style TEXT NOT NULL, "
+                + "topping_mask INTEGER NOT NULL, "
+                + "price_cents INTEGER NOT NULL, "
+                + "PRIMARY KEY (order_id, position)) WITHOUT ROWID");
+        db.execSQL("CREATE INDEX line_items_by_type_size ON line_items (pizza_type, size)");
+        db.setVersion(1);
+        return db;
+    }
+
+    private static long insertOrder(SQLiteDatabase db, int storeId, int orderNumber, long placedAt,
+                                    Long canceledAt) {
+        db.execSQL("INSERT INTO orders (store_id, order_number, placed_at, canceled_at, subtotal_cents, pizza_count) "
+                + "VALUES (?, ?, ?, ?, 0, 0)", new Object[] {storeId, orderNumber, placedAt, canceledAt});
+        try (Cursor cursor = db.rawQuery("SELECT last_insert_rowid()", null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    private static void insertLineItem(SQLiteDatabase db, long orderId, int position, PizzaSpec spec,
+                                       int priceCents) {
+        db.execSQL("INSERT INTO line_items (order_id, position, pizza_type, size, crust, style, topping_mask, "
+                + "price_cents) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", new Object[] {orderId, position,
+                spec.getPizzaType().ordinal(), spec.getSize().ordinal(), spec.getCrust().ordinal(),
+                spec.getStyle(), spec.getToppingMask(), priceCents});
+        db.execSQL("UPDATE orders SET pizza_count = pizza_count + 1, subtotal_cents = subtotal_cents + ? "
+                + "WHERE _id = ?", new Object[] {priceCents, orderId});
+    }
+
+    private long count(String sql) {
+        try (Cursor cursor = database.getReadableDatabase().rawQuery(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.pizzeria.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+/**
+ * Instrumented tests for parceling line items and orders, which needs the
+ * device's Parcel implementation.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderParcelTest {
+
+    @Test
+    public void lineItemRoundTripKeepsSpecAndQuantity() {
+        Pizza pizza = PizzaType.BUILD_YOUR_OWN.create(Crust.PAN, Size.LARGE, "Chicago Style");
+        pizza.addTopping(Topping.SPINACH);
+        pizza.addTopping(Topping.MUSHROOM);
+        LineItem line = new LineItem(pizza, 12);
+
+        LineItem copy = roundTrip(line, LineItem.CREATOR);
+        assertSame(line.getSpec(), copy.getSpec());
+        assertEquals(12, copy.getQuantity());
+        assertEquals(line.getPizza().getToppingMask(), copy.getPizza().getToppingMask());
+        assertEquals("Chicago Style", copy.getPizza().getStyle());
+    }
+
+    @Test
+    public void presetToppingsSurviveARoundTrip() {
+        LineItem line = new LineItem(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.SMALL, "New York Style"), 1);
+        LineItem copy = roundTrip(line, LineItem.CREATOR);
+        assertSame(line.getSpec(), copy.getSpec());
+        assertEquals(line.getPizza().getToppingCount(), copy.getPizza().getToppingCount());
+    }
+
+    @Test
+    public void orderRoundTripKeepsLinesAndTotals() {
+        Order order = new Order(3, 42);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, "New York Style"), 2);
+        order.addPizza(PizzaType.MEATZZA.create(Crust.STUFFED, Size.MEDIUM, "Chicago Style"));
+        order.markPlaced(1_700_000_000_000L);
+
+        Order copy = roundTrip(order, Order.CREATOR);
+        assertEquals(3, copy.getStoreId());
+        assertEquals(42, copy.getOrderNumber());
+        assertEquals(1_700_000_000_000L, copy.getPlacedAtMillis());
+        List<LineItem> lines = copy.getLineItems();
+        assertEquals(2, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertSame(order.getLineItems().get(i).getSpec(), lines.get(i).getSpec());
+            assertEquals(order.getLineItems().get(i).getQuantity(), lines.get(i).getQuantity());
+        }
+        assertEquals(order.calculateTotalCents(), copy.calculateTotalCents());
+
+        // A parceled order still merges lines by configuration
+        copy.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, "New York Style"));
+        assertEquals(2, copy.getLineItems().size());
+        assertEquals(3, copy.getLineItems().get(0).getQuantity());
+    }
+
+    /**
+     * Writes a parcelable to a parcel and reads it back.
+     */
+    private static <T extends Parcelable> T roundTrip(T value, Parcelable.Creator<T> creator) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            value.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return creator.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+}
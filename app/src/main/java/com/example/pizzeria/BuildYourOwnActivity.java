@@ -1,6 +1,7 @@
 package com.example.pizzeria;
 
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.view.MenuItem;
 import android.widget.*;
@@ -12,8 +13,12 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import android.view.View;
 import java.util.Locale;
+import com.example.pizzeria.metrics.LatencyHistogram;
+import com.example.pizzeria.metrics.MetricsRegistry;
 import com.example.pizzeria.models.*;
+import com.example.pizzeria.store.Inventory;
 import com.example.pizzeria.adapters.*;
+import com.example.pizzeria.tasks.BackgroundExecutors;
 
 import java.util.ArrayList;
 
@@ -30,13 +35,16 @@ import java.util.ArrayList;
  * Features include:
  * - Dynamic pizza customization
  * - Price calculation based on selected options
- * - Image updates based on pizza type and style
+ * - Image updates based on pizza type and style, decoded in the background on a cache miss
  * - Adding pizzas to the current order
  *
  * @author Yousef & Lukas
  */
 public class BuildYourOwnActivity extends AppCompatActivity {
 
+    private static final LatencyHistogram ADD_TO_ORDER_LATENCY = MetricsRegistry.histogram("buildYourOwn.handleAddToOrder");
+    private static final LatencyHistogram UPDATE_PRICE_LATENCY = MetricsRegistry.histogram("buildYourOwn.updatePrice");
+
     private TextView titleLabel;
     private ImageView pizzaImageView;
     private Spinner pizzaTypeSpinner;
@@ -50,6 +58,13 @@ public class BuildYourOwnActivity extends AppCompatActivity {
     private ArrayList<Topping> selectedToppings;
     private ToppingsAdapter availableToppingsAdapter, selectedToppingsAdapter;
 
+    // Current selection, kept up to date by the listeners so pricing never re-reads the views
+    private PizzaType currentPizzaType = PizzaType.BUILD_YOUR_OWN;
+    private Size currentSize = Size.MEDIUM;
+    private int currentToppingMask;
+
+    private String imageName;   // The image the ImageView should show, which may still be decoding
+
     private String style = "Chicago";
     private PizzaFactory pizzaFactory;
     private Order currentOrder;
@@ -234,13 +249,23 @@ public class BuildYourOwnActivity extends AppCompatActivity {
             public void onNothingSelected(AdapterView<?> parent) {}
         });
 
-        smallRadio.setOnClickListener(v -> updatePrice());
-        mediumRadio.setOnClickListener(v -> updatePrice());
-        largeRadio.setOnClickListener(v -> updatePrice());
+        smallRadio.setOnClickListener(v -> handleSizeSelection(Size.SMALL));
+        mediumRadio.setOnClickListener(v -> handleSizeSelection(Size.MEDIUM));
+        largeRadio.setOnClickListener(v -> handleSizeSelection(Size.LARGE));
     }
 
     /**
-     * Adds the selected topping to the pizza if it is valid, updates the selected toppings list,
+     * Records the newly selected size and recalculates the price.
+     *
+     * @param size The size that was selected.
+     */
+    private void handleSizeSelection(Size size) {
+        currentSize = size;
+        updatePrice();
+    }
+
+    /**
+     * Adds the selected topping to the pizza if it is valid and in stock, updates the selected toppings list,
      * recalculates the price, and shows a confirmation toast.
      */
     private void handleAddTopping() {
@@ -251,8 +276,11 @@ public class BuildYourOwnActivity extends AppCompatActivity {
             showAlert("Duplicate Topping", "You have already selected this topping.");
         } else if (selectedToppings.size() >= 7) {
             showAlert("Topping Limit Reached", "You can select up to 7 toppings only.");
+        } else if (!GlobalData.getInventory().isAvailable(selected)) {
+            showAlert("Out of Stock", selected.name() + " is out of stock.");
         } else {
             selectedToppings.add(selected);
+            currentToppingMask |= selected.mask();
             selectedToppingsAdapter.notifyDataSetChanged();
             updatePrice();
             showToast("Selected topping: " + selected.name()); // Show toast only after adding
@@ -267,6 +295,7 @@ public class BuildYourOwnActivity extends AppCompatActivity {
         Topping selected = selectedToppingsAdapter.getSelectedTopping();
         if (selected != null) {
             selectedToppings.remove(selected);
+            currentToppingMask &= ~selected.mask();
             selectedToppingsAdapter.notifyDataSetChanged();
             updatePrice();
         }
@@ -280,6 +309,7 @@ public class BuildYourOwnActivity extends AppCompatActivity {
      */
     private void handlePizzaTypeSelection(int position) {
         String selectedType = pizzaTypeSpinner.getSelectedItem().toString();
+        currentPizzaType = PizzaType.fromDisplayName(selectedType);
 
         if ("Build your own".equals(selectedType)) {
             availableToppingsAdapter.enableSelection(); // Allow selecting toppings
@@ -293,23 +323,11 @@ public class BuildYourOwnActivity extends AppCompatActivity {
             availableToppingsRecyclerView.setAlpha(0.5f); // Grey out RecyclerView
             availableToppingsRecyclerView.setEnabled(false); // Disable interaction
             selectedToppings.clear();
-            Pizza presetPizza = null;
-            switch (selectedType) {
-                case "BBQ Chicken":
-                    presetPizza = pizzaFactory.createBBQChicken();
-                    break;
-                case "Deluxe":
-                    presetPizza = pizzaFactory.createDeluxe();
-                    break;
-                case "Meatzza":
-                    presetPizza = pizzaFactory.createMeatzza();
-                    break;
-            }
-            if (presetPizza != null) {
-                selectedToppings.addAll(presetPizza.getToppings());
-                selectedToppingsAdapter.notifyDataSetChanged();
-            }
+            // Read the presets straight from the catalog's shared set instead of building a pizza
+            selectedToppings.addAll(MenuCatalogs.current().getPresetToppingSet(currentPizzaType).asList());
+            selectedToppingsAdapter.notifyDataSetChanged();
         }
+        currentToppingMask = Topping.maskOf(selectedToppings);
         // Update the image when the type is selected
         updatePizzaImage();
         updateCrustText();
@@ -318,24 +336,26 @@ public class BuildYourOwnActivity extends AppCompatActivity {
 
     /**
      * Adds the selected pizza to the current order based on the chosen type, size,
-     * crust, and toppings. Displays a confirmation or error message as needed.
+     * crust, and toppings, if its ingredients are in stock. Displays a confirmation
+     * or error message as needed.
      */
     private void handleAddToOrder() {
-        // Determine the selected size using the RadioButton
-        Size selectedSize;
-        if (smallRadio.isChecked()) {
-            selectedSize = Size.SMALL;
-        } else if (mediumRadio.isChecked()) {
-            selectedSize = Size.MEDIUM;
-        } else {
-            selectedSize = Size.LARGE;
-        }
+        long start = System.nanoTime();
+        Size selectedSize = currentSize;
         Pizza pizza = null; // Initialize a Pizza object
         String selectedType = pizzaTypeSpinner.getSelectedItem().toString(); // Get selected type from Spinner
+        Inventory inventory = GlobalData.getInventory();
+        boolean inStock = "Build your own".equals(selectedType)
+                ? inventory.isAvailable(currentCrust(PizzaType.BUILD_YOUR_OWN), currentToppingMask)
+                : pizzaFactory.isAvailable(currentPizzaType, inventory);
+        if (!inStock) {
+            showAlert("Out of Stock", "Some ingredients of this pizza are out of stock.");
+            ADD_TO_ORDER_LATENCY.recordSince(start);
+            return;
+        }
         try {
             if ("Build your own".equals(selectedType)) {
-                String crustText = crustTextView.getText().toString().toUpperCase().replace(" ", "_").replace("-", "_");
-                pizza = new BuildYourOwn(Crust.valueOf(crustText), selectedSize, style);
+                pizza = new BuildYourOwn(currentCrust(PizzaType.BUILD_YOUR_OWN), selectedSize, style);
                 ((BuildYourOwn) pizza).getToppings().addAll(selectedToppings);
             } else {
                 switch (selectedType) {
@@ -355,6 +375,7 @@ public class BuildYourOwnActivity extends AppCompatActivity {
             }
         } catch (IllegalArgumentException e) {
             showAlert("Invalid Crust", "The selected crust type is not valid.");
+            ADD_TO_ORDER_LATENCY.recordSince(start);
             return;
         }
         if (pizza != null) {
@@ -364,48 +385,33 @@ public class BuildYourOwnActivity extends AppCompatActivity {
         } else {
             showAlert("Error", "Failed to add pizza to the order.");
         }
+
+        ADD_TO_ORDER_LATENCY.recordSince(start);
     }
 
     /**
-     * Updates the crust text based on the selected pizza type and style (Chicago or NY).
+     * Updates the crust text based on the selected pizza type and style (Chicago or NY),
+     * as defined by the active menu catalog.
      */
     private void updateCrustText() {
-        String selectedType = pizzaTypeSpinner.getSelectedItem().toString();
-        if ("Chicago".equals(style)) {
-            switch (selectedType) {
-                case "Deluxe":
-                    crustTextView.setText("Deep Dish");
-                    break;
-                case "BBQ Chicken":
-                    crustTextView.setText("Pan");
-                    break;
-                case "Meatzza":
-                    crustTextView.setText("Stuffed");
-                    break;
-                case "Build your own":
-                    crustTextView.setText("Pan");
-                    break;
-            }
-        } else if ("NY".equals(style)) {
-            switch (selectedType) {
-                case "Deluxe":
-                    crustTextView.setText("Brooklyn");
-                    break;
-                case "BBQ Chicken":
-                    crustTextView.setText("Thin");
-                    break;
-                case "Meatzza":
-                    crustTextView.setText("Hand-tossed");
-                    break;
-                case "Build your own":
-                    crustTextView.setText("Hand-tossed");
-                    break;
-            }
-        }
+        PizzaType selectedType = PizzaType.fromDisplayName(pizzaTypeSpinner.getSelectedItem().toString());
+        crustTextView.setText(currentCrust(selectedType).getDisplayName());
+    }
+
+    /**
+     * Looks up the crust for a pizza type in the current style.
+     *
+     * @param type the pizza type
+     * @return the crust from the active menu catalog
+     */
+    private Crust currentCrust(PizzaType type) {
+        return MenuCatalogs.current().getCrust(type, PriceQuoteService.styleIndex(style));
     }
 
     /**
      * Updates the displayed pizza image based on the selected pizza type and style.
+     * Images not yet in the PizzaImageCache are decoded on the I/O executor
+     * and shown if the selection has not changed in the meantime.
      */
     private void updatePizzaImage() {
         // Get the selected pizza type from the Spinner
@@ -415,57 +421,47 @@ public class BuildYourOwnActivity extends AppCompatActivity {
         String currentStyle = style.toLowerCase();
 
         // Build the image name based on the naming convention
-        String imageName = String.format("img_%s_%s", selectedType, currentStyle);
-
-        // Retrieve the resource ID of the image
-        int imageResId = getResources().getIdentifier(imageName, "drawable", getPackageName());
+        String name = String.format("img_%s_%s", selectedType, currentStyle);
+        imageName = name;
 
-        // Check if the resource exists and set the ImageView
-        if (imageResId != 0) {
-            pizzaImageView.setImageResource(imageResId);
-        } else {
-            // Fallback: If the image is missing, set a default placeholder image
-            pizzaImageView.setImageResource(R.drawable.placeholder); // Add a placeholder image in `drawable`
+        // Use the decoded image if it is cached, usually warmed up at startup
+        Bitmap cached = PizzaImageCache.peek(name);
+        if (cached != null) {
+            pizzaImageView.setImageBitmap(cached);
+            return;
         }
+        BackgroundExecutors.io().submit(this, () -> PizzaImageCache.load(getApplicationContext(), name), image -> {
+            if (!name.equals(imageName)) {
+                return; // The selection changed while decoding
+            }
+            // Check if the image exists and set the ImageView
+            if (image != null) {
+                pizzaImageView.setImageBitmap(image);
+            } else {
+                // Fallback: If the image is missing, set a default placeholder image
+                pizzaImageView.setImageResource(R.drawable.placeholder); // Add a placeholder image in `drawable`
+            }
+        });
     }
 
     /**
      * Updates the displayed price based on the selected pizza type, size, and toppings.
      */
     private void updatePrice() {
-        // Get the selected pizza type from the Spinner
-        String selectedType = pizzaTypeSpinner.getSelectedItem().toString();
-
-        // Determine the selected size using the RadioButtons
-        Size selectedSize;
-        if (smallRadio.isChecked()) {
-            selectedSize = Size.SMALL;
-        } else if (mediumRadio.isChecked()) {
-            selectedSize = Size.MEDIUM;
-        } else {
-            selectedSize = Size.LARGE;
-        }
+        long start = System.nanoTime();
 
-        // Calculate the price using the PriceCalculator
-        double price;
-        if ("Build your own".equals(selectedType)) {
-            // For "Build Your Own", calculate base price + topping price
-            price = PriceCalculator.calculatePrice(
-                    "Build Your Own",
-                    selectedSize,
-                    selectedToppings // Pass the selected toppings to the method
-            );
-        } else {
-            // For preset pizzas, calculate based on type and size
-            price = PriceCalculator.calculatePrice(
-                    selectedType, // Preset pizza type (e.g., "Deluxe", "BBQ Chicken")
-                    selectedSize,
-                    null // No toppings for preset pizzas
-            );
-        }
+        // Look up the price for the current selection in the precomputed table
+        double price = PriceQuoteService.getInstance().quote(
+                currentPizzaType,
+                PriceQuoteService.styleIndex(style),
+                currentSize,
+                currentToppingMask
+        );
 
         // Update the price TextView
         priceTextView.setText(String.format(Locale.getDefault(), "$%.2f", price));
+
+        UPDATE_PRICE_LATENCY.recordSince(start);
     }
 
     /**
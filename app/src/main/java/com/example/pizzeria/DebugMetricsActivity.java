@@ -0,0 +1,255 @@
+package com.example.pizzeria;
+
+import android.database.SQLException;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.MenuItem;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.pizzeria.history.OrderDatabase;
+import com.example.pizzeria.history.OrderHistoryBenchmark;
+import com.example.pizzeria.metrics.MainThreadWatchdog;
+import com.example.pizzeria.metrics.MetricsRegistry;
+import com.example.pizzeria.metrics.ThroughputMeter;
+import com.example.pizzeria.models.MenuCatalogs;
+import com.example.pizzeria.tasks.BackgroundExecutors;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * DebugMetricsActivity is a hidden screen that shows the latency histograms
+ * and counters collected by the MetricsRegistry, followed by per-screen jank
+ * statistics and recent stalls from the MainThreadWatchdog. It is opened by
+ * long-pressing the title on the main menu.
+ *
+ * The order throughput of the last minute and hour is shown at the top and
+ * refreshed every second while the screen is visible, as a live display
+ * for the shift manager, with the port the order intake listens on.
+ *
+ * Users can:
+ * - Refresh the summary.
+ * - Dump all metrics to metrics.txt in the app's internal storage.
+ * - Reset all metrics to zero.
+ * - Reload the menu catalog from the app's internal storage.
+ * - Benchmark the order history database against a scratch copy.
+ * - Stop taking orders from the local network.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class DebugMetricsActivity extends AppCompatActivity {
+
+    private static final String METRICS_FILE_NAME = "metrics.txt";
+    private static final String BENCHMARK_DATABASE_NAME = "order_history_benchmark.db";
+    private static final int BENCHMARK_LOOKUPS = 10_000;
+    private static final long REFRESH_INTERVAL_MILLIS = 1000;
+
+    // UI Components
+    private TextView metricsTextView;
+    private Button refreshMetricsButton, dumpMetricsButton, resetMetricsButton, reloadMenuButton,
+            benchmarkHistoryButton, stopIntakeButton;
+
+    // Refreshes the summary every second while the screen is visible
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable liveRefresh = new Runnable() {
+        @Override
+        public void run() {
+            refreshMetrics();
+            handler.postDelayed(this, REFRESH_INTERVAL_MILLIS);
+        }
+    };
+
+    /**
+     * Initializes the activity, sets up the UI components, and shows the current metrics.
+     *
+     * @param savedInstanceState If the activity is being re-initialized after
+     *                           previously being shut down, this contains the data
+     *                           it most recently supplied in onSaveInstanceState(Bundle).
+     */
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_debug_metrics);
+
+        // Set up action bar with back button
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        // Initialize UI components
+        metricsTextView = findViewById(R.id.metricsTextView);
+        refreshMetricsButton = findViewById(R.id.refreshMetricsButton);
+        dumpMetricsButton = findViewById(R.id.dumpMetricsButton);
+        resetMetricsButton = findViewById(R.id.resetMetricsButton);
+        reloadMenuButton = findViewById(R.id.reloadMenuButton);
+        benchmarkHistoryButton = findViewById(R.id.benchmarkHistoryButton);
+        stopIntakeButton = findViewById(R.id.stopIntakeButton);
+
+        // Set button listeners
+        refreshMetricsButton.setOnClickListener(v -> refreshMetrics());
+        dumpMetricsButton.setOnClickListener(v -> handleDumpMetrics());
+        resetMetricsButton.setOnClickListener(v -> handleResetMetrics());
+        reloadMenuButton.setOnClickListener(v -> handleReloadMenu());
+        benchmarkHistoryButton.setOnClickListener(v -> handleBenchmarkHistory());
+        stopIntakeButton.setOnClickListener(v -> handleStopIntake());
+
+        refreshMetrics();
+    }
+
+    /**
+     * Starts refreshing the summary every second.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        handler.post(liveRefresh);
+    }
+
+    /**
+     * Stops refreshing the summary while the screen is not visible.
+     */
+    @Override
+    protected void onPause() {
+        super.onPause();
+        handler.removeCallbacks(liveRefresh);
+    }
+
+    /**
+     * Handles the action bar's back button click to close the activity.
+     *
+     * @param item the selected menu item
+     * @return true if the action is handled, false otherwise
+     */
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    /**
+     * Updates the summary text with the current metric values.
+     */
+    private void refreshMetrics() {
+        String summary = MetricsRegistry.summary();
+        MainThreadWatchdog watchdog = MainThreadWatchdog.getInstance();
+        if (watchdog != null) {
+            summary += "\n" + watchdog.summary();
+        }
+        ThroughputMeter throughput = GlobalData.getThroughput();
+        int intakePort = ((PizzeriaApplication) getApplication()).getIntakePort();
+        metricsTextView.setText("Last minute: " + throughput.window(60_000L) + "\n"
+                + "Last hour: " + throughput.window(ThroughputMeter.SECOND_RING_MILLIS) + "\n"
+                + (intakePort >= 0 ? "Order intake on port " + intakePort : "Order intake off") + "\n"
+                + "Menu catalog version " + MenuCatalogs.current().getVersion() + "\n"
+                + (summary.isEmpty() ? "No metrics recorded yet." : summary));
+    }
+
+    /**
+     * Writes all metrics to a text file in the app's internal storage, on
+     * the serial executor for that file.
+     */
+    private void handleDumpMetrics() {
+        File file = new File(getFilesDir(), METRICS_FILE_NAME);
+        BackgroundExecutors.serial("MetricsDump").submitWrite(this, () -> {
+            try (FileWriter writer = new FileWriter(file)) {
+                MetricsRegistry.dump(writer);
+            }
+            return file;
+        }, dumped -> Toast.makeText(this, "Metrics dumped to " + dumped.getAbsolutePath(), Toast.LENGTH_LONG).show(),
+                e -> {
+                    showAlert("Error", "Failed to dump metrics.");
+                    e.printStackTrace();
+                });
+    }
+
+    /**
+     * Resets all metrics and refreshes the summary.
+     */
+    private void handleResetMetrics() {
+        MetricsRegistry.resetAll();
+        refreshMetrics();
+        Toast.makeText(this, "Metrics reset.", Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Reloads the menu catalog on the CPU executor so compiling the
+     * catalog and rebuilding the price table never block the UI.
+     */
+    private void handleReloadMenu() {
+        File source = new File(getFilesDir(), MenuCatalogs.SOURCE_FILE_NAME);
+        File snapshot = new File(getFilesDir(), MenuCatalogs.SNAPSHOT_FILE_NAME);
+        reloadMenuButton.setEnabled(false);
+        BackgroundExecutors.cpu().submitWrite(this, () -> {
+            try {
+                return MenuCatalogs.reload(source, snapshot)
+                        ? "Menu catalog version " + MenuCatalogs.current().getVersion() + " installed."
+                        : "Menu catalog is already up to date.";
+            } catch (IOException | IllegalArgumentException e) {
+                return "Failed to reload menu: " + e.getMessage();
+            }
+        }, result -> {
+            reloadMenuButton.setEnabled(true);
+            refreshMetrics();
+            Toast.makeText(this, result, Toast.LENGTH_LONG).show();
+        });
+    }
+
+    /**
+     * Runs the order history benchmark on the serial executor for the
+     * scratch database, which is deleted afterwards, and shows the report.
+     * Closing the screen drops the report but lets the benchmark clean up.
+     */
+    private void handleBenchmarkHistory() {
+        benchmarkHistoryButton.setEnabled(false);
+        Toast.makeText(this, "Benchmarking order history...", Toast.LENGTH_SHORT).show();
+        BackgroundExecutors.serial("OrderHistoryBenchmark").submitWrite(this, () -> {
+            deleteDatabase(BENCHMARK_DATABASE_NAME);
+            String report;
+            try (OrderDatabase database = new OrderDatabase(getApplicationContext(), BENCHMARK_DATABASE_NAME)) {
+                report = new OrderHistoryBenchmark(database, OrderHistoryBenchmark.DEFAULT_ORDERS,
+                        BENCHMARK_LOOKUPS, System.nanoTime()).run().toString();
+            } catch (SQLException e) {
+                report = "Benchmark failed: " + e.getMessage();
+            }
+            deleteDatabase(BENCHMARK_DATABASE_NAME);
+            return report;
+        }, result -> {
+            benchmarkHistoryButton.setEnabled(true);
+            showAlert("Order History Benchmark", result);
+        });
+    }
+
+    /**
+     * Stops taking orders from the local network until the app restarts.
+     */
+    private void handleStopIntake() {
+        ((PizzeriaApplication) getApplication()).stopOrderIntake();
+        Toast.makeText(this, "Order intake stopped", Toast.LENGTH_SHORT).show();
+        refreshMetrics();
+    }
+
+    /**
+     * Displays an alert dialog with the specified title and message.
+     *
+     * @param title   The title of the alert
+     * @param message The message content of the alert
+     */
+    private void showAlert(String title, String message) {
+        new AlertDialog.Builder(this)
+                .setTitle(title)
+                .setMessage(message)
+                .setPositiveButton("OK", null)
+                .show();
+    }
+}
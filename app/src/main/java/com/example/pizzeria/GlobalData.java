@@ -1,23 +1,59 @@
 package com.example.pizzeria;
 
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.pizzeria.checkout.CheckoutPipeline;
+import com.example.pizzeria.checkout.KitchenDispatcher;
+import com.example.pizzeria.checkout.Receipt;
+import com.example.pizzeria.metrics.Counter;
+import com.example.pizzeria.metrics.LatencyHistogram;
+import com.example.pizzeria.metrics.MetricsRegistry;
+import com.example.pizzeria.metrics.ThroughputMeter;
+import com.example.pizzeria.models.LineItem;
 import com.example.pizzeria.models.Order;
-import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.store.Inventory;
+import com.example.pizzeria.store.OrderStores;
+import com.example.pizzeria.store.StorePartition;
+import com.example.pizzeria.tasks.BackgroundExecutors;
+import com.example.pizzeria.tasks.Task;
+import com.example.pizzeria.tasks.TaskExecutor;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 
 /**
  * GlobalData is a utility class for managing global application data,
  * such as the current order and the list of placed orders.
+ * It works against the default store's partition in OrderStores.
+ *
+ * Placing and canceling orders can block, on leasing order numbers or
+ * notifying the order history, so screens use the variants that take a
+ * LifecycleOwner. They run on the store's serial executor, in the order
+ * they were called, and report back on the main thread. Checking out runs
+ * through the CheckoutPipeline instead, which turns orders away while it
+ * is busy.
  */
 public class GlobalData {
 
-    // List to store all placed orders
-    private static List<Order> placedOrders = new ArrayList<>();
+    // Order store for this device's location, and the executor for its blocking operations.
+    // PizzeriaApplication starts restoring the store in the background; this waits for it if needed
+    private static final StorePartition store = OrderStores.defaultPartition();
+    private static final TaskExecutor storeExecutor = BackgroundExecutors.serial("OrderStore");
+
+    private static final CheckoutPipeline checkout = new CheckoutPipeline(store, KitchenDispatcher.LOG,
+            GlobalData::countPlaced);
 
-    // Singleton instance for the current order
-    private static Order currentOrder = null;
+    // Metrics for store operations
+    private static final LatencyHistogram PLACE_CURRENT_ORDER = MetricsRegistry.histogram("globalData.placeCurrentOrder");
+    private static final LatencyHistogram GET_PLACED_ORDERS = MetricsRegistry.histogram("globalData.getPlacedOrders");
+    private static final LatencyHistogram ADD_PLACED_ORDER = MetricsRegistry.histogram("globalData.addPlacedOrder");
+    private static final LatencyHistogram PLACE_ORDERS = MetricsRegistry.histogram("globalData.placeOrders");
+    private static final LatencyHistogram REMOVE_PLACED_ORDER = MetricsRegistry.histogram("globalData.removePlacedOrder");
+    private static final Counter ORDERS_PLACED = MetricsRegistry.counter("globalData.ordersPlaced");
+    private static final ThroughputMeter THROUGHPUT = MetricsRegistry.throughput("globalData.throughput");
 
     /**
      * Gets the current order. If no current order exists, it creates a new one.
@@ -25,10 +61,7 @@ public class GlobalData {
      * @return the current order
      */
     public static Order getCurrentOrder() {
-        if (currentOrder == null) {
-            currentOrder = new Order();
-        }
-        return currentOrder;
+        return store.getCurrentOrder();
     }
 
     /**
@@ -36,18 +69,102 @@ public class GlobalData {
      * This should be called after placing an order.
      */
     public static void resetCurrentOrder() {
-        currentOrder = new Order();
+        store.resetCurrentOrder();
     }
 
     /**
      * Places the current order by adding it to the list of placed orders
      * and then resetting the current order.
+     *
+     * @throws IllegalStateException if an ingredient is out of stock; the order stays current
      */
     public static void placeCurrentOrder() {
-        if (currentOrder != null && !currentOrder.getPizzas().isEmpty()) {
-            placedOrders.add(currentOrder);
-            resetCurrentOrder();
+        long start = System.nanoTime();
+        Order placed = store.placeCurrentOrder();
+        if (placed != null) {
+            ORDERS_PLACED.increment();
+            recordThroughput(placed);
         }
+        PLACE_CURRENT_ORDER.recordSince(start);
+    }
+
+    /**
+     * Places the current order in the background and starts a new one.
+     * The current order must not be changed until the callback runs.
+     * Must be called on the main thread.
+     *
+     * @param owner    the screen placing the order
+     * @param onPlaced receives the placed order, or null if there was none, on the main thread
+     * @return the task, which is canceled with the screen
+     */
+    public static Task<Order> placeCurrentOrder(LifecycleOwner owner, Consumer<Order> onPlaced) {
+        return placeCurrentOrder(owner, onPlaced, null);
+    }
+
+    /**
+     * Places the current order in the background and starts a new one.
+     * The current order must not be changed until a callback runs. If an
+     * ingredient is out of stock the order is not placed and stays current.
+     * Must be called on the main thread.
+     *
+     * @param owner    the screen placing the order
+     * @param onPlaced receives the placed order, or null if there was none, on the main thread
+     * @param onError  receives the IllegalStateException naming a missing ingredient, or any
+     *                 other failure, on the main thread; null to log it
+     * @return the task, which is canceled with the screen
+     */
+    public static Task<Order> placeCurrentOrder(LifecycleOwner owner, Consumer<Order> onPlaced,
+                                                Consumer<Exception> onError) {
+        return storeExecutor.submitWrite(owner, () -> {
+            long start = System.nanoTime();
+            Order placed = store.placeCurrentOrder();
+            if (placed != null) {
+                ORDERS_PLACED.increment();
+                recordThroughput(placed);
+            }
+            store.getCurrentOrder(); // Allocate the next order number here rather than on the main thread
+            PLACE_CURRENT_ORDER.recordSince(start);
+            return placed;
+        }, onPlaced, onError);
+    }
+
+    /**
+     * Checks out the current order through the checkout pipeline: a copy
+     * of it is validated, priced, placed, sent to the kitchen and its
+     * receipt rendered, each on a background thread, and a new current
+     * order is started once the copy is placed. Changes made to the current
+     * order meanwhile are not placed; if the copy is not placed, the current
+     * order stays as it is. Must be called on the main thread.
+     *
+     * @param owner    the screen checking out
+     * @param onPlaced receives the receipt of the placed order on the main thread
+     * @param onError  receives the IllegalStateException saying why the order was not placed,
+     *                 or any other failure, on the main thread
+     * @return the task, which is canceled with the screen, or null if checkout is busy and
+     *         the order was not taken
+     */
+    public static Task<Receipt> checkoutCurrentOrder(LifecycleOwner owner, Consumer<Receipt> onPlaced,
+                                                     Consumer<Exception> onError) {
+        return checkout.submit(owner, store.getCurrentOrder(), onPlaced, onError);
+    }
+
+    /**
+     * Gets the checkout pipeline, e.g. to check whether it is busy.
+     *
+     * @return the checkout pipeline
+     */
+    public static CheckoutPipeline getCheckout() {
+        return checkout;
+    }
+
+    /**
+     * Gets the ingredient stock of this device's store, for lock-free
+     * availability checks while an order is built.
+     *
+     * @return the inventory
+     */
+    public static Inventory getInventory() {
+        return store.getInventory();
     }
 
     /**
@@ -56,7 +173,10 @@ public class GlobalData {
      * @return the list of placed orders
      */
     public static List<Order> getPlacedOrders() {
-        return new ArrayList<>(placedOrders); // Return a copy to avoid direct modification
+        long start = System.nanoTime();
+        List<Order> copy = store.getPlacedOrders(); // Return a copy to avoid direct modification
+        GET_PLACED_ORDERS.recordSince(start);
+        return copy;
     }
 
     /**
@@ -64,11 +184,62 @@ public class GlobalData {
      * Useful for testing or restoring orders.
      *
      * @param order the order to add
+     * @throws IllegalStateException if an ingredient is out of stock
      */
     public static void addPlacedOrder(Order order) {
+        long start = System.nanoTime();
         if (order != null) {
-            placedOrders.add(order);
+            store.addPlacedOrder(order);
+            ORDERS_PLACED.increment();
+            recordThroughput(order);
         }
+        ADD_PLACED_ORDER.recordSince(start);
+    }
+
+    /**
+     * Creates empty orders for this device's store, with order numbers
+     * allocated in one go, e.g. for a burst of orders from a kiosk.
+     *
+     * @param count how many orders to create
+     * @return the new orders
+     */
+    public static List<Order> newOrders(int count) {
+        return store.newOrders(count);
+    }
+
+    /**
+     * Places several orders as one batch: the store is locked once, its
+     * aggregates and indexes are updated once and the order history commits
+     * them together. Orders whose ingredients are out of stock, that are
+     * placed already or listed twice, or whose numbers are taken are left
+     * out. The indexes are updated on the calling thread while the store is
+     * locked, so it should not be called on the main thread.
+     *
+     * @param orders the orders to place
+     * @return the orders placed
+     */
+    public static List<Order> placeOrders(Collection<Order> orders) {
+        return placeOrders(orders, null);
+    }
+
+    /**
+     * Places several orders as one batch, as placeOrders does, and reports
+     * each order left out with the reason.
+     *
+     * @param orders     the orders to place
+     * @param onRejected receives each order left out and the IllegalStateException saying why; may be null
+     * @return the orders placed
+     */
+    public static List<Order> placeOrders(Collection<Order> orders,
+                                          BiConsumer<Order, IllegalStateException> onRejected) {
+        long start = System.nanoTime();
+        List<Order> placed = store.placeOrders(orders, onRejected);
+        ORDERS_PLACED.add(placed.size());
+        for (Order order : placed) {
+            recordThroughput(order);
+        }
+        PLACE_ORDERS.recordSince(start);
+        return placed;
     }
 
     /**
@@ -77,7 +248,75 @@ public class GlobalData {
      * @param order the order to remove
      */
     public static void removePlacedOrder(Order order) {
-        placedOrders.remove(order);
+        long start = System.nanoTime();
+        store.removePlacedOrder(order);
+        REMOVE_PLACED_ORDER.recordSince(start);
+    }
+
+    /**
+     * Removes an order from the list of placed orders in the background.
+     * Must be called on the main thread.
+     *
+     * @param owner     the screen canceling the order
+     * @param order     the order to remove
+     * @param onRemoved receives true if the order was placed and is now removed, on the main thread
+     * @return the task, which is canceled with the screen
+     */
+    public static Task<Boolean> removePlacedOrder(LifecycleOwner owner, Order order, Consumer<Boolean> onRemoved) {
+        return storeExecutor.submitWrite(owner, () -> {
+            long start = System.nanoTime();
+            boolean removed = store.removePlacedOrder(order);
+            REMOVE_PLACED_ORDER.recordSince(start);
+            return removed;
+        }, onRemoved);
+    }
+
+    /**
+     * Cancels an order by number in the background, including one from an
+     * earlier session that is only in the order history, so every journal
+     * listener sees the cancellation. Must be called on the main thread.
+     *
+     * @param owner       the screen canceling the order
+     * @param orderNumber the order number
+     * @param onCanceled  receives true if the order was held by the store and is now removed, on the main thread
+     * @return the task, which is canceled with the screen
+     */
+    public static Task<Boolean> cancelOrder(LifecycleOwner owner, int orderNumber, Consumer<Boolean> onCanceled) {
+        return storeExecutor.submitWrite(owner, () -> {
+            long start = System.nanoTime();
+            boolean removed = store.cancelOrder(orderNumber);
+            REMOVE_PLACED_ORDER.recordSince(start);
+            return removed;
+        }, onCanceled);
+    }
+
+    /**
+     * Gets the throughput of orders placed through GlobalData, for sliding
+     * window rates such as orders per minute or revenue per hour.
+     *
+     * @return the throughput meter
+     */
+    public static ThroughputMeter getThroughput() {
+        return THROUGHPUT;
+    }
+
+    /**
+     * Counts a placed order in the throughput meter at its placement time.
+     *
+     * @param order the placed order
+     */
+    private static void recordThroughput(Order order) {
+        THROUGHPUT.record(order.getPlacedAtMillis(), order.calculateTotalCents(), order.getPizzaCount());
+    }
+
+    /**
+     * Counts an order placed through the checkout pipeline.
+     *
+     * @param order the placed order
+     */
+    private static void countPlaced(Order order) {
+        ORDERS_PLACED.increment();
+        recordThroughput(order);
     }
 
     /**
@@ -85,21 +324,21 @@ public class GlobalData {
      * Useful for debugging or starting a new session.
      */
     public static void clearAllOrders() {
-        placedOrders.clear();
-        resetCurrentOrder();
+        store.clear();
     }
 
     /**
      * Logs the current order details for debugging purposes.
      */
     public static void logCurrentOrder() {
-        if (currentOrder == null || currentOrder.getPizzas().isEmpty()) {
+        Order currentOrder = store.getCurrentOrder();
+        if (currentOrder == null || currentOrder.isEmpty()) {
             System.out.println("Current order is empty or not initialized.");
         } else {
             System.out.println("Current order details:");
             System.out.println("Order Number: " + currentOrder.getOrderNumber());
-            for (Pizza pizza : currentOrder.getPizzas()) {
-                System.out.println(" - " + pizza);
+            for (LineItem item : currentOrder.getLineItems()) {
+                System.out.println(" - " + item);
             }
         }
     }
@@ -108,14 +347,15 @@ public class GlobalData {
      * Logs all placed orders for debugging purposes.
      */
     public static void logPlacedOrders() {
+        List<Order> placedOrders = store.getPlacedOrders();
         if (placedOrders.isEmpty()) {
             System.out.println("No placed orders.");
         } else {
             System.out.println("List of placed orders:");
             for (Order order : placedOrders) {
                 System.out.println("Order Number: " + order.getOrderNumber());
-                for (Pizza pizza : order.getPizzas()) {
-                    System.out.println(" - " + pizza);
+                for (LineItem item : order.getLineItems()) {
+                    System.out.println(" - " + item);
                 }
             }
         }
@@ -3,6 +3,7 @@ package com.example.pizzeria;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.ImageButton;
+import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
@@ -12,6 +13,7 @@ public class MainMenuActivity extends AppCompatActivity {
     private ImageButton nyStyleButton;
     private ImageButton ordersPlacedButton;
     private ImageButton currentOrderButton;
+    private TextView menuTitleLabel;
 
     /**
      * Opens the "Build Your Own" pizza activity for the specified style.
@@ -42,6 +44,17 @@ public class MainMenuActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
+    /**
+     * Handles navigation to the hidden Debug Metrics Activity.
+     *
+     * @return true to consume the long click
+     */
+    private boolean handleDebugMetrics() {
+        Intent intent = new Intent(MainMenuActivity.this, DebugMetricsActivity.class);
+        startActivity(intent);
+        return true;
+    }
+
     /**
      * Initializes the main menu activity, sets up the UI components, and defines button actions
      * for navigating to various activities like Build Your Own Pizza, Current Order,
@@ -59,11 +72,13 @@ public class MainMenuActivity extends AppCompatActivity {
         nyStyleButton = findViewById(R.id.nyStyleButton);
         ordersPlacedButton = findViewById(R.id.ordersPlacedButton);
         currentOrderButton = findViewById(R.id.currentOrderButton);
+        menuTitleLabel = findViewById(R.id.menuTitleLabel);
 
         // Set button listeners
         chicagoStyleButton.setOnClickListener(v -> openBuildYourOwnActivity("Chicago Style Pizza - Build Your Own", "Chicago"));
         nyStyleButton.setOnClickListener(v -> openBuildYourOwnActivity("NY Style Pizza - Build Your Own", "NY"));
         ordersPlacedButton.setOnClickListener(v -> handleOrderSummary());
         currentOrderButton.setOnClickListener(v -> handleOrderView());
+        menuTitleLabel.setOnLongClickListener(v -> handleDebugMetrics());
     }
 }
\ No newline at end of file
@@ -12,10 +12,12 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.pizzeria.adapters.PizzaAdapter;
+import com.example.pizzeria.checkout.Receipt;
+import com.example.pizzeria.metrics.LatencyHistogram;
+import com.example.pizzeria.metrics.MetricsRegistry;
+import com.example.pizzeria.models.LineItem;
 import com.example.pizzeria.models.Order;
-import com.example.pizzeria.models.Pizza;
-
-import java.util.ArrayList;
+import com.example.pizzeria.tasks.Task;
 
 /**
  * OrderActivity handles the user's current order. It provides functionality
@@ -36,8 +38,12 @@ import java.util.ArrayList;
  */
 public class OrderActivity extends AppCompatActivity {
 
+    private static final String TAG = "OrderActivity";
     private static final double SALES_TAX_RATE = 0.06625; // New Jersey sales tax rate
 
+    private static final LatencyHistogram PLACE_ORDER_LATENCY = MetricsRegistry.histogram("order.handlePlaceOrder");
+    private static final LatencyHistogram UPDATE_TOTALS_LATENCY = MetricsRegistry.histogram("order.updateTotals");
+
     // UI components
     private TextView orderNumberLabel;
     private RecyclerView orderRecyclerView;
@@ -115,7 +121,7 @@ public class OrderActivity extends AppCompatActivity {
      * Sets up the RecyclerView to display the list of pizzas in the current order.
      */
     private void setupRecyclerView() {
-        pizzaAdapter = new PizzaAdapter(this, new ArrayList<>(currentOrder.getPizzas()));
+        pizzaAdapter = new PizzaAdapter(this, currentOrder.getLineItems(), currentOrder.getCatalog());
         orderRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         orderRecyclerView.setAdapter(pizzaAdapter);
     }
@@ -134,10 +140,10 @@ public class OrderActivity extends AppCompatActivity {
      * Handles the removal of the selected pizza from the order.
      */
     private void handleRemovePizza() {
-        Pizza selectedPizza = pizzaAdapter.getSelectedPizza();
-        if (selectedPizza != null) {
-            currentOrder.removePizza(selectedPizza);
-            pizzaAdapter.updatePizzas(new ArrayList<>(currentOrder.getPizzas()));
+        LineItem selectedItem = pizzaAdapter.getSelectedLineItem();
+        if (selectedItem != null) {
+            currentOrder.removePizza(selectedItem.getPizza()); // One pie off the selected line
+            pizzaAdapter.updateLineItems(currentOrder.getLineItems(), currentOrder.getCatalog());
             updateTotals();
             Toast.makeText(this, "Pizza removed.", Toast.LENGTH_SHORT).show();
         } else {
@@ -150,36 +156,65 @@ public class OrderActivity extends AppCompatActivity {
      */
     private void handleClearOrder() {
         currentOrder.clearOrder();
-        pizzaAdapter.updatePizzas(new ArrayList<>(currentOrder.getPizzas()));
+        pizzaAdapter.updateLineItems(currentOrder.getLineItems(), currentOrder.getCatalog());
         updateTotals();
         Toast.makeText(this, "Order cleared.", Toast.LENGTH_SHORT).show();
     }
 
     /**
      * Handles placing the current order and resetting the UI for a new order.
+     * The order goes through the checkout pipeline in the background; the
+     * buttons are disabled until it is placed, so the order cannot change
+     * meanwhile. If checkout is busy the order is kept and can be placed
+     * again in a moment, and if an ingredient has run out the order is kept
+     * so it can be changed.
      */
     private void handlePlaceOrder() {
-        if (!currentOrder.getPizzas().isEmpty()) {
-            Log.d("OrderActivity", "Placing order: " + currentOrder.getOrderNumber());
-            for (Pizza pizza : currentOrder.getPizzas()) {
-                Log.d("OrderActivity", pizza.toString());
-            }
-
-            Intent intent = new Intent(this, OrderSummaryActivity.class);
-            intent.putExtra("order", currentOrder);
-            startActivity(intent);
-
-            GlobalData.placeCurrentOrder(); // Add current order to placed orders
-            currentOrder = GlobalData.getCurrentOrder(); // Reset to a new order
+        long start = System.nanoTime();
+        if (!currentOrder.isEmpty()) {
+            setButtonsEnabled(false);
+            Task<Receipt> task = GlobalData.checkoutCurrentOrder(this, receipt -> {
+                setButtonsEnabled(true);
+                Intent intent = new Intent(this, OrderSummaryActivity.class);
+                // The summary looks the order up by number, so it keeps its pinned prices
+                intent.putExtra(OrderSummaryActivity.EXTRA_ORDER_NUMBER, receipt.getOrder().getOrderNumber());
+                startActivity(intent);
 
-            pizzaAdapter.updatePizzas(new ArrayList<>(currentOrder.getPizzas()));
-            updateOrderNumber();
-            updateTotals();
+                currentOrder = GlobalData.getCurrentOrder(); // Reset to a new order
+                pizzaAdapter.updateLineItems(currentOrder.getLineItems(), currentOrder.getCatalog());
+                updateOrderNumber();
+                updateTotals();
 
-            Toast.makeText(this, "Order placed successfully!", Toast.LENGTH_SHORT).show();
+                Toast.makeText(this, "Order placed successfully!", Toast.LENGTH_SHORT).show();
+            }, e -> {
+                setButtonsEnabled(true);
+                if (e instanceof IllegalStateException) {
+                    showAlert("Order Not Placed", e.getMessage());
+                } else {
+                    showAlert("Error", "Failed to place the order.");
+                    Log.w(TAG, "Could not place the order", e);
+                }
+            });
+            if (task == null) {
+                setButtonsEnabled(true);
+                Toast.makeText(this, "Checkout is busy, please try again in a moment.", Toast.LENGTH_SHORT).show();
+            }
         } else {
             showAlert("Order is Empty", "Cannot place an empty order.");
         }
+
+        PLACE_ORDER_LATENCY.recordSince(start);
+    }
+
+    /**
+     * Enables or disables the buttons that change the order.
+     *
+     * @param enabled whether the buttons are enabled
+     */
+    private void setButtonsEnabled(boolean enabled) {
+        removePizzaButton.setEnabled(enabled);
+        clearOrderButton.setEnabled(enabled);
+        placeOrderButton.setEnabled(enabled);
     }
 
     /**
@@ -193,6 +228,7 @@ public class OrderActivity extends AppCompatActivity {
      * Updates the subtotal, sales tax, and total labels based on the current order.
      */
     private void updateTotals() {
+        long start = System.nanoTime();
         double subtotal = currentOrder.calculateTotal();
         double salesTax = subtotal * SALES_TAX_RATE;
         double total = subtotal + salesTax;
@@ -200,6 +236,8 @@ public class OrderActivity extends AppCompatActivity {
         subtotalLabel.setText(String.format("$%.2f", subtotal));
         salesTaxLabel.setText(String.format("$%.2f", salesTax));
         orderTotalLabel.setText(String.format("$%.2f", total));
+
+        UPDATE_TOTALS_LATENCY.recordSince(start);
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.example.pizzeria;
 
 import android.content.Context;
+import android.database.SQLException;
 import android.os.Bundle;
 import android.view.MenuItem;
 import android.widget.ArrayAdapter;
@@ -14,40 +15,74 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.pizzeria.history.OrderDatabase;
+import com.example.pizzeria.history.OrderExporter;
+import com.example.pizzeria.history.OrderHistory;
+import com.example.pizzeria.history.OrderHistoryRow;
+import com.example.pizzeria.history.OrderImporter;
+import com.example.pizzeria.metrics.LatencyHistogram;
+import com.example.pizzeria.metrics.MetricsRegistry;
+import com.example.pizzeria.models.LineItem;
 import com.example.pizzeria.models.Order;
-import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.store.OrderStores;
+import com.example.pizzeria.tasks.BackgroundExecutors;
 
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * OrderSummaryActivity displays a summary of all placed orders.
  * Users can:
- * - View order details for selected orders.
+ * - View order details for selected orders. The order named by
+ *   EXTRA_ORDER_NUMBER, such as the one just placed, is selected first.
  * - Cancel a specific order.
- * - Export all orders to a text file.
+ * - Export new orders and cancellations to text files.
+ * - Import orders exported by another device.
  *
  * This activity retrieves data from a global data source and updates the UI dynamically.
  * It includes a Spinner for order selection, a ListView for displaying order details,
  * and buttons for order management.
  *
- * File export functionality allows saving order summaries to a text file.
+ * When the order history database is installed, the Spinner lists the store's
+ * full history, newest first, one page at a time: selecting the last loaded
+ * order fetches the next page in the background. Orders placed in
+ * earlier sessions are loaded from the database when selected.
+ *
+ * Export is incremental: each press appends only the orders placed and
+ * canceled since the last export, as new segment files listed in a
+ * manifest; see OrderExporter. Import reads such an export placed in the
+ * app's imports directory and adds the orders this device does not have;
+ * see OrderImporter.
+ *
+ * Database access, cancellation, export and import run on the BackgroundExecutors,
+ * and their results are dropped if the screen is closed first.
  *
  * @author You
  */
 public class OrderSummaryActivity extends AppCompatActivity {
 
+    /** Intent extra with the number of an order to select when the screen opens. */
+    public static final String EXTRA_ORDER_NUMBER = "orderNumber";
+
+    private static final LatencyHistogram EXPORT_LATENCY = MetricsRegistry.histogram("orderSummary.handleExportOrders");
+    private static final LatencyHistogram IMPORT_LATENCY = MetricsRegistry.histogram("orderSummary.handleImportOrders");
+    private static final int PAGE_SIZE = 50; // Orders per history page
+
     // UI Components
     private Spinner orderNumberDropdown;
     private ListView orderDetailsListView;
     private TextView orderTotalLabel;
-    private Button cancelOrderButton, exportOrdersButton;
+    private Button cancelOrderButton, exportOrdersButton, importOrdersButton;
 
     // Data Models
     private List<Order> orders;
     private List<Integer> orderNumbers;
+    private OrderDatabase history;          // Null when the history is not installed
+    private OrderHistoryRow lastRow;        // Last row of the last loaded page
+    private boolean moreHistory;            // Whether another page may follow
+    private boolean loadingPage;
+    private int requestedOrderNumber;       // Order to select once listed, 0 for none
 
     /**
      * Initializes the activity, sets up the UI components, and populates order data.
@@ -71,10 +106,12 @@ public class OrderSummaryActivity extends AppCompatActivity {
         initializeUIComponents();
 
         // Initialize data
+        requestedOrderNumber = getIntent().getIntExtra(EXTRA_ORDER_NUMBER, 0);
         initializeData();
 
         // Set up dropdown
         setupOrderDropdown();
+        selectRequestedOrder();
 
         // Set button listeners
         setupButtonListeners();
@@ -104,15 +141,24 @@ public class OrderSummaryActivity extends AppCompatActivity {
         orderTotalLabel = findViewById(R.id.orderTotalLabel);
         cancelOrderButton = findViewById(R.id.cancelOrderButton);
         exportOrdersButton = findViewById(R.id.exportOrdersButton);
+        importOrdersButton = findViewById(R.id.importOrdersButton);
     }
 
     /**
      * Initializes order data from the global data source.
-     * Retrieves placed orders and populates a list of order numbers for the dropdown menu.
+     * Retrieves placed orders and populates a list of order numbers for the dropdown menu,
+     * from the order history when it is installed.
      */
     private void initializeData() {
         orders = GlobalData.getPlacedOrders(); // Retrieve placed orders from the global data source
         orderNumbers = new ArrayList<>();
+        history = OrderHistory.getDatabase();
+
+        if (history != null) {
+            moreHistory = true;
+            loadNextPage();
+            return;
+        }
 
         for (Order order : orders) {
             orderNumbers.add(order.getOrderNumber());
@@ -123,6 +169,64 @@ public class OrderSummaryActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Loads the next page of the order history on the I/O executor and
+     * appends it to the dropdown. The writer is flushed first so the page
+     * includes orders placed moments ago.
+     */
+    private void loadNextPage() {
+        if (loadingPage || !moreHistory) {
+            return;
+        }
+        loadingPage = true;
+        OrderHistoryRow after = lastRow;
+        BackgroundExecutors.io().submit(this, () -> {
+            try {
+                OrderHistory.flush();
+                return history.loadPage(OrderStores.DEFAULT_STORE_ID, after, PAGE_SIZE);
+            } catch (InterruptedException | SQLException e) {
+                return Collections.<OrderHistoryRow>emptyList();
+            }
+        }, this::showPage);
+    }
+
+    /**
+     * Appends a loaded page to the dropdown, keeping the current selection.
+     *
+     * @param page the rows of the page
+     */
+    private void showPage(List<OrderHistoryRow> page) {
+        loadingPage = false;
+        moreHistory = page.size() == PAGE_SIZE;
+        if (page.isEmpty()) {
+            if (orderNumbers.isEmpty()) {
+                Toast.makeText(this, "No orders available.", Toast.LENGTH_SHORT).show();
+            }
+            return;
+        }
+        lastRow = page.get(page.size() - 1);
+        int selected = orderNumberDropdown.getSelectedItemPosition();
+        for (OrderHistoryRow row : page) {
+            orderNumbers.add(row.getOrderNumber());
+        }
+        setupOrderDropdown();
+        if (selected > 0) {
+            orderNumberDropdown.setSelection(selected);
+        }
+        selectRequestedOrder();
+    }
+
+    /**
+     * Selects the order the screen was opened for, once it is listed.
+     */
+    private void selectRequestedOrder() {
+        int position = orderNumbers.indexOf(requestedOrderNumber);
+        if (position >= 0) {
+            orderNumberDropdown.setSelection(position);
+            requestedOrderNumber = 0;
+        }
+    }
+
     /**
      * Sets up the Spinner dropdown menu with order numbers.
      */
@@ -136,6 +240,9 @@ public class OrderSummaryActivity extends AppCompatActivity {
             @Override
             public void onItemSelected(android.widget.AdapterView<?> parent, android.view.View view, int position, long id) {
                 handleOrderSelection(orderNumbers.get(position));
+                if (history != null && position == orderNumbers.size() - 1) {
+                    loadNextPage();
+                }
             }
 
             @Override
@@ -146,45 +253,69 @@ public class OrderSummaryActivity extends AppCompatActivity {
     }
 
     /**
-     * Sets up button listeners for canceling orders and exporting order summaries.
+     * Sets up button listeners for canceling orders and exporting and importing order summaries.
      */
     private void setupButtonListeners() {
         cancelOrderButton.setOnClickListener(v -> handleCancelOrder());
         exportOrdersButton.setOnClickListener(v -> handleExportOrders());
+        importOrdersButton.setOnClickListener(v -> handleImportOrders());
     }
 
     /**
      * Handles the selection of an order from the dropdown menu.
      * Displays the order's details in the ListView and updates the total amount with tax.
+     * Orders not placed in this session are loaded from the history on the I/O executor.
      *
      * @param orderNumber The selected order's number
      */
     private void handleOrderSelection(int orderNumber) {
         Order selectedOrder = findOrderByNumber(orderNumber);
         if (selectedOrder != null) {
-            // Convert pizzas to a string list for the ListView
-            List<String> pizzaDescriptions = new ArrayList<>();
-            for (Pizza pizza : selectedOrder.getPizzas()) {
-                pizzaDescriptions.add(pizza.toString());
-            }
+            showOrder(selectedOrder);
+        } else if (history != null) {
+            BackgroundExecutors.io().submit(this, () -> {
+                try {
+                    return history.loadOrder(OrderStores.DEFAULT_STORE_ID, orderNumber);
+                } catch (SQLException e) {
+                    return null;
+                }
+            }, loaded -> {
+                Integer current = (Integer) orderNumberDropdown.getSelectedItem();
+                if (loaded != null && current != null && current == orderNumber) {
+                    showOrder(loaded);
+                }
+            });
+        }
+    }
 
-            // Set up the ListView adapter
-            ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                    this,
-                    android.R.layout.simple_list_item_1,
-                    pizzaDescriptions
-            );
-            orderDetailsListView.setAdapter(adapter);
-
-            // Update the total with tax
-            double totalWithTax = selectedOrder.calculateTotalWithTax();
-            orderTotalLabel.setText(String.format("Order Total: $%.2f", totalWithTax));
+    /**
+     * Displays an order's pizzas in the ListView and its total with tax.
+     *
+     * @param order the order to show
+     */
+    private void showOrder(Order order) {
+        // Convert line items to a string list for the ListView
+        List<String> pizzaDescriptions = new ArrayList<>();
+        for (LineItem item : order.getLineItems()) {
+            pizzaDescriptions.add(item.toString(order.getCatalog()));
         }
+
+        // Set up the ListView adapter
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_list_item_1,
+                pizzaDescriptions
+        );
+        orderDetailsListView.setAdapter(adapter);
+
+        // Update the total with tax
+        double totalWithTax = order.calculateTotalWithTax();
+        orderTotalLabel.setText(String.format("Order Total: $%.2f", totalWithTax));
     }
 
     /**
      * Handles the cancellation of the selected order.
-     * Removes the order from the global data and updates the UI.
+     * Removes the order from the global data in the background and updates the UI.
      */
     private void handleCancelOrder() {
         Integer selectedOrderNumber = (Integer) orderNumberDropdown.getSelectedItem();
@@ -194,8 +325,13 @@ public class OrderSummaryActivity extends AppCompatActivity {
         }
 
         Order orderToRemove = findOrderByNumber(selectedOrderNumber);
-        if (orderToRemove != null) {
-            orders.remove(orderToRemove);
+        if (orderToRemove != null || history != null) {
+            if (orderToRemove != null) {
+                GlobalData.removePlacedOrder(this, orderToRemove, removed -> {});
+                orders.remove(orderToRemove);
+            } else {
+                cancelStoredOrder(selectedOrderNumber);
+            }
             orderNumbers.remove(selectedOrderNumber);
 
             Toast.makeText(this, "Order " + selectedOrderNumber + " canceled.", Toast.LENGTH_SHORT).show();
@@ -211,28 +347,91 @@ public class OrderSummaryActivity extends AppCompatActivity {
     }
 
     /**
-     * Handles the export of all orders to a text file in the app's internal storage.
+     * Cancels an order from an earlier session, which is only in the order
+     * history. The cancellation goes through the store's journal so the
+     * history, the order index and the order columns all drop it, and it is
+     * written even if the screen is closed first.
+     *
+     * @param orderNumber the order number
+     */
+    private void cancelStoredOrder(int orderNumber) {
+        GlobalData.cancelOrder(this, orderNumber, removed -> {});
+    }
+
+    /**
+     * Handles the export of new orders and cancellations to segment files in
+     * the app's internal storage. The history writer is flushed first so the
+     * export includes orders placed moments ago. Exports run one at a time on
+     * the serial executor for the export directory.
      */
     private void handleExportOrders() {
-        if (orders.isEmpty()) {
-            showAlert("No Orders", "There are no orders to export.");
+        OrderExporter exporter = OrderHistory.getExporter();
+        if (exporter == null) {
+            showAlert("Error", "The order history is not available for export.");
             return;
         }
 
-        try (FileWriter writer = new FileWriter(getFilesDir() + "/orders.txt")) {
-            for (Order order : orders) {
-                writer.write("Order Number: " + order.getOrderNumber() + "\n");
-                for (Pizza pizza : order.getPizzas()) {
-                    writer.write(pizza.toString() + "\n");
-                }
-                writer.write(String.format("Total with Tax: $%.2f\n", order.calculateTotalWithTax()));
-                writer.write("\n");
+        exportOrdersButton.setEnabled(false);
+        BackgroundExecutors.serial("OrderExport").submitWrite(this, () -> {
+            long start = System.nanoTime();
+            try {
+                OrderHistory.flush();
+                return exporter.export();
+            } finally {
+                EXPORT_LATENCY.recordSince(start);
             }
-            Toast.makeText(this, "Orders exported to " + getFilesDir() + "/orders.txt", Toast.LENGTH_LONG).show();
-        } catch (IOException e) {
+        }, report -> {
+            exportOrdersButton.setEnabled(true);
+            if (report.isEmpty()) {
+                showAlert("No New Orders", "There are no new orders to export.");
+            } else {
+                Toast.makeText(this, report + " to " + report.getDirectory(), Toast.LENGTH_LONG).show();
+            }
+        }, e -> {
+            exportOrdersButton.setEnabled(true);
             showAlert("Error", "Failed to export orders.");
             e.printStackTrace();
+        });
+    }
+
+    /**
+     * Handles the import of an export from another device placed in the
+     * app's imports directory. The history writer is flushed first so orders
+     * placed moments ago are recognized as present. Imports run one at a
+     * time, and never alongside an export, on the export's serial executor.
+     * The dropdown is reloaded afterwards.
+     */
+    private void handleImportOrders() {
+        OrderImporter importer = OrderHistory.getImporter();
+        if (importer == null) {
+            showAlert("Error", "The order history is not available for import.");
+            return;
         }
+
+        importOrdersButton.setEnabled(false);
+        BackgroundExecutors.serial("OrderExport").submitWrite(this, () -> {
+            long start = System.nanoTime();
+            try {
+                OrderHistory.flush();
+                return importer.importFrom(OrderHistory.getImportDirectory());
+            } finally {
+                IMPORT_LATENCY.recordSince(start);
+            }
+        }, report -> {
+            importOrdersButton.setEnabled(true);
+            if (report.isEmpty()) {
+                showAlert("No New Orders", "There are no new orders to import.");
+                return;
+            }
+            Toast.makeText(this, report.toString(), Toast.LENGTH_LONG).show();
+            lastRow = null;
+            initializeData();
+            setupOrderDropdown();
+        }, e -> {
+            importOrdersButton.setEnabled(true);
+            showAlert("Error", "Failed to import orders from " + OrderHistory.getImportDirectory() + ".");
+            e.printStackTrace();
+        });
     }
 
     /**
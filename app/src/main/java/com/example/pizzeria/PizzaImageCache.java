@@ -0,0 +1,109 @@
+package com.example.pizzeria;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PizzaImageCache is a utility class that keeps decoded pizza images in memory
+ * so the builder screen does not decode a large PNG on the main thread every
+ * time the pizza type or style changes.
+ *
+ * Images are looked up by drawable name (e.g., "img_deluxe_chicago"). Resource
+ * id lookups are memoized as well, since getIdentifier is a reflective search.
+ * The cache is filled ahead of time by the startup WarmupInitializer.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class PizzaImageCache {
+
+    // All pizza image names, as "img_<type>_<style>"
+    private static final String[] PIZZA_TYPES = {"buildyourown", "bbqchicken", "deluxe", "meatzza"};
+    private static final String[] STYLES = {"chicago", "ny"};
+
+    // Use up to an eighth of the heap for decoded images, sized in kilobytes
+    private static final int CACHE_SIZE_KB = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+
+    private static final LruCache<String, Bitmap> bitmaps = new LruCache<String, Bitmap>(CACHE_SIZE_KB) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getByteCount() / 1024;
+        }
+    };
+
+    private static final Map<String, Integer> resourceIds = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation of the PizzaImageCache class.
+     */
+    private PizzaImageCache() {}
+
+    /**
+     * Gets a pizza image only if it is already decoded. Never decodes, so it
+     * is safe to call on the main thread.
+     *
+     * @param imageName the drawable name (e.g., "img_deluxe_chicago")
+     * @return the cached bitmap, or null if it has not been decoded yet
+     */
+    public static Bitmap peek(String imageName) {
+        return bitmaps.get(imageName);
+    }
+
+    /**
+     * Gets a decoded pizza image, decoding and caching it on a miss.
+     * Decoding is slow; call it off the main thread.
+     *
+     * @param context   a context used to resolve the drawable
+     * @param imageName the drawable name (e.g., "img_deluxe_chicago")
+     * @return the decoded bitmap, or null if no such drawable exists
+     */
+    public static Bitmap load(Context context, String imageName) {
+        Bitmap bitmap = bitmaps.get(imageName);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        int resId = getResourceId(context, imageName);
+        if (resId == 0) {
+            return null;
+        }
+        bitmap = BitmapFactory.decodeResource(context.getResources(), resId);
+        if (bitmap != null) {
+            bitmaps.put(imageName, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Decodes every pizza image into the cache. Intended to run on a background thread.
+     *
+     * @param context a context used to resolve the drawables
+     */
+    public static void warmUp(Context context) {
+        for (String type : PIZZA_TYPES) {
+            for (String style : STYLES) {
+                load(context, "img_" + type + "_" + style);
+            }
+        }
+    }
+
+    /**
+     * Resolves a drawable name to its resource id, memoizing the result.
+     *
+     * @param context   a context used to resolve the drawable
+     * @param imageName the drawable name
+     * @return the resource id, or 0 if no such drawable exists
+     */
+    private static int getResourceId(Context context, String imageName) {
+        Integer cached = resourceIds.get(imageName);
+        if (cached != null) {
+            return cached;
+        }
+        int resId = context.getResources().getIdentifier(imageName, "drawable", context.getPackageName());
+        resourceIds.put(imageName, resId);
+        return resId;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.pizzeria;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.pizzeria.history.OrderHistory;
+import com.example.pizzeria.intake.OrderIntakeServer;
+import com.example.pizzeria.metrics.MainThreadWatchdog;
+import com.example.pizzeria.store.FileHighWaterMark;
+import com.example.pizzeria.store.OrderNumberAllocator;
+import com.example.pizzeria.store.OrderStores;
+import com.example.pizzeria.store.StateSnapshots;
+import com.example.pizzeria.tasks.BackgroundExecutors;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+
+/**
+ * Application class for the Pizzeria Android application.
+ * Installs process-wide services before any activity is created, and
+ * snapshots the order stores whenever an activity stops so the cart and
+ * recent orders survive the process being killed.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class PizzeriaApplication extends Application implements Application.ActivityLifecycleCallbacks {
+
+    private static final String TAG = "PizzeriaApplication";
+
+    private OrderIntakeServer intakeServer;     // Set once the intake starts, if it does
+    private boolean intakeStopped;              // Keeps a start still in progress from serving
+
+    /**
+     * Called when the application process starts.
+     * Installs the main-thread watchdog in debug builds, or in a release build
+     * that opts in, since the Looper builds a log line for every message it
+     * times. Persists each store's order-number high-water mark in internal
+     * storage so numbers are never reissued after a restart, enables state snapshots
+     * and starts restoring the default store in the background, starts recording every placed order in the order history database and,
+     * if the build opts in, starts taking orders from the local network.
+     */
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        if (BuildConfig.MAIN_THREAD_WATCHDOG) {
+            MainThreadWatchdog.install(this);
+        }
+        File filesDir = getFilesDir();
+        OrderStores.setAllocatorFactory(storeId -> new OrderNumberAllocator(
+                new FileHighWaterMark(new File(filesDir, "order_numbers_" + storeId + ".hwm"))));
+        StateSnapshots.setDirectory(filesDir);
+        StateSnapshots.restoreInBackground(OrderStores.DEFAULT_STORE_ID);
+        OrderHistory.install(this);
+        if (BuildConfig.ORDER_INTAKE) {
+            startOrderIntake();
+        }
+        registerActivityLifecycleCallbacks(this);
+    }
+
+    /**
+     * Starts the order intake server on the configured address, placing
+     * its orders through GlobalData so they are counted with the rest.
+     * It is not started without a token.
+     */
+    private void startOrderIntake() {
+        if (BuildConfig.ORDER_INTAKE_TOKEN.isEmpty()) {
+            Log.w(TAG, "Order intake needs -Ppizzeria.intakeToken; orders can only be taken on this device");
+            return;
+        }
+        BackgroundExecutors.io().execute(() -> {
+            try {
+                // Resolving the address may touch the network, so it happens here too
+                InetAddress address = InetAddress.getByName(BuildConfig.ORDER_INTAKE_ADDRESS);
+                OrderIntakeServer server = new OrderIntakeServer(OrderStores.defaultPartition(),
+                        GlobalData::placeOrders, address, OrderIntakeServer.DEFAULT_PORT,
+                        BuildConfig.ORDER_INTAKE_TOKEN);
+                synchronized (this) {
+                    if (intakeStopped) {
+                        return;
+                    }
+                    server.start();
+                    intakeServer = server;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                Log.w(TAG, "Orders can only be taken on this device", e);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the port the order intake server listens on.
+     *
+     * @return the port, or -1 if the intake is not running
+     */
+    public synchronized int getIntakePort() {
+        return intakeServer != null ? intakeServer.getPort() : -1;
+    }
+
+    /**
+     * Stops the order intake server and closes its connections. An intake
+     * still starting does not start. Orders already placed are kept.
+     */
+    public synchronized void stopOrderIntake() {
+        intakeStopped = true;
+        if (intakeServer != null) {
+            intakeServer.stop();
+            intakeServer = null;
+        }
+    }
+
+    /**
+     * Stops the order intake server. Only called in emulated processes;
+     * on a device the server goes with the process.
+     */
+    @Override
+    public void onTerminate() {
+        stopOrderIntake();
+        super.onTerminate();
+    }
+
+    /**
+     * Queues a snapshot of the order stores. This may be the last callback
+     * before the process is killed in the background.
+     *
+     * @param activity the stopped activity
+     */
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+        StateSnapshots.saveAll();
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {}
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {}
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {}
+}
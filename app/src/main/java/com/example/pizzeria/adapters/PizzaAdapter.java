@@ -8,13 +8,17 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.pizzeria.R;
-import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.MenuCatalog;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Adapter class for managing the display of pizza items in a RecyclerView.
+ * Each row is one line item of the order, so identical pizzas share a row
+ * showing their quantity. Lines are priced against the catalog of their
+ * order.
  * Handles item selection and dynamically updates the data in the RecyclerView.
  *
  * @author Yousef Naam, Lukas Chang
@@ -27,9 +31,14 @@ public class PizzaAdapter extends RecyclerView.Adapter<PizzaAdapter.PizzaViewHol
     private final Context context;
 
     /**
-     * List of pizzas to display.
+     * List of line items to display.
      */
-    private final List<Pizza> pizzas;
+    private final List<LineItem> items;
+
+    /**
+     * Catalog the order of the line items is priced against.
+     */
+    private MenuCatalog catalog;
 
     /**
      * Position of the currently selected item.
@@ -40,34 +49,41 @@ public class PizzaAdapter extends RecyclerView.Adapter<PizzaAdapter.PizzaViewHol
      * Constructor for the PizzaAdapter.
      *
      * @param context the context used for inflating views
-     * @param pizzas the initial list of pizzas to display
+     * @param items   the initial list of line items to display
+     * @param catalog the catalog their order is priced against
      */
-    public PizzaAdapter(Context context, List<Pizza> pizzas) {
+    public PizzaAdapter(Context context, List<LineItem> items, MenuCatalog catalog) {
         this.context = context;
-        this.pizzas = (pizzas != null) ? pizzas : new ArrayList<>();
+        this.items = (items != null) ? items : new ArrayList<>();
+        this.catalog = catalog;
     }
 
     /**
-     * Gets the currently selected pizza.
+     * Gets the currently selected line item.
      *
-     * @return the selected Pizza object, or null if none is selected
+     * @return the selected LineItem, or null if none is selected
      */
-    public Pizza getSelectedPizza() {
-        if (selectedPosition >= 0 && selectedPosition < pizzas.size()) {
-            return pizzas.get(selectedPosition);
+    public LineItem getSelectedLineItem() {
+        if (selectedPosition >= 0 && selectedPosition < items.size()) {
+            return items.get(selectedPosition);
         }
         return null;
     }
 
     /**
-     * Updates the list of pizzas and refreshes the RecyclerView.
+     * Updates the list of line items and refreshes the RecyclerView.
      *
-     * @param newPizzas the updated list of pizzas
+     * @param newItems the updated list of line items
+     * @param catalog  the catalog their order is priced against
      */
-    public void updatePizzas(List<Pizza> newPizzas) {
-        pizzas.clear();
-        if (newPizzas != null) {
-            pizzas.addAll(newPizzas);
+    public void updateLineItems(List<LineItem> newItems, MenuCatalog catalog) {
+        this.catalog = catalog;
+        items.clear();
+        if (newItems != null) {
+            items.addAll(newItems);
+        }
+        if (selectedPosition >= items.size()) {
+            selectedPosition = RecyclerView.NO_POSITION;
         }
         notifyDataSetChanged();
     }
@@ -81,8 +97,8 @@ public class PizzaAdapter extends RecyclerView.Adapter<PizzaAdapter.PizzaViewHol
 
     @Override
     public void onBindViewHolder(@NonNull PizzaViewHolder holder, int position) {
-        Pizza pizza = pizzas.get(position);
-        holder.pizzaDetails.setText(pizza.toString());
+        LineItem item = items.get(position);
+        holder.pizzaDetails.setText(item.toString(catalog));
 
         // Highlight the selected item
         holder.itemView.setSelected(position == selectedPosition);
@@ -98,7 +114,7 @@ public class PizzaAdapter extends RecyclerView.Adapter<PizzaAdapter.PizzaViewHol
 
     @Override
     public int getItemCount() {
-        return pizzas.size();
+        return items.size();
     }
 
     /**
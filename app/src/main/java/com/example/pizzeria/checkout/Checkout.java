@@ -0,0 +1,42 @@
+package com.example.pizzeria.checkout;
+
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.tasks.Task;
+
+/**
+ * One order on its way through the CheckoutPipeline, with what the stages
+ * have worked out for it so far. Each stage hands it to the next, so only
+ * one thread touches it at a time.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+final class Checkout {
+
+    final Order order;
+    final Task<Receipt> task;
+
+    long subtotalCents;     // Set by the pricing stage
+    long taxCents;
+    boolean failed;
+
+    /**
+     * Constructs a checkout.
+     *
+     * @param order the order to place
+     * @param task  the task the outcome is delivered through
+     */
+    Checkout(Order order, Task<Receipt> task) {
+        this.order = order;
+        this.task = task;
+    }
+
+    /**
+     * Stops the checkout and reports why. Later stages skip it.
+     *
+     * @param e the reason
+     */
+    void fail(Exception e) {
+        failed = true;
+        task.fail(e);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.pizzeria.checkout;
+
+import android.util.Log;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.pizzeria.metrics.Counter;
+import com.example.pizzeria.metrics.MetricsRegistry;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.store.Inventory;
+import com.example.pizzeria.store.StorePartition;
+import com.example.pizzeria.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Places orders through five stages, each on its own thread and connected
+ * by bounded queues:
+ * 1. validate: the order has pizzas, is not placed yet and its ingredients
+ *    are in stock
+ * 2. price: the subtotal and sales tax are worked out
+ * 3. persist: the orders are placed in the store as one batch, reserving
+ *    their ingredients
+ * 4. dispatch: the order is sent to the kitchen
+ * 5. receipt: the receipt is rendered and the result delivered
+ *
+ * Under load each stage takes whatever has queued up for it as one batch;
+ * see CheckoutStage. When the intake queue is full, submit turns the order
+ * away at once rather than waiting, so the screen can show that checkout is
+ * busy and never blocks the main thread.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class CheckoutPipeline {
+
+    /** Most checkouts waiting at each stage. */
+    public static final int QUEUE_CAPACITY = 64;
+
+    private static final String TAG = "CheckoutPipeline";
+    private static final int MAX_BATCH = 32;    // Most checkouts a stage processes together
+
+    private final StorePartition store;
+    private final KitchenDispatcher kitchen;
+    private final Consumer<Order> onPersisted;
+    private final CheckoutStage validate;      // The intake
+    private final CheckoutStage[] stages;
+    private final Counter busy = MetricsRegistry.counter("checkout.busy");
+    private volatile boolean started;
+
+    /**
+     * Constructs a pipeline. Its threads start with the first checkout.
+     *
+     * @param store       the store orders are placed in
+     * @param kitchen     receives the placed orders
+     * @param onPersisted called on the persist thread with each order once it is placed, e.g. to count it
+     */
+    public CheckoutPipeline(StorePartition store, KitchenDispatcher kitchen, Consumer<Order> onPersisted) {
+        this.store = store;
+        this.kitchen = kitchen;
+        this.onPersisted = onPersisted;
+        this.validate = stage("validate", this::validate);
+        CheckoutStage price = stage("price", this::price);
+        CheckoutStage persist = stage("persist", this::persist);
+        CheckoutStage dispatch = stage("dispatch", this::dispatch);
+        CheckoutStage receipt = stage("receipt", this::renderReceipts);
+        validate.setNext(price);
+        price.setNext(persist);
+        persist.setNext(dispatch);
+        dispatch.setNext(receipt);
+        stages = new CheckoutStage[] {validate, price, persist, dispatch, receipt};
+    }
+
+    /**
+     * Queues a copy of an order for checkout, so the pipeline never shares
+     * the order with the screen: changes made to it after this call are not
+     * placed. If the order is the store's cart, the store starts a new cart
+     * once the copy is placed, and the cart stays as it is if the copy is not.
+     * Must be called on the main thread.
+     *
+     * @param owner    the screen placing the order; null to always deliver
+     * @param order    the order, which may be the store's cart
+     * @param onPlaced receives the receipt, whose order is the placed copy, on the main thread
+     * @param onError  receives the reason the order was not placed, on the main thread; an
+     *                 IllegalStateException if it was empty, already placed or out of stock
+     * @return the task, or null if checkout is busy and the order was not queued
+     */
+    public Task<Receipt> submit(LifecycleOwner owner, Order order, Consumer<Receipt> onPlaced,
+                                Consumer<Exception> onError) {
+        start();
+        Task<Receipt> task = Task.awaiting(owner, onPlaced, onError);
+        if (!validate.offer(new Checkout(order.copy(), task))) {
+            task.cancel();
+            busy.increment();
+            return null;
+        }
+        return task;
+    }
+
+    /**
+     * Checks whether a checkout submitted now would be turned away.
+     *
+     * @return true if the intake queue is full
+     */
+    public boolean isBusy() {
+        return validate.isFull();
+    }
+
+    /**
+     * Retrieves the number of checkouts waiting at every stage.
+     *
+     * @return the total queue length
+     */
+    public int getBacklog() {
+        int backlog = 0;
+        for (CheckoutStage stage : stages) {
+            backlog += stage.getBacklog();
+        }
+        return backlog;
+    }
+
+    /**
+     * Starts the stage threads if they are not running yet.
+     */
+    private void start() {
+        if (started) {
+            return;
+        }
+        synchronized (this) {
+            if (!started) {
+                for (CheckoutStage stage : stages) {
+                    stage.start();
+                }
+                started = true;
+            }
+        }
+    }
+
+    /**
+     * Checks that each order can be placed. Stock is only checked here; it
+     * is reserved when the order is persisted.
+     */
+    private void validate(List<Checkout> batch) {
+        Inventory inventory = store.getInventory();
+        for (Checkout checkout : batch) {
+            Order order = checkout.order;
+            if (order.isEmpty()) {
+                checkout.fail(new IllegalStateException("Cannot place an empty order."));
+            } else if (order.isPlaced()) {
+                checkout.fail(new IllegalStateException("Order " + order.getOrderNumber() + " is already placed."));
+            } else {
+                for (LineItem item : order.getLineItems()) {
+                    PizzaSpec spec = item.getSpec();
+                    if (!inventory.isAvailable(spec.getCrust(), spec.getToppingMask())) {
+                        checkout.fail(new IllegalStateException("Some ingredients of " + item.getPizza().getType()
+                                + " are out of stock."));
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Works out each order's subtotal and sales tax.
+     */
+    private void price(List<Checkout> batch) {
+        for (Checkout checkout : batch) {
+            long subtotal = checkout.order.calculateTotalCents();
+            checkout.subtotalCents = subtotal;
+            checkout.taxCents = Math.round(checkout.order.calculateTotalWithTax() * 100) - subtotal;
+        }
+    }
+
+    /**
+     * Places the batch's orders in the store as one batch, then starts the
+     * next cart so its order number is not allocated on the main thread.
+     * Once the orders are placed nothing can fail their checkouts: errors
+     * from onPersisted or from starting the cart are logged.
+     */
+    private void persist(List<Checkout> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        Map<Order, Checkout> byOrder = new IdentityHashMap<>(batch.size());
+        for (Checkout checkout : batch) {
+            orders.add(checkout.order);
+            byOrder.put(checkout.order, checkout);
+        }
+        // Out of stock since it was validated, or its number taken by an import
+        List<Order> placed = store.placeOrders(orders, (order, e) -> byOrder.get(order).fail(e));
+        for (Order order : placed) {
+            try {
+                onPersisted.accept(order);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Could not record placed order " + order.getOrderNumber(), e);
+            }
+        }
+        try {
+            store.getCurrentOrder();
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not start the next cart", e); // The screen starts it instead
+        }
+    }
+
+    /**
+     * Sends the batch's orders to the kitchen. They are placed already, so
+     * a dispatch failure is logged rather than failing the checkout.
+     */
+    private void dispatch(List<Checkout> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (Checkout checkout : batch) {
+            orders.add(checkout.order);
+        }
+        try {
+            kitchen.dispatch(orders);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Could not send " + orders.size() + " orders to the kitchen", e);
+        }
+    }
+
+    /**
+     * Renders each receipt and delivers it.
+     */
+    private void renderReceipts(List<Checkout> batch) {
+        StringBuilder text = new StringBuilder(256);
+        for (Checkout checkout : batch) {
+            Order order = checkout.order;
+            text.setLength(0);
+            text.append("Order Number: ").append(order.getOrderNumber()).append('\n');
+            for (LineItem item : order.getLineItems()) {
+                text.append(item.toString(order.getCatalog())).append('\n');
+            }
+            if (order.getDiscount() > 0) {
+                text.append(String.format(Locale.US, "Discount: -$%.2f\n", order.getDiscount()));
+            }
+            text.append(String.format(Locale.US, "Subtotal: $%.2f\nSales Tax: $%.2f\nTotal: $%.2f",
+                    checkout.subtotalCents / 100.0, checkout.taxCents / 100.0,
+                    (checkout.subtotalCents + checkout.taxCents) / 100.0));
+            Receipt receipt = new Receipt(order, checkout.subtotalCents, checkout.taxCents, text.toString());
+            Log.d(TAG, receipt.getText());
+            checkout.task.complete(receipt);
+        }
+    }
+
+    /**
+     * Creates a stage that processes batches with the given method.
+     */
+    private static CheckoutStage stage(String name, Consumer<List<Checkout>> process) {
+        return new CheckoutStage(name, QUEUE_CAPACITY, MAX_BATCH) {
+            @Override
+            void process(List<Checkout> batch) {
+                process.accept(batch);
+            }
+        };
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.pizzeria.checkout;
+
+import android.os.Process;
+import android.util.Log;
+
+import com.example.pizzeria.metrics.Gauge;
+import com.example.pizzeria.metrics.LatencyHistogram;
+import com.example.pizzeria.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * One stage of the CheckoutPipeline: a thread of its own, fed by a bounded
+ * queue. The thread waits for the first checkout, drains whatever else has
+ * queued up behind it (up to the batch size) and processes the lot, so the
+ * busier the pipeline the larger its batches. Checkouts that did not fail
+ * are then put on the next stage's queue, waiting while it is full, so a
+ * slow stage backs the pipeline up to its intake instead of growing a queue.
+ *
+ * Every stage records, under "checkout.&lt;name&gt;":
+ * - queueDepth: a gauge of the checkouts waiting, with its maximum
+ * - batch: a histogram of the time to process a batch
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+abstract class CheckoutStage {
+
+    private static final String TAG = "CheckoutStage";
+
+    private final String name;
+    private final BlockingQueue<Checkout> queue;
+    private final int maxBatch;
+    private final Thread thread;
+    private final Gauge queueDepth;
+    private final LatencyHistogram batchLatency;
+    private CheckoutStage next;     // Null for the last stage
+
+    /**
+     * Constructs a stage. Nothing is processed until start() is called.
+     *
+     * @param name          the stage name, used for its thread and metrics
+     * @param queueCapacity the maximum number of waiting checkouts
+     * @param maxBatch      the most checkouts processed together
+     */
+    CheckoutStage(String name, int queueCapacity, int maxBatch) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_DEFAULT);
+            run();
+        }, "checkout." + name);
+        thread.setDaemon(true);
+        this.queueDepth = MetricsRegistry.gauge("checkout." + name + ".queueDepth");
+        this.batchLatency = MetricsRegistry.histogram("checkout." + name + ".batch");
+    }
+
+    /**
+     * Processes a batch. A checkout that cannot go on is failed with
+     * Checkout.fail; the others go to the next stage. If this throws, the
+     * checkouts whose orders are not placed yet are failed with the
+     * exception; the placed ones cannot be taken back and go on to the
+     * next stage, unless this is the last one.
+     *
+     * @param batch the checkouts, in the order they were queued
+     */
+    abstract void process(List<Checkout> batch);
+
+    /**
+     * Sets the stage the checkouts go to next.
+     *
+     * @param next the next stage
+     */
+    void setNext(CheckoutStage next) {
+        this.next = next;
+    }
+
+    /**
+     * Starts the stage's thread.
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues a checkout if there is room. Never blocks.
+     *
+     * @param checkout the checkout
+     * @return false if the queue is full
+     */
+    boolean offer(Checkout checkout) {
+        queueDepth.increment();
+        if (queue.offer(checkout)) {
+            return true;
+        }
+        queueDepth.decrement();
+        return false;
+    }
+
+    /**
+     * Queues a checkout, waiting for room.
+     *
+     * @param checkout the checkout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void put(Checkout checkout) throws InterruptedException {
+        queueDepth.increment();
+        queue.put(checkout);
+    }
+
+    /**
+     * Retrieves the number of checkouts waiting for this stage.
+     *
+     * @return the queue length
+     */
+    int getBacklog() {
+        return queue.size();
+    }
+
+    /**
+     * Checks whether the queue has no room left.
+     *
+     * @return true if offer would fail
+     */
+    boolean isFull() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    /**
+     * Processes batches until the process ends.
+     */
+    private void run() {
+        List<Checkout> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            for (int i = 0; i < batch.size(); i++) {
+                queueDepth.decrement();
+            }
+            long start = System.nanoTime();
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Checkout stage " + name + " failed a batch of " + batch.size(), e);
+                for (Checkout checkout : batch) {
+                    if (!checkout.failed && (next == null || !checkout.order.isPlaced())) {
+                        checkout.fail(e);
+                    }
+                }
+            }
+            batchLatency.recordSince(start);
+            try {
+                for (Checkout checkout : batch) {
+                    if (!checkout.failed && next != null) {
+                        next.put(checkout);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+}
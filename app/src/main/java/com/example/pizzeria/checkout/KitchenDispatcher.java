@@ -0,0 +1,36 @@
+package com.example.pizzeria.checkout;
+
+import android.util.Log;
+
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+
+import java.util.List;
+
+/**
+ * Sends placed orders to the kitchen. The CheckoutPipeline calls it once
+ * per batch from its dispatch thread, so an implementation that talks to a
+ * printer or display can send the whole batch at once.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public interface KitchenDispatcher {
+
+    /** Writes each order's pizzas to the log, for stores without a kitchen display. */
+    KitchenDispatcher LOG = orders -> {
+        for (Order order : orders) {
+            StringBuilder ticket = new StringBuilder("Order ").append(order.getOrderNumber()).append(':');
+            for (LineItem item : order.getLineItems()) {
+                ticket.append("\n - ").append(item);
+            }
+            Log.i("Kitchen", ticket.toString());
+        }
+    };
+
+    /**
+     * Sends placed orders to the kitchen.
+     *
+     * @param orders the orders, in the order they were placed
+     */
+    void dispatch(List<Order> orders);
+}
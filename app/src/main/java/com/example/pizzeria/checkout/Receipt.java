@@ -0,0 +1,87 @@
+package com.example.pizzeria.checkout;
+
+import com.example.pizzeria.models.Order;
+
+/**
+ * The outcome of a checkout: the placed order, the amounts it was charged
+ * and the receipt text rendered for it.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class Receipt {
+
+    private final Order order;
+    private final long subtotalCents;
+    private final long taxCents;
+    private final String text;
+
+    /**
+     * Constructs a Receipt.
+     *
+     * @param order         the placed order
+     * @param subtotalCents the order total before tax, in cents
+     * @param taxCents      the sales tax, in cents
+     * @param text          the rendered receipt
+     */
+    Receipt(Order order, long subtotalCents, long taxCents, String text) {
+        this.order = order;
+        this.subtotalCents = subtotalCents;
+        this.taxCents = taxCents;
+        this.text = text;
+    }
+
+    /**
+     * Retrieves the placed order.
+     *
+     * @return the order
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Retrieves the order total before tax.
+     *
+     * @return the subtotal in cents
+     */
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    /**
+     * Retrieves the sales tax charged.
+     *
+     * @return the tax in cents
+     */
+    public long getTaxCents() {
+        return taxCents;
+    }
+
+    /**
+     * Retrieves the total charged, including tax.
+     *
+     * @return the total in cents
+     */
+    public long getTotalCents() {
+        return subtotalCents + taxCents;
+    }
+
+    /**
+     * Retrieves the rendered receipt.
+     *
+     * @return the receipt text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the rendered receipt.
+     *
+     * @return the receipt text
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.pizzeria.history;
+
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * The text format OrderExporter writes and OrderImporter reads, kept in
+ * one place so the two cannot drift apart.
+ *
+ * A segment is a run of blocks, each ending with a blank line. A placed
+ * order is:
+ * <pre>
+ * Order Number: 12
+ * Placed At: 2024-05-01T18:03:11Z
+ * [N x ]Type (Style), SIZE CRUST, Toppings: [A, B] | Price: $x
+ * Total with Tax: $21.31
+ * </pre>
+ * with one line per line item; the quantity prefix is left out for a
+ * single pizza and the toppings are "None" when there are none. Times are
+ * written by Instant.toString, so fractional seconds appear only when
+ * they are not zero. A cancellation is "Canceled Order Number: 12" and
+ * "Canceled At: ..." lines.
+ *
+ * A manifest line is "sequence segment_name last_order_row
+ * last_cancellation orders cancellations bytes", and the manifest starts
+ * with MANIFEST_HEADER. Lines starting with "#" are comments.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+final class ExportFormat {
+
+    static final String ORDER_NUMBER = "Order Number: ";
+    static final String PLACED_AT = "Placed At: ";
+    static final String TOTAL = "Total with Tax: ";
+    static final String CANCELED_ORDER_NUMBER = "Canceled Order Number: ";
+    static final String CANCELED_AT = "Canceled At: ";
+    static final String QUANTITY = " x ";
+    static final String TOPPINGS = ", Toppings: ";
+    static final String NO_TOPPINGS = "None";
+    static final String PRICE = " | Price: ";
+
+    static final String MANIFEST_HEADER =
+            "# sequence segment_name last_order_row last_cancellation orders cancellations bytes\n";
+
+    /**
+     * Private constructor to prevent instantiation of the ExportFormat class.
+     */
+    private ExportFormat() {}
+
+    /**
+     * Writes a placed order block. Line prices come from the order's
+     * catalog; the total is taxed from the subtotal recorded at placement.
+     *
+     * @param out           the destination
+     * @param order         the placed order
+     * @param subtotalCents the order total before tax, as recorded when it was placed
+     * @throws IOException if the order cannot be written
+     */
+    static void writeOrder(Writer out, Order order, long subtotalCents) throws IOException {
+        out.write(ORDER_NUMBER + order.getOrderNumber() + "\n");
+        out.write(PLACED_AT + Instant.ofEpochMilli(order.getPlacedAtMillis()) + "\n");
+        for (LineItem item : order.getLineItems()) {
+            Pizza pizza = item.getPizza();
+            if (item.getQuantity() > 1) {
+                out.write(item.getQuantity() + QUANTITY);
+            }
+            out.write(String.format(Locale.US, "%s (%s), %s %s%s%s%s$%.2f\n",
+                    pizza.getType(), pizza.getStyle(), pizza.getSize(), pizza.getCrust(), TOPPINGS,
+                    pizza.getToppingCount() == 0 ? NO_TOPPINGS : pizza.getToppingList().toString(),
+                    PRICE, pizza.price(order.getCatalog())));
+        }
+        out.write(String.format(Locale.US, "%s$%.2f\n", TOTAL, Order.totalWithTax(subtotalCents)));
+        out.write("\n");
+    }
+
+    /**
+     * Writes a cancellation block.
+     *
+     * @param out              the destination
+     * @param orderNumber      the canceled order's number
+     * @param canceledAtMillis when it was canceled
+     * @throws IOException if the cancellation cannot be written
+     */
+    static void writeCancellation(Writer out, int orderNumber, long canceledAtMillis) throws IOException {
+        out.write(CANCELED_ORDER_NUMBER + orderNumber + "\n");
+        out.write(CANCELED_AT + Instant.ofEpochMilli(canceledAtMillis) + "\n");
+        out.write("\n");
+    }
+
+    /**
+     * Formats a manifest line, including its newline.
+     *
+     * @return the line
+     */
+    static String manifestLine(long sequence, String segmentName, long orderRow, long cancellation,
+                               int orders, int cancellations, long bytes) {
+        return String.format(Locale.US, "%d %s %d %d %d %d %d\n",
+                sequence, segmentName, orderRow, cancellation, orders, cancellations, bytes);
+    }
+
+    /**
+     * Splits a manifest line, without its newline, into its fields.
+     *
+     * @param line the line
+     * @return the fields, or null for a blank or comment line
+     * @throws IOException if the line has fewer than the seven fields
+     */
+    static String[] manifestFields(String line) throws IOException {
+        if (line.isEmpty() || line.startsWith("#")) {
+            return null;
+        }
+        String[] fields = line.split(" ");
+        if (fields.length < 7) {
+            throw new IOException("Corrupt export manifest line: " + line);
+        }
+        return fields;
+    }
+}
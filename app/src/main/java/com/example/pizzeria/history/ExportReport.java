@@ -0,0 +1,93 @@
+package com.example.pizzeria.history;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Describes one run of the OrderExporter: how many segments it wrote and
+ * how many orders and cancellations they hold.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class ExportReport {
+
+    private final File directory;
+    private final int segments;
+    private final int orders;
+    private final int cancellations;
+    private final long bytes;
+
+    /**
+     * Constructs an ExportReport.
+     *
+     * @param directory     the export directory
+     * @param segments      the number of segments written
+     * @param orders        the number of placed orders exported
+     * @param cancellations the number of cancellations exported
+     * @param bytes         the size of the segments written
+     */
+    ExportReport(File directory, int segments, int orders, int cancellations, long bytes) {
+        this.directory = directory;
+        this.segments = segments;
+        this.orders = orders;
+        this.cancellations = cancellations;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Retrieves the export directory.
+     *
+     * @return the directory holding the manifest and segments
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Retrieves the number of segments written.
+     *
+     * @return the segment count
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Retrieves the number of placed orders exported.
+     *
+     * @return the order count
+     */
+    public int getOrders() {
+        return orders;
+    }
+
+    /**
+     * Retrieves the number of cancellations exported.
+     *
+     * @return the cancellation count
+     */
+    public int getCancellations() {
+        return cancellations;
+    }
+
+    /**
+     * Checks whether there was nothing new to export.
+     *
+     * @return true if no segment was written
+     */
+    public boolean isEmpty() {
+        return segments == 0;
+    }
+
+    /**
+     * Summarizes the export, e.g. "Exported 12 orders and 1 cancellation in 2 segments (3.4 KB)".
+     *
+     * @return a string representation of the report
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "Exported %d order%s and %d cancellation%s in %d segment%s (%.1f KB)",
+                orders, orders == 1 ? "" : "s", cancellations, cancellations == 1 ? "" : "s",
+                segments, segments == 1 ? "" : "s", bytes / 1024.0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.pizzeria.history;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Holds the results of an OrderHistoryBenchmark run: insert throughput and
+ * the latency percentiles of order lookups, page reads, index filters and
+ * column scans.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class HistoryBenchmarkReport {
+
+    private final int ordersInserted;
+    private final long insertNanos;
+    private final long[] sortedLookupNanos;
+    private final long[] sortedPageNanos;
+    private final long[] sortedFilterNanos;
+    private final long[] sortedScanNanos;
+
+    /**
+     * Constructs a HistoryBenchmarkReport. The latency arrays are sorted in place.
+     *
+     * @param ordersInserted the number of orders written
+     * @param insertNanos    the time spent in batched writes
+     * @param lookupNanos    the latency of each order lookup
+     * @param pageNanos      the latency of each page read
+     * @param filterNanos    the latency of each bitmap index filter
+     * @param scanNanos      the latency of each set of column scans
+     */
+    HistoryBenchmarkReport(int ordersInserted, long insertNanos, long[] lookupNanos, long[] pageNanos,
+                           long[] filterNanos, long[] scanNanos) {
+        this.ordersInserted = ordersInserted;
+        this.insertNanos = insertNanos;
+        Arrays.sort(lookupNanos);
+        Arrays.sort(pageNanos);
+        Arrays.sort(filterNanos);
+        Arrays.sort(scanNanos);
+        this.sortedLookupNanos = lookupNanos;
+        this.sortedPageNanos = pageNanos;
+        this.sortedFilterNanos = filterNanos;
+        this.sortedScanNanos = scanNanos;
+    }
+
+    /**
+     * Calculates the number of orders inserted per second of write time.
+     *
+     * @return the insert throughput in orders per second
+     */
+    public double getInsertsPerSecond() {
+        return insertNanos > 0 ? ordersInserted / (insertNanos / 1e9) : 0.0;
+    }
+
+    /**
+     * Retrieves an order lookup latency percentile.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in microseconds, or 0 if there were no lookups
+     */
+    public double getLookupPercentileMicros(double percentile) {
+        return percentileMicros(sortedLookupNanos, percentile);
+    }
+
+    /**
+     * Retrieves a page read latency percentile.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in microseconds, or 0 if there were no page reads
+     */
+    public double getPagePercentileMicros(double percentile) {
+        return percentileMicros(sortedPageNanos, percentile);
+    }
+
+    /**
+     * Retrieves a bitmap index filter latency percentile.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in microseconds, or 0 if there were no filters
+     */
+    public double getFilterPercentileMicros(double percentile) {
+        return percentileMicros(sortedFilterNanos, percentile);
+    }
+
+    /**
+     * Retrieves a column scan latency percentile; each sample is revenue by
+     * size, topping counts and pizzas by hour over the whole history.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in microseconds, or 0 if there were no scans
+     */
+    public double getScanPercentileMicros(double percentile) {
+        return percentileMicros(sortedScanNanos, percentile);
+    }
+
+    /**
+     * Finds a percentile of sorted latencies using the nearest-rank method.
+     */
+    private static double percentileMicros(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+        int index = Math.min(Math.max(rank - 1, 0), sortedNanos.length - 1);
+        return sortedNanos[index] / 1000.0;
+    }
+
+    /**
+     * Provides a multi-line summary of the benchmark results.
+     *
+     * @return a string representation of the report
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "Inserted: %d orders in %.2f s, %.0f orders/s%n" +
+                "Lookup (us): p50 %.1f, p99 %.1f, max %.1f%n" +
+                "Page (us): p50 %.1f, p99 %.1f, max %.1f%n" +
+                "Filter (us): p50 %.1f, p99 %.1f, max %.1f%n" +
+                "Scan (us): p50 %.1f, p99 %.1f, max %.1f",
+                ordersInserted, insertNanos / 1e9, getInsertsPerSecond(),
+                getLookupPercentileMicros(50), getLookupPercentileMicros(99), getLookupPercentileMicros(100),
+                getPagePercentileMicros(50), getPagePercentileMicros(99), getPagePercentileMicros(100),
+                getFilterPercentileMicros(50), getFilterPercentileMicros(99), getFilterPercentileMicros(100),
+                getScanPercentileMicros(50), getScanPercentileMicros(99), getScanPercentileMicros(100));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.pizzeria.history;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Describes one run of the OrderImporter: how many segments it read and
+ * how many of the orders in them were added, dropped as canceled or
+ * skipped as already present.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class ImportReport {
+
+    private final File source;
+    private final int segments;
+    private final int orders;
+    private final int canceled;
+    private final int duplicates;
+
+    /**
+     * Constructs an ImportReport.
+     *
+     * @param source     the export directory or segment imported
+     * @param segments   the number of segments read
+     * @param orders     the number of orders added to the store
+     * @param canceled   the number of orders not added because they were canceled
+     * @param duplicates the number of orders not added because the store already had them
+     */
+    ImportReport(File source, int segments, int orders, int canceled, int duplicates) {
+        this.source = source;
+        this.segments = segments;
+        this.orders = orders;
+        this.canceled = canceled;
+        this.duplicates = duplicates;
+    }
+
+    /**
+     * Retrieves the export directory or segment imported.
+     *
+     * @return the import source
+     */
+    public File getSource() {
+        return source;
+    }
+
+    /**
+     * Retrieves the number of segments read.
+     *
+     * @return the segment count
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * Retrieves the number of orders added to the store.
+     *
+     * @return the order count
+     */
+    public int getOrders() {
+        return orders;
+    }
+
+    /**
+     * Retrieves the number of orders dropped because they were canceled.
+     *
+     * @return the canceled order count
+     */
+    public int getCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Retrieves the number of orders skipped because the store already had them.
+     *
+     * @return the duplicate count
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Checks whether no order was added.
+     *
+     * @return true if nothing new was imported
+     */
+    public boolean isEmpty() {
+        return orders == 0;
+    }
+
+    /**
+     * Summarizes the import, e.g. "Imported 12 orders from 2 segments (1 canceled, 3 already present)".
+     *
+     * @return a string representation of the report
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "Imported %d order%s from %d segment%s (%d canceled, %d already present)",
+                orders, orders == 1 ? "" : "s", segments, segments == 1 ? "" : "s", canceled, duplicates);
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.pizzeria.history;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.JournalEntry;
+import com.example.pizzeria.store.JournalListener;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitmap indexes over the order numbers of one store: one RoaringBitmap per
+ * topping, pizza type, size and crust, and one per day of placement.
+ *
+ * An order is in a bitmap if any of its pizzas has that attribute, so a
+ * question such as "orders with pineapple and ham placed in the last week"
+ * is a handful of bitmap ANDs and ORs instead of a walk over every pizza:
+ *
+ *     index.find(Topping.maskOf(List.of(PINEAPPLE, HAM)), null, null, null, weekAgo, now)
+ *
+ * find() intersects the most selective bitmaps first and never copies the
+ * index; the single-attribute queries can be combined with RoaringBitmap's
+ * and, or and andNot for anything else.
+ *
+ * The index follows the store's journal: placed orders are added and
+ * canceled orders removed from every bitmap. On startup it is loaded from
+ * the order history database; orders placed or canceled while it loads
+ * are applied as well.
+ *
+ * Every query returns a new bitmap the caller may modify.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderBitmapIndex implements JournalListener {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int MERGE_BATCH = 1024;    // Smaller batches are indexed in place
+
+    private final int storeId;
+    private final ZoneId zone;                  // Days of placement are counted in this time zone
+    private final Bitmaps bitmaps = new Bitmaps();
+
+    private RoaringBitmap canceledWhileLoading; // Non-null while loadFrom runs
+
+    /**
+     * Constructs an empty index for a store. Days are counted in the
+     * device's time zone.
+     *
+     * @param storeId the store whose orders are indexed
+     */
+    public OrderBitmapIndex(int storeId) {
+        this.storeId = storeId;
+        this.zone = ZoneId.systemDefault();
+    }
+
+    /**
+     * Updates the index for a placed or canceled order of this store.
+     *
+     * @param entry the journal entry
+     * @param order the order it describes
+     */
+    @Override
+    public synchronized void onJournalEntry(JournalEntry entry, Order order) {
+        if (entry.getStoreId() != storeId) {
+            return;
+        }
+        if (entry.getKind() == JournalEntry.Kind.PLACED) {
+            add(order, entry.getTimestampMillis());
+        } else {
+            bitmaps.remove(entry.getOrderNumber());
+            if (canceledWhileLoading != null) {
+                canceledWhileLoading.add(entry.getOrderNumber());
+            }
+        }
+    }
+
+    /**
+     * Updates the index for a batch of entries, such as imported orders.
+     * Merging rewrites every bitmap, so a small batch, such as a checkout
+     * batch, is applied in place under one lock. A large one is indexed into
+     * a fresh set of bitmaps that is merged into the index once, instead of
+     * growing every bitmap order by order.
+     *
+     * @param entries the journal entries
+     * @param orders  the order each entry describes
+     */
+    @Override
+    public void onJournalEntries(List<JournalEntry> entries, List<Order> orders) {
+        if (entries.size() < MERGE_BATCH) {
+            synchronized (this) {
+                for (int i = 0; i < entries.size(); i++) {
+                    onJournalEntry(entries.get(i), orders.get(i));
+                }
+            }
+            return;
+        }
+        Bitmaps batch = new Bitmaps();
+        RoaringBitmap canceled = new RoaringBitmap();
+        for (int i = 0; i < entries.size(); i++) {
+            JournalEntry entry = entries.get(i);
+            if (entry.getStoreId() != storeId) {
+                continue;
+            }
+            if (entry.getKind() == JournalEntry.Kind.PLACED) {
+                add(batch, orders.get(i), entry.getTimestampMillis());
+            } else {
+                batch.remove(entry.getOrderNumber());
+                canceled.add(entry.getOrderNumber());
+            }
+        }
+        synchronized (this) {
+            if (!canceled.isEmpty()) {
+                bitmaps.removeAll(canceled);
+            }
+            bitmaps.addAll(batch);
+            if (canceledWhileLoading != null) {
+                canceledWhileLoading.orInPlace(canceled);
+            }
+        }
+    }
+
+    /**
+     * Indexes a placed order.
+     *
+     * @param order          the order
+     * @param placedAtMillis the wall clock time it was placed
+     */
+    public synchronized void add(Order order, long placedAtMillis) {
+        add(bitmaps, order, placedAtMillis);
+    }
+
+    /**
+     * Indexes a placed order into a set of bitmaps.
+     */
+    private void add(Bitmaps target, Order order, long placedAtMillis) {
+        int number = order.getOrderNumber();
+        long day = dayOf(placedAtMillis);
+        for (LineItem item : order.getLineItems()) {
+            Pizza pizza = item.getPizza();
+            target.add(number, day, pizza.getPizzaType().ordinal(), pizza.getSize().ordinal(),
+                    pizza.getCrust().ordinal(), pizza.getToppingMask());
+        }
+    }
+
+    /**
+     * Loads every stored order of this store that has not been canceled.
+     * Runs the query without holding the index, so live updates continue;
+     * must not be called on the main thread.
+     *
+     * @param database the order history database
+     * @throws android.database.SQLException if the history cannot be read
+     */
+    public void loadFrom(OrderDatabase database) {
+        synchronized (this) {
+            canceledWhileLoading = new RoaringBitmap();
+        }
+        Bitmaps loaded = new Bitmaps();
+        try {
+            database.scanLineItems(storeId, (orderNumber, placedAtMillis, type, size, crust, toppingMask,
+                                             priceCents, quantity) ->
+                    loaded.add(orderNumber, dayOf(placedAtMillis), type, size, crust, toppingMask));
+        } finally {
+            synchronized (this) {
+                loaded.removeAll(canceledWhileLoading);
+                bitmaps.addAll(loaded);
+                canceledWhileLoading = null;
+            }
+        }
+    }
+
+    /**
+     * Finds the orders matching every given condition.
+     *
+     * @param toppingMask toppings the order must all have, as a mask; 0 for any
+     * @param type        a pizza type the order must have, or null for any
+     * @param size        a size the order must have, or null for any
+     * @param crust       a crust the order must have, or null for any
+     * @param fromMillis  the start of the placement range, or Long.MIN_VALUE
+     * @param toMillis    the end of the placement range, or Long.MAX_VALUE;
+     *                    widened to whole days
+     * @return the matching order numbers
+     */
+    public synchronized RoaringBitmap find(int toppingMask, PizzaType type, Size size, Crust crust,
+                                           long fromMillis, long toMillis) {
+        List<RoaringBitmap> conditions = new ArrayList<>();
+        for (int mask = toppingMask; mask != 0; mask &= mask - 1) {
+            conditions.add(bitmaps.byTopping[Integer.numberOfTrailingZeros(mask)]);
+        }
+        if (type != null) {
+            conditions.add(bitmaps.byType[type.ordinal()]);
+        }
+        if (size != null) {
+            conditions.add(bitmaps.bySize[size.ordinal()]);
+        }
+        if (crust != null) {
+            conditions.add(bitmaps.byCrust[crust.ordinal()]);
+        }
+        if (fromMillis != Long.MIN_VALUE || toMillis != Long.MAX_VALUE) {
+            conditions.add(placedBetween(fromMillis, toMillis));
+        }
+        if (conditions.isEmpty()) {
+            return bitmaps.all.copy();
+        }
+
+        // Smallest first, so every later AND only has to probe the survivors
+        conditions.sort(Comparator.comparingInt(RoaringBitmap::cardinality));
+        RoaringBitmap result = conditions.get(0).copy();
+        for (int i = 1; i < conditions.size() && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, conditions.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the orders with every one of the given toppings.
+     *
+     * @param toppings the toppings, at least one
+     * @return the matching order numbers
+     * @throws IllegalArgumentException if no toppings are given
+     */
+    public synchronized RoaringBitmap withToppings(Topping... toppings) {
+        if (toppings.length == 0) {
+            throw new IllegalArgumentException("At least one topping is required.");
+        }
+        RoaringBitmap result = bitmaps.byTopping[toppings[0].ordinal()].copy();
+        for (int i = 1; i < toppings.length; i++) {
+            result = RoaringBitmap.and(result, bitmaps.byTopping[toppings[i].ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the orders with at least one of the given toppings.
+     *
+     * @param toppings the toppings
+     * @return the matching order numbers
+     */
+    public synchronized RoaringBitmap withAnyTopping(Topping... toppings) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (Topping topping : toppings) {
+            result.orInPlace(bitmaps.byTopping[topping.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the orders with a pizza of a type.
+     *
+     * @param type the pizza type
+     * @return the matching order numbers
+     */
+    public synchronized RoaringBitmap ofType(PizzaType type) {
+        return bitmaps.byType[type.ordinal()].copy();
+    }
+
+    /**
+     * Finds the orders with a pizza of a size.
+     *
+     * @param size the size
+     * @return the matching order numbers
+     */
+    public synchronized RoaringBitmap ofSize(Size size) {
+        return bitmaps.bySize[size.ordinal()].copy();
+    }
+
+    /**
+     * Finds the orders with a pizza on a crust.
+     *
+     * @param crust the crust
+     * @return the matching order numbers
+     */
+    public synchronized RoaringBitmap withCrust(Crust crust) {
+        return bitmaps.byCrust[crust.ordinal()].copy();
+    }
+
+    /**
+     * Finds the orders placed on the days between two times, inclusive.
+     * The index only knows the day of placement, so the range is widened
+     * to whole days.
+     *
+     * @param fromMillis the start of the range
+     * @param toMillis   the end of the range
+     * @return the matching order numbers
+     */
+    public synchronized RoaringBitmap placedBetween(long fromMillis, long toMillis) {
+        RoaringBitmap result = new RoaringBitmap();
+        if (fromMillis > toMillis) {
+            return result;
+        }
+        long fromDay = fromMillis == Long.MIN_VALUE ? Long.MIN_VALUE : dayOf(fromMillis);
+        long toDay = toMillis == Long.MAX_VALUE ? Long.MAX_VALUE : dayOf(toMillis);
+        for (RoaringBitmap day : bitmaps.byDay.subMap(fromDay, true, toDay, true).values()) {
+            result.orInPlace(day);
+        }
+        return result;
+    }
+
+    /**
+     * Finds every indexed order.
+     *
+     * @return all order numbers in the index
+     */
+    public synchronized RoaringBitmap all() {
+        return bitmaps.all.copy();
+    }
+
+    /**
+     * Computes the day of a time in this index's time zone.
+     */
+    private long dayOf(long millis) {
+        long offsetMillis = zone.getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds() * 1000L;
+        return Math.floorDiv(millis + offsetMillis, DAY_MILLIS);
+    }
+
+    /**
+     * One full set of bitmaps.
+     */
+    private static final class Bitmaps {
+        final RoaringBitmap all = new RoaringBitmap();
+        final RoaringBitmap[] byTopping = newBitmaps(Topping.values().length);
+        final RoaringBitmap[] byType = newBitmaps(PizzaType.values().length);
+        final RoaringBitmap[] bySize = newBitmaps(Size.values().length);
+        final RoaringBitmap[] byCrust = newBitmaps(Crust.values().length);
+        final TreeMap<Long, RoaringBitmap> byDay = new TreeMap<>();
+
+        /**
+         * Indexes one pizza of an order.
+         */
+        void add(int orderNumber, long day, int type, int size, int crust, int toppingMask) {
+            all.add(orderNumber);
+            byType[type].add(orderNumber);
+            bySize[size].add(orderNumber);
+            byCrust[crust].add(orderNumber);
+            for (int mask = toppingMask; mask != 0; mask &= mask - 1) {
+                byTopping[Integer.numberOfTrailingZeros(mask)].add(orderNumber);
+            }
+            byDay.computeIfAbsent(day, d -> new RoaringBitmap()).add(orderNumber);
+        }
+
+        /**
+         * Removes an order from every bitmap.
+         */
+        void remove(int orderNumber) {
+            if (!all.contains(orderNumber)) {
+                return;
+            }
+            all.remove(orderNumber);
+            for (RoaringBitmap[] group : new RoaringBitmap[][] {byTopping, byType, bySize, byCrust}) {
+                for (RoaringBitmap bitmap : group) {
+                    bitmap.remove(orderNumber);
+                }
+            }
+            for (RoaringBitmap day : byDay.values()) {
+                day.remove(orderNumber);
+            }
+        }
+
+        /**
+         * Removes a set of orders from every bitmap.
+         */
+        void removeAll(RoaringBitmap orderNumbers) {
+            all.andNotInPlace(orderNumbers);
+            for (RoaringBitmap[] group : new RoaringBitmap[][] {byTopping, byType, bySize, byCrust}) {
+                for (RoaringBitmap bitmap : group) {
+                    bitmap.andNotInPlace(orderNumbers);
+                }
+            }
+            for (RoaringBitmap day : byDay.values()) {
+                day.andNotInPlace(orderNumbers);
+            }
+        }
+
+        /**
+         * Adds every order of another set of bitmaps.
+         */
+        void addAll(Bitmaps other) {
+            all.orInPlace(other.all);
+            orEach(byTopping, other.byTopping);
+            orEach(byType, other.byType);
+            orEach(bySize, other.bySize);
+            orEach(byCrust, other.byCrust);
+            for (Map.Entry<Long, RoaringBitmap> day : other.byDay.entrySet()) {
+                byDay.computeIfAbsent(day.getKey(), d -> new RoaringBitmap()).orInPlace(day.getValue());
+            }
+        }
+
+        private static void orEach(RoaringBitmap[] target, RoaringBitmap[] source) {
+            for (int i = 0; i < target.length; i++) {
+                target[i].orInPlace(source[i]);
+            }
+        }
+
+        private static RoaringBitmap[] newBitmaps(int count) {
+            RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+            for (int i = 0; i < count; i++) {
+                bitmaps[i] = new RoaringBitmap();
+            }
+            return bitmaps;
+        }
+    }
+}
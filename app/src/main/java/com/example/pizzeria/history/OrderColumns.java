@@ -0,0 +1,378 @@
+package com.example.pizzeria.history;
+
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.PriceQuoteService;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.JournalEntry;
+import com.example.pizzeria.store.JournalListener;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An append-only, column-oriented copy of one store's order history for
+ * analytic scans. Every line item is a row, and each attribute is a
+ * primitive array: order number, placement time, type, size and crust
+ * ordinals, topping mask, unit price in cents and quantity.
+ *
+ * Aggregates such as revenue by size or pizzas per hour of day are plain
+ * loops over a few arrays, with no Order, Pizza or list objects to
+ * follow, and a row costs 25 bytes. Rows are kept in fixed-size segments
+ * that are scanned in parallel once there is more than one.
+ *
+ * The columns follow the store's journal: placed orders are appended and
+ * canceled orders have the quantity of their rows set to zero, so they no
+ * longer count. On startup older orders are loaded from the order history
+ * database; orders placed or canceled before the load finishes are
+ * remembered so they are neither counted twice nor brought back.
+ *
+ * Appends are serialized; scans take no lock and see every row appended
+ * before they started.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderColumns implements JournalListener {
+
+    private static final int SEGMENT_SHIFT = 14;
+    private static final int SEGMENT_ROWS = 1 << SEGMENT_SHIFT; // 16K rows, about 400 KB per segment
+    private static final long HOUR_MILLIS = 60L * 60 * 1000;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private final int storeId;
+    private final ZoneId zone;                  // Hours of day are counted in this time zone
+
+    private volatile Segment[] segments = new Segment[0];
+    private volatile int rowCount;              // Rows visible to scans
+    private final RoaringBitmap uncanceled = new RoaringBitmap(); // Orders with rows still counted
+
+    // Orders seen live until loadFrom has run; null afterwards
+    private RoaringBitmap placedBeforeLoad = new RoaringBitmap();
+    private RoaringBitmap canceledBeforeLoad = new RoaringBitmap();
+
+    /**
+     * Constructs empty columns for a store. Hours of day are counted in the
+     * device's time zone.
+     *
+     * @param storeId the store whose orders are kept
+     */
+    public OrderColumns(int storeId) {
+        this.storeId = storeId;
+        this.zone = ZoneId.systemDefault();
+    }
+
+    /**
+     * Appends or cancels the rows of a placed or canceled order of this store.
+     *
+     * @param entry the journal entry
+     * @param order the order it describes
+     */
+    @Override
+    public synchronized void onJournalEntry(JournalEntry entry, Order order) {
+        if (entry.getStoreId() != storeId) {
+            return;
+        }
+        if (entry.getKind() == JournalEntry.Kind.PLACED) {
+            add(order, entry.getTimestampMillis());
+            if (placedBeforeLoad != null) {
+                placedBeforeLoad.add(order.getOrderNumber());
+            }
+        } else {
+            cancel(entry.getOrderNumber());
+            if (canceledBeforeLoad != null) {
+                canceledBeforeLoad.add(entry.getOrderNumber());
+            }
+        }
+    }
+
+    /**
+     * Appends or cancels the rows of a batch of entries, such as imported
+     * orders, under a single lock.
+     *
+     * @param entries the journal entries
+     * @param orders  the order each entry describes
+     */
+    @Override
+    public synchronized void onJournalEntries(List<JournalEntry> entries, List<Order> orders) {
+        for (int i = 0; i < entries.size(); i++) {
+            onJournalEntry(entries.get(i), orders.get(i));
+        }
+    }
+
+    /**
+     * Appends the line items of a placed order.
+     *
+     * @param order          the order
+     * @param placedAtMillis the wall clock time it was placed
+     */
+    public synchronized void add(Order order, long placedAtMillis) {
+        PriceQuoteService quotes = PriceQuoteService.getInstance();
+        for (LineItem item : order.getLineItems()) {
+            Pizza pizza = item.getPizza();
+            // The order's own catalog, so revenue scans agree with the recorded subtotals
+            append(order.getOrderNumber(), placedAtMillis, pizza.getPizzaType().ordinal(),
+                    pizza.getSize().ordinal(), pizza.getCrust().ordinal(), pizza.getToppingMask(),
+                    quotes.quoteCents(pizza, order.getCatalog()), item.getQuantity());
+        }
+    }
+
+    /**
+     * Loads every stored line item of this store that has not been canceled.
+     * Call it once; the columns only hold live orders until it has run.
+     * Runs the query without holding the columns, so live updates continue;
+     * must not be called on the main thread.
+     *
+     * @param database the order history database
+     * @throws android.database.SQLException if the history cannot be read
+     * @throws IllegalStateException         if the columns were already loaded
+     */
+    public void loadFrom(OrderDatabase database) {
+        synchronized (this) {
+            if (placedBeforeLoad == null) {
+                throw new IllegalStateException("Order columns are already loaded.");
+            }
+        }
+        try {
+            database.scanLineItems(storeId, (orderNumber, placedAtMillis, type, size, crust, toppingMask,
+                                             priceCents, quantity) -> {
+                synchronized (this) {
+                    // Orders seen live are already appended, and the writer may have stored them too
+                    if (!placedBeforeLoad.contains(orderNumber) && !canceledBeforeLoad.contains(orderNumber)) {
+                        append(orderNumber, placedAtMillis, type, size, crust, toppingMask, priceCents, quantity);
+                    }
+                }
+            });
+        } finally {
+            synchronized (this) {
+                placedBeforeLoad = null;
+                canceledBeforeLoad = null;
+            }
+        }
+    }
+
+    /**
+     * Counts the rows, one per line item, including canceled ones.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Sums the pizzas sold.
+     *
+     * @return the number of pizzas
+     */
+    public long pizzaCount() {
+        return scan(1, (segment, rows, totals) -> {
+            long sum = 0;
+            int[] quantity = segment.quantity;
+            for (int i = 0; i < rows; i++) {
+                sum += quantity[i];
+            }
+            totals[0] += sum;
+        })[0];
+    }
+
+    /**
+     * Sums revenue at list price per size.
+     *
+     * @return revenue in cents, indexed by Size ordinal
+     */
+    public long[] revenueBySize() {
+        return scan(Size.values().length, (segment, rows, totals) -> {
+            byte[] size = segment.size;
+            int[] price = segment.priceCents;
+            int[] quantity = segment.quantity;
+            for (int i = 0; i < rows; i++) {
+                totals[size[i]] += (long) price[i] * quantity[i];
+            }
+        });
+    }
+
+    /**
+     * Sums revenue at list price per pizza type.
+     *
+     * @return revenue in cents, indexed by PizzaType ordinal
+     */
+    public long[] revenueByType() {
+        return scan(PizzaType.values().length, (segment, rows, totals) -> {
+            byte[] type = segment.type;
+            int[] price = segment.priceCents;
+            int[] quantity = segment.quantity;
+            for (int i = 0; i < rows; i++) {
+                totals[type[i]] += (long) price[i] * quantity[i];
+            }
+        });
+    }
+
+    /**
+     * Counts the pizzas sold with each topping.
+     *
+     * @return pizza counts, indexed by Topping ordinal
+     */
+    public long[] toppingCounts() {
+        return scan(Topping.values().length, (segment, rows, totals) -> {
+            short[] mask = segment.toppingMask;
+            int[] quantity = segment.quantity;
+            // One pass per topping keeps each loop a branch-free multiply-add
+            for (int t = 0; t < totals.length; t++) {
+                long sum = 0;
+                for (int i = 0; i < rows; i++) {
+                    sum += ((mask[i] >>> t) & 1) * quantity[i];
+                }
+                totals[t] += sum;
+            }
+        });
+    }
+
+    /**
+     * Counts the pizzas sold in each hour of the day, in this columns' time
+     * zone.
+     *
+     * @return pizza counts, indexed by hour 0 to 23
+     */
+    public long[] pizzasByHourOfDay() {
+        ZoneRules rules = zone.getRules();
+        return scan(24, (segment, rows, totals) -> {
+            long[] placedAt = segment.placedAtMillis;
+            int[] quantity = segment.quantity;
+            if (rows == 0) {
+                return;
+            }
+            long offset = rules.getOffset(Instant.ofEpochMilli(segment.minMillis)).getTotalSeconds() * 1000L;
+            ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochMilli(segment.minMillis));
+            if (next == null || next.toEpochSecond() * 1000 > segment.maxMillis) {
+                // One offset for the whole segment: a tight loop
+                for (int i = 0; i < rows; i++) {
+                    totals[(int) (Math.floorMod(placedAt[i] + offset, DAY_MILLIS) / HOUR_MILLIS)] += quantity[i];
+                }
+            } else {
+                for (int i = 0; i < rows; i++) {
+                    long rowOffset = rules.getOffset(Instant.ofEpochMilli(placedAt[i])).getTotalSeconds() * 1000L;
+                    totals[(int) (Math.floorMod(placedAt[i] + rowOffset, DAY_MILLIS) / HOUR_MILLIS)] += quantity[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * Appends one row. Callers hold the lock.
+     */
+    private void append(int orderNumber, long placedAtMillis, int type, int size, int crust, int toppingMask,
+                        int priceCents, int quantity) {
+        int row = rowCount;
+        Segment[] current = segments;
+        if ((row >>> SEGMENT_SHIFT) == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = new Segment();
+            segments = current;
+        }
+        Segment segment = current[row >>> SEGMENT_SHIFT];
+        int i = row & (SEGMENT_ROWS - 1);
+        segment.orderNumber[i] = orderNumber;
+        segment.placedAtMillis[i] = placedAtMillis;
+        segment.type[i] = (byte) type;
+        segment.size[i] = (byte) size;
+        segment.crust[i] = (byte) crust;
+        segment.toppingMask[i] = (short) toppingMask;
+        segment.priceCents[i] = priceCents;
+        segment.quantity[i] = quantity;
+        segment.minMillis = Math.min(segment.minMillis, placedAtMillis);
+        segment.maxMillis = Math.max(segment.maxMillis, placedAtMillis);
+        uncanceled.add(orderNumber);
+        rowCount = row + 1; // Volatile write publishes the row to scans
+    }
+
+    /**
+     * Zeroes the quantities of an order's rows. Cancellations are usually of
+     * recent orders, so rows are searched from the newest; an order with no
+     * rows, such as one of an earlier session not loaded yet, or one already
+     * canceled, is not searched for at all.
+     */
+    private void cancel(int orderNumber) {
+        if (!uncanceled.contains(orderNumber)) {
+            return;
+        }
+        uncanceled.remove(orderNumber);
+        Segment[] current = segments;
+        boolean found = false;
+        for (int row = rowCount - 1; row >= 0; row--) {
+            Segment segment = current[row >>> SEGMENT_SHIFT];
+            int i = row & (SEGMENT_ROWS - 1);
+            if (segment.orderNumber[i] == orderNumber) {
+                segment.quantity[i] = 0;
+                found = true;
+            } else if (found) {
+                return; // An order's rows are contiguous
+            }
+        }
+    }
+
+    /**
+     * Runs a scan over every segment, in parallel when there are several,
+     * and adds up the per-segment totals.
+     */
+    private long[] scan(int width, SegmentScan scan) {
+        int rows = rowCount;
+        Segment[] current = segments;
+        int used = (rows + SEGMENT_ROWS - 1) >>> SEGMENT_SHIFT;
+        if (used <= 1) {
+            long[] totals = new long[width];
+            if (used == 1) {
+                scan.scan(current[0], rows, totals);
+            }
+            return totals;
+        }
+        return IntStream.range(0, used).parallel()
+                .mapToObj(s -> {
+                    long[] totals = new long[width];
+                    scan.scan(current[s], Math.min(SEGMENT_ROWS, rows - (s << SEGMENT_SHIFT)), totals);
+                    return totals;
+                })
+                .reduce(new long[width], OrderColumns::sum);
+    }
+
+    /**
+     * Adds two total arrays into a new one.
+     */
+    private static long[] sum(long[] a, long[] b) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+
+    /**
+     * Scans the first rows of a segment, adding into totals.
+     */
+    private interface SegmentScan {
+        void scan(Segment segment, int rows, long[] totals);
+    }
+
+    /**
+     * A fixed block of rows, one array per column.
+     */
+    private static final class Segment {
+        final int[] orderNumber = new int[SEGMENT_ROWS];
+        final long[] placedAtMillis = new long[SEGMENT_ROWS];
+        final byte[] type = new byte[SEGMENT_ROWS];
+        final byte[] size = new byte[SEGMENT_ROWS];
+        final byte[] crust = new byte[SEGMENT_ROWS];
+        final short[] toppingMask = new short[SEGMENT_ROWS];
+        final int[] priceCents = new int[SEGMENT_ROWS];
+        final int[] quantity = new int[SEGMENT_ROWS];
+        long minMillis = Long.MAX_VALUE;    // Placement time range of the rows, for time zone offsets
+        long maxMillis = Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,582 @@
+package com.example.pizzeria.history;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.PizzaSpecs;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.PriceQuoteService;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.store.JournalEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SQLite database holding the full history of placed orders, normalized
+ * into an orders table, a line_items table with one row per distinct
+ * pizza and its quantity, and a pizza_specs table holding each pizza
+ * configuration once. Line items refer to their configuration by spec id,
+ * so the few hundred configurations a store sells are not repeated on
+ * every row.
+ *
+ * Spec ids in this table are the database's own; the PizzaSpecs ids of
+ * the running process are mapped to them as orders are written.
+ *
+ * The database runs in write-ahead-log mode so the summary screen can read
+ * while the OrderHistoryWriter commits. Orders are indexed by store and
+ * order number for lookups, and by store and placement time for paging;
+ * line items are indexed by pizza type and size for reports.
+ *
+ * Pages are read with keyset pagination (newest first), so every page costs
+ * the same regardless of how deep into the history it is.
+ *
+ * Every cancellation is also appended to a cancellations table. Row ids of
+ * orders and cancellations only grow, so readers such as the OrderExporter
+ * can pick up what changed since a row id they remember.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderDatabase extends SQLiteOpenHelper {
+
+    /** Database file used by the app. */
+    public static final String DEFAULT_NAME = "order_history.db";
+
+    // 2: line items have a quantity; 3: they refer to pizza_specs; 4: cancellations are logged
+    private static final int VERSION = 4;
+
+    private static final String INSERT_ORDER =
+            "INSERT OR IGNORE INTO orders (store_id, order_number, placed_at, subtotal_cents, pizza_count) "
+                    + "VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_LINE_ITEM =
+            "INSERT INTO line_items (order_id, position, spec_id, price_cents, quantity) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_SPEC =
+            "INSERT OR IGNORE INTO pizza_specs (pizza_type, size, crust, style, topping_mask) VALUES (?, ?, ?, ?, ?)";
+    private static final String FIND_SPEC =
+            "SELECT _id FROM pizza_specs WHERE pizza_type = ? AND size = ? AND crust = ? AND style = ? "
+                    + "AND topping_mask = ?";
+    private static final String CANCEL_ORDER =
+            "UPDATE orders SET canceled_at = ? WHERE store_id = ? AND order_number = ? AND canceled_at IS NULL";
+    private static final String INSERT_CANCELLATION =
+            "INSERT INTO cancellations (store_id, order_number, canceled_at) VALUES (?, ?, ?)";
+
+    private static final String PAGE_COLUMNS =
+            "SELECT _id, store_id, order_number, placed_at, subtotal_cents, pizza_count FROM orders ";
+
+    private int[] databaseSpecIds = new int[64]; // Indexed by PizzaSpecs id; 0 if not yet looked up
+
+    /**
+     * Constructs an OrderDatabase. The database is opened on first use.
+     *
+     * @param context the application context
+     * @param name    the database file name
+     */
+    public OrderDatabase(Context context, String name) {
+        super(context, name, null, VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    /**
+     * Enables foreign keys so every line item belongs to a stored order.
+     *
+     * @param db the database being opened
+     */
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        db.setForeignKeyConstraintsEnabled(true);
+    }
+
+    /**
+     * Creates the tables and indexes.
+     *
+     * @param db the new database
+     */
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE orders ("
+                + "_id INTEGER PRIMARY KEY, "
+                + "store_id INTEGER NOT NULL, "
+                + "order_number INTEGER NOT NULL, "
+                + "placed_at INTEGER NOT NULL, "
+                + "canceled_at INTEGER, "
+                + "subtotal_cents INTEGER NOT NULL, "
+                + "pizza_count INTEGER NOT NULL)");
+        db.execSQL("CREATE UNIQUE INDEX orders_by_number ON orders (store_id, order_number)");
+        db.execSQL("CREATE INDEX orders_by_placed_at ON orders (store_id, placed_at)");
+        createSpecTable(db);
+        createLineItemTable(db, "line_items");
+        db.execSQL("CREATE INDEX line_items_by_spec ON line_items (spec_id)");
+        createCancellationTable(db);
+    }
+
+    /**
+     * Creates the cancellations table, in the order cancellations happened.
+     */
+    private static void createCancellationTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE cancellations ("
+                + "_id INTEGER PRIMARY KEY, "
+                + "store_id INTEGER NOT NULL, "
+                + "order_number INTEGER NOT NULL, "
+                + "canceled_at INTEGER NOT NULL)");
+    }
+
+    /**
+     * Creates the pizza_specs table. Its unique index also serves lookups
+     * by type and size.
+     */
+    private static void createSpecTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE pizza_specs ("
+                + "_id INTEGER PRIMARY KEY, "
+                + "pizza_type INTEGER NOT NULL, "
+                + "size INTEGER NOT NULL, "
+                + "crust INTEGER NOT NULL, "
+                + "style TEXT NOT NULL, "
+                + "topping_mask INTEGER NOT NULL, "
+                + "UNIQUE (pizza_type, size, crust, style, topping_mask))");
+    }
+
+    /**
+     * Creates a line items table under a name.
+     */
+    private static void createLineItemTable(SQLiteDatabase db, String name) {
+        db.execSQL("CREATE TABLE " + name + " ("
+                + "order_id INTEGER NOT NULL REFERENCES orders (_id) ON DELETE CASCADE, "
+                + "position INTEGER NOT NULL, "
+                + "spec_id INTEGER NOT NULL REFERENCES pizza_specs (_id), "
+                + "price_cents INTEGER NOT NULL, "
+                + "quantity INTEGER NOT NULL DEFAULT 1, "
+                + "PRIMARY KEY (order_id, position)) WITHOUT ROWID");
+    }
+
+    /**
+     * Upgrades an older schema. Version 1 stored one line item per pizza,
+     * which is a line item of quantity 1. Versions 1 and 2 stored each line
+     * item's configuration inline; it is moved into pizza_specs. Orders
+     * canceled before version 4 are logged in order of cancellation time.
+     *
+     * @param db         the database
+     * @param oldVersion the version on disk
+     * @param newVersion the version of this class
+     */
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE line_items ADD COLUMN quantity INTEGER NOT NULL DEFAULT 1");
+        }
+        if (oldVersion < 3) {
+            createSpecTable(db);
+            db.execSQL("INSERT OR IGNORE INTO pizza_specs (pizza_type, size, crust, style, topping_mask) "
+                    + "SELECT DISTINCT pizza_type, size, crust, style, topping_mask FROM line_items");
+            createLineItemTable(db, "line_items_v3");
+            db.execSQL("INSERT INTO line_items_v3 (order_id, position, spec_id, price_cents, quantity) "
+                    + "SELECT order_id, position, pizza_specs._id, price_cents, quantity FROM line_items "
+                    + "JOIN pizza_specs USING (pizza_type, size, crust, style, topping_mask)");
+            db.execSQL("DROP TABLE line_items");
+            db.execSQL("ALTER TABLE line_items_v3 RENAME TO line_items");
+            db.execSQL("CREATE INDEX line_items_by_spec ON line_items (spec_id)");
+        }
+        if (oldVersion < 4) {
+            createCancellationTable(db);
+            db.execSQL("INSERT INTO cancellations (store_id, order_number, canceled_at) "
+                    + "SELECT store_id, order_number, canceled_at FROM orders WHERE canceled_at IS NOT NULL "
+                    + "ORDER BY canceled_at, _id");
+        }
+    }
+
+    /**
+     * Applies a batch of journal entries in a single transaction. Placed
+     * orders are inserted with their line items; canceled orders are marked
+     * canceled and logged. An order that is already stored is not inserted
+     * twice, and one that is already canceled is not logged twice.
+     *
+     * @param entries the journal entries, oldest first
+     * @param orders  the order each entry describes, at the same index
+     * @throws android.database.SQLException if the batch cannot be written;
+     *                                       nothing from the batch is kept
+     */
+    public synchronized void write(List<JournalEntry> entries, List<Order> orders) {
+        SQLiteDatabase db = getWritableDatabase();
+        PriceQuoteService quotes = PriceQuoteService.getInstance();
+        List<PizzaSpec> specsAdded = new ArrayList<>();
+        boolean committed = false;
+        db.beginTransactionNonExclusive();
+        try (SQLiteStatement insertOrder = db.compileStatement(INSERT_ORDER);
+             SQLiteStatement insertLineItem = db.compileStatement(INSERT_LINE_ITEM);
+             SQLiteStatement insertSpec = db.compileStatement(INSERT_SPEC);
+             SQLiteStatement findSpec = db.compileStatement(FIND_SPEC);
+             SQLiteStatement cancelOrder = db.compileStatement(CANCEL_ORDER);
+             SQLiteStatement insertCancellation = db.compileStatement(INSERT_CANCELLATION)) {
+            for (int i = 0; i < entries.size(); i++) {
+                JournalEntry entry = entries.get(i);
+                if (entry.getKind() == JournalEntry.Kind.CANCELED) {
+                    cancelOrder.bindLong(1, entry.getTimestampMillis());
+                    cancelOrder.bindLong(2, entry.getStoreId());
+                    cancelOrder.bindLong(3, entry.getOrderNumber());
+                    if (cancelOrder.executeUpdateDelete() > 0) {
+                        insertCancellation.bindLong(1, entry.getStoreId());
+                        insertCancellation.bindLong(2, entry.getOrderNumber());
+                        insertCancellation.bindLong(3, entry.getTimestampMillis());
+                        insertCancellation.executeInsert();
+                    }
+                    continue;
+                }
+                Order order = orders.get(i);
+                List<LineItem> items = order.getLineItems();
+                insertOrder.bindLong(1, entry.getStoreId());
+                insertOrder.bindLong(2, entry.getOrderNumber());
+                insertOrder.bindLong(3, entry.getTimestampMillis());
+                insertOrder.bindLong(4, entry.getTotalCents());
+                insertOrder.bindLong(5, order.getPizzaCount());
+                long orderId = insertOrder.executeInsert();
+                if (orderId == -1) {
+                    continue; // Already stored
+                }
+                for (int position = 0; position < items.size(); position++) {
+                    LineItem item = items.get(position);
+                    insertLineItem.bindLong(1, orderId);
+                    insertLineItem.bindLong(2, position);
+                    insertLineItem.bindLong(3, databaseSpecId(item.getSpec(), insertSpec, findSpec, specsAdded));
+                    // Priced against the order's catalog, like its subtotal, even after a reload
+                    insertLineItem.bindLong(4, quotes.quoteCents(item.getPizza(), order.getCatalog()));
+                    insertLineItem.bindLong(5, item.getQuantity());
+                    insertLineItem.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+            committed = true;
+        } finally {
+            db.endTransaction();
+            if (!committed) {
+                // Rows inserted by the failed batch are gone, so forget their ids
+                for (PizzaSpec spec : specsAdded) {
+                    databaseSpecIds[spec.getId()] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps a process spec to its row in pizza_specs, inserting the row the
+     * first time the spec is written.
+     */
+    private long databaseSpecId(PizzaSpec spec, SQLiteStatement insertSpec, SQLiteStatement findSpec,
+                                List<PizzaSpec> specsAdded) {
+        if (spec.getId() >= databaseSpecIds.length) {
+            databaseSpecIds = Arrays.copyOf(databaseSpecIds, Math.max(spec.getId() + 1, databaseSpecIds.length * 2));
+        }
+        int id = databaseSpecIds[spec.getId()];
+        if (id != 0) {
+            return id;
+        }
+        insertSpec.bindLong(1, spec.getPizzaType().ordinal());
+        insertSpec.bindLong(2, spec.getSize().ordinal());
+        insertSpec.bindLong(3, spec.getCrust().ordinal());
+        insertSpec.bindString(4, String.valueOf(spec.getStyle()));
+        insertSpec.bindLong(5, spec.getToppingMask());
+        long rowId = insertSpec.executeInsert();
+        if (rowId == -1) {
+            // Already stored, by an earlier run of the app
+            findSpec.bindLong(1, spec.getPizzaType().ordinal());
+            findSpec.bindLong(2, spec.getSize().ordinal());
+            findSpec.bindLong(3, spec.getCrust().ordinal());
+            findSpec.bindString(4, String.valueOf(spec.getStyle()));
+            findSpec.bindLong(5, spec.getToppingMask());
+            rowId = findSpec.simpleQueryForLong();
+        }
+        databaseSpecIds[spec.getId()] = (int) rowId;
+        specsAdded.add(spec);
+        return rowId;
+    }
+
+    /**
+     * Reads a page of a store's orders that have not been canceled, newest
+     * first.
+     *
+     * @param storeId the store id
+     * @param after   the last row of the previous page, or null for the first page
+     * @param limit   the maximum number of rows
+     * @return the rows of the page; fewer than limit on the last page
+     */
+    public List<OrderHistoryRow> loadPage(int storeId, OrderHistoryRow after, int limit) {
+        String sql;
+        String[] args;
+        if (after == null) {
+            sql = PAGE_COLUMNS + "WHERE store_id = ? AND canceled_at IS NULL "
+                    + "ORDER BY placed_at DESC, _id DESC LIMIT ?";
+            args = new String[] {Integer.toString(storeId), Integer.toString(limit)};
+        } else {
+            // A row-value comparison lets SQLite seek orders_by_placed_at instead of scanning it
+            sql = PAGE_COLUMNS + "WHERE store_id = ? AND canceled_at IS NULL "
+                    + "AND (placed_at, _id) < (?, ?) "
+                    + "ORDER BY placed_at DESC, _id DESC LIMIT ?";
+            args = new String[] {Integer.toString(storeId), Long.toString(after.getPlacedAtMillis()),
+                    Long.toString(after.getRowId()), Integer.toString(limit)};
+        }
+        List<OrderHistoryRow> rows = new ArrayList<>(limit);
+        try (Cursor cursor = getReadableDatabase().rawQuery(sql, args)) {
+            while (cursor.moveToNext()) {
+                rows.add(new OrderHistoryRow(cursor.getLong(0), cursor.getInt(1), cursor.getInt(2),
+                        cursor.getLong(3), cursor.getLong(4), cursor.getInt(5)));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Loads a stored order with its placement time and line items. The pizzas
+     * keep the crust, size, style and toppings they were placed with and are
+     * priced against the active menu catalog.
+     *
+     * @param storeId     the store id
+     * @param orderNumber the order number
+     * @return the order, or null if it is not stored or was canceled
+     */
+    public Order loadOrder(int storeId, int orderNumber) {
+        SQLiteDatabase db = getReadableDatabase();
+        long orderId;
+        long placedAtMillis;
+        try (Cursor cursor = db.rawQuery(
+                "SELECT _id, placed_at FROM orders WHERE store_id = ? AND order_number = ? AND canceled_at IS NULL",
+                new String[] {Integer.toString(storeId), Integer.toString(orderNumber)})) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            orderId = cursor.getLong(0);
+            placedAtMillis = cursor.getLong(1);
+        }
+
+        Order order = new Order(storeId, orderNumber);
+        order.markPlaced(placedAtMillis);
+        try (Cursor cursor = db.rawQuery(
+                "SELECT pizza_type, size, crust, style, topping_mask, quantity "
+                        + "FROM line_items JOIN pizza_specs ON pizza_specs._id = line_items.spec_id "
+                        + "WHERE order_id = ? ORDER BY position",
+                new String[] {Long.toString(orderId)})) {
+            while (cursor.moveToNext()) {
+                PizzaSpec spec = PizzaSpecs.intern(PizzaType.values()[cursor.getInt(0)], cursor.getString(3),
+                        Size.values()[cursor.getInt(1)], Crust.values()[cursor.getInt(2)], cursor.getInt(4));
+                order.addPizza(spec, cursor.getInt(5));
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Streams every line item of a store's orders that have not been
+     * canceled, in no particular order, though the line items of one order
+     * arrive together.
+     *
+     * @param storeId the store id
+     * @param visitor called once per line item
+     */
+    public void scanLineItems(int storeId, LineItemVisitor visitor) {
+        SQLiteDatabase db = getReadableDatabase();
+        // The specs are few, so read them once and stream only their ids with the line items.
+        // Each spec takes four slots: type, size, crust and topping mask.
+        int[] specs = null;
+        try (Cursor cursor = db.rawQuery(
+                "SELECT _id, pizza_type, size, crust, topping_mask FROM pizza_specs ORDER BY _id DESC", null)) {
+            while (cursor.moveToNext()) {
+                int at = cursor.getInt(0) * 4;
+                if (specs == null) {
+                    specs = new int[at + 4]; // The first row has the highest id
+                }
+                specs[at] = cursor.getInt(1);
+                specs[at + 1] = cursor.getInt(2);
+                specs[at + 2] = cursor.getInt(3);
+                specs[at + 3] = cursor.getInt(4);
+            }
+        }
+        if (specs == null) {
+            return;
+        }
+        try (Cursor cursor = db.rawQuery(
+                "SELECT order_number, placed_at, spec_id, price_cents, quantity "
+                        + "FROM orders JOIN line_items ON line_items.order_id = orders._id "
+                        + "WHERE store_id = ? AND canceled_at IS NULL",
+                new String[] {Integer.toString(storeId)})) {
+            while (cursor.moveToNext()) {
+                int at = cursor.getInt(2) * 4;
+                visitor.visit(cursor.getInt(0), cursor.getLong(1), specs[at], specs[at + 1], specs[at + 2],
+                        specs[at + 3], cursor.getInt(3), cursor.getInt(4));
+            }
+        }
+    }
+
+    /**
+     * Reads the numbers of every stored order of a store, canceled or not,
+     * from the order-number index alone.
+     *
+     * @param storeId the store
+     * @return the stored order numbers
+     */
+    public RoaringBitmap readOrderNumbers(int storeId) {
+        RoaringBitmap numbers = new RoaringBitmap();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT order_number FROM orders WHERE store_id = ?",
+                new String[] {Integer.toString(storeId)})) {
+            while (cursor.moveToNext()) {
+                numbers.add(cursor.getInt(0));
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Retrieves the row id of the newest stored order of any store.
+     *
+     * @return the row id, or 0 if no order is stored
+     */
+    public long getLastOrderRowId() {
+        return maxRowId("orders");
+    }
+
+    /**
+     * Retrieves the id of the newest logged cancellation of any store. The
+     * order it cancels is stored with a lower row id than any order stored
+     * after this call, so reading this before getLastOrderRowId gives a
+     * consistent pair.
+     *
+     * @return the cancellation id, or 0 if nothing was canceled
+     */
+    public long getLastCancellationId() {
+        return maxRowId("cancellations");
+    }
+
+    /**
+     * Reads the largest row id of a table.
+     */
+    private long maxRowId(String table) {
+        try (Cursor cursor = getReadableDatabase().rawQuery("SELECT COALESCE(MAX(_id), 0) FROM " + table, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Reads a store's orders stored after a row id, oldest first, whether
+     * or not they were canceled since. Costs time in proportion to the
+     * orders read, not to the history before them.
+     *
+     * @param storeId    the store id
+     * @param afterRowId read orders with a larger row id
+     * @param lastRowId  read orders with at most this row id
+     * @param limit      the maximum number of orders
+     * @param visitor    called once per order with its row id and stored subtotal
+     * @return the row id of the last order read, or afterRowId if there were none
+     */
+    public long readOrdersAfter(int storeId, long afterRowId, long lastRowId, int limit, StoredOrderVisitor visitor) {
+        long readThrough = afterRowId;
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT orders._id, order_number, placed_at, subtotal_cents, pizza_type, size, crust, style, "
+                        + "topping_mask, quantity "
+                        + "FROM orders JOIN line_items ON line_items.order_id = orders._id "
+                        + "JOIN pizza_specs ON pizza_specs._id = line_items.spec_id "
+                        // The unary plus keeps SQLite from walking every order of the store by index
+                        + "WHERE orders._id IN (SELECT _id FROM orders WHERE _id > ? AND _id <= ? AND +store_id = ? "
+                        + "ORDER BY _id LIMIT ?) "
+                        + "ORDER BY orders._id, position",
+                new String[] {Long.toString(afterRowId), Long.toString(lastRowId), Integer.toString(storeId),
+                        Integer.toString(limit)})) {
+            Order order = null;
+            long subtotalCents = 0;
+            while (cursor.moveToNext()) {
+                long rowId = cursor.getLong(0);
+                if (rowId != readThrough) {
+                    if (order != null) {
+                        visitor.visit(readThrough, order, subtotalCents);
+                    }
+                    order = new Order(storeId, cursor.getInt(1));
+                    order.markPlaced(cursor.getLong(2));
+                    subtotalCents = cursor.getLong(3);
+                    readThrough = rowId;
+                }
+                PizzaSpec spec = PizzaSpecs.intern(PizzaType.values()[cursor.getInt(4)], cursor.getString(7),
+                        Size.values()[cursor.getInt(5)], Crust.values()[cursor.getInt(6)], cursor.getInt(8));
+                order.addPizza(spec, cursor.getInt(9));
+            }
+            if (order != null) {
+                visitor.visit(readThrough, order, subtotalCents);
+            }
+        }
+        return readThrough;
+    }
+
+    /**
+     * Reads a store's cancellations logged after an id, oldest first.
+     *
+     * @param storeId the store id
+     * @param afterId read cancellations with a larger id
+     * @param lastId  read cancellations with at most this id
+     * @param limit   the maximum number of cancellations
+     * @param visitor called once per cancellation
+     * @return the id of the last cancellation read, or afterId if there were none
+     */
+    public long readCancellationsAfter(int storeId, long afterId, long lastId, int limit,
+                                       CancellationVisitor visitor) {
+        long readThrough = afterId;
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT _id, order_number, canceled_at FROM cancellations "
+                        + "WHERE _id > ? AND _id <= ? AND store_id = ? ORDER BY _id LIMIT ?",
+                new String[] {Long.toString(afterId), Long.toString(lastId), Integer.toString(storeId),
+                        Integer.toString(limit)})) {
+            while (cursor.moveToNext()) {
+                readThrough = cursor.getLong(0);
+                visitor.visit(readThrough, cursor.getInt(1), cursor.getLong(2));
+            }
+        }
+        return readThrough;
+    }
+
+    /**
+     * Counts the pizzas of a type and size across every stored order that
+     * has not been canceled.
+     *
+     * @param type the pizza type
+     * @param size the pizza size
+     * @return the number of pizzas
+     */
+    public long countPizzas(PizzaType type, Size size) {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT COALESCE(SUM(quantity), 0) FROM pizza_specs "
+                        + "JOIN line_items ON line_items.spec_id = pizza_specs._id "
+                        + "JOIN orders ON orders._id = line_items.order_id "
+                        + "WHERE pizza_type = ? AND size = ? AND canceled_at IS NULL",
+                new String[] {Integer.toString(type.ordinal()), Integer.toString(size.ordinal())})) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Receives line items from scanLineItems. Type, size and crust are
+     * ordinals of PizzaType, Size and Crust; the price is per pizza.
+     */
+    public interface LineItemVisitor {
+        void visit(int orderNumber, long placedAtMillis, int type, int size, int crust, int toppingMask,
+                   int priceCents, int quantity);
+    }
+
+    /**
+     * Receives orders from readOrdersAfter. The orders are rebuilt from
+     * storage and priced against the active menu catalog, so their prices
+     * may differ from the ones paid; the subtotal is the one recorded when
+     * the order was placed, in cents.
+     */
+    public interface StoredOrderVisitor {
+        void visit(long rowId, Order order, long subtotalCents);
+    }
+
+    /**
+     * Receives cancellations from readCancellationsAfter.
+     */
+    public interface CancellationVisitor {
+        void visit(long id, int orderNumber, long canceledAtMillis);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.pizzeria.history;
+
+import com.example.pizzeria.models.Order;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports a store's order history incrementally: each export appends only
+ * the orders placed and canceled since the previous one, so it costs time
+ * in proportion to what is new rather than to the whole history.
+ *
+ * Every export writes one or more new segment files to the export
+ * directory, optionally gzip-compressed, and never changes a segment once
+ * it is listed. A segment holds either placed orders or cancellations, at
+ * most SEGMENT_EVENTS of them, in the text form of ExportFormat, which
+ * OrderImporter reads back.
+ *
+ * The manifest lists the segments in the order they must be read, one line
+ * each:
+ * <pre>
+ * sequence segment_name last_order_row last_cancellation orders cancellations bytes
+ * </pre>
+ * Consumers remember the last sequence they read and pick up the lines
+ * after it. The last two ids on the last line are the watermark: the
+ * history row ids of the newest order and cancellation exported. A segment
+ * counts as exported once its line is in the manifest; both are synced to
+ * disk, and a segment written by an export that did not finish is
+ * overwritten by the next one.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderExporter {
+
+    /** File name of the manifest in the export directory. */
+    public static final String MANIFEST_NAME = "manifest.txt";
+
+    private static final int SEGMENT_EVENTS = 10_000;   // Orders or cancellations per segment
+    private static final int TAIL_BYTES = 1024;         // Enough to hold the last manifest line
+
+    private final OrderDatabase database;
+    private final int storeId;
+    private final File directory;
+    private final boolean compress;
+
+    /**
+     * Constructs an exporter. The directory is created on the first export.
+     *
+     * @param database  the order history database
+     * @param storeId   the store whose orders are exported
+     * @param directory the directory for the manifest and segments
+     * @param compress  whether to gzip the segments
+     */
+    public OrderExporter(OrderDatabase database, int storeId, File directory, boolean compress) {
+        this.database = database;
+        this.storeId = storeId;
+        this.directory = directory;
+        this.compress = compress;
+    }
+
+    /**
+     * Retrieves the directory holding the manifest and segments.
+     *
+     * @return the export directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Exports the orders placed and canceled since the last export. Must
+     * not be called on the main thread.
+     *
+     * @return what was exported
+     * @throws IOException                   if the export directory cannot be read or written
+     * @throws android.database.SQLException if the history cannot be read
+     */
+    public synchronized ExportReport export() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File manifest = new File(directory, MANIFEST_NAME);
+        Watermark mark = readWatermark(manifest);
+
+        // Cancellations first: every order they refer to is at or below the order bound read next
+        long lastCancellation = database.getLastCancellationId();
+        long lastOrderRow = database.getLastOrderRowId();
+
+        int segments = 0;
+        int orders = 0;
+        int cancellations = 0;
+        long bytes = 0;
+        while (mark.orderRow < lastOrderRow) {
+            File segment = segmentFile(mark.sequence + 1);
+            int[] count = new int[1];
+            long readThrough;
+            try (Writer out = openSegment(segment)) {
+                readThrough = database.readOrdersAfter(storeId, mark.orderRow, lastOrderRow, SEGMENT_EVENTS,
+                        (rowId, order, subtotalCents) -> {
+                            writeOrder(out, order, subtotalCents);
+                            count[0]++;
+                        });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            sync(segment);
+            // A short batch means this store has no more orders up to the bound
+            long orderRow = count[0] < SEGMENT_EVENTS ? lastOrderRow : readThrough;
+            if (count[0] == 0) {
+                segment.delete();
+                mark = new Watermark(mark.sequence, orderRow, mark.cancellation); // Only other stores' orders
+                continue;
+            }
+            mark = appendManifest(manifest, mark.sequence + 1, segment, orderRow, mark.cancellation, count[0], 0);
+            segments++;
+            orders += count[0];
+            bytes += segment.length();
+        }
+        while (mark.cancellation < lastCancellation) {
+            File segment = segmentFile(mark.sequence + 1);
+            int[] count = new int[1];
+            long readThrough;
+            try (Writer out = openSegment(segment)) {
+                readThrough = database.readCancellationsAfter(storeId, mark.cancellation, lastCancellation,
+                        SEGMENT_EVENTS, (id, orderNumber, canceledAtMillis) -> {
+                            writeCancellation(out, orderNumber, canceledAtMillis);
+                            count[0]++;
+                        });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            sync(segment);
+            long cancellation = count[0] < SEGMENT_EVENTS ? lastCancellation : readThrough;
+            if (count[0] == 0) {
+                segment.delete();
+                mark = new Watermark(mark.sequence, mark.orderRow, cancellation);
+                continue;
+            }
+            mark = appendManifest(manifest, mark.sequence + 1, segment, mark.orderRow, cancellation, 0, count[0]);
+            segments++;
+            cancellations += count[0];
+            bytes += segment.length();
+        }
+        return new ExportReport(directory, segments, orders, cancellations, bytes);
+    }
+
+    /**
+     * Names the segment with a sequence number.
+     */
+    private File segmentFile(long sequence) {
+        return new File(directory, String.format(Locale.US, "orders-%06d.txt%s", sequence, compress ? ".gz" : ""));
+    }
+
+    /**
+     * Opens a segment for writing, replacing any partial segment left by an
+     * export that did not finish.
+     */
+    private Writer openSegment(File segment) throws IOException {
+        OutputStream stream = new FileOutputStream(segment);
+        return new BufferedWriter(new OutputStreamWriter(compress ? new GZIPOutputStream(stream) : stream,
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Forces a closed file's contents to disk.
+     */
+    private static void sync(File file) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Writes one placed order. The total is taxed from the subtotal recorded
+     * at placement, not from the rebuilt order, whose prices and promotions
+     * are today's.
+     */
+    private static void writeOrder(Writer out, Order order, long subtotalCents) {
+        try {
+            ExportFormat.writeOrder(out, order, subtotalCents);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes one cancellation.
+     */
+    private static void writeCancellation(Writer out, int orderNumber, long canceledAtMillis) {
+        try {
+            ExportFormat.writeCancellation(out, orderNumber, canceledAtMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lists a finished segment in the manifest and syncs it, which commits
+     * the segment and the new watermark.
+     */
+    private static Watermark appendManifest(File manifest, long sequence, File segment, long orderRow,
+                                            long cancellation, int orders, int cancellations) throws IOException {
+        boolean fresh = manifest.length() == 0;
+        try (FileOutputStream out = new FileOutputStream(manifest, true)) {
+            String line = (fresh ? ExportFormat.MANIFEST_HEADER : "") + ExportFormat.manifestLine(sequence,
+                    segment.getName(), orderRow, cancellation, orders, cancellations, segment.length());
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        return new Watermark(sequence, orderRow, cancellation);
+    }
+
+    /**
+     * Reads the watermark from the last line of the manifest, reading only
+     * its tail. A last line cut short by a crash is removed.
+     *
+     * @param manifest the manifest file, which may not exist yet
+     * @return the watermark, all zeros if nothing was exported
+     * @throws IOException if the manifest cannot be read or its last line is corrupt
+     */
+    static Watermark readWatermark(File manifest) throws IOException {
+        if (!manifest.exists()) {
+            return new Watermark(0, 0, 0);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(manifest, "rw")) {
+            long length = file.length();
+            int tail = (int) Math.min(length, TAIL_BYTES);
+            byte[] bytes = new byte[tail];
+            file.seek(length - tail);
+            file.readFully(bytes);
+            int end = tail;
+            while (end > 0 && bytes[end - 1] != '\n') {
+                end--;
+            }
+            if (end < tail) {
+                file.setLength(length - tail + end); // Drop the partial line
+            }
+            int start = end - 1;
+            while (start > 0 && bytes[start - 1] != '\n') {
+                start--;
+            }
+            String line = start < end ? new String(bytes, start, end - 1 - start, StandardCharsets.UTF_8) : "";
+            String[] fields = ExportFormat.manifestFields(line);
+            if (fields == null) {
+                return new Watermark(0, 0, 0);
+            }
+            try {
+                return new Watermark(Long.parseLong(fields[0]), Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+            } catch (NumberFormatException e) {
+                throw new IOException("Corrupt export manifest line: " + line, e);
+            }
+        }
+    }
+
+    /**
+     * The last segment sequence number and the history ids exported through.
+     */
+    static final class Watermark {
+        final long sequence;
+        final long orderRow;
+        final long cancellation;
+
+        Watermark(long sequence, long orderRow, long cancellation) {
+            this.sequence = sequence;
+            this.orderRow = orderRow;
+            this.cancellation = cancellation;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.pizzeria.history;
+
+import android.content.Context;
+import android.database.SQLException;
+import android.util.Log;
+
+import com.example.pizzeria.store.OrderStores;
+import com.example.pizzeria.tasks.BackgroundExecutors;
+
+import java.io.File;
+
+/**
+ * Holds the app's order history database, its writer, the bitmap index
+ * and analytic columns over the default store's orders, and the exporter
+ * and importer of the default store's orders.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderHistory {
+
+    /** Directory under the app's files holding exported order segments. */
+    public static final String EXPORT_DIRECTORY = "exports";
+
+    /** Directory under the app's files where an export from another device is placed for import. */
+    public static final String IMPORT_DIRECTORY = "imports";
+
+    private static final String TAG = "OrderHistory";
+
+    private static volatile OrderDatabase database;
+    private static volatile OrderHistoryWriter writer;
+    private static volatile OrderBitmapIndex index;
+    private static volatile OrderColumns columns;
+    private static volatile OrderExporter exporter;
+    private static volatile OrderImporter importer;
+    private static volatile File importDirectory;
+
+    /**
+     * Private constructor to prevent instantiation of the OrderHistory class.
+     */
+    private OrderHistory() {}
+
+    /**
+     * Opens the history database and starts mirroring every store's journal
+     * into it, and starts loading the default store's bitmap index and
+     * columns from it in the background. Does nothing if the history is already installed.
+     *
+     * @param context any context; only its application context is kept
+     */
+    public static synchronized void install(Context context) {
+        if (database != null) {
+            return;
+        }
+        OrderDatabase db = new OrderDatabase(context.getApplicationContext(), OrderDatabase.DEFAULT_NAME);
+        OrderHistoryWriter historyWriter = new OrderHistoryWriter(db);
+        historyWriter.start();
+        OrderStores.addJournalListener(historyWriter);
+        OrderBitmapIndex orderIndex = new OrderBitmapIndex(OrderStores.DEFAULT_STORE_ID);
+        OrderStores.addJournalListener(orderIndex);
+        OrderColumns orderColumns = new OrderColumns(OrderStores.DEFAULT_STORE_ID);
+        OrderStores.addJournalListener(orderColumns);
+        BackgroundExecutors.serial("OrderIndexLoader").execute(() -> {
+            try {
+                orderIndex.loadFrom(db);
+            } catch (SQLException e) {
+                Log.w(TAG, "Order index only covers orders placed since startup", e);
+            }
+            try {
+                orderColumns.loadFrom(db);
+            } catch (SQLException e) {
+                Log.w(TAG, "Order columns only cover orders placed since startup", e);
+            }
+        });
+        index = orderIndex;
+        columns = orderColumns;
+        exporter = new OrderExporter(db, OrderStores.DEFAULT_STORE_ID,
+                new File(context.getFilesDir(), EXPORT_DIRECTORY), false);
+        importer = new OrderImporter(db, OrderStores.DEFAULT_STORE_ID);
+        importDirectory = new File(context.getFilesDir(), IMPORT_DIRECTORY);
+        writer = historyWriter;
+        database = db;
+    }
+
+    /**
+     * Gets the history database.
+     *
+     * @return the database, or null if the history is not installed
+     */
+    public static OrderDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * Gets the bitmap index over the default store's orders. Right after
+     * startup it may not include older orders yet.
+     *
+     * @return the index, or null if the history is not installed
+     */
+    public static OrderBitmapIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the analytic columns over the default store's orders. Right
+     * after startup they may not include older orders yet.
+     *
+     * @return the columns, or null if the history is not installed
+     */
+    public static OrderColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the incremental exporter of the default store's orders.
+     *
+     * @return the exporter, or null if the history is not installed
+     */
+    public static OrderExporter getExporter() {
+        return exporter;
+    }
+
+    /**
+     * Gets the importer of exported orders into the default store. Orders
+     * the history already has are not imported again.
+     *
+     * @return the importer, or null if the history is not installed
+     */
+    public static OrderImporter getImporter() {
+        return importer;
+    }
+
+    /**
+     * Gets the directory an export from another device is placed in for import.
+     *
+     * @return the import directory, or null if the history is not installed
+     */
+    public static File getImportDirectory() {
+        return importDirectory;
+    }
+
+    /**
+     * Waits until every order placed or canceled so far is in the database,
+     * so a following read sees it. Must not be called on the main thread.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void flush() throws InterruptedException {
+        OrderHistoryWriter historyWriter = writer;
+        if (historyWriter != null) {
+            historyWriter.flush();
+        }
+    }
+}
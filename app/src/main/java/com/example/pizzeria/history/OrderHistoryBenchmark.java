@@ -0,0 +1,156 @@
+package com.example.pizzeria.history;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.JournalEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the order history database at scale. Fills an empty database
+ * with synthetic orders spread over the past year, in the writer's batch
+ * size, then times random lookups by order number, page reads walking back
+ * from the newest order, bitmap index filters for a topping pair, a size
+ * and the last week, and OrderColumns scans for revenue by size, topping
+ * counts and pizzas by hour.
+ *
+ * Only the database calls, filters and scans are timed; building the
+ * synthetic orders, the index and the columns is not.
+ * Run it against a scratch database, never the app's own history.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderHistoryBenchmark {
+
+    /** Order count the history is sized for. */
+    public static final int DEFAULT_ORDERS = 1_000_000;
+
+    private static final int STORE_ID = 1;
+    private static final int PAGE_SIZE = 50;
+    private static final long WEEK_MILLIS = 7L * 24 * 60 * 60 * 1000;
+    private static final long YEAR_MILLIS = 365L * 24 * 60 * 60 * 1000;
+    private static final String[] STYLES = {"Chicago Style", "New York Style"};
+    private static final int FILTER_TOPPINGS = Topping.PINEAPPLE.mask() | Topping.HAM.mask();
+
+    private final OrderDatabase database;
+    private final int orders;
+    private final int lookups;
+    private final Random random;
+
+    /**
+     * Constructs an OrderHistoryBenchmark.
+     *
+     * @param database an empty scratch database
+     * @param orders   the number of orders to insert
+     * @param lookups  the number of lookups, page reads and filters to time
+     * @param seed     the seed for the synthetic orders and lookups
+     */
+    public OrderHistoryBenchmark(OrderDatabase database, int orders, int lookups, long seed) {
+        if (orders <= 0 || lookups <= 0) {
+            throw new IllegalArgumentException("Order and lookup counts must be positive.");
+        }
+        this.database = database;
+        this.orders = orders;
+        this.lookups = lookups;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Runs the benchmark. Takes minutes at a million orders, so it must not
+     * be called on the main thread.
+     *
+     * @return the benchmark report
+     */
+    public HistoryBenchmarkReport run() {
+        long insertNanos = 0;
+        long now = System.currentTimeMillis();
+        long spacing = Math.max(1, YEAR_MILLIS / orders);
+        OrderBitmapIndex index = new OrderBitmapIndex(STORE_ID);
+        OrderColumns columns = new OrderColumns(STORE_ID);
+        List<JournalEntry> entries = new ArrayList<>(OrderHistoryWriter.MAX_BATCH);
+        List<Order> batch = new ArrayList<>(OrderHistoryWriter.MAX_BATCH);
+        for (int number = 1; number <= orders; number++) {
+            Order order = randomOrder(number);
+            long placedAt = now - (long) (orders - number) * spacing;
+            index.add(order, placedAt);
+            columns.add(order, placedAt);
+            batch.add(order);
+            entries.add(new JournalEntry(placedAt, JournalEntry.Kind.PLACED,
+                    STORE_ID, number, order.calculateTotalCents()));
+            if (batch.size() == OrderHistoryWriter.MAX_BATCH || number == orders) {
+                long start = System.nanoTime();
+                database.write(entries, batch);
+                insertNanos += System.nanoTime() - start;
+                entries.clear();
+                batch.clear();
+            }
+        }
+
+        long[] lookupNanos = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            int number = 1 + random.nextInt(orders);
+            long start = System.nanoTime();
+            database.loadOrder(STORE_ID, number);
+            lookupNanos[i] = System.nanoTime() - start;
+        }
+
+        long[] pageNanos = new long[lookups];
+        OrderHistoryRow last = null;
+        for (int i = 0; i < lookups; i++) {
+            long start = System.nanoTime();
+            List<OrderHistoryRow> page = database.loadPage(STORE_ID, last, PAGE_SIZE);
+            pageNanos[i] = System.nanoTime() - start;
+            last = page.size() == PAGE_SIZE ? page.get(PAGE_SIZE - 1) : null;
+        }
+
+        long[] filterNanos = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            long start = System.nanoTime();
+            index.find(FILTER_TOPPINGS, null, Size.LARGE, null, now - WEEK_MILLIS, now).cardinality();
+            filterNanos[i] = System.nanoTime() - start;
+        }
+
+        long[] scanNanos = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            long start = System.nanoTime();
+            columns.revenueBySize();
+            columns.toppingCounts();
+            columns.pizzasByHourOfDay();
+            scanNanos[i] = System.nanoTime() - start;
+        }
+
+        return new HistoryBenchmarkReport(orders, insertNanos, lookupNanos, pageNanos, filterNanos, scanNanos);
+    }
+
+    /**
+     * Builds an order of one to three random pizzas; Build Your Own pizzas
+     * get up to five random toppings.
+     */
+    private Order randomOrder(int number) {
+        Order order = new Order(STORE_ID, number);
+        int pizzas = 1 + random.nextInt(3);
+        for (int i = 0; i < pizzas; i++) {
+            PizzaType type = PizzaType.values()[random.nextInt(PizzaType.values().length)];
+            Size size = Size.values()[random.nextInt(Size.values().length)];
+            Crust crust = Crust.values()[random.nextInt(Crust.values().length)];
+            Pizza pizza = type.create(crust, size, STYLES[random.nextInt(STYLES.length)]);
+            if (type == PizzaType.BUILD_YOUR_OWN) {
+                int toppings = random.nextInt(6);
+                for (int t = 0; t < toppings; t++) {
+                    Topping topping = Topping.values()[random.nextInt(Topping.values().length)];
+                    if (!pizza.hasTopping(topping)) {
+                        pizza.addTopping(topping);
+                    }
+                }
+            }
+            order.addPizza(pizza);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.pizzeria.history;
+
+/**
+ * One order as listed on a page of the order history: its header only,
+ * without line items.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderHistoryRow {
+
+    private final long rowId;
+    private final int storeId;
+    private final int orderNumber;
+    private final long placedAtMillis;
+    private final long subtotalCents;
+    private final int pizzaCount;
+
+    /**
+     * Constructs an OrderHistoryRow.
+     *
+     * @param rowId          the database row id, used to continue paging
+     * @param storeId        the store the order belongs to
+     * @param orderNumber    the order number within the store
+     * @param placedAtMillis the wall clock time the order was placed
+     * @param subtotalCents  the order total before tax, in cents
+     * @param pizzaCount     the number of pizzas in the order
+     */
+    OrderHistoryRow(long rowId, int storeId, int orderNumber, long placedAtMillis,
+                    long subtotalCents, int pizzaCount) {
+        this.rowId = rowId;
+        this.storeId = storeId;
+        this.orderNumber = orderNumber;
+        this.placedAtMillis = placedAtMillis;
+        this.subtotalCents = subtotalCents;
+        this.pizzaCount = pizzaCount;
+    }
+
+    /**
+     * Retrieves the database row id.
+     *
+     * @return the row id
+     */
+    long getRowId() {
+        return rowId;
+    }
+
+    /**
+     * Retrieves the store the order belongs to.
+     *
+     * @return the store id
+     */
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Retrieves the order number within the store.
+     *
+     * @return the order number
+     */
+    public int getOrderNumber() {
+        return orderNumber;
+    }
+
+    /**
+     * Retrieves the wall clock time the order was placed.
+     *
+     * @return the timestamp in milliseconds since the epoch
+     */
+    public long getPlacedAtMillis() {
+        return placedAtMillis;
+    }
+
+    /**
+     * Retrieves the order total before tax.
+     *
+     * @return the subtotal in cents
+     */
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    /**
+     * Retrieves the number of pizzas in the order.
+     *
+     * @return the pizza count
+     */
+    public int getPizzaCount() {
+        return pizzaCount;
+    }
+
+    /**
+     * Provides the label shown in the order dropdown.
+     *
+     * @return the order number
+     */
+    @Override
+    public String toString() {
+        return Integer.toString(orderNumber);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.pizzeria.history;
+
+import android.database.SQLException;
+import android.util.Log;
+
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.store.JournalEntry;
+import com.example.pizzeria.store.JournalListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Mirrors the journal of every store into the OrderDatabase from a single
+ * background thread.
+ *
+ * Placing or canceling an order only queues the entry. The writer thread
+ * waits for the first entry, drains whatever else has queued up behind it
+ * (up to MAX_BATCH) and commits the lot in one transaction, so a burst of
+ * orders costs one commit instead of one per order.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderHistoryWriter implements JournalListener {
+
+    private static final String TAG = "OrderHistoryWriter";
+
+    /** Most entries committed in one transaction. */
+    static final int MAX_BATCH = 500;
+
+    private final OrderDatabase database;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    private long queued;        // Entries queued so far, guarded by this
+    private long written;       // Entries written or dropped so far, guarded by this
+
+    /**
+     * Constructs a writer. Entries are only written once start() is called.
+     *
+     * @param database the database to write to
+     */
+    public OrderHistoryWriter(OrderDatabase database) {
+        this.database = database;
+        this.thread = new Thread(this::run, TAG);
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues a journal entry to be written. Never blocks.
+     *
+     * @param entry the journal entry
+     * @param order the order it describes
+     */
+    @Override
+    public void onJournalEntry(JournalEntry entry, Order order) {
+        synchronized (this) {
+            queued++;
+        }
+        queue.add(new Pending(entry, order));
+    }
+
+    /**
+     * Queues a batch of journal entries to be written. Never blocks.
+     *
+     * @param entries the journal entries
+     * @param orders  the order each entry describes
+     */
+    @Override
+    public void onJournalEntries(List<JournalEntry> entries, List<Order> orders) {
+        List<Pending> batch = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            batch.add(new Pending(entries.get(i), orders.get(i)));
+        }
+        synchronized (this) {
+            queued += batch.size();
+        }
+        queue.addAll(batch);
+    }
+
+    /**
+     * Waits until every entry queued before this call has been written.
+     * Must not be called on the main thread.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = queued;
+        while (written < target) {
+            wait();
+        }
+    }
+
+    /**
+     * Writes batches until the process ends.
+     */
+    private void run() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        List<JournalEntry> entries = new ArrayList<>(MAX_BATCH);
+        List<Order> orders = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (Pending pending : batch) {
+                entries.add(pending.entry);
+                orders.add(pending.order);
+            }
+            try {
+                database.write(entries, orders);
+            } catch (SQLException e) {
+                // The in-memory stores still have these orders; only the history misses them
+                Log.w(TAG, "Dropped " + batch.size() + " journal entries", e);
+            }
+            synchronized (this) {
+                written += batch.size();
+                notifyAll();
+            }
+            batch.clear();
+            entries.clear();
+            orders.clear();
+        }
+    }
+
+    /**
+     * A journal entry waiting to be written.
+     */
+    private static final class Pending {
+        final JournalEntry entry;
+        final Order order;
+
+        Pending(JournalEntry entry, Order order) {
+            this.entry = entry;
+            this.order = order;
+        }
+    }
+}
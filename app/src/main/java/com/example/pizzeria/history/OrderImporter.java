@@ -0,0 +1,358 @@
+package com.example.pizzeria.history;
+
+import com.example.pizzeria.models.ChicagoPizza;
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.NYPizza;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaFactory;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.PizzaSpecs;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.PriceQuoteService;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.models.ToppingSet;
+import com.example.pizzeria.store.OrderStores;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads the orders in OrderExporter files back into a store, as when a
+ * tablet is replaced or rebuilt after a wipe. The files are in the text
+ * form of ExportFormat.
+ *
+ * Each segment is read whole and cut into one chunk per worker at block
+ * boundaries (the blank line after every order and cancellation). The
+ * chunks are parsed in parallel and their orders joined in file order.
+ * Pizzas are rebuilt through the PizzaFactory of their style and the Pizza
+ * subclasses, then resized and topped as exported; every later pizza with
+ * the same description is created from its interned PizzaSpec instead of
+ * being parsed again. Imported orders are priced against the active menu
+ * catalog, so the exported prices and totals are not read.
+ *
+ * Once every segment is parsed, orders that were canceled, that the order
+ * history already has or that the store already has are dropped, and the
+ * rest are added with StorePartition.importOrders: one batch, so the
+ * bitmap index and columns are updated once at the end, and the history
+ * writer stores them in the background.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderImporter {
+
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private final OrderDatabase database;       // Null to skip checking the history for duplicates
+    private final int storeId;
+
+    /**
+     * Constructs an importer.
+     *
+     * @param database the order history database whose orders are not imported
+     *                 again, or null to rely on the store alone
+     * @param storeId  the store the orders are added to
+     */
+    public OrderImporter(OrderDatabase database, int storeId) {
+        this.database = database;
+        this.storeId = storeId;
+    }
+
+    /**
+     * Imports an export directory, reading its segments in manifest order,
+     * or a single segment file. Must not be called on the main thread.
+     *
+     * @param source the export directory or a segment file, optionally gzip-compressed
+     * @return what was imported
+     * @throws IOException                   if the files cannot be read or a line is malformed;
+     *                                       nothing is imported then
+     * @throws android.database.SQLException if the history cannot be read
+     */
+    public ImportReport importFrom(File source) throws IOException {
+        List<File> segments = source.isDirectory() ? readManifest(source) : Collections.singletonList(source);
+        Map<String, PizzaSpec> specs = new ConcurrentHashMap<>();
+        List<Order> parsed = new ArrayList<>();
+        RoaringBitmap canceled = new RoaringBitmap();
+        for (File segment : segments) {
+            for (Chunk chunk : parse(segment.getName(), read(segment), specs)) {
+                parsed.addAll(chunk.orders);
+                canceled.orInPlace(chunk.canceled);
+            }
+        }
+
+        RoaringBitmap stored = database != null ? database.readOrderNumbers(storeId) : new RoaringBitmap();
+        List<Order> orders = new ArrayList<>(parsed.size());
+        int canceledCount = 0;
+        int duplicates = 0;
+        for (Order order : parsed) {
+            if (canceled.contains(order.getOrderNumber())) {
+                canceledCount++;
+            } else if (stored.contains(order.getOrderNumber())) {
+                duplicates++;
+            } else {
+                orders.add(order);
+            }
+        }
+        int imported = OrderStores.partition(storeId).importOrders(orders);
+        duplicates += orders.size() - imported;
+        return new ImportReport(source, segments.size(), imported, canceledCount, duplicates);
+    }
+
+    /**
+     * Lists the segments of an export directory in manifest order. A last
+     * line cut short by a crash is ignored, like the segment it names.
+     */
+    private static List<File> readManifest(File directory) throws IOException {
+        File manifest = new File(directory, OrderExporter.MANIFEST_NAME);
+        if (!manifest.isFile()) {
+            throw new IOException("No export manifest in " + directory);
+        }
+        String text = new String(Files.readAllBytes(manifest.toPath()), StandardCharsets.UTF_8);
+        List<File> segments = new ArrayList<>();
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; start = end + 1, end = text.indexOf('\n', start)) {
+            String[] fields = ExportFormat.manifestFields(text.substring(start, end));
+            if (fields == null) {
+                continue;
+            }
+            segments.add(new File(directory, fields[1]));
+        }
+        return segments;
+    }
+
+    /**
+     * Reads a whole segment, decompressing it if its name ends in ".gz".
+     */
+    private static byte[] read(File segment) throws IOException {
+        if (!segment.getName().endsWith(".gz")) {
+            return Files.readAllBytes(segment.toPath());
+        }
+        try (InputStream in = new GZIPInputStream(new FileInputStream(segment), 64 * 1024)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Cuts a segment into one chunk per worker and parses the chunks in
+     * parallel.
+     *
+     * @return the parsed chunks, in file order
+     */
+    private List<Chunk> parse(String segmentName, byte[] bytes, Map<String, PizzaSpec> specs) throws IOException {
+        int[] bounds = new int[WORKERS + 1];
+        for (int i = 1; i < WORKERS; i++) {
+            bounds[i] = blockStart(bytes, Math.max(bounds[i - 1], (int) ((long) bytes.length * i / WORKERS)));
+        }
+        bounds[WORKERS] = bytes.length;
+        try {
+            return IntStream.range(0, WORKERS).parallel()
+                    .mapToObj(i -> parseChunk(segmentName,
+                            new String(bytes, bounds[i], bounds[i + 1] - bounds[i], StandardCharsets.UTF_8), specs))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Finds the start of the first block at or after a position: the byte
+     * after the next blank line, or the end of the segment.
+     */
+    private static int blockStart(byte[] bytes, int from) {
+        for (int i = Math.max(from, 1); i < bytes.length; i++) {
+            if (bytes[i] == '\n' && bytes[i - 1] == '\n') {
+                return i + 1;
+            }
+        }
+        return bytes.length;
+    }
+
+    /**
+     * Parses whole blocks into orders and canceled order numbers.
+     */
+    private Chunk parseChunk(String segmentName, String text, Map<String, PizzaSpec> specs) {
+        Chunk chunk = new Chunk();
+        Order order = null;
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            try {
+                if (start == end) {
+                    order = finish(chunk, order);
+                } else if (text.startsWith(ExportFormat.ORDER_NUMBER, start)) {
+                    finish(chunk, order);
+                    order = new Order(storeId, Integer.parseInt(text, start + ExportFormat.ORDER_NUMBER.length(), end, 10));
+                } else if (text.startsWith(ExportFormat.CANCELED_ORDER_NUMBER, start)) {
+                    order = finish(chunk, order);
+                    chunk.canceled.add(Integer.parseInt(text, start + ExportFormat.CANCELED_ORDER_NUMBER.length(), end, 10));
+                } else if (order != null && text.startsWith(ExportFormat.PLACED_AT, start)) {
+                    order.markPlaced(parseInstant(text, start + ExportFormat.PLACED_AT.length(), end));
+                } else if (order != null && !text.startsWith(ExportFormat.TOTAL, start)) {
+                    addLineItem(order, text, start, end, specs);
+                } else if (order == null && !text.startsWith(ExportFormat.CANCELED_AT, start)) {
+                    throw new IllegalArgumentException("Line outside an order.");
+                }
+            } catch (RuntimeException e) {
+                throw new UncheckedIOException(new IOException("Malformed line in " + segmentName + ": "
+                        + text.substring(start, end), e));
+            }
+            start = end + 1;
+        }
+        finish(chunk, order);
+        return chunk;
+    }
+
+    /**
+     * Adds a finished order to the chunk, unless it has no pizzas.
+     *
+     * @return null, as no order is open any more
+     */
+    private static Order finish(Chunk chunk, Order order) {
+        if (order != null && !order.isEmpty()) {
+            chunk.orders.add(order);
+        }
+        return null;
+    }
+
+    /**
+     * Parses a time as written by Instant.toString. The usual UTC form,
+     * "2024-05-01T18:03:11Z" with optional fractional seconds, is read
+     * directly; anything else goes through Instant.parse, which costs about
+     * as much as the rest of an order.
+     */
+    private static long parseInstant(String text, int start, int end) {
+        int length = end - start;
+        if (length >= 20 && text.charAt(start + 4) == '-' && text.charAt(start + 7) == '-'
+                && text.charAt(start + 10) == 'T' && text.charAt(start + 13) == ':'
+                && text.charAt(start + 16) == ':' && text.charAt(end - 1) == 'Z'
+                && (length == 20 || text.charAt(start + 19) == '.')) {
+            long day = LocalDate.of(Integer.parseInt(text, start, start + 4, 10),
+                    Integer.parseInt(text, start + 5, start + 7, 10),
+                    Integer.parseInt(text, start + 8, start + 10, 10)).toEpochDay();
+            long seconds = day * 86_400 + Integer.parseInt(text, start + 11, start + 13, 10) * 3_600
+                    + Integer.parseInt(text, start + 14, start + 16, 10) * 60
+                    + Integer.parseInt(text, start + 17, start + 19, 10);
+            int millis = 0;
+            for (int i = start + 20, scale = 100; i < end - 1 && scale > 0; i++, scale /= 10) {
+                millis += Character.digit(text.charAt(i), 10) * scale;
+            }
+            return seconds * 1000 + millis;
+        }
+        return Instant.parse(text.subSequence(start, end)).toEpochMilli();
+    }
+
+    /**
+     * Parses a line item, "[N x ]Type (Style), SIZE CRUST, Toppings: [A, B] | Price: $x",
+     * and adds it to the order. The description before the price is the
+     * cache key for its spec.
+     */
+    private static void addLineItem(Order order, String text, int start, int end, Map<String, PizzaSpec> specs) {
+        int quantity = 1;
+        int times = text.indexOf(ExportFormat.QUANTITY, start);
+        if (times > start && times < end && Character.isDigit(text.charAt(start))) {
+            quantity = Integer.parseInt(text, start, times, 10);
+            start = times + ExportFormat.QUANTITY.length();
+        }
+        int price = text.indexOf(ExportFormat.PRICE, start);
+        String description = text.substring(start, price >= 0 && price < end ? price : end);
+        PizzaSpec spec = specs.get(description);
+        if (spec != null) {
+            order.addPizza(spec, quantity);
+            return;
+        }
+        Pizza pizza = createPizza(description);
+        specs.putIfAbsent(description, PizzaSpecs.of(pizza));
+        order.addPizza(pizza, quantity);
+    }
+
+    /**
+     * Rebuilds a pizza from its description through the factory of its
+     * style, falling back to the subclass constructor for a crust or style
+     * the factory does not make.
+     */
+    private static Pizza createPizza(String description) {
+        int open = description.indexOf(" (");
+        int close = description.indexOf("), ", open);
+        int space = description.indexOf(' ', close + 3);
+        int toppings = description.indexOf(ExportFormat.TOPPINGS, space);
+        if (open < 0 || close < 0 || space < 0 || toppings < 0) {
+            throw new IllegalArgumentException("Not a pizza: " + description);
+        }
+        PizzaType type = typeOf(description.substring(0, open));
+        String style = description.substring(open + 2, close);
+        Size size = Size.valueOf(description.substring(close + 3, space));
+        Crust crust = Crust.valueOf(description.substring(space + 1, toppings));
+        int mask = toppingMask(description.substring(toppings + ExportFormat.TOPPINGS.length()));
+
+        PizzaFactory factory = PriceQuoteService.styleIndex(style) == PriceQuoteService.CHICAGO
+                ? new ChicagoPizza() : new NYPizza();
+        Pizza pizza = type.create(factory);
+        if (pizza.getCrust() != crust || !pizza.getStyle().equals(style)) {
+            pizza = type.create(crust, size, style);
+        }
+        pizza.setSize(size);
+        if (pizza.getToppingMask() != mask) {
+            pizza.setToppings(ToppingSet.of(mask));
+        }
+        return pizza;
+    }
+
+    /**
+     * Maps a pizza's exported type name, its class name or "Build Your Own",
+     * to its PizzaType.
+     */
+    private static PizzaType typeOf(String name) {
+        String compact = name.replace(" ", "");
+        for (PizzaType type : PizzaType.values()) {
+            if (type.getDisplayName().replace(" ", "").equalsIgnoreCase(compact)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown pizza type: " + name);
+    }
+
+    /**
+     * Parses an exported topping list, "None" or "[SAUSAGE, PEPPERONI]".
+     */
+    private static int toppingMask(String toppings) {
+        if (toppings.equals(ExportFormat.NO_TOPPINGS)) {
+            return 0;
+        }
+        if (!toppings.startsWith("[") || !toppings.endsWith("]")) {
+            throw new IllegalArgumentException("Not a topping list: " + toppings);
+        }
+        int mask = 0;
+        for (String name : toppings.substring(1, toppings.length() - 1).split(", ")) {
+            mask |= Topping.valueOf(name).mask();
+        }
+        return mask;
+    }
+
+    /**
+     * The orders and cancellations parsed from one chunk.
+     */
+    private static final class Chunk {
+        final List<Order> orders = new ArrayList<>();
+        final RoaringBitmap canceled = new RoaringBitmap();
+    }
+}
@@ -0,0 +1,655 @@
+package com.example.pizzeria.history;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative ints in the style of Roaring bitmaps.
+ *
+ * Values are split by their high 16 bits into chunks of 65,536. Each chunk
+ * is stored as a sorted array of its low 16 bits while it holds at most
+ * 4,096 values, and as a 65,536-bit bitmap (8 KB) once it holds more, so a
+ * sparse set costs two bytes per value and a dense one an eighth of a byte.
+ * Set operations work chunk by chunk and skip chunks missing on either side.
+ *
+ * Not thread-safe.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class RoaringBitmap {
+
+    private static final int ARRAY_MAX = 4096;          // Largest array chunk before switching to a bitmap
+    private static final int BITMAP_WORDS = 65536 / 64;
+
+    private char[] keys;                                // High 16 bits of each chunk, ascending
+    private Container[] containers;
+    private int size;                                   // Number of chunks in use
+
+    /**
+     * Constructs an empty bitmap.
+     */
+    public RoaringBitmap() {
+        this(4);
+    }
+
+    /**
+     * Constructs an empty bitmap with room for a number of chunks.
+     *
+     * @param chunks the initial chunk capacity
+     */
+    private RoaringBitmap(int chunks) {
+        keys = new char[Math.max(chunks, 1)];
+        containers = new Container[Math.max(chunks, 1)];
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value, which must not be negative
+     * @throws IllegalArgumentException if the value is negative
+     */
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        char high = (char) (value >>> 16);
+        int index = find(high);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, high, new ArrayContainer(new char[4], 0));
+        }
+        containers[index] = containers[index].add((char) value);
+    }
+
+    /**
+     * Removes a value if present.
+     *
+     * @param value the value
+     */
+    public void remove(int value) {
+        if (value < 0) {
+            return;
+        }
+        int index = find((char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    /**
+     * Checks whether a value is present.
+     *
+     * @param value the value
+     * @return true if the bitmap contains the value
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = find((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Counts the values in the bitmap.
+     *
+     * @return the number of values
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Checks whether the bitmap is empty.
+     *
+     * @return true if there are no values
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds every value of another bitmap to this one.
+     *
+     * @param other the values to add
+     */
+    public void orInPlace(RoaringBitmap other) {
+        char[] unionKeys = new char[Math.max(size + other.size, 1)];
+        Container[] unionContainers = new Container[unionKeys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                unionKeys[count] = keys[i];
+                unionContainers[count++] = containers[i++];
+            } else if (i == size || keys[i] > other.keys[j]) {
+                unionKeys[count] = other.keys[j];
+                unionContainers[count++] = other.containers[j++].copy();
+            } else {
+                // Dense chunks absorb the other side's bits without a new 8 KB bitmap
+                unionKeys[count] = keys[i];
+                unionContainers[count++] = containers[i++].orInPlace(other.containers[j++]);
+            }
+        }
+        keys = unionKeys;
+        containers = unionContainers;
+        size = count;
+    }
+
+    /**
+     * Removes every value of another bitmap from this one.
+     *
+     * @param other the values to remove
+     */
+    public void andNotInPlace(RoaringBitmap other) {
+        RoaringBitmap difference = andNot(this, other);
+        keys = difference.keys;
+        containers = difference.containers;
+        size = difference.size;
+    }
+
+    /**
+     * Creates an independent copy of this bitmap.
+     *
+     * @return the copy
+     */
+    public RoaringBitmap copy() {
+        RoaringBitmap copy = new RoaringBitmap(size);
+        for (int i = 0; i < size; i++) {
+            copy.append(keys[i], containers[i].copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Calls an action for every value, in ascending order.
+     *
+     * @param action the action to call
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Lists the values in ascending order.
+     *
+     * @return a new array of the values
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] next = {0};
+        forEach(value -> values[next[0]++] = value);
+        return values;
+    }
+
+    /**
+     * Computes the values present in both bitmaps.
+     *
+     * @param a the first bitmap
+     * @param b the second bitmap
+     * @return a new bitmap with the intersection
+     */
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the values present in either bitmap.
+     *
+     * @param a the first bitmap
+     * @param b the second bitmap
+     * @return a new bitmap with the union
+     */
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the values present in the first bitmap but not the second.
+     *
+     * @param a the bitmap to subtract from
+     * @param b the values to subtract
+     * @return a new bitmap with the difference
+     */
+    public static RoaringBitmap andNot(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap(a.size);
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            Container container = j < b.size && b.keys[j] == a.keys[i]
+                    ? a.containers[i].andNot(b.containers[j])
+                    : a.containers[i].copy();
+            if (container.cardinality() > 0) {
+                result.append(a.keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Describes the bitmap by its size.
+     *
+     * @return a string representation of the bitmap
+     */
+    @Override
+    public String toString() {
+        return "RoaringBitmap[" + cardinality() + " values in " + size + " chunks]";
+    }
+
+    /**
+     * Finds the chunk with the given high bits.
+     *
+     * @return its index, or (-(insertion point) - 1) if there is none
+     */
+    private int find(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    /**
+     * Inserts a chunk at an index.
+     */
+    private void insert(int index, char high, Container container) {
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * Appends a chunk whose high bits are greater than any present.
+     */
+    private void append(char high, Container container) {
+        ensureCapacity(size + 1);
+        keys[size] = high;
+        containers[size] = container;
+        size++;
+    }
+
+    /**
+     * Grows the chunk arrays to hold at least a number of chunks.
+     */
+    private void ensureCapacity(int chunks) {
+        if (chunks > keys.length) {
+            int capacity = Math.max(chunks, keys.length * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+    }
+
+    /**
+     * The low 16 bits of the values in one chunk. Mutating operations
+     * return the container to keep, which may be a different kind.
+     */
+    private abstract static class Container {
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract boolean contains(char low);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        Container orInPlace(Container other) {
+            return or(other);
+        }
+
+        abstract Container andNot(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int base, IntConsumer action);
+    }
+
+    /**
+     * A sparse chunk: its values as a sorted array.
+     */
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(values.length * 2, 4), ARRAY_MAX));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(result, count);
+            return count > ARRAY_MAX ? union.toBitmap() : union;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    /**
+     * A dense chunk: one bit per possible value.
+     */
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                words[low >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArrayContainer() : this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            return shrink(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            int count = cardinality;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char low = array.values[i];
+                    long bit = 1L << low;
+                    if ((result[low >>> 6] & bit) == 0) {
+                        result[low >>> 6] |= bit;
+                        count++;
+                    }
+                }
+                return new BitmapContainer(result, count);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] |= otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        Container orInPlace(Container other) {
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    add(array.values[i]);
+                }
+                return this;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] |= otherWords[i];
+                count += Long.bitCount(words[i]);
+            }
+            cardinality = count;
+            return this;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = words.clone();
+            int count = cardinality;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char low = array.values[i];
+                    long bit = 1L << low;
+                    if ((result[low >>> 6] & bit) != 0) {
+                        result[low >>> 6] &= ~bit;
+                        count--;
+                    }
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                count = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] &= ~otherWords[i];
+                    count += Long.bitCount(result[i]);
+                }
+            }
+            return shrink(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        ArrayContainer toArrayContainer() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int[] next = {0};
+            forEach(0, value -> values[next[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+
+        /**
+         * Keeps a computed bitmap as a bitmap, or converts it to an array
+         * if it has become sparse.
+         */
+        private static Container shrink(long[] words, int count) {
+            BitmapContainer bitmap = new BitmapContainer(words, count);
+            return count <= ARRAY_MAX ? bitmap.toArrayContainer() : bitmap;
+        }
+    }
+}
@@ -0,0 +1,997 @@
+package com.example.pizzeria.intake;
+
+import android.util.Log;
+
+import com.example.pizzeria.metrics.Counter;
+import com.example.pizzeria.metrics.LatencyHistogram;
+import com.example.pizzeria.metrics.MetricsRegistry;
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.MenuCatalog;
+import com.example.pizzeria.models.MenuCatalogs;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.PizzaSpecs;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.PriceQuoteService;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.Inventory;
+import com.example.pizzeria.store.StorePartition;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A small HTTP/1.1 server that takes orders from other systems on the
+ * local network, such as a web kiosk or the phone line, and places them in
+ * the same store the screens use.
+ *
+ * The server listens only on the address it is given, such as the
+ * interface facing the store's network, and every request must carry the
+ * shared token as "Authorization: Bearer &lt;token&gt;"; one without it is
+ * answered with 401.
+ *
+ * An order is one request, one pizza per line of the body:
+ * <pre>
+ * POST /orders HTTP/1.1
+ * Content-Length: 81
+ *
+ * DELUXE CHICAGO LARGE DEEP_DISH 2
+ * BUILD_YOUR_OWN NY SMALL HAND_TOSSED 1 HAM ONION
+ * </pre>
+ * Each line gives the PizzaType, the style (CHICAGO or NY), the Size, the
+ * Crust, the quantity and, for Build Your Own only, up to 7 Toppings, all
+ * by their enum names. The crust must be the one the menu catalog offers
+ * for the type and style. A placed order is answered with 201 and its
+ * order number as the body; a request that does not describe a valid
+ * order with 400, an order whose ingredients are out of stock with 409,
+ * and each with a one-line reason. GET /health answers 200.
+ *
+ * One thread serves every connection through a Selector. Connections are
+ * kept alive unless the client asks otherwise, and pipelined requests are
+ * answered in order: the orders among the requests that arrived together
+ * are placed as one batch through the OrderPlacer, then every reply is
+ * written. Requests are parsed in place from each connection's buffers and
+ * replies written straight into them, so a request allocates nothing
+ * beyond the order it places. While a client does not read its replies,
+ * its further requests wait, which slows it rather than the server. A
+ * request that fails unexpectedly is answered with 500 and its connection
+ * closed; the other connections are served on.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderIntakeServer {
+
+    /** Port the app listens on for orders. */
+    public static final int DEFAULT_PORT = 8686;
+
+    /** Largest request accepted, headers and body together. */
+    public static final int MAX_REQUEST_BYTES = 16 * 1024;
+
+    /** Most pizza lines in one order. */
+    public static final int MAX_LINES = 32;
+
+    private static final String TAG = "OrderIntakeServer";
+    private static final int OUT_BYTES = 32 * 1024;         // Replies waiting to be sent, per connection
+    private static final int MAX_REPLY_BYTES = 512;         // Room kept free for each reply
+    private static final int MAX_PIPELINED = OUT_BYTES / MAX_REPLY_BYTES; // Requests answered per pass
+    private static final int MAX_QUANTITY = 99;
+    private static final int MAX_TOPPINGS = 7;
+
+    private static final PizzaType[] TYPES = PizzaType.values();
+    private static final Size[] SIZES = Size.values();
+    private static final Crust[] CRUSTS = Crust.values();
+    private static final Topping[] TOPPINGS = Topping.values();
+    private static final String[] STYLES = new String[2];
+    private static final byte[][] STYLE_NAMES = new byte[2][];
+
+    static {
+        STYLES[PriceQuoteService.CHICAGO] = "Chicago Style";
+        STYLES[PriceQuoteService.NEW_YORK] = "New York Style";
+        STYLE_NAMES[PriceQuoteService.CHICAGO] = ascii("CHICAGO");
+        STYLE_NAMES[PriceQuoteService.NEW_YORK] = ascii("NY");
+    }
+
+    private static final byte[][] TYPE_NAMES = names(TYPES);
+    private static final byte[][] SIZE_NAMES = names(SIZES);
+    private static final byte[][] CRUST_NAMES = names(CRUSTS);
+    private static final byte[][] TOPPING_NAMES = names(TOPPINGS);
+
+    private static final byte[] POST = ascii("POST");
+    private static final byte[] GET = ascii("GET");
+    private static final byte[] ORDERS_PATH = ascii("/orders");
+    private static final byte[] HEALTH_PATH = ascii("/health");
+    private static final byte[] HTTP_1_1 = ascii("HTTP/1.1");
+    private static final byte[] HTTP_1_0 = ascii("HTTP/1.0");
+    private static final byte[] CONTENT_LENGTH = ascii("content-length");
+    private static final byte[] CONNECTION = ascii("connection");
+    private static final byte[] TRANSFER_ENCODING = ascii("transfer-encoding");
+    private static final byte[] AUTHORIZATION = ascii("authorization");
+    private static final byte[] CLOSE = ascii("close");
+    private static final byte[] KEEP_ALIVE = ascii("keep-alive");
+
+    private static final byte[] CONTENT_LENGTH_HEADER = ascii("Content-Type: text/plain\r\nContent-Length: ");
+    private static final byte[] CONNECTION_CLOSE_HEADER = ascii("Connection: close\r\n");
+    private static final byte[] CRLF = ascii("\r\n");
+    private static final byte[] CREATED = ascii("HTTP/1.1 201 Created\r\n");
+
+    private static final Reply OK = new Reply("200 OK", "OK");
+    private static final Reply MALFORMED = new Reply("400 Bad Request", "Malformed request");
+    private static final Reply EMPTY_ORDER = new Reply("400 Bad Request", "The order has no pizzas");
+    private static final Reply TOO_MANY_LINES = new Reply("400 Bad Request", "Too many pizza lines");
+    private static final Reply BAD_LINE = new Reply("400 Bad Request",
+            "Expected TYPE STYLE SIZE CRUST QUANTITY [TOPPING...]");
+    private static final Reply UNKNOWN_TYPE = new Reply("400 Bad Request", "Unknown pizza type");
+    private static final Reply UNKNOWN_STYLE = new Reply("400 Bad Request", "Unknown style, expected CHICAGO or NY");
+    private static final Reply UNKNOWN_SIZE = new Reply("400 Bad Request", "Unknown size");
+    private static final Reply UNKNOWN_CRUST = new Reply("400 Bad Request", "Unknown crust");
+    private static final Reply WRONG_CRUST = new Reply("400 Bad Request",
+            "The crust is not offered for this pizza type and style");
+    private static final Reply BAD_QUANTITY = new Reply("400 Bad Request", "Quantity must be 1 to " + MAX_QUANTITY);
+    private static final Reply UNKNOWN_TOPPING = new Reply("400 Bad Request", "Unknown topping");
+    private static final Reply DUPLICATE_TOPPING = new Reply("400 Bad Request", "Duplicate topping");
+    private static final Reply TOO_MANY_TOPPINGS = new Reply("400 Bad Request",
+            "A pizza can have up to " + MAX_TOPPINGS + " toppings");
+    private static final Reply PRESET_TOPPINGS = new Reply("400 Bad Request",
+            "Only Build Your Own pizzas take toppings");
+    private static final Reply UNAUTHORIZED = new Reply("401 Unauthorized", "Missing or wrong token");
+    private static final Reply NOT_FOUND = new Reply("404 Not Found", "Not found");
+    private static final Reply NOT_ALLOWED = new Reply("405 Method Not Allowed", "Method not allowed");
+    private static final Reply OUT_OF_STOCK = new Reply("409 Conflict", "Some ingredients are out of stock");
+    private static final Reply TOO_LARGE = new Reply("413 Content Too Large", "Request too large");
+    private static final Reply INTERNAL_ERROR = new Reply("500 Internal Server Error", "The request failed");
+    private static final Reply NOT_IMPLEMENTED = new Reply("501 Not Implemented", "Chunked bodies are not supported");
+    private static final Reply UNAVAILABLE = new Reply("503 Service Unavailable", "Orders cannot be numbered now");
+
+    private final StorePartition store;
+    private final OrderPlacer placer;
+    private final InetAddress address;
+    private final int requestedPort;
+    private final byte[] authorization;     // The expected Authorization header value
+    private final Counter ordersPlaced = MetricsRegistry.counter("intake.ordersPlaced");
+    private final Counter rejected = MetricsRegistry.counter("intake.rejected");
+    private final LatencyHistogram requestLatency = MetricsRegistry.histogram("intake.request");
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+
+    // Parsed pizza lines of the request being handled; only the server thread uses them
+    private final int[] lineType = new int[MAX_LINES];
+    private final int[] lineStyle = new int[MAX_LINES];
+    private final int[] lineSize = new int[MAX_LINES];
+    private final int[] lineCrust = new int[MAX_LINES];
+    private final int[] lineQuantity = new int[MAX_LINES];
+    private final int[] lineMask = new int[MAX_LINES];
+
+    // Requests of the connection being served, in order, until their orders are placed and they are
+    // answered; a null reply stands for the order at the same index. Only the server thread uses them.
+    private final Reply[] answers = new Reply[MAX_PIPELINED];
+    private final Order[] answerOrders = new Order[MAX_PIPELINED];
+    private final boolean[] answerCloses = new boolean[MAX_PIPELINED];
+    private final long[] answerStarts = new long[MAX_PIPELINED];
+    private final List<Order> batch = new ArrayList<>(MAX_PIPELINED);
+    private final BiConsumer<Order, IllegalStateException> onRejected = this::rejectOrder;
+    private int answerCount;
+
+    // Specs seen so far, by packed configuration, in an open-addressed table
+    private int[] specKeys = new int[256];
+    private PizzaSpec[] specValues = new PizzaSpec[256];
+    private int specCount;
+
+    /**
+     * Constructs a server. It listens once start() is called.
+     *
+     * @param store   the store orders are numbered in and whose stock is checked
+     * @param placer  places the orders in that store
+     * @param address the local address to listen on
+     * @param port    the port to listen on, or 0 for any free port
+     * @param token   the token clients must send, printable ASCII without spaces
+     * @throws IllegalArgumentException if the token is empty or has other characters
+     */
+    public OrderIntakeServer(StorePartition store, OrderPlacer placer, InetAddress address, int port, String token) {
+        if (token == null || token.isEmpty() || !token.chars().allMatch(c -> c > ' ' && c < 0x7f)) {
+            throw new IllegalArgumentException("The order intake token must be printable ASCII without spaces.");
+        }
+        this.store = store;
+        this.placer = placer;
+        this.address = address;
+        this.requestedPort = port;
+        this.authorization = ascii("Bearer " + token);
+    }
+
+    /**
+     * Starts listening on the server's address and serving connections on a
+     * background thread.
+     *
+     * @throws IOException           if the port cannot be opened
+     * @throws IllegalStateException if the server was already started
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("The order intake server was already started.");
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(address, requestedPort));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        running = true;
+        thread = new Thread(this::run, TAG);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the server and closes every connection. Replies not yet sent
+     * are dropped.
+     */
+    public synchronized void stop() {
+        if (thread == null || !running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Retrieves the port the server listens on.
+     *
+     * @return the port, or -1 if the server is not started
+     */
+    public synchronized int getPort() {
+        return serverChannel == null ? -1 : serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Serves connections until stopped.
+     */
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                read(key, connection);
+                            } else if (key.isWritable()) {
+                                write(key, connection);
+                            }
+                        }
+                    } catch (IOException e) {
+                        close(key); // The client went away
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "Order intake failed a request", e);
+                        if (key.attachment() instanceof Connection) {
+                            fail(key, (Connection) key.attachment());
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            Log.e(TAG, "Order intake stopped", e);
+        } finally {
+            shutDown();
+        }
+    }
+
+    /**
+     * Accepts a new connection.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+    }
+
+    /**
+     * Reads what the client sent, answers every complete request and sends
+     * the replies.
+     */
+    private void read(SelectionKey key, Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            connection.closing = true; // Answer what was sent, then close
+        }
+        write(key, connection);
+    }
+
+    /**
+     * Sends queued replies. Once they are all sent, requests that waited
+     * for room are answered, and reading resumes.
+     */
+    private void write(SelectionKey key, Connection connection) throws IOException {
+        flush(connection);
+        serve(connection);
+        flush(connection);
+        if (connection.out.position() > 0) {
+            key.interestOps(SelectionKey.OP_WRITE); // Read no more until the client takes its replies
+        } else if (connection.closing) {
+            close(key);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Answers 500 on a connection whose request failed unexpectedly and
+     * closes it once the replies queued before are sent. Requests not yet
+     * answered are dropped.
+     */
+    private void fail(SelectionKey key, Connection connection) {
+        try {
+            connection.in.clear();
+            if (!connection.replyClose && connection.out.remaining() >= MAX_REPLY_BYTES) {
+                reply(connection, INTERNAL_ERROR, true);
+            }
+            connection.replyClose = true;
+            connection.closing = true;
+            flush(connection);
+            if (connection.out.position() > 0) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else {
+                close(key);
+            }
+        } catch (IOException | RuntimeException e) {
+            close(key);
+        }
+    }
+
+    /**
+     * Writes as much of the queued replies as the socket takes.
+     */
+    private static void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        connection.channel.write(out);
+        out.compact();
+    }
+
+    /**
+     * Answers the complete requests in the connection's buffer, in order,
+     * while there is room for their replies.
+     */
+    private void serve(Connection connection) {
+        ByteBuffer in = connection.in;
+        int start = 0;
+        int end = in.position();
+        boolean waiting = false;
+        answerCount = 0;
+        batch.clear();
+        while (!connection.replyClose && start < end
+                && connection.out.remaining() >= (answerCount + 1) * MAX_REPLY_BYTES) {
+            int next = handleRequest(connection, start, end);
+            if (next < 0) {
+                waiting = true; // Incomplete
+                break;
+            }
+            start = next;
+        }
+        if (start > 0) {
+            in.flip();
+            in.position(start);
+            in.compact();
+        }
+        if (waiting && !in.hasRemaining()) {
+            queue(connection, TOO_LARGE, true, System.nanoTime());
+        }
+        answer(connection);
+    }
+
+    /**
+     * Places the batch of orders the requests asked for, then writes the
+     * reply to every request in the order they came.
+     */
+    private void answer(Connection connection) {
+        if (!batch.isEmpty()) {
+            List<Order> placed = placer.placeOrders(batch, onRejected);
+            ordersPlaced.add(placed.size());
+            batch.clear();
+        }
+        for (int i = 0; i < answerCount; i++) {
+            if (answers[i] == null) {
+                replyCreated(connection, answerOrders[i].getOrderNumber(), answerCloses[i]);
+            } else {
+                reply(connection, answers[i], answerCloses[i]);
+            }
+            requestLatency.recordSince(answerStarts[i]);
+            answers[i] = null;
+            answerOrders[i] = null;
+        }
+        answerCount = 0;
+    }
+
+    /**
+     * Answers the request of an order left out of the batch with 409 and
+     * the reason, e.g. an ingredient taken by another terminal.
+     */
+    private void rejectOrder(Order order, IllegalStateException e) {
+        for (int i = 0; i < answerCount; i++) {
+            if (answerOrders[i] == order) {
+                answers[i] = new Reply("409 Conflict", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queues the reply to a request, to be written once the batch is placed.
+     */
+    private void queue(Connection connection, Reply reply, boolean close, long start) {
+        answers[answerCount] = reply;
+        answerCloses[answerCount] = close;
+        answerStarts[answerCount] = start;
+        answerCount++;
+        if (close) {
+            connection.replyClose = true; // Later requests are ignored
+        }
+    }
+
+    /**
+     * Queues an order for the batch; its request is answered once it is placed.
+     */
+    private void queueOrder(Connection connection, Order order, boolean close, long start) {
+        answerOrders[answerCount] = order;
+        batch.add(order);
+        queue(connection, null, close, start);
+    }
+
+    /**
+     * Answers the request starting at start, if all of it has arrived.
+     *
+     * @return the offset after the request, or -1 if it is not complete
+     */
+    private int handleRequest(Connection connection, int start, int end) {
+        ByteBuffer in = connection.in;
+        int headersEnd = indexOfBlankLine(in, start, end);
+        if (headersEnd < 0) {
+            return -1;
+        }
+        long begin = System.nanoTime();
+        int bodyStart = headersEnd + 4;
+
+        // Request line: METHOD SP PATH SP VERSION
+        int lineEnd = indexOf(in, (byte) '\r', start, headersEnd + 1);
+        int methodEnd = indexOf(in, (byte) ' ', start, lineEnd);
+        int pathEnd = methodEnd < 0 ? -1 : indexOf(in, (byte) ' ', methodEnd + 1, lineEnd);
+        if (pathEnd < 0) {
+            queue(connection, MALFORMED, true, begin);
+            return bodyStart;
+        }
+        boolean http11 = equals(in, pathEnd + 1, lineEnd, HTTP_1_1, false);
+        if (!http11 && !equals(in, pathEnd + 1, lineEnd, HTTP_1_0, false)) {
+            queue(connection, MALFORMED, true, begin);
+            return bodyStart;
+        }
+
+        int contentLength = 0;
+        boolean keepAlive = http11;
+        boolean chunked = false;
+        boolean authorized = false;
+        int pos = lineEnd + 2;
+        while (pos < headersEnd + 2) {
+            int headerEnd = indexOf(in, (byte) '\r', pos, headersEnd + 2);
+            int colon = indexOf(in, (byte) ':', pos, headerEnd);
+            if (colon < 0) {
+                queue(connection, MALFORMED, true, begin);
+                return bodyStart;
+            }
+            int value = skipSpaces(in, colon + 1, headerEnd);
+            int valueEnd = trimEnd(in, value, headerEnd);
+            if (equals(in, pos, colon, CONTENT_LENGTH, true)) {
+                contentLength = parseNumber(in, value, valueEnd, MAX_REQUEST_BYTES + 1);
+                if (contentLength < 0) {
+                    queue(connection, MALFORMED, true, begin);
+                    return bodyStart;
+                }
+            } else if (equals(in, pos, colon, CONNECTION, true)) {
+                if (equals(in, value, valueEnd, CLOSE, true)) {
+                    keepAlive = false;
+                } else if (equals(in, value, valueEnd, KEEP_ALIVE, true)) {
+                    keepAlive = true;
+                }
+            } else if (equals(in, pos, colon, TRANSFER_ENCODING, true)) {
+                chunked = true;
+            } else if (equals(in, pos, colon, AUTHORIZATION, true)) {
+                authorized = matchesSecret(in, value, valueEnd, authorization);
+            }
+            pos = headerEnd + 2;
+        }
+        if (chunked) {
+            queue(connection, NOT_IMPLEMENTED, true, begin);
+            return bodyStart;
+        }
+        int bodyEnd = bodyStart + contentLength;
+        if (bodyEnd - start > in.capacity()) {
+            queue(connection, TOO_LARGE, true, begin);
+            return bodyStart;
+        }
+        if (bodyEnd > end) {
+            return -1;
+        }
+
+        boolean orders = equals(in, methodEnd + 1, pathEnd, ORDERS_PATH, false);
+        if (!authorized) {
+            queue(connection, UNAUTHORIZED, !keepAlive, begin);
+        } else if (orders && equals(in, start, methodEnd, POST, false)) {
+            placeOrder(connection, bodyStart, bodyEnd, !keepAlive, begin);
+        } else if (equals(in, methodEnd + 1, pathEnd, HEALTH_PATH, false) && equals(in, start, methodEnd, GET, false)) {
+            queue(connection, OK, !keepAlive, begin);
+        } else {
+            queue(connection, orders ? NOT_ALLOWED : NOT_FOUND, !keepAlive, begin);
+        }
+        return bodyEnd;
+    }
+
+    /**
+     * Validates the pizza lines of a body and queues them as one order.
+     */
+    private void placeOrder(Connection connection, int from, int to, boolean close, long start) {
+        ByteBuffer in = connection.in;
+        int lines = 0;
+        int pos = from;
+        while (pos < to) {
+            int lineEnd = indexOf(in, (byte) '\n', pos, to);
+            if (lineEnd < 0) {
+                lineEnd = to;
+            }
+            int lineStart = skipSpaces(in, pos, lineEnd);
+            int end = trimEnd(in, lineStart, lineEnd);
+            pos = lineEnd + 1;
+            if (lineStart == end) {
+                continue;
+            }
+            if (lines == MAX_LINES) {
+                queue(connection, TOO_MANY_LINES, close, start);
+                return;
+            }
+            Reply error = parseLine(in, lineStart, end, lines);
+            if (error != null) {
+                queue(connection, error, close, start);
+                return;
+            }
+            lines++;
+        }
+        if (lines == 0) {
+            queue(connection, EMPTY_ORDER, close, start);
+            return;
+        }
+
+        Inventory inventory = store.getInventory();
+        for (int i = 0; i < lines; i++) {
+            if (!inventory.isAvailable(CRUSTS[lineCrust[i]], lineMask[i])) {
+                queue(connection, OUT_OF_STOCK, close, start);
+                return;
+            }
+        }
+        Order order;
+        try {
+            order = store.newOrder();
+        } catch (IllegalStateException e) {
+            Log.e(TAG, "Could not number an order", e); // The order-number lease failed
+            queue(connection, UNAVAILABLE, close, start);
+            return;
+        }
+        for (int i = 0; i < lines; i++) {
+            order.addPizza(spec(i), lineQuantity[i]);
+        }
+        queueOrder(connection, order, close, start);
+    }
+
+    /**
+     * Parses and validates one pizza line into slot i of the line arrays.
+     *
+     * @return the reply for an invalid line, or null if it is valid
+     */
+    private Reply parseLine(ByteBuffer in, int start, int end, int i) {
+        int tokenEnd = tokenEnd(in, start, end);
+        int type = indexOfName(in, start, tokenEnd, TYPE_NAMES);
+        if (type < 0) {
+            return tokenEnd == end ? BAD_LINE : UNKNOWN_TYPE;
+        }
+        start = skipSpaces(in, tokenEnd, end);
+        tokenEnd = tokenEnd(in, start, end);
+        int style = indexOfName(in, start, tokenEnd, STYLE_NAMES);
+        if (style < 0) {
+            return start == end ? BAD_LINE : UNKNOWN_STYLE;
+        }
+        start = skipSpaces(in, tokenEnd, end);
+        tokenEnd = tokenEnd(in, start, end);
+        int size = indexOfName(in, start, tokenEnd, SIZE_NAMES);
+        if (size < 0) {
+            return start == end ? BAD_LINE : UNKNOWN_SIZE;
+        }
+        start = skipSpaces(in, tokenEnd, end);
+        tokenEnd = tokenEnd(in, start, end);
+        int crust = indexOfName(in, start, tokenEnd, CRUST_NAMES);
+        if (crust < 0) {
+            return start == end ? BAD_LINE : UNKNOWN_CRUST;
+        }
+        MenuCatalog catalog = MenuCatalogs.current();
+        if (catalog.getCrust(TYPES[type], style) != CRUSTS[crust]) {
+            return WRONG_CRUST;
+        }
+        start = skipSpaces(in, tokenEnd, end);
+        tokenEnd = tokenEnd(in, start, end);
+        if (start == end) {
+            return BAD_LINE;
+        }
+        int quantity = parseNumber(in, start, tokenEnd, MAX_QUANTITY + 1);
+        if (quantity < 1 || quantity > MAX_QUANTITY) {
+            return BAD_QUANTITY;
+        }
+
+        boolean custom = TYPES[type] == PizzaType.BUILD_YOUR_OWN;
+        int mask = custom ? 0 : catalog.getPresetToppingMask(TYPES[type]);
+        int toppings = 0;
+        start = skipSpaces(in, tokenEnd, end);
+        while (start < end) {
+            if (!custom) {
+                return PRESET_TOPPINGS;
+            }
+            tokenEnd = tokenEnd(in, start, end);
+            int topping = indexOfName(in, start, tokenEnd, TOPPING_NAMES);
+            if (topping < 0) {
+                return UNKNOWN_TOPPING;
+            }
+            if ((mask & TOPPINGS[topping].mask()) != 0) {
+                return DUPLICATE_TOPPING;
+            }
+            if (++toppings > MAX_TOPPINGS) {
+                return TOO_MANY_TOPPINGS;
+            }
+            mask |= TOPPINGS[topping].mask();
+            start = skipSpaces(in, tokenEnd, end);
+        }
+
+        lineType[i] = type;
+        lineStyle[i] = style;
+        lineSize[i] = size;
+        lineCrust[i] = crust;
+        lineQuantity[i] = quantity;
+        lineMask[i] = mask;
+        return null;
+    }
+
+    /**
+     * Looks up the spec for pizza line i, interning it on first use.
+     */
+    private PizzaSpec spec(int i) {
+        int key = 1 + (((((lineType[i] * STYLES.length + lineStyle[i]) * SIZES.length + lineSize[i])
+                * CRUSTS.length + lineCrust[i]) << TOPPINGS.length) | lineMask[i]);
+        int slot = slotOf(specKeys, key);
+        if (specKeys[slot] == key) {
+            return specValues[slot];
+        }
+        PizzaSpec spec = PizzaSpecs.intern(TYPES[lineType[i]], STYLES[lineStyle[i]], SIZES[lineSize[i]],
+                CRUSTS[lineCrust[i]], lineMask[i]);
+        if (++specCount * 2 > specKeys.length) {
+            growSpecs();
+            slot = slotOf(specKeys, key);
+        }
+        specKeys[slot] = key;
+        specValues[slot] = spec;
+        return spec;
+    }
+
+    /**
+     * Doubles the spec table.
+     */
+    private void growSpecs() {
+        int[] keys = specKeys;
+        PizzaSpec[] values = specValues;
+        specKeys = new int[keys.length * 2];
+        specValues = new PizzaSpec[keys.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                int slot = slotOf(specKeys, keys[i]);
+                specKeys[slot] = keys[i];
+                specValues[slot] = values[i];
+            }
+        }
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it belongs.
+     */
+    private static int slotOf(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> 16 & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Queues a reply.
+     */
+    private void reply(Connection connection, Reply reply, boolean close) {
+        if (reply != OK) {
+            rejected.increment();
+        }
+        ByteBuffer out = connection.out;
+        out.put(reply.status);
+        out.put(CONTENT_LENGTH_HEADER);
+        putDecimal(out, reply.body.length);
+        out.put(CRLF);
+        if (close) {
+            out.put(CONNECTION_CLOSE_HEADER);
+            connection.replyClose = true;
+            connection.closing = true;
+        }
+        out.put(CRLF);
+        out.put(reply.body);
+    }
+
+    /**
+     * Queues the reply to a placed order: its order number.
+     */
+    private static void replyCreated(Connection connection, int orderNumber, boolean close) {
+        ByteBuffer out = connection.out;
+        out.put(CREATED);
+        out.put(CONTENT_LENGTH_HEADER);
+        putDecimal(out, digits(orderNumber) + 1);
+        out.put(CRLF);
+        if (close) {
+            out.put(CONNECTION_CLOSE_HEADER);
+            connection.replyClose = true;
+            connection.closing = true;
+        }
+        out.put(CRLF);
+        putDecimal(out, orderNumber);
+        out.put((byte) '\n');
+    }
+
+    /**
+     * Closes a connection.
+     */
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Closes every connection, the listening socket and the selector.
+     */
+    private void shutDown() {
+        running = false;
+        try {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            Log.w(TAG, "Could not close the order intake server cleanly", e);
+        }
+    }
+
+    /**
+     * Finds the "\r\n\r\n" ending a request's headers.
+     *
+     * @return its offset, or -1 if it has not arrived
+     */
+    private static int indexOfBlankLine(ByteBuffer in, int from, int to) {
+        for (int i = from; i + 3 < to; i++) {
+            if (in.get(i) == '\r' && in.get(i + 1) == '\n' && in.get(i + 2) == '\r' && in.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares a range of the buffer with a secret, taking the same time
+     * wherever they differ.
+     */
+    private static boolean matchesSecret(ByteBuffer in, int from, int to, byte[] secret) {
+        int difference = (to - from) ^ secret.length;
+        for (int i = 0; i < secret.length; i++) {
+            difference |= secret[i] ^ (from + i < to ? in.get(from + i) : 0);
+        }
+        return difference == 0;
+    }
+
+    /**
+     * Finds a byte.
+     *
+     * @return its offset, or -1 if it is not between from and to
+     */
+    private static int indexOf(ByteBuffer in, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (in.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips spaces and tabs.
+     */
+    private static int skipSpaces(ByteBuffer in, int from, int to) {
+        while (from < to && (in.get(from) == ' ' || in.get(from) == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Drops trailing whitespace, including the '\r' of a CRLF line.
+     */
+    private static int trimEnd(ByteBuffer in, int from, int to) {
+        while (to > from && in.get(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Finds the end of the token starting at from.
+     */
+    private static int tokenEnd(ByteBuffer in, int from, int to) {
+        while (from < to && in.get(from) != ' ' && in.get(from) != '\t') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Compares a range of the buffer with an ASCII name.
+     */
+    private static boolean equals(ByteBuffer in, int from, int to, byte[] name, boolean ignoreCase) {
+        if (to - from != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            byte b = in.get(from + i);
+            if (ignoreCase && b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the name matching a range of the buffer.
+     *
+     * @return the index of the name, or -1
+     */
+    private static int indexOfName(ByteBuffer in, int from, int to, byte[][] names) {
+        for (int i = 0; i < names.length; i++) {
+            if (equals(in, from, to, names[i], false)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a non-negative decimal number, stopping once it reaches limit.
+     *
+     * @return the number, at most limit, or -1 if the range is not all digits
+     */
+    private static int parseNumber(ByteBuffer in, int from, int to, int limit) {
+        if (from == to) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = in.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = Math.min(limit, value * 10 + (b - '0'));
+        }
+        return value;
+    }
+
+    /**
+     * Counts the decimal digits of a non-negative number.
+     */
+    private static int digits(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Writes a non-negative number in decimal.
+     */
+    private static void putDecimal(ByteBuffer out, int value) {
+        int end = out.position() + digits(value);
+        for (int i = end - 1; i >= out.position(); i--) {
+            out.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        out.position(end);
+    }
+
+    /**
+     * Encodes enum names.
+     */
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = ascii(values[i].name());
+        }
+        return names;
+    }
+
+    /**
+     * Encodes a string as ASCII.
+     */
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A reply's status line and one-line body, encoded once.
+     */
+    private static final class Reply {
+        final byte[] status;
+        final byte[] body;
+
+        Reply(String status, String body) {
+            this.status = ascii("HTTP/1.1 " + status + "\r\n");
+            this.body = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A client connection and its buffers.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(MAX_REQUEST_BYTES);
+        final ByteBuffer out = ByteBuffer.allocate(OUT_BYTES);
+        boolean replyClose;     // A reply closing the connection is queued; later requests are ignored
+        boolean closing;        // Close once the queued replies are sent
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.pizzeria.intake;
+
+import com.example.pizzeria.models.Order;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Places the orders the OrderIntakeServer takes. The app passes
+ * GlobalData.placeOrders, so they are counted with the orders placed on
+ * the screens; a test or tool can pass StorePartition.placeOrders.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public interface OrderPlacer {
+
+    /**
+     * Places orders as one batch, as StorePartition.placeOrders does. If
+     * this throws, none of them may be placed.
+     *
+     * @param orders     the orders to place
+     * @param onRejected receives each order left out and the reason
+     * @return the orders placed
+     */
+    List<Order> placeOrders(Collection<Order> orders, BiConsumer<Order, IllegalStateException> onRejected);
+}
@@ -0,0 +1,65 @@
+package com.example.pizzeria.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named, thread-safe counter. Incrementing never allocates.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class Counter {
+
+    private final String name;
+    private final AtomicLong value = new AtomicLong();
+
+    /**
+     * Constructs a counter starting at zero. Use MetricsRegistry.counter to
+     * obtain a registered instance.
+     *
+     * @param name the metric name
+     */
+    Counter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the metric name.
+     *
+     * @return the name of this counter
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        value.incrementAndGet();
+    }
+
+    /**
+     * Increments the counter by the given amount.
+     *
+     * @param delta the amount to add
+     */
+    public void add(long delta) {
+        value.addAndGet(delta);
+    }
+
+    /**
+     * Retrieves the current value.
+     *
+     * @return the counter value
+     */
+    public long get() {
+        return value.get();
+    }
+
+    /**
+     * Resets the counter to zero.
+     */
+    public void reset() {
+        value.set(0L);
+    }
+}
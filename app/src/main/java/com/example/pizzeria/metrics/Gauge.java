@@ -0,0 +1,80 @@
+package com.example.pizzeria.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named, thread-safe level that goes up and down, such as the number of
+ * tasks waiting in a queue, together with the highest level it has reached.
+ * Updating never allocates.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class Gauge {
+
+    private final String name;
+    private final AtomicLong value = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructs a gauge at zero. Use MetricsRegistry.gauge to obtain a
+     * registered instance.
+     *
+     * @param name the metric name
+     */
+    Gauge(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the metric name.
+     *
+     * @return the name of this gauge
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Raises the level by one.
+     */
+    public void increment() {
+        long current = value.incrementAndGet();
+        long currentMax = max.get();
+        while (current > currentMax && !max.compareAndSet(currentMax, current)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Lowers the level by one.
+     */
+    public void decrement() {
+        value.decrementAndGet();
+    }
+
+    /**
+     * Retrieves the current level.
+     *
+     * @return the gauge value
+     */
+    public long get() {
+        return value.get();
+    }
+
+    /**
+     * Retrieves the highest level since the last reset.
+     *
+     * @return the maximum value
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Resets the maximum to the current level. The level itself describes
+     * live state, so it is kept.
+     */
+    public void reset() {
+        max.set(value.get());
+    }
+}
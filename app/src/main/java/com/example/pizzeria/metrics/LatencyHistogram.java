@@ -0,0 +1,192 @@
+package com.example.pizzeria.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory latency histogram with log-linear buckets, in the style of
+ * HdrHistogram. Each power-of-two range is split into 16 linear sub-buckets,
+ * which keeps the relative error of any recorded value under about 6%.
+ * Values are in nanoseconds and anything above 2^41 ns (about 36 minutes)
+ * is clamped into the last bucket.
+ *
+ * Recording is a handful of atomic increments on preallocated arrays, so it
+ * never allocates and is safe to call from any thread. Reads are not a
+ * consistent snapshot, which is acceptable for monitoring purposes.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Constructs an empty histogram. Use MetricsRegistry.histogram to obtain
+     * a registered instance.
+     *
+     * @param name the metric name
+     */
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the metric name.
+     *
+     * @return the name of this histogram
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a single latency value.
+     *
+     * @param nanos the latency in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long currentMax = maxNanos.get();
+        while (value > currentMax && !maxNanos.compareAndSet(currentMax, value)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since the given start, as returned by System.nanoTime().
+     *
+     * @param startNanos the start time
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Retrieves the number of recorded values.
+     *
+     * @return the total count
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Retrieves the sum of all recorded values.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * Retrieves the largest recorded value.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Estimates a percentile from the bucket counts. The upper bound of the
+     * bucket containing the percentile is returned, capped at the recorded maximum.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the estimated latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * Retrieves the number of buckets in the histogram.
+     *
+     * @return the bucket count
+     */
+    public int getBucketCount() {
+        return BUCKET_COUNT;
+    }
+
+    /**
+     * Retrieves the number of values recorded in a bucket.
+     *
+     * @param index the bucket index
+     * @return the count for that bucket
+     */
+    public long getBucketCount(int index) {
+        return counts.get(index);
+    }
+
+    /**
+     * Retrieves the largest value that falls into a bucket.
+     *
+     * @param index the bucket index
+     * @return the inclusive upper bound in nanoseconds
+     */
+    public static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lower = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        totalCount.set(0L);
+        totalNanos.set(0L);
+        maxNanos.set(0L);
+    }
+
+    /**
+     * Maps a value to its bucket index.
+     *
+     * @param value a non-negative value in nanoseconds
+     * @return the bucket index
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && value >= (1L << (MAX_EXPONENT + 1))) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.pizzeria.metrics;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Printer;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches the main thread for stalls and dropped frames.
+ *
+ * Every main-Looper message is timed through the Looper's message logging
+ * hook. A background thread polls the message in flight, and when one has
+ * been running longer than the stall threshold it captures the main
+ * thread's stack, the dispatching handler and the screen in front into
+ * a fixed-size ring buffer.
+ *
+ * Frame durations come from FrameMetrics on the resumed activity's window
+ * and are aggregated per screen into ScreenJankStats. A frame is janky
+ * when it misses the display's frame budget and frozen above 700 ms.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class MainThreadWatchdog implements Printer, Application.ActivityLifecycleCallbacks,
+        Window.OnFrameMetricsAvailableListener {
+
+    private static final long STALL_THRESHOLD_MILLIS = 250L;
+    private static final long FROZEN_FRAME_NANOS = 700_000_000L;
+    private static final int STALL_RING_CAPACITY = 32;
+    private static final String NO_SCREEN = "None";
+
+    private static MainThreadWatchdog instance;
+
+    private final LatencyHistogram messageDurations = MetricsRegistry.histogram("mainThread.message");
+    private final Map<String, ScreenJankStats> screens = new ConcurrentHashMap<>();
+    private final StallRecord[] stallRing = new StallRecord[STALL_RING_CAPACITY];
+    private final Thread mainThread = Looper.getMainLooper().getThread();
+    private final Handler watchdogHandler;
+
+    private int stallRingNext;                  // Next slot to overwrite in the ring buffer
+    private long stallCount;                    // Total stalls captured since install
+    private volatile long messageStartNanos;    // Start of the message in flight, 0 when idle
+    private volatile String currentMessage;     // Looper log line for the message in flight
+    private volatile ScreenJankStats currentScreen;
+    private volatile long frameBudgetNanos = 16_666_667L;
+    private long lastCapturedStart;             // Only touched by the watchdog thread
+
+    /**
+     * Constructs the watchdog and starts its polling thread.
+     */
+    private MainThreadWatchdog() {
+        HandlerThread thread = new HandlerThread("MainThreadWatchdog");
+        thread.start();
+        watchdogHandler = new Handler(thread.getLooper());
+        currentScreen = statsFor(NO_SCREEN);
+    }
+
+    /**
+     * Installs the watchdog for the application. Safe to call more than once.
+     *
+     * @param application the application to watch
+     */
+    public static synchronized void install(Application application) {
+        if (instance != null) {
+            return;
+        }
+        instance = new MainThreadWatchdog();
+        application.registerActivityLifecycleCallbacks(instance);
+        Looper.getMainLooper().setMessageLogging(instance);
+        instance.watchdogHandler.post(instance::checkForStall);
+    }
+
+    /**
+     * Gets the installed watchdog.
+     *
+     * @return the watchdog, or null if install has not been called
+     */
+    public static synchronized MainThreadWatchdog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Receives the Looper's dispatch log lines, which mark the start and end
+     * of every main-thread message.
+     *
+     * @param line the log line written by the Looper
+     */
+    @Override
+    public void println(String line) {
+        if (line.startsWith(">")) {
+            currentMessage = line;
+            messageStartNanos = System.nanoTime();
+        } else if (line.startsWith("<")) {
+            long start = messageStartNanos;
+            messageStartNanos = 0L;
+            if (start != 0L) {
+                long duration = System.nanoTime() - start;
+                messageDurations.record(duration);
+                currentScreen.recordMessage(duration);
+            }
+        }
+    }
+
+    /**
+     * Polls the message in flight and captures a stall record when it has run
+     * past the threshold. Each message is captured at most once.
+     */
+    private void checkForStall() {
+        long start = messageStartNanos;
+        if (start != 0L && start != lastCapturedStart) {
+            long runningMillis = (System.nanoTime() - start) / 1_000_000L;
+            if (runningMillis >= STALL_THRESHOLD_MILLIS) {
+                lastCapturedStart = start;
+                ScreenJankStats screen = currentScreen;
+                screen.recordStall();
+                addStall(new StallRecord(System.currentTimeMillis(), runningMillis,
+                        screen.getScreen(), handlerName(currentMessage), mainThread.getStackTrace()));
+            }
+        }
+        watchdogHandler.postAtTime(this::checkForStall, SystemClock.uptimeMillis() + STALL_THRESHOLD_MILLIS / 2);
+    }
+
+    /**
+     * Receives frame timing for the resumed activity's window.
+     *
+     * @param window                the window that rendered the frame
+     * @param frameMetrics          the frame's timing information
+     * @param dropCountSinceLastInvocation frames whose metrics were dropped
+     */
+    @Override
+    public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+        long duration = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        currentScreen.recordFrame(duration, frameBudgetNanos, FROZEN_FRAME_NANOS);
+    }
+
+    /**
+     * Tracks the resumed activity and starts collecting its frame metrics.
+     *
+     * @param activity the resumed activity
+     */
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+        currentScreen = statsFor(activity.getClass().getSimpleName());
+        if (activity.getDisplay() != null) {
+            frameBudgetNanos = (long) (1_000_000_000L / activity.getDisplay().getRefreshRate());
+        }
+        activity.getWindow().addOnFrameMetricsAvailableListener(this, watchdogHandler);
+    }
+
+    /**
+     * Stops collecting frame metrics for the paused activity.
+     *
+     * @param activity the paused activity
+     */
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+        activity.getWindow().removeOnFrameMetricsAvailableListener(this);
+        currentScreen = statsFor(NO_SCREEN);
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {}
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {}
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {}
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {}
+
+    /**
+     * Gets the captured stalls, oldest first. At most the last 32 are kept.
+     *
+     * @return a list of stall records
+     */
+    public synchronized List<StallRecord> getStalls() {
+        List<StallRecord> stalls = new ArrayList<>(STALL_RING_CAPACITY);
+        for (int i = 0; i < STALL_RING_CAPACITY; i++) {
+            StallRecord record = stallRing[(stallRingNext + i) % STALL_RING_CAPACITY];
+            if (record != null) {
+                stalls.add(record);
+            }
+        }
+        return stalls;
+    }
+
+    /**
+     * Gets the total number of stalls captured, including those that have
+     * since been overwritten in the ring buffer.
+     *
+     * @return the stall count
+     */
+    public synchronized long getStallCount() {
+        return stallCount;
+    }
+
+    /**
+     * Gets the jank statistics for every screen seen so far, sorted by name.
+     *
+     * @return a list of screen statistics
+     */
+    public List<ScreenJankStats> getScreenStats() {
+        List<ScreenJankStats> list = new ArrayList<>(screens.values());
+        list.sort(Comparator.comparing(ScreenJankStats::getScreen));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Builds a human-readable summary of per-screen jank and recent stalls.
+     *
+     * @return the summary text
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (ScreenJankStats stats : getScreenStats()) {
+            builder.append(stats).append('\n');
+        }
+        List<StallRecord> stalls = getStalls();
+        builder.append("Stalls captured: ").append(getStallCount()).append('\n');
+        for (int i = stalls.size() - 1; i >= 0; i--) {
+            builder.append(stalls.get(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Stores a stall in the ring buffer, overwriting the oldest entry when full.
+     *
+     * @param record the stall record
+     */
+    private synchronized void addStall(StallRecord record) {
+        stallRing[stallRingNext] = record;
+        stallRingNext = (stallRingNext + 1) % STALL_RING_CAPACITY;
+        stallCount++;
+    }
+
+    /**
+     * Gets or creates the statistics for a screen.
+     *
+     * @param screen the screen name
+     * @return the screen statistics
+     */
+    private ScreenJankStats statsFor(String screen) {
+        return screens.computeIfAbsent(screen, ScreenJankStats::new);
+    }
+
+    /**
+     * Extracts the handler class name from a Looper dispatch log line, which
+     * looks like "&gt;&gt;&gt;&gt;&gt; Dispatching to Handler (android.view.Choreographer$FrameHandler) {..} ..".
+     *
+     * @param line the log line, may be null
+     * @return the handler name, or "unknown"
+     */
+    private static String handlerName(String line) {
+        if (line == null) {
+            return "unknown";
+        }
+        int open = line.indexOf('(');
+        int close = line.indexOf(')', open + 1);
+        return (open >= 0 && close > open) ? line.substring(open + 1, close) : line;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.pizzeria.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MetricsRegistry is a utility class holding the application's named
+ * latency histograms, counters, gauges and throughput meters.
+ *
+ * Instrumented code looks up its metrics once, typically into static final
+ * fields, and then records into them on every call. Lookup allocates on first
+ * registration only; recording never allocates.
+ *
+ * The registry can be dumped in a line-oriented text format:
+ * <pre>
+ * counter &lt;name&gt; &lt;value&gt;
+ * gauge &lt;name&gt; value=&lt;v&gt; max=&lt;m&gt;
+ * throughput &lt;name&gt; &lt;window&gt; orders=&lt;n&gt; pizzas=&lt;p&gt; cents=&lt;c&gt;
+ * histogram &lt;name&gt; count=&lt;n&gt; sum_ns=&lt;s&gt; max_ns=&lt;m&gt; p50_ns=.. p95_ns=.. p99_ns=..
+ * bucket &lt;name&gt; &lt;upper_bound_ns&gt; &lt;count&gt;
+ * </pre>
+ * Only non-empty buckets are written.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class MetricsRegistry {
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, ThroughputMeter> throughputMeters = new ConcurrentHashMap<>();
+
+    // Windows reported by dump and summary
+    private static final long[] THROUGHPUT_WINDOWS = {60_000L, ThroughputMeter.SECOND_RING_MILLIS};
+    private static final String[] THROUGHPUT_WINDOW_NAMES = {"1m", "1h"};
+
+    /**
+     * Private constructor to prevent instantiation of the MetricsRegistry class.
+     */
+    private MetricsRegistry() {}
+
+    /**
+     * Gets the histogram with the given name, registering it if needed.
+     *
+     * @param name the metric name (e.g., "order.handlePlaceOrder")
+     * @return the histogram
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Gets the counter with the given name, registering it if needed.
+     *
+     * @param name the metric name (e.g., "globalData.placeCurrentOrder")
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Gets the gauge with the given name, registering it if needed.
+     *
+     * @param name the metric name (e.g., "executor.io.queueDepth")
+     * @return the gauge
+     */
+    public static Gauge gauge(String name) {
+        return gauges.computeIfAbsent(name, Gauge::new);
+    }
+
+    /**
+     * Gets the throughput meter with the given name, registering it if needed.
+     *
+     * @param name the metric name (e.g., "globalData.ordersPlaced")
+     * @return the throughput meter
+     */
+    public static ThroughputMeter throughput(String name) {
+        return throughputMeters.computeIfAbsent(name, ThroughputMeter::new);
+    }
+
+    /**
+     * Gets all registered histograms sorted by name.
+     *
+     * @return a list of histograms
+     */
+    public static List<LatencyHistogram> getHistograms() {
+        List<LatencyHistogram> list = new ArrayList<>(histograms.values());
+        list.sort(Comparator.comparing(LatencyHistogram::getName));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Gets all registered counters sorted by name.
+     *
+     * @return a list of counters
+     */
+    public static List<Counter> getCounters() {
+        List<Counter> list = new ArrayList<>(counters.values());
+        list.sort(Comparator.comparing(Counter::getName));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Gets all registered gauges sorted by name.
+     *
+     * @return a list of gauges
+     */
+    public static List<Gauge> getGauges() {
+        List<Gauge> list = new ArrayList<>(gauges.values());
+        list.sort(Comparator.comparing(Gauge::getName));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Gets all registered throughput meters sorted by name.
+     *
+     * @return a list of throughput meters
+     */
+    public static List<ThroughputMeter> getThroughputMeters() {
+        List<ThroughputMeter> list = new ArrayList<>(throughputMeters.values());
+        list.sort(Comparator.comparing(ThroughputMeter::getName));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Resets every registered metric to zero. The metrics stay registered;
+     * gauges keep their current level and only reset their maximum.
+     */
+    public static void resetAll() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (Gauge gauge : gauges.values()) {
+            gauge.reset();
+        }
+        for (ThroughputMeter meter : throughputMeters.values()) {
+            meter.reset();
+        }
+    }
+
+    /**
+     * Writes every registered metric in the machine-readable text format.
+     *
+     * @param writer the destination
+     * @throws IOException if writing fails
+     */
+    public static void dump(Writer writer) throws IOException {
+        writer.write("# pizzeria metrics " + System.currentTimeMillis() + "\n");
+        for (Counter counter : getCounters()) {
+            writer.write("counter " + counter.getName() + " " + counter.get() + "\n");
+        }
+        for (Gauge gauge : getGauges()) {
+            writer.write("gauge " + gauge.getName() + " value=" + gauge.get() + " max=" + gauge.getMax() + "\n");
+        }
+        for (ThroughputMeter meter : getThroughputMeters()) {
+            for (int i = 0; i < THROUGHPUT_WINDOWS.length; i++) {
+                ThroughputWindow window = meter.window(THROUGHPUT_WINDOWS[i]);
+                writer.write(String.format(Locale.US, "throughput %s %s orders=%d pizzas=%d cents=%d\n",
+                        meter.getName(), THROUGHPUT_WINDOW_NAMES[i],
+                        window.getOrders(), window.getPizzas(), window.getCents()));
+            }
+        }
+        for (LatencyHistogram histogram : getHistograms()) {
+            writer.write(String.format(Locale.US,
+                    "histogram %s count=%d sum_ns=%d max_ns=%d p50_ns=%d p95_ns=%d p99_ns=%d\n",
+                    histogram.getName(), histogram.getCount(), histogram.getTotalNanos(),
+                    histogram.getMaxNanos(), histogram.getPercentileNanos(50),
+                    histogram.getPercentileNanos(95), histogram.getPercentileNanos(99)));
+            for (int i = 0; i < histogram.getBucketCount(); i++) {
+                long count = histogram.getBucketCount(i);
+                if (count > 0) {
+                    writer.write("bucket " + histogram.getName() + " "
+                            + LatencyHistogram.bucketUpperBound(i) + " " + count + "\n");
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Builds a human-readable summary of every registered metric,
+     * with latencies shown in milliseconds.
+     *
+     * @return the summary text
+     */
+    public static String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (LatencyHistogram histogram : getHistograms()) {
+            builder.append(String.format(Locale.US,
+                    "%s%n  n=%d  p50=%.3f  p95=%.3f  p99=%.3f  max=%.3f ms%n",
+                    histogram.getName(), histogram.getCount(),
+                    histogram.getPercentileNanos(50) / 1e6, histogram.getPercentileNanos(95) / 1e6,
+                    histogram.getPercentileNanos(99) / 1e6, histogram.getMaxNanos() / 1e6));
+        }
+        for (Counter counter : getCounters()) {
+            builder.append(counter.getName()).append(" = ").append(counter.get()).append('\n');
+        }
+        for (Gauge gauge : getGauges()) {
+            builder.append(gauge.getName()).append(" = ").append(gauge.get())
+                    .append(" (max ").append(gauge.getMax()).append(")\n");
+        }
+        for (ThroughputMeter meter : getThroughputMeters()) {
+            builder.append(meter.getName()).append('\n');
+            for (int i = 0; i < THROUGHPUT_WINDOWS.length; i++) {
+                builder.append("  ").append(THROUGHPUT_WINDOW_NAMES[i]).append(": ")
+                        .append(meter.window(THROUGHPUT_WINDOWS[i])).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.pizzeria.metrics;
+
+import java.util.Locale;
+
+/**
+ * Aggregated responsiveness statistics for a single screen (activity).
+ * Frame durations and main-thread message durations are recorded into
+ * histograms registered with the MetricsRegistry under "jank.&lt;screen&gt;",
+ * so they also appear in metric dumps.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class ScreenJankStats {
+
+    private final String screen;
+    private final LatencyHistogram frameDurations;
+    private final LatencyHistogram messageDurations;
+    private final Counter jankyFrames;
+    private final Counter frozenFrames;
+    private final Counter stalls;
+
+    /**
+     * Constructs the statistics for a screen and registers its metrics.
+     *
+     * @param screen the screen name (e.g., "OrderActivity")
+     */
+    ScreenJankStats(String screen) {
+        this.screen = screen;
+        String prefix = "jank." + screen + ".";
+        this.frameDurations = MetricsRegistry.histogram(prefix + "frame");
+        this.messageDurations = MetricsRegistry.histogram(prefix + "message");
+        this.jankyFrames = MetricsRegistry.counter(prefix + "jankyFrames");
+        this.frozenFrames = MetricsRegistry.counter(prefix + "frozenFrames");
+        this.stalls = MetricsRegistry.counter(prefix + "stalls");
+    }
+
+    /**
+     * Records a rendered frame.
+     *
+     * @param durationNanos the total frame duration
+     * @param budgetNanos   the frame budget at the current refresh rate
+     * @param frozenNanos   the duration above which a frame counts as frozen
+     */
+    void recordFrame(long durationNanos, long budgetNanos, long frozenNanos) {
+        frameDurations.record(durationNanos);
+        if (durationNanos > budgetNanos) {
+            jankyFrames.increment();
+        }
+        if (durationNanos > frozenNanos) {
+            frozenFrames.increment();
+        }
+    }
+
+    /**
+     * Records a main-thread message dispatched while this screen was in front.
+     *
+     * @param durationNanos the time spent handling the message
+     */
+    void recordMessage(long durationNanos) {
+        messageDurations.record(durationNanos);
+    }
+
+    /**
+     * Records a stall captured while this screen was in front.
+     */
+    void recordStall() {
+        stalls.increment();
+    }
+
+    /**
+     * Retrieves the screen name.
+     *
+     * @return the screen name
+     */
+    public String getScreen() {
+        return screen;
+    }
+
+    /**
+     * Retrieves the number of rendered frames.
+     *
+     * @return the frame count
+     */
+    public long getFrames() {
+        return frameDurations.getCount();
+    }
+
+    /**
+     * Retrieves the number of frames that missed the frame budget.
+     *
+     * @return the janky frame count
+     */
+    public long getJankyFrames() {
+        return jankyFrames.get();
+    }
+
+    /**
+     * Retrieves the number of frozen frames.
+     *
+     * @return the frozen frame count
+     */
+    public long getFrozenFrames() {
+        return frozenFrames.get();
+    }
+
+    /**
+     * Retrieves the number of stalls captured on this screen.
+     *
+     * @return the stall count
+     */
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    /**
+     * Provides a one-line summary of the screen's statistics.
+     *
+     * @return a string representation of the statistics
+     */
+    @Override
+    public String toString() {
+        long frames = getFrames();
+        double jankPercent = frames > 0 ? 100.0 * getJankyFrames() / frames : 0.0;
+        return String.format(Locale.US,
+                "%s: frames=%d janky=%d (%.1f%%) frozen=%d p95=%.1fms stalls=%d worstMsg=%.1fms",
+                screen, frames, getJankyFrames(), jankPercent, getFrozenFrames(),
+                frameDurations.getPercentileNanos(95) / 1e6, getStalls(),
+                messageDurations.getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.pizzeria.metrics;
+
+import java.util.Locale;
+
+/**
+ * Describes a main-thread stall captured by the MainThreadWatchdog:
+ * when it happened, how long the message had been running when it was
+ * caught, which screen was in front, which handler was dispatching and
+ * the main thread's stack at that moment.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class StallRecord {
+
+    private final long timestampMillis;
+    private final long durationMillis;
+    private final String screen;
+    private final String handler;
+    private final StackTraceElement[] stack;
+
+    /**
+     * Constructs a StallRecord.
+     *
+     * @param timestampMillis the wall clock time the stall was captured
+     * @param durationMillis  how long the message had been running when captured
+     * @param screen          the screen in front at the time
+     * @param handler         the handler dispatching the message
+     * @param stack           the main thread's stack trace
+     */
+    StallRecord(long timestampMillis, long durationMillis, String screen, String handler,
+                StackTraceElement[] stack) {
+        this.timestampMillis = timestampMillis;
+        this.durationMillis = durationMillis;
+        this.screen = screen;
+        this.handler = handler;
+        this.stack = stack;
+    }
+
+    /**
+     * Retrieves the wall clock time the stall was captured.
+     *
+     * @return the timestamp in milliseconds since the epoch
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Retrieves how long the message had been running when captured.
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Retrieves the screen that was in front.
+     *
+     * @return the screen name
+     */
+    public String getScreen() {
+        return screen;
+    }
+
+    /**
+     * Retrieves the handler that was dispatching the stalled message.
+     *
+     * @return the handler class name
+     */
+    public String getHandler() {
+        return handler;
+    }
+
+    /**
+     * Retrieves a copy of the main thread's stack at the time of the stall.
+     *
+     * @return the stack trace
+     */
+    public StackTraceElement[] getStack() {
+        return stack.clone();
+    }
+
+    /**
+     * Provides a summary of the stall with the top frames of the stack.
+     *
+     * @return a string representation of the stall
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format(Locale.US,
+                "Stall %d ms on %s via %s%n", durationMillis, screen, handler));
+        int frames = Math.min(stack.length, 8);
+        for (int i = 0; i < frames; i++) {
+            builder.append("    at ").append(stack[i]).append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.pizzeria.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A named meter of order throughput: how many orders, pizzas and cents of
+ * revenue were placed in a recent window of time.
+ *
+ * Placements are counted in two fixed rings of buckets, one per second
+ * for the last hour and one per minute for the last day. A bucket is
+ * reused once its second or minute has scrolled out of the ring, so the
+ * meter takes the same memory no matter how long the app runs, and
+ * recording never allocates.
+ *
+ * Windows up to an hour are answered from the per-second ring, longer
+ * ones from the per-minute ring. A window ends at the current bucket,
+ * which is still filling.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class ThroughputMeter {
+
+    /** Longest window answered at one-second resolution. */
+    public static final long SECOND_RING_MILLIS = 60L * 60 * 1000;
+
+    /** Longest window the meter can answer. */
+    public static final long MINUTE_RING_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final String name;
+    private final Ring seconds = new Ring(1000, (int) (SECOND_RING_MILLIS / 1000));
+    private final Ring minutes = new Ring(60 * 1000, (int) (MINUTE_RING_MILLIS / (60 * 1000)));
+
+    /**
+     * Constructs an empty meter. Use MetricsRegistry.throughput to obtain
+     * a registered instance.
+     *
+     * @param name the metric name
+     */
+    ThroughputMeter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the metric name.
+     *
+     * @return the name of this meter
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a placed order.
+     *
+     * @param timestampMillis when the order was placed
+     * @param cents           the order total in cents
+     * @param pizzas          the number of pizzas in the order
+     */
+    public synchronized void record(long timestampMillis, long cents, int pizzas) {
+        seconds.record(timestampMillis, cents, pizzas);
+        minutes.record(timestampMillis, cents, pizzas);
+    }
+
+    /**
+     * Sums the placements in the window ending now.
+     *
+     * @param windowMillis the window length, at most MINUTE_RING_MILLIS
+     * @return the totals over the window
+     * @throws IllegalArgumentException if the window is not positive or too long
+     */
+    public ThroughputWindow window(long windowMillis) {
+        return window(windowMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Sums the placements in the window ending at a given time.
+     *
+     * @param windowMillis the window length, at most MINUTE_RING_MILLIS
+     * @param nowMillis    the end of the window
+     * @return the totals over the window
+     * @throws IllegalArgumentException if the window is not positive or too long
+     */
+    public synchronized ThroughputWindow window(long windowMillis, long nowMillis) {
+        if (windowMillis <= 0 || windowMillis > MINUTE_RING_MILLIS) {
+            throw new IllegalArgumentException("Window must be between 1 ms and 24 h: " + windowMillis);
+        }
+        Ring ring = windowMillis <= SECOND_RING_MILLIS ? seconds : minutes;
+        return ring.sum(windowMillis, nowMillis);
+    }
+
+    /**
+     * Clears every bucket.
+     */
+    public synchronized void reset() {
+        seconds.reset();
+        minutes.reset();
+    }
+
+    /**
+     * A ring of fixed-width time buckets. Each slot remembers which bucket
+     * it currently holds so stale slots are skipped and recycled.
+     */
+    private static final class Ring {
+        final long widthMillis;
+        final long[] bucket;        // Bucket number (time / width) held by each slot, -1 if empty
+        final long[] orders;
+        final long[] cents;
+        final long[] pizzas;
+
+        Ring(long widthMillis, int slots) {
+            this.widthMillis = widthMillis;
+            this.bucket = new long[slots];
+            this.orders = new long[slots];
+            this.cents = new long[slots];
+            this.pizzas = new long[slots];
+            reset();
+        }
+
+        void record(long timestampMillis, long orderCents, int orderPizzas) {
+            long number = Math.floorDiv(timestampMillis, widthMillis);
+            int slot = (int) Math.floorMod(number, (long) bucket.length);
+            if (bucket[slot] != number) {
+                if (bucket[slot] > number) {
+                    return; // Older than anything the ring still holds
+                }
+                bucket[slot] = number;
+                orders[slot] = 0;
+                cents[slot] = 0;
+                pizzas[slot] = 0;
+            }
+            orders[slot]++;
+            cents[slot] += orderCents;
+            pizzas[slot] += orderPizzas;
+        }
+
+        ThroughputWindow sum(long windowMillis, long nowMillis) {
+            long last = Math.floorDiv(nowMillis, widthMillis);
+            long first = last - Math.min((windowMillis + widthMillis - 1) / widthMillis, bucket.length) + 1;
+            long totalOrders = 0;
+            long totalCents = 0;
+            long totalPizzas = 0;
+            for (long number = first; number <= last; number++) {
+                int slot = (int) Math.floorMod(number, (long) bucket.length);
+                if (bucket[slot] == number) {
+                    totalOrders += orders[slot];
+                    totalCents += cents[slot];
+                    totalPizzas += pizzas[slot];
+                }
+            }
+            return new ThroughputWindow((last - first + 1) * widthMillis, totalOrders, totalCents, totalPizzas);
+        }
+
+        void reset() {
+            Arrays.fill(bucket, -1);
+            Arrays.fill(orders, 0);
+            Arrays.fill(cents, 0);
+            Arrays.fill(pizzas, 0);
+        }
+    }
+}
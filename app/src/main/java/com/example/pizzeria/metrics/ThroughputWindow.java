@@ -0,0 +1,106 @@
+package com.example.pizzeria.metrics;
+
+import java.util.Locale;
+
+/**
+ * Totals of the orders placed in one window of a ThroughputMeter, with the
+ * rates derived from them.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class ThroughputWindow {
+
+    private final long windowMillis;
+    private final long orders;
+    private final long cents;
+    private final long pizzas;
+
+    /**
+     * Constructs a ThroughputWindow.
+     *
+     * @param windowMillis the length of the window, rounded to whole buckets
+     * @param orders       the orders placed in the window
+     * @param cents        the revenue in the window, in cents
+     * @param pizzas       the pizzas placed in the window
+     */
+    ThroughputWindow(long windowMillis, long orders, long cents, long pizzas) {
+        this.windowMillis = windowMillis;
+        this.orders = orders;
+        this.cents = cents;
+        this.pizzas = pizzas;
+    }
+
+    /**
+     * Retrieves the length of the window.
+     *
+     * @return the window in milliseconds
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Retrieves the number of orders placed in the window.
+     *
+     * @return the order count
+     */
+    public long getOrders() {
+        return orders;
+    }
+
+    /**
+     * Retrieves the revenue placed in the window.
+     *
+     * @return the revenue in cents
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Retrieves the number of pizzas placed in the window.
+     *
+     * @return the pizza count
+     */
+    public long getPizzas() {
+        return pizzas;
+    }
+
+    /**
+     * Calculates the average order rate over the window.
+     *
+     * @return orders per minute
+     */
+    public double getOrdersPerMinute() {
+        return orders * 60_000.0 / windowMillis;
+    }
+
+    /**
+     * Calculates the average pizza rate over the window.
+     *
+     * @return pizzas per minute
+     */
+    public double getPizzasPerMinute() {
+        return pizzas * 60_000.0 / windowMillis;
+    }
+
+    /**
+     * Calculates the average revenue rate over the window.
+     *
+     * @return dollars per hour
+     */
+    public double getRevenuePerHour() {
+        return cents / 100.0 * 3_600_000.0 / windowMillis;
+    }
+
+    /**
+     * Provides a one-line description of the window.
+     *
+     * @return a string representation of the window
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d orders, %d pizzas, $%.2f (%.1f orders/min, $%.2f/h)",
+                orders, pizzas, cents / 100.0, getOrdersPerMinute(), getRevenuePerHour());
+    }
+}
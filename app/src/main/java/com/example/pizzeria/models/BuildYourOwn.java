@@ -1,7 +1,5 @@
 package com.example.pizzeria.models;
 
-import java.util.Locale;
-
 /**
  * Represents a customizable "Build Your Own" pizza that allows customers
  * to select their desired toppings. The price is determined based on the
@@ -12,11 +10,6 @@ import java.util.Locale;
  */
 public class BuildYourOwn extends Pizza {
 
-    // Base prices for Build Your Own pizza based on size
-    private static final double BASE_PRICE_SMALL = 8.99;
-    private static final double BASE_PRICE_MEDIUM = 10.99;
-    private static final double BASE_PRICE_LARGE = 12.99;
-    private static final double TOPPING_PRICE = 1.69; // Cost per topping
     private static final int MAX_TOPPINGS = 7; // Maximum number of allowed toppings
 
     /**
@@ -39,7 +32,7 @@ public class BuildYourOwn extends Pizza {
      */
     @Override
     public void addTopping(Topping topping) {
-        if (getToppings().size() < MAX_TOPPINGS) {
+        if (getToppingCount() < MAX_TOPPINGS) {
             super.addTopping(topping);
         } else {
             throw new IllegalArgumentException("Maximum of " + MAX_TOPPINGS + " toppings allowed.");
@@ -56,52 +49,24 @@ public class BuildYourOwn extends Pizza {
     }
 
     /**
-     * Calculates the price of the "Build Your Own" pizza based on its size
-     * and the number of toppings added.
+     * Retrieves the menu type of this pizza.
      *
-     * @return the price of the pizza as a double
+     * @return PizzaType.BUILD_YOUR_OWN
      */
     @Override
-    public double price() {
-        double basePrice;
-        switch (getSize()) {
-            case SMALL:
-                basePrice = BASE_PRICE_SMALL;
-                break;
-            case MEDIUM:
-                basePrice = BASE_PRICE_MEDIUM;
-                break;
-            case LARGE:
-                basePrice = BASE_PRICE_LARGE;
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid size");
-        }
-        // Calculate the total price based on the base price and number of toppings
-        return basePrice + (getToppings().size() * TOPPING_PRICE);
+    public PizzaType getPizzaType() {
+        return PizzaType.BUILD_YOUR_OWN;
     }
 
     /**
-     * Returns a string representation of the "Build Your Own" pizza, including
-     * the size, crust, style, toppings, and calculated price.
+     * Calculates the price of the "Build Your Own" pizza based on its size
+     * and the number of toppings added, using a menu catalog.
      *
-     * @return a string representation of the pizza
+     * @param catalog the catalog to price against
+     * @return the price of the pizza as a double
      */
     @Override
-    public String toString() {
-        try {
-            return String.format(
-                    Locale.US,
-                    "%s (%s), %s %s, Toppings: %s | Price: $%.2f",
-                    getType(),
-                    getStyle(),
-                    getSize(),
-                    getCrust(),
-                    getToppings().isEmpty() ? "None" : getToppings().toString(),
-                    price()
-            );
-        } catch (Exception e) {
-            return "Error displaying pizza details: " + e.getMessage();
-        }
+    public double price(MenuCatalog catalog) {
+        return catalog.getPriceCents(PizzaType.BUILD_YOUR_OWN, getSize(), getToppingCount()) / 100.0;
     }
 }
\ No newline at end of file
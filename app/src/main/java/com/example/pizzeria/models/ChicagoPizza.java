@@ -1,5 +1,7 @@
 package com.example.pizzeria.models;
 
+import com.example.pizzeria.store.Inventory;
+
 /**
  * Represents a factory for creating Chicago-style pizzas.
  * Implements the PizzaFactory interface to provide specific
@@ -15,40 +17,64 @@ public class ChicagoPizza implements PizzaFactory {
     /**
      * Creates a Chicago-style Deluxe pizza with a deep-dish crust.
      *
-     * @return a new Deluxe pizza with DEEP_DISH crust and MEDIUM size
+     * @return a new Deluxe pizza with the catalog crust (DEEP_DISH by default) and MEDIUM size
      */
     @Override
     public Pizza createDeluxe() {
-        return new Deluxe(Crust.DEEP_DISH, Size.MEDIUM, STYLE);
+        return new Deluxe(crust(PizzaType.DELUXE), Size.MEDIUM, STYLE);
     }
 
     /**
      * Creates a Chicago-style BBQ Chicken pizza with a pan crust.
      *
-     * @return a new BBQChicken pizza with PAN crust and MEDIUM size
+     * @return a new BBQChicken pizza with the catalog crust (PAN by default) and MEDIUM size
      */
     @Override
     public Pizza createBBQChicken() {
-        return new BBQChicken(Crust.PAN, Size.MEDIUM, STYLE);
+        return new BBQChicken(crust(PizzaType.BBQ_CHICKEN), Size.MEDIUM, STYLE);
     }
 
     /**
      * Creates a Chicago-style Meatzza pizza with a stuffed crust.
      *
-     * @return a new Meatzza pizza with STUFFED crust and MEDIUM size
+     * @return a new Meatzza pizza with the catalog crust (STUFFED by default) and MEDIUM size
      */
     @Override
     public Pizza createMeatzza() {
-        return new Meatzza(Crust.STUFFED, Size.MEDIUM, STYLE);
+        return new Meatzza(crust(PizzaType.MEATZZA), Size.MEDIUM, STYLE);
     }
 
     /**
      * Creates a Chicago-style "Build Your Own" pizza with a pan crust.
      *
-     * @return a new BuildYourOwn pizza with PAN crust and MEDIUM size
+     * @return a new BuildYourOwn pizza with the catalog crust (PAN by default) and MEDIUM size
      */
     @Override
     public Pizza createBuildYourOwn() {
-        return new BuildYourOwn(Crust.PAN, Size.MEDIUM, STYLE);
+        return new BuildYourOwn(crust(PizzaType.BUILD_YOUR_OWN), Size.MEDIUM, STYLE);
+    }
+
+    /**
+     * Checks whether the inventory can make one Chicago-style pizza of a type,
+     * with its catalog crust and preset toppings. Build Your Own is checked
+     * for its crust alone.
+     *
+     * @param type      the pizza type
+     * @param inventory the store's inventory
+     * @return true if every ingredient is in stock
+     */
+    @Override
+    public boolean isAvailable(PizzaType type, Inventory inventory) {
+        return inventory.isAvailable(crust(type), MenuCatalogs.current().getPresetToppingMask(type));
+    }
+
+    /**
+     * Looks up the Chicago-style crust for a pizza type in the active menu catalog.
+     *
+     * @param type the pizza type
+     * @return the crust for that type
+     */
+    private static Crust crust(PizzaType type) {
+        return MenuCatalogs.current().getCrust(type, PriceQuoteService.CHICAGO);
     }
 }
\ No newline at end of file
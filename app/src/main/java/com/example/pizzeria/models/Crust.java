@@ -13,12 +13,32 @@ import android.os.Parcelable;
  * @author Yousef Naam & Lukas Chang
  */
 public enum Crust implements Parcelable {
-    DEEP_DISH,
-    PAN,
-    STUFFED,
-    BROOKLYN,
-    THIN,
-    HAND_TOSSED;
+    DEEP_DISH("Deep Dish"),
+    PAN("Pan"),
+    STUFFED("Stuffed"),
+    BROOKLYN("Brooklyn"),
+    THIN("Thin"),
+    HAND_TOSSED("Hand-tossed");
+
+    private final String displayName;
+
+    /**
+     * Constructs a Crust with its display name.
+     *
+     * @param displayName the name shown in the builder
+     */
+    Crust(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Retrieves the display name of the crust.
+     *
+     * @return the display name (e.g., "Deep Dish", "Hand-tossed")
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
 
     /**
      * Parcelable implementation: Write the enum value to a Parcel.
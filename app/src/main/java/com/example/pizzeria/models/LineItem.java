@@ -0,0 +1,209 @@
+package com.example.pizzeria.models;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.List;
+
+/**
+ * One line of an order: a pizza configuration and how many of it were
+ * ordered. A catering order of forty identical pizzas is a single line
+ * item with quantity 40, so it is stored, priced and shown once.
+ *
+ * Line items are immutable; Order replaces a line item when its quantity
+ * changes. A line records the PizzaSpec of the pizza it was made from and
+ * keeps its own copy of the pizza, built from that spec, so changing the
+ * pizza afterwards, as the builder screen may, cannot make the line
+ * disagree with its spec. Orders match and group lines by spec. The copy
+ * returned by getPizza must not be changed.
+ *
+ * This class implements Parcelable for use with Android Intents. A line
+ * item is parceled as its pizza's specification, not the pizza object.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class LineItem implements Parcelable {
+
+    private final Pizza pizza;     // The configuration shared by every pizza on the line
+    private final PizzaSpec spec;  // Canonical form of the pizza's configuration
+    private final int quantity;    // Number of pizzas, at least 1
+
+    /**
+     * Constructs a line item for a pizza's current configuration. The line
+     * keeps its own copy; later changes to the pizza do not affect it.
+     *
+     * @param pizza    the pizza configuration
+     * @param quantity the number of pizzas
+     * @throws IllegalArgumentException if the pizza is null or the quantity is not positive
+     */
+    public LineItem(Pizza pizza, int quantity) {
+        this(specOf(pizza), quantity);
+    }
+
+    /**
+     * Constructs a line item for a pizza spec.
+     *
+     * @param spec     the pizza configuration
+     * @param quantity the number of pizzas
+     * @throws IllegalArgumentException if the spec is null or the quantity is not positive
+     */
+    public LineItem(PizzaSpec spec, int quantity) {
+        if (spec == null) {
+            throw new IllegalArgumentException("A line item needs a pizza.");
+        }
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1: " + quantity);
+        }
+        this.pizza = spec.createPizza();
+        this.spec = spec;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Constructs a line item for a known spec and its copy of the pizza, as
+     * when quantities change.
+     */
+    private LineItem(Pizza pizza, PizzaSpec spec, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1: " + quantity);
+        }
+        this.pizza = pizza;
+        this.spec = spec;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Retrieves the pizza configuration of this line.
+     *
+     * @return the line's own copy of the pizza, which must not be changed
+     */
+    public Pizza getPizza() {
+        return pizza;
+    }
+
+    /**
+     * Retrieves the canonical spec of this line's pizza.
+     *
+     * @return the pizza spec
+     */
+    public PizzaSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Retrieves the number of pizzas on this line.
+     *
+     * @return the quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Creates a copy of this line item with another quantity.
+     *
+     * @param quantity the new quantity
+     * @return the new line item
+     * @throws IllegalArgumentException if the quantity is not positive
+     */
+    public LineItem withQuantity(int quantity) {
+        return new LineItem(pizza, spec, quantity);
+    }
+
+    /**
+     * Checks whether a pizza has the same configuration as this line: the
+     * same type, size, crust, style and toppings. The order of the
+     * toppings does not matter.
+     *
+     * @param other the pizza to compare
+     * @return true if the pizza belongs on this line
+     */
+    public boolean matches(Pizza other) {
+        return other == pizza || other != null && PizzaSpecs.of(other) == spec;
+    }
+
+    /**
+     * Returns the pizza description, prefixed with the quantity when more
+     * than one was ordered, e.g. "40 x Deluxe (New York Style), ...",
+     * priced against the active catalog.
+     *
+     * @return a string representation of the line item
+     */
+    @Override
+    public String toString() {
+        return toString(MenuCatalogs.current());
+    }
+
+    /**
+     * Returns the line's description as toString does, priced against a
+     * menu catalog. Use the catalog of the line's order, see Order.getCatalog.
+     *
+     * @param catalog the catalog to price against
+     * @return a string representation of the line item
+     */
+    public String toString(MenuCatalog catalog) {
+        String description = pizza.toString(catalog);
+        return quantity == 1 ? description : quantity + " x " + description;
+    }
+
+    /**
+     * Parcelable implementation: Write the pizza specification and quantity.
+     * The spec id is not written, since it is only valid in this process.
+     */
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(pizza.getPizzaType().name());
+        dest.writeString(pizza.getCrust().name());
+        dest.writeString(pizza.getSize().name());
+        dest.writeString(pizza.getStyle());
+        dest.writeTypedList(pizza.getToppingList());
+        dest.writeInt(quantity);
+    }
+
+    /**
+     * Parcelable implementation: Rebuild the pizza from its specification.
+     */
+    private LineItem(Parcel in) {
+        PizzaType type = PizzaType.valueOf(in.readString());
+        Crust crust = Crust.valueOf(in.readString());
+        Size size = Size.valueOf(in.readString());
+        String style = in.readString();
+        List<Topping> toppings = in.createTypedArrayList(Topping.CREATOR);
+        this.spec = PizzaSpecs.intern(type, style, size, crust, Topping.maskOf(toppings));
+        this.pizza = spec.createPizza();
+        this.quantity = in.readInt();
+    }
+
+    /**
+     * Interns a pizza's configuration, rejecting a null pizza.
+     */
+    private static PizzaSpec specOf(Pizza pizza) {
+        if (pizza == null) {
+            throw new IllegalArgumentException("A line item needs a pizza.");
+        }
+        return PizzaSpecs.of(pizza);
+    }
+
+    /**
+     * Parcelable implementation: Describe the contents (typically 0).
+     */
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    /**
+     * Parcelable implementation: CREATOR object for Parcel handling.
+     */
+    public static final Creator<LineItem> CREATOR = new Creator<LineItem>() {
+        @Override
+        public LineItem createFromParcel(Parcel in) {
+            return new LineItem(in);
+        }
+
+        @Override
+        public LineItem[] newArray(int size) {
+            return new LineItem[size];
+        }
+    };
+}
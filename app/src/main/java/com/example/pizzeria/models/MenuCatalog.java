@@ -0,0 +1,185 @@
+package com.example.pizzeria.models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable, versioned snapshot of the menu: base prices per type and size,
+ * per-topping prices, the crust used for each type and style, and the preset
+ * toppings of each pizza type.
+ *
+ * The catalog reads directly from a compiled binary snapshot, which is a flat
+ * run of 32-bit integers. When the snapshot comes from a memory-mapped file,
+ * loading is just a header check; nothing is parsed or copied.
+ *
+ * Snapshot layout (big-endian ints):
+ * - header: magic, format, catalog version, types, styles, sizes, toppings, crusts
+ * - base price in cents, [type][size]
+ * - price per topping in cents, [type]
+ * - crust ordinal, [type][style]
+ * - preset topping mask, [type]
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class MenuCatalog {
+
+    static final int MAGIC = 0x505A4D43;   // "PZMC"
+    static final int FORMAT = 1;
+    static final int HEADER_INTS = 8;
+    static final int STYLES = 2;
+
+    private static final int TYPES = PizzaType.values().length;
+    private static final int SIZES = Size.values().length;
+
+    private final IntBuffer data;
+    private final int version;
+    private final int baseOffset;
+    private final int toppingOffset;
+    private final int crustOffset;
+    private final int presetOffset;
+
+    /**
+     * Constructs a catalog over a validated snapshot.
+     *
+     * @param data    the snapshot as ints
+     * @param version the catalog version from the header
+     */
+    private MenuCatalog(IntBuffer data, int version) {
+        this.data = data;
+        this.version = version;
+        this.baseOffset = HEADER_INTS;
+        this.toppingOffset = baseOffset + TYPES * SIZES;
+        this.crustOffset = toppingOffset + TYPES;
+        this.presetOffset = crustOffset + TYPES * STYLES;
+    }
+
+    /**
+     * Wraps a compiled snapshot, checking its header and crust entries.
+     *
+     * @param snapshot the snapshot bytes, e.g. a MappedByteBuffer
+     * @return the catalog
+     * @throws IllegalArgumentException if the snapshot is malformed or was
+     *                                  compiled for a different menu shape
+     */
+    public static MenuCatalog fromSnapshot(ByteBuffer snapshot) {
+        IntBuffer ints = snapshot.duplicate().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+        if (ints.remaining() < HEADER_INTS || ints.get(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a menu catalog snapshot.");
+        }
+        if (ints.get(1) != FORMAT) {
+            throw new IllegalArgumentException("Unsupported menu catalog format: " + ints.get(1));
+        }
+        if (ints.get(3) != TYPES || ints.get(4) != STYLES || ints.get(5) != SIZES
+                || ints.get(6) != Topping.values().length || ints.get(7) != Crust.values().length) {
+            throw new IllegalArgumentException("Menu catalog does not match this app's menu.");
+        }
+        if (ints.remaining() < snapshotInts()) {
+            throw new IllegalArgumentException("Menu catalog snapshot is truncated.");
+        }
+        MenuCatalog catalog = new MenuCatalog(ints, ints.get(2));
+        for (int i = 0; i < TYPES * STYLES; i++) {
+            int crust = ints.get(catalog.crustOffset + i);
+            if (crust < 0 || crust >= Crust.values().length) {
+                throw new IllegalArgumentException("Invalid crust in menu catalog: " + crust);
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Computes the number of ints in a snapshot for this app's menu shape.
+     *
+     * @return the snapshot length in ints
+     */
+    static int snapshotInts() {
+        return HEADER_INTS + TYPES * SIZES + TYPES + TYPES * STYLES + TYPES;
+    }
+
+    /**
+     * Retrieves the catalog version.
+     *
+     * @return the version number from the catalog file
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Retrieves the base price of a pizza type and size.
+     *
+     * @param type the pizza type
+     * @param size the pizza size
+     * @return the base price in cents
+     */
+    public int getBasePriceCents(PizzaType type, Size size) {
+        return data.get(baseOffset + type.ordinal() * SIZES + size.ordinal());
+    }
+
+    /**
+     * Retrieves the price charged per topping for a pizza type.
+     * Preset pizzas have a topping price of zero.
+     *
+     * @param type the pizza type
+     * @return the per-topping price in cents
+     */
+    public int getToppingPriceCents(PizzaType type) {
+        return data.get(toppingOffset + type.ordinal());
+    }
+
+    /**
+     * Calculates the price of a pizza configuration.
+     *
+     * @param type         the pizza type
+     * @param size         the pizza size
+     * @param toppingCount the number of toppings on the pizza
+     * @return the price in cents
+     */
+    public int getPriceCents(PizzaType type, Size size, int toppingCount) {
+        return getBasePriceCents(type, size) + toppingCount * getToppingPriceCents(type);
+    }
+
+    /**
+     * Retrieves the crust used for a pizza type in a style.
+     *
+     * @param type  the pizza type
+     * @param style the style index, PriceQuoteService.CHICAGO or NEW_YORK
+     * @return the crust
+     */
+    public Crust getCrust(PizzaType type, int style) {
+        return Crust.values()[data.get(crustOffset + type.ordinal() * STYLES + style)];
+    }
+
+    /**
+     * Retrieves the preset toppings of a pizza type as a mask.
+     *
+     * @param type the pizza type
+     * @return the topping mask, zero for Build Your Own
+     */
+    public int getPresetToppingMask(PizzaType type) {
+        return data.get(presetOffset + type.ordinal());
+    }
+
+    /**
+     * Retrieves the preset toppings of a pizza type, in Topping order.
+     *
+     * @param type the pizza type
+     * @return a new list of toppings
+     */
+    public List<Topping> getPresetToppings(PizzaType type) {
+        return new ArrayList<>(getPresetToppingSet(type).asList());
+    }
+
+    /**
+     * Retrieves the preset toppings of a pizza type as a shared, immutable
+     * set. Unlike getPresetToppings, this allocates nothing.
+     *
+     * @param type the pizza type
+     * @return the preset toppings, empty for Build Your Own
+     */
+    public ToppingSet getPresetToppingSet(PizzaType type) {
+        return ToppingSet.of(getPresetToppingMask(type));
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.pizzeria.models;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Compiles a text menu catalog into the binary snapshot read by MenuCatalog.
+ *
+ * The text format has one entry per line; blank lines and lines starting
+ * with '#' are ignored. Names are enum constant names.
+ *
+ * <pre>
+ * version 2
+ * base DELUXE 1699 1899 2099          # small, medium, large in cents
+ * topping BUILD_YOUR_OWN 169          # price per topping in cents
+ * crust DELUXE DEEP_DISH BROOKLYN     # Chicago crust, New York crust
+ * preset DELUXE SAUSAGE PEPPERONI     # preset toppings
+ * </pre>
+ *
+ * Every pizza type needs a base and a crust line; topping prices default to
+ * zero and presets to no toppings.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class MenuCatalogCompiler {
+
+    private static final int TYPES = PizzaType.values().length;
+    private static final int SIZES = Size.values().length;
+    private static final int STYLES = MenuCatalog.STYLES;
+
+    /**
+     * Private constructor to prevent instantiation of the MenuCatalogCompiler class.
+     */
+    private MenuCatalogCompiler() {}
+
+    /**
+     * Compiles a text catalog into a snapshot.
+     *
+     * @param source the text catalog
+     * @return the snapshot bytes, ready for MenuCatalog.fromSnapshot
+     * @throws IOException              if the source cannot be read
+     * @throws IllegalArgumentException if the source is malformed or incomplete
+     */
+    public static ByteBuffer compile(Reader source) throws IOException {
+        int version = -1;
+        int[] baseCents = new int[TYPES * SIZES];
+        int[] toppingCents = new int[TYPES];
+        int[] crusts = new int[TYPES * STYLES];
+        int[] presetMasks = new int[TYPES];
+        boolean[] hasBase = new boolean[TYPES];
+        boolean[] hasCrust = new boolean[TYPES];
+        Arrays.fill(crusts, -1);
+
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0].toLowerCase(Locale.US)) {
+                    case "version" -> {
+                        expectArguments(parts, 2);
+                        version = Integer.parseInt(parts[1]);
+                    }
+                    case "base" -> {
+                        expectArguments(parts, 2 + SIZES);
+                        PizzaType type = PizzaType.valueOf(parts[1]);
+                        for (int size = 0; size < SIZES; size++) {
+                            baseCents[type.ordinal() * SIZES + size] = parseCents(parts[2 + size]);
+                        }
+                        hasBase[type.ordinal()] = true;
+                    }
+                    case "topping" -> {
+                        expectArguments(parts, 3);
+                        toppingCents[PizzaType.valueOf(parts[1]).ordinal()] = parseCents(parts[2]);
+                    }
+                    case "crust" -> {
+                        expectArguments(parts, 2 + STYLES);
+                        PizzaType type = PizzaType.valueOf(parts[1]);
+                        for (int style = 0; style < STYLES; style++) {
+                            crusts[type.ordinal() * STYLES + style] = Crust.valueOf(parts[2 + style]).ordinal();
+                        }
+                        hasCrust[type.ordinal()] = true;
+                    }
+                    case "preset" -> {
+                        PizzaType type = PizzaType.valueOf(parts[1]);
+                        int mask = 0;
+                        for (int i = 2; i < parts.length; i++) {
+                            mask |= Topping.valueOf(parts[i]).mask();
+                        }
+                        presetMasks[type.ordinal()] = mask;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown entry: " + parts[0]);
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Menu catalog line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        if (version < 0) {
+            throw new IllegalArgumentException("Menu catalog has no version.");
+        }
+        for (PizzaType type : PizzaType.values()) {
+            if (!hasBase[type.ordinal()] || !hasCrust[type.ordinal()]) {
+                throw new IllegalArgumentException("Menu catalog is missing prices or crusts for " + type);
+            }
+        }
+        return write(version, baseCents, toppingCents, crusts, presetMasks);
+    }
+
+    /**
+     * Compiles a text catalog file into a snapshot file. The snapshot is
+     * written to a temporary file and renamed into place, so a catalog that
+     * is still mapped from the old snapshot keeps reading the old contents.
+     *
+     * @param source   the text catalog file
+     * @param snapshot the snapshot file to create or replace
+     * @throws IOException              if either file cannot be read or written
+     * @throws IllegalArgumentException if the source is malformed or incomplete
+     */
+    public static void compile(File source, File snapshot) throws IOException {
+        ByteBuffer bytes;
+        try (Reader reader = new FileReader(source)) {
+            bytes = compile(reader);
+        }
+        File temp = new File(snapshot.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.getChannel().write(bytes);
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(snapshot)) {
+            temp.delete();
+            throw new IOException("Could not replace " + snapshot);
+        }
+    }
+
+    /**
+     * Builds the snapshot for the menu the app ships with. It is used until
+     * a catalog file has been installed.
+     *
+     * @return the built-in snapshot bytes
+     */
+    static ByteBuffer defaults() {
+        int[] baseCents = {
+                1699, 1899, 2099,   // Deluxe
+                1799, 1999, 2199,   // Meatzza
+                1499, 1699, 1999,   // BBQ Chicken
+                899, 1099, 1299     // Build Your Own
+        };
+        int[] toppingCents = {0, 0, 0, 169};
+        int[] crusts = {
+                Crust.DEEP_DISH.ordinal(), Crust.BROOKLYN.ordinal(),
+                Crust.STUFFED.ordinal(), Crust.HAND_TOSSED.ordinal(),
+                Crust.PAN.ordinal(), Crust.THIN.ordinal(),
+                Crust.PAN.ordinal(), Crust.HAND_TOSSED.ordinal()
+        };
+        int[] presetMasks = {
+                Topping.maskOf(Arrays.asList(Topping.SAUSAGE, Topping.PEPPERONI, Topping.GREEN_PEPPER,
+                        Topping.ONION, Topping.MUSHROOM)),
+                Topping.maskOf(Arrays.asList(Topping.SAUSAGE, Topping.PEPPERONI, Topping.BEEF, Topping.HAM)),
+                Topping.maskOf(Arrays.asList(Topping.BBQ_CHICKEN, Topping.GREEN_PEPPER, Topping.PROVOLONE,
+                        Topping.CHEDDAR)),
+                0
+        };
+        return write(1, baseCents, toppingCents, crusts, presetMasks);
+    }
+
+    /**
+     * Lays out a snapshot in the order MenuCatalog expects.
+     *
+     * @return the snapshot bytes, positioned at zero
+     */
+    private static ByteBuffer write(int version, int[] baseCents, int[] toppingCents, int[] crusts,
+                                    int[] presetMasks) {
+        ByteBuffer buffer = ByteBuffer.allocate(MenuCatalog.snapshotInts() * Integer.BYTES);
+        buffer.putInt(MenuCatalog.MAGIC)
+                .putInt(MenuCatalog.FORMAT)
+                .putInt(version)
+                .putInt(TYPES)
+                .putInt(STYLES)
+                .putInt(SIZES)
+                .putInt(Topping.values().length)
+                .putInt(Crust.values().length);
+        for (int[] section : new int[][]{baseCents, toppingCents, crusts, presetMasks}) {
+            for (int value : section) {
+                buffer.putInt(value);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Checks that an entry has the expected number of fields.
+     */
+    private static void expectArguments(String[] parts, int count) {
+        if (parts.length != count) {
+            throw new IllegalArgumentException("Expected " + (count - 1) + " values for " + parts[0]);
+        }
+    }
+
+    /**
+     * Parses a non-negative price in cents.
+     */
+    private static int parseCents(String value) {
+        int cents = Integer.parseInt(value);
+        if (cents < 0) {
+            throw new IllegalArgumentException("Negative price: " + value);
+        }
+        return cents;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pizzeria.models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Holds the active MenuCatalog and swaps in new versions at runtime.
+ *
+ * Reads are a single volatile load and never block. A reload maps or
+ * compiles the new catalog and rebuilds the PriceQuoteService table on the
+ * calling thread, then publishes both, so it must be called off the main
+ * thread. Orders pin the catalog that was active when they were created and
+ * keep pricing against it after a swap.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class MenuCatalogs {
+
+    /** Name of the text catalog file in the app's internal storage. */
+    public static final String SOURCE_FILE_NAME = "menu_catalog.txt";
+
+    /** Name of the compiled snapshot file in the app's internal storage. */
+    public static final String SNAPSHOT_FILE_NAME = "menu_catalog.bin";
+
+    private static volatile MenuCatalog current = MenuCatalog.fromSnapshot(MenuCatalogCompiler.defaults());
+
+    /**
+     * Private constructor to prevent instantiation of the MenuCatalogs class.
+     */
+    private MenuCatalogs() {}
+
+    /**
+     * Gets the active catalog.
+     *
+     * @return the active catalog
+     */
+    public static MenuCatalog current() {
+        return current;
+    }
+
+    /**
+     * Memory-maps a compiled snapshot and installs it.
+     *
+     * @param snapshot the snapshot file written by MenuCatalogCompiler
+     * @return true if the catalog was installed, false if it is not newer
+     *         than the active one
+     * @throws IOException              if the file cannot be mapped
+     * @throws IllegalArgumentException if the snapshot is malformed
+     */
+    public static boolean load(File snapshot) throws IOException {
+        MappedByteBuffer mapped;
+        try (RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+             FileChannel channel = file.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return install(MenuCatalog.fromSnapshot(mapped));
+    }
+
+    /**
+     * Compiles a text catalog into a snapshot file if the snapshot is missing
+     * or older than the source, then maps and installs the snapshot.
+     *
+     * @param source   the text catalog file
+     * @param snapshot the snapshot file
+     * @return true if the catalog was installed, false if it is not newer
+     *         than the active one
+     * @throws IOException              if either file cannot be read or written
+     * @throws IllegalArgumentException if the catalog is malformed
+     */
+    public static boolean reload(File source, File snapshot) throws IOException {
+        if (source.exists() && (!snapshot.exists() || source.lastModified() > snapshot.lastModified())) {
+            MenuCatalogCompiler.compile(source, snapshot);
+        }
+        return snapshot.exists() && load(snapshot);
+    }
+
+    /**
+     * Installs a catalog if its version is newer than the active one. The
+     * price table is rebuilt before the catalog is published.
+     *
+     * @param catalog the catalog to install
+     * @return true if the catalog was installed
+     */
+    public static synchronized boolean install(MenuCatalog catalog) {
+        if (catalog.getVersion() <= current.getVersion()) {
+            return false;
+        }
+        PriceQuoteService.getInstance().rebuild(catalog);
+        current = catalog;
+        return true;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.pizzeria.models;
 
+import com.example.pizzeria.store.Inventory;
+
 /**
  * Represents a factory for creating New York-style pizzas.
  * Implements the PizzaFactory interface to provide specific
@@ -18,40 +20,64 @@ public class NYPizza implements PizzaFactory {
     /**
      * Creates a New York-style Deluxe pizza with a Brooklyn crust.
      *
-     * @return a new Deluxe pizza with BROOKLYN crust and MEDIUM size
+     * @return a new Deluxe pizza with the catalog crust (BROOKLYN by default) and MEDIUM size
      */
     @Override
     public Pizza createDeluxe() {
-        return new Deluxe(Crust.BROOKLYN, Size.MEDIUM, STYLE);
+        return new Deluxe(crust(PizzaType.DELUXE), Size.MEDIUM, STYLE);
     }
 
     /**
      * Creates a New York-style BBQ Chicken pizza with a thin crust.
      *
-     * @return a new BBQChicken pizza with THIN crust and MEDIUM size
+     * @return a new BBQChicken pizza with the catalog crust (THIN by default) and MEDIUM size
      */
     @Override
     public Pizza createBBQChicken() {
-        return new BBQChicken(Crust.THIN, Size.MEDIUM, STYLE);
+        return new BBQChicken(crust(PizzaType.BBQ_CHICKEN), Size.MEDIUM, STYLE);
     }
 
     /**
      * Creates a New York-style Meatzza pizza with a hand-tossed crust.
      *
-     * @return a new Meatzza pizza with HAND_TOSSED crust and MEDIUM size
+     * @return a new Meatzza pizza with the catalog crust (HAND_TOSSED by default) and MEDIUM size
      */
     @Override
     public Pizza createMeatzza() {
-        return new Meatzza(Crust.HAND_TOSSED, Size.MEDIUM, STYLE);
+        return new Meatzza(crust(PizzaType.MEATZZA), Size.MEDIUM, STYLE);
     }
 
     /**
      * Creates a New York-style "Build Your Own" pizza with a hand-tossed crust.
      *
-     * @return a new BuildYourOwn pizza with HAND_TOSSED crust and MEDIUM size
+     * @return a new BuildYourOwn pizza with the catalog crust (HAND_TOSSED by default) and MEDIUM size
      */
     @Override
     public Pizza createBuildYourOwn() {
-        return new BuildYourOwn(Crust.HAND_TOSSED, Size.MEDIUM, STYLE);
+        return new BuildYourOwn(crust(PizzaType.BUILD_YOUR_OWN), Size.MEDIUM, STYLE);
+    }
+
+    /**
+     * Checks whether the inventory can make one New York-style pizza of a type,
+     * with its catalog crust and preset toppings. Build Your Own is checked
+     * for its crust alone.
+     *
+     * @param type      the pizza type
+     * @param inventory the store's inventory
+     * @return true if every ingredient is in stock
+     */
+    @Override
+    public boolean isAvailable(PizzaType type, Inventory inventory) {
+        return inventory.isAvailable(crust(type), MenuCatalogs.current().getPresetToppingMask(type));
+    }
+
+    /**
+     * Looks up the New York-style crust for a pizza type in the active menu catalog.
+     *
+     * @param type the pizza type
+     * @return the crust for that type
+     */
+    private static Crust crust(PizzaType type) {
+        return MenuCatalogs.current().getCrust(type, PriceQuoteService.NEW_YORK);
     }
 }
\ No newline at end of file
@@ -3,32 +3,83 @@ package com.example.pizzeria.models;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import com.example.pizzeria.promotions.PromotionEvaluator;
+import com.example.pizzeria.promotions.PromotionIndex;
+import com.example.pizzeria.promotions.PromotionRule;
+import com.example.pizzeria.promotions.Promotions;
+
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Represents a customer's order consisting of multiple pizzas.
- * Each order is assigned a unique order number.
+ * Each order is assigned an order number that is unique within its store;
+ * orders are created by their store, see StorePartition.newOrder.
  * Provides functionality to add and remove pizzas, calculate the
  * total price, and include sales tax for the order.
+ * Pizzas are kept as line items: adding a pizza identical to one already in
+ * the order raises that line's quantity, so memory and pricing work grow
+ * with the number of distinct pizzas rather than the number of pies.
+ * An order pins the menu catalog that was active when it was created and
+ * keeps pricing against it if the catalog is reloaded. Promotions active at
+ * creation are re-evaluated as pizzas are added and removed, and their
+ * discounts are taken off the total.
+ * The store records when the order was placed; until then it has no timestamp.
  * This class implements Parcelable for use with Android Intents.
  *
  * @author Yousef Naam & Lukas Chang
  */
 public class Order implements Parcelable {
-    private static int orderCounter = 1; // Static counter to generate unique order numbers
     private static final double SALES_TAX_RATE = 0.06625; // New Jersey's sales tax rate
 
+    private final int storeId;           // Store the order belongs to
     private final int orderNumber;       // Unique order number for this instance
-    private final List<Pizza> pizzas;    // List of pizzas in the order
+    private final List<LineItem> lineItems; // Distinct pizzas in the order with their quantities
+    private final MenuCatalog catalog;   // Menu catalog pinned when the order was created
+    private final PromotionEvaluator promotions; // Promotions the order qualifies for
+    private long placedAtMillis;         // Wall clock time the order was placed, 0 until then
+
+    /**
+     * Constructs a new, empty Order for a store with a number issued by
+     * that store's sequence.
+     *
+     * @param storeId     the store the order belongs to
+     * @param orderNumber the order number within the store
+     */
+    public Order(int storeId, int orderNumber) {
+        this(storeId, orderNumber, MenuCatalogs.current(), Promotions.current());
+    }
+
+    /**
+     * Constructs a new, empty Order pinned to a catalog and promotions.
+     *
+     * @param storeId     the store the order belongs to
+     * @param orderNumber the order number within the store
+     * @param catalog     the menu catalog it is priced against
+     * @param promotions  the promotions it qualifies for
+     */
+    private Order(int storeId, int orderNumber, MenuCatalog catalog, PromotionIndex promotions) {
+        this.storeId = storeId;
+        this.orderNumber = orderNumber;
+        this.lineItems = new ArrayList<>();
+        this.catalog = catalog;
+        this.promotions = new PromotionEvaluator(promotions);
+    }
 
     /**
-     * Constructs a new Order object with a unique order number
-     * and initializes an empty list of pizzas.
+     * Creates a copy of the order with the same store, order number,
+     * placement time, pinned catalog and promotions, and the same pizzas.
+     * Changing either order afterwards does not change the other.
+     *
+     * @return the copy
      */
-    public Order() {
-        this.orderNumber = orderCounter++;
-        this.pizzas = new ArrayList<>();
+    public Order copy() {
+        Order copy = new Order(storeId, orderNumber, catalog, promotions.getIndex());
+        for (LineItem item : lineItems) {
+            copy.addPizza(item.getSpec(), item.getQuantity());
+        }
+        copy.placedAtMillis = placedAtMillis;
+        return copy;
     }
 
     /**
@@ -38,33 +89,248 @@ public class Order implements Parcelable {
      * @throws IllegalArgumentException if the provided pizza is null
      */
     public void addPizza(Pizza pizza) {
-        if (pizza != null) {
-            pizzas.add(pizza);
-        } else {
+        addPizza(pizza, 1);
+    }
+
+    /**
+     * Adds several identical pizzas to the order. If the order already has
+     * a line for the same configuration its quantity is raised; otherwise
+     * a new line is started with a copy of this pizza, so changing the
+     * pizza afterwards does not change the order.
+     *
+     * @param pizza    the pizza to add to the order
+     * @param quantity how many of it to add
+     * @throws IllegalArgumentException if the pizza is null or the quantity is not positive
+     */
+    public void addPizza(Pizza pizza, int quantity) {
+        if (pizza == null) {
             throw new IllegalArgumentException("Cannot add a null pizza to the order.");
         }
+        addPizza(PizzaSpecs.of(pizza), quantity);
     }
 
     /**
-     * Removes a pizza from the order, if it exists.
+     * Adds several pizzas of one configuration to the order, as addPizza
+     * does for a pizza with that configuration.
+     *
+     * @param spec     the pizza configuration
+     * @param quantity how many to add
+     * @throws IllegalArgumentException if the spec is null or the quantity is not positive
+     */
+    public void addPizza(PizzaSpec spec, int quantity) {
+        if (spec == null) {
+            throw new IllegalArgumentException("Cannot add a null pizza to the order.");
+        }
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1: " + quantity);
+        }
+        int index = indexOf(spec);
+        LineItem item;
+        if (index >= 0) {
+            item = lineItems.get(index);
+            lineItems.set(index, item.withQuantity(item.getQuantity() + quantity));
+        } else {
+            item = new LineItem(spec, quantity);
+            lineItems.add(item);
+        }
+        // The evaluator tracks lines by their pizza object
+        promotions.add(item.getPizza(), quantity);
+    }
+
+    /**
+     * Removes one pizza from the order, if it exists. The line for its
+     * configuration loses one from its quantity and is dropped at zero.
      *
      * @param pizza the pizza to remove from the order
      */
     public void removePizza(Pizza pizza) {
-        pizzas.remove(pizza);
+        int index = indexOf(pizza);
+        if (index >= 0) {
+            setQuantity(index, lineItems.get(index).getQuantity() - 1);
+        }
+    }
+
+    /**
+     * Raises the quantity of a pizza already in the order by one.
+     *
+     * @param pizza a pizza with the configuration to raise
+     * @return the new quantity, or 0 if the order has no such pizza
+     */
+    public int incrementQuantity(Pizza pizza) {
+        int index = indexOf(pizza);
+        if (index < 0) {
+            return 0;
+        }
+        return setQuantity(index, lineItems.get(index).getQuantity() + 1);
     }
 
     /**
-     * Calculates the total price of all pizzas in the order.
+     * Lowers the quantity of a pizza in the order by one, dropping its line
+     * at zero.
+     *
+     * @param pizza a pizza with the configuration to lower
+     * @return the new quantity, 0 if the line was dropped or not found
+     */
+    public int decrementQuantity(Pizza pizza) {
+        int index = indexOf(pizza);
+        if (index < 0) {
+            return 0;
+        }
+        return setQuantity(index, lineItems.get(index).getQuantity() - 1);
+    }
+
+    /**
+     * Sets the quantity of a pizza in the order. A quantity of zero removes
+     * its line.
+     *
+     * @param pizza    a pizza with the configuration to change
+     * @param quantity the new quantity
+     * @return true if the order had such a pizza
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public boolean setQuantity(Pizza pizza, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative: " + quantity);
+        }
+        int index = indexOf(pizza);
+        if (index < 0) {
+            return false;
+        }
+        setQuantity(index, quantity);
+        return true;
+    }
+
+    /**
+     * Changes the quantity of a line and updates the promotions to match.
+     */
+    private int setQuantity(int index, int quantity) {
+        LineItem item = lineItems.get(index);
+        int change = quantity - item.getQuantity();
+        if (change > 0) {
+            promotions.add(item.getPizza(), change);
+        } else {
+            promotions.remove(item.getPizza(), -change);
+        }
+        if (quantity == 0) {
+            lineItems.remove(index);
+        } else {
+            lineItems.set(index, item.withQuantity(quantity));
+        }
+        return quantity;
+    }
+
+    /**
+     * Finds the line for a pizza's configuration by comparing specs.
+     */
+    private int indexOf(Pizza pizza) {
+        return pizza == null ? -1 : indexOf(PizzaSpecs.of(pizza));
+    }
+
+    /**
+     * Finds the line for a configuration.
+     */
+    private int indexOf(PizzaSpec spec) {
+        for (int i = 0; i < lineItems.size(); i++) {
+            if (lineItems.get(i).getSpec() == spec) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates the total price of all pizzas in the order against
+     * the order's pinned menu catalog, less any promotion discounts.
      *
      * @return the total price of the order as a double
      */
     public double calculateTotal() {
-        double total = 0.0;
-        for (Pizza pizza : pizzas) {
-            total += pizza.price();
+        return calculateTotalCents() / 100.0;
+    }
+
+    /**
+     * Calculates the total price of the order in cents, as calculateTotal does.
+     *
+     * @return the total price of the order in cents
+     */
+    public long calculateTotalCents() {
+        long subtotal = PriceQuoteService.getInstance().totalLineItemCents(lineItems, catalog);
+        return Math.max(0L, subtotal - promotions.getDiscountCents());
+    }
+
+    /**
+     * Retrieves the total discount from the promotions applied to the order.
+     *
+     * @return the discount as a double
+     */
+    public double getDiscount() {
+        return promotions.getDiscountCents() / 100.0;
+    }
+
+    /**
+     * Retrieves the promotions applied to the order, once per application.
+     *
+     * @return a list of applied promotion rules
+     */
+    public List<PromotionRule> getAppliedPromotions() {
+        return promotions.getAppliedPromotions();
+    }
+
+    /**
+     * Retrieves the menu catalog this order is priced against.
+     *
+     * @return the pinned catalog
+     */
+    public MenuCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Retrieves the version of the menu catalog this order is priced against.
+     *
+     * @return the pinned catalog version
+     */
+    public int getCatalogVersion() {
+        return catalog.getVersion();
+    }
+
+    /**
+     * Records when the order was placed. Has no effect if the order
+     * already has a placement time.
+     *
+     * @param timestampMillis the wall clock time of placement
+     */
+    public void markPlaced(long timestampMillis) {
+        if (placedAtMillis == 0) {
+            placedAtMillis = timestampMillis;
         }
-        return total;
+    }
+
+    /**
+     * Checks whether the order has been placed.
+     *
+     * @return true if the order has a placement time
+     */
+    public boolean isPlaced() {
+        return placedAtMillis != 0;
+    }
+
+    /**
+     * Retrieves when the order was placed.
+     *
+     * @return the placement time in milliseconds since the epoch, or 0 if not placed
+     */
+    public long getPlacedAtMillis() {
+        return placedAtMillis;
+    }
+
+    /**
+     * Retrieves the store this order belongs to.
+     *
+     * @return the store id
+     */
+    public int getStoreId() {
+        return storeId;
     }
 
     /**
@@ -77,19 +343,59 @@ public class Order implements Parcelable {
     }
 
     /**
-     * Retrieves a copy of the list of pizzas in the order.
+     * Retrieves a copy of the line items in the order.
+     *
+     * @return the line items, in the order they were first added
+     */
+    public List<LineItem> getLineItems() {
+        return new ArrayList<>(lineItems); // Return a copy to prevent external modification
+    }
+
+    /**
+     * Retrieves one entry per pizza in the order; a line with quantity n
+     * appears n times. Prefer getLineItems, which does not grow with the
+     * quantities.
      *
      * @return a list of pizzas in the order
      */
     public List<Pizza> getPizzas() {
-        return new ArrayList<>(pizzas); // Return a copy to prevent external modification
+        List<Pizza> pizzas = new ArrayList<>(getPizzaCount());
+        for (LineItem item : lineItems) {
+            for (int i = 0; i < item.getQuantity(); i++) {
+                pizzas.add(item.getPizza());
+            }
+        }
+        return pizzas;
+    }
+
+    /**
+     * Counts the pizzas in the order, adding up every line's quantity.
+     *
+     * @return the number of pizzas
+     */
+    public int getPizzaCount() {
+        int count = 0;
+        for (LineItem item : lineItems) {
+            count += item.getQuantity();
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the order has no pizzas.
+     *
+     * @return true if the order is empty
+     */
+    public boolean isEmpty() {
+        return lineItems.isEmpty();
     }
 
     /**
      * Clears all pizzas from the order.
      */
     public void clearOrder() {
-        pizzas.clear();
+        lineItems.clear();
+        promotions.clear();
     }
 
     /**
@@ -98,7 +404,18 @@ public class Order implements Parcelable {
      * @return the total price with tax as a double
      */
     public double calculateTotalWithTax() {
-        double subtotal = calculateTotal();
+        return totalWithTax(calculateTotalCents());
+    }
+
+    /**
+     * Adds sales tax to a subtotal, as calculateTotalWithTax does, for an
+     * order whose subtotal was recorded when it was placed.
+     *
+     * @param subtotalCents the order total before tax, in cents
+     * @return the total price with tax as a double
+     */
+    public static double totalWithTax(long subtotalCents) {
+        double subtotal = subtotalCents / 100.0;
         return subtotal + (subtotal * SALES_TAX_RATE);
     }
 
@@ -111,19 +428,46 @@ public class Order implements Parcelable {
     @Override
     public String toString() {
         return "Order Number: " + orderNumber + "\n" +
-                "Pizzas: " + pizzas + "\n" +
+                "Pizzas: " + describeLineItems() + "\n" +
+                (getAppliedPromotions().isEmpty() ? "" : "Promotions: " + getAppliedPromotions() + "\n") +
                 "Subtotal: $" + String.format("%.2f", calculateTotal()) + "\n" +
                 "Total with Tax: $" + String.format("%.2f", calculateTotalWithTax());
     }
 
     /**
-     * Constructs an Order object from a Parcel, restoring its order number and list of pizzas.
+     * Lists the line items as a List would, each priced against the
+     * order's catalog.
+     */
+    private String describeLineItems() {
+        StringBuilder text = new StringBuilder("[");
+        for (LineItem item : lineItems) {
+            if (text.length() > 1) {
+                text.append(", ");
+            }
+            text.append(item.toString(catalog));
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * Constructs an Order object from a Parcel, restoring its store, order number,
+     * placement time and line items.
+     * The restored order is priced against the active menu catalog and
+     * promotions, not the ones it pinned, so screens pass a placed order
+     * by its number and look it up instead.
      *
      * @param in The Parcel containing the serialized order data.
      */
     protected Order(Parcel in) {
+        storeId = in.readInt();
         orderNumber = in.readInt();
-        pizzas = in.createTypedArrayList(Pizza.CREATOR);
+        placedAtMillis = in.readLong();
+        lineItems = in.createTypedArrayList(LineItem.CREATOR);
+        catalog = MenuCatalogs.current();
+        promotions = new PromotionEvaluator(Promotions.current());
+        for (LineItem item : lineItems) {
+            promotions.add(item.getPizza(), item.getQuantity());
+        }
     }
 
     /**
@@ -134,8 +478,10 @@ public class Order implements Parcelable {
      */
     @Override
     public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(storeId);
         dest.writeInt(orderNumber);
-        dest.writeTypedList(pizzas);
+        dest.writeLong(placedAtMillis);
+        dest.writeTypedList(lineItems);
     }
 
     /**
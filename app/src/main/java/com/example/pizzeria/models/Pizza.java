@@ -4,24 +4,34 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 /**
  * Represents a generic Pizza with customizable toppings, crust, and size.
  * This abstract class serves as a base for specific types of pizzas.
- * Concrete subclasses must implement the abstract price() method to
- * calculate the price based on specific rules.
+ * Concrete subclasses must implement the abstract price(MenuCatalog) method
+ * to calculate the price from a menu catalog based on specific rules. A
+ * pizza in an order is priced against the catalog its order pinned; use
+ * price() and toString() only for pizzas not yet in an order.
  *
  * The pizza can have a specified crust, size, and an adjustable list
  * of toppings, with a maximum of 7 allowed toppings.
  *
+ * A pizza starts out sharing an immutable ToppingSet, usually the preset
+ * toppings of its type, and only copies the toppings into a list of its
+ * own the first time they are changed. Creating a preset pizza therefore
+ * allocates no topping list at all.
+ *
  * Parcelable implementation enables Pizza objects to be passed between
  * Android Activities via Intents or Bundles.
  *
  * @author Yousef Naam & Lukas Chang
  */
 public abstract class Pizza implements Parcelable {
-    private ArrayList<Topping> toppings; // List of toppings for the pizza
+    private ToppingSet sharedToppings;   // Shared toppings, until the pizza is customized
+    private ArrayList<Topping> toppings; // The pizza's own toppings; null while shared
     private Crust crust;                 // Type of crust for the pizza
     private Size size;                   // Size of the pizza
     private String style;                // Style of pizza
@@ -36,7 +46,21 @@ public abstract class Pizza implements Parcelable {
      * @param style the style of the pizza
      */
     public Pizza(Crust crust, Size size, String style) {
-        this.toppings = new ArrayList<>();
+        this(crust, size, style, ToppingSet.EMPTY);
+    }
+
+    /**
+     * Constructs a Pizza that starts with a shared set of toppings, such as
+     * the preset toppings of its type. The set is copied only when the
+     * toppings are changed.
+     *
+     * @param crust    the crust type for the pizza
+     * @param size     the size of the pizza
+     * @param style    the style of the pizza
+     * @param toppings the initial toppings
+     */
+    protected Pizza(Crust crust, Size size, String style, ToppingSet toppings) {
+        this.sharedToppings = toppings;
         this.crust = crust;
         this.size = size;
         this.style = style;
@@ -47,18 +71,72 @@ public abstract class Pizza implements Parcelable {
      * Initializes an empty list of toppings.
      */
     protected Pizza() {
-        this.toppings = new ArrayList<>();
+        this.sharedToppings = ToppingSet.EMPTY;
     }
 
     /**
-     * Retrieves the list of toppings added to the pizza.
+     * Retrieves the list of toppings for modification. If the pizza still
+     * shares its toppings, they are copied into a list of its own first;
+     * use getToppingList() to only read them.
      *
      * @return an ArrayList of toppings on the pizza
      */
     public ArrayList<Topping> getToppings() {
+        if (toppings == null) {
+            toppings = new ArrayList<>(sharedToppings.asList());
+            sharedToppings = null;
+        }
         return toppings;
     }
 
+    /**
+     * Retrieves the toppings without copying shared ones.
+     *
+     * @return an unmodifiable list of toppings on the pizza
+     */
+    public List<Topping> getToppingList() {
+        return toppings == null ? sharedToppings.asList() : Collections.unmodifiableList(toppings);
+    }
+
+    /**
+     * Retrieves the toppings as a mask.
+     *
+     * @return the topping mask
+     */
+    public int getToppingMask() {
+        return toppings == null ? sharedToppings.getMask() : Topping.maskOf(toppings);
+    }
+
+    /**
+     * Retrieves the number of toppings.
+     *
+     * @return the topping count
+     */
+    public int getToppingCount() {
+        return toppings == null ? sharedToppings.size() : toppings.size();
+    }
+
+    /**
+     * Checks whether the pizza has a topping.
+     *
+     * @param topping the topping
+     * @return true if the topping is on the pizza
+     */
+    public boolean hasTopping(Topping topping) {
+        return toppings == null ? sharedToppings.contains(topping) : toppings.contains(topping);
+    }
+
+    /**
+     * Replaces the toppings with a shared set, dropping any list of the
+     * pizza's own.
+     *
+     * @param toppings the new toppings
+     */
+    public void setToppings(ToppingSet toppings) {
+        this.sharedToppings = toppings;
+        this.toppings = null;
+    }
+
     /**
      * Adds a topping to the pizza.
      * A maximum of 7 toppings are allowed; exceeding this limit throws an exception.
@@ -67,8 +145,8 @@ public abstract class Pizza implements Parcelable {
      * @throws IllegalArgumentException if more than 7 toppings are added
      */
     public void addTopping(Topping topping) {
-        if (toppings.size() < MAX_TOPPINGS) {
-            toppings.add(topping);
+        if (getToppingCount() < MAX_TOPPINGS) {
+            getToppings().add(topping);
         } else {
             throw new IllegalArgumentException("Maximum of 7 toppings allowed.");
         }
@@ -80,7 +158,9 @@ public abstract class Pizza implements Parcelable {
      * @param topping the topping to be removed from the pizza
      */
     public void removeTopping(Topping topping) {
-        toppings.remove(topping);
+        if (hasTopping(topping)) {
+            getToppings().remove(topping);
+        }
     }
 
     /**
@@ -129,21 +209,51 @@ public abstract class Pizza implements Parcelable {
     }
 
     /**
-     * Abstract method to calculate the price of the pizza.
+     * Retrieves the menu type of the pizza.
      * Must be implemented by subclasses.
      *
+     * @return the pizza type (e.g., DELUXE, BUILD_YOUR_OWN)
+     */
+    public abstract PizzaType getPizzaType();
+
+    /**
+     * Calculates the price of the pizza against the active menu catalog.
+     *
      * @return the price of the pizza as a double
      */
-    public abstract double price();
+    public double price() {
+        return price(MenuCatalogs.current());
+    }
+
+    /**
+     * Abstract method to calculate the price of the pizza against a menu
+     * catalog, such as the one its order pinned.
+     * Must be implemented by subclasses.
+     *
+     * @param catalog the catalog to price against
+     * @return the price of the pizza as a double
+     */
+    public abstract double price(MenuCatalog catalog);
 
     /**
      * Provides a string representation of the pizza, including
-     * its toppings, crust type, and size.
+     * its toppings, crust type, and size, priced against the active catalog.
      *
      * @return a string representation of the pizza
      */
     @Override
     public String toString() {
+        return toString(MenuCatalogs.current());
+    }
+
+    /**
+     * Provides a string representation of the pizza, including
+     * its toppings, crust type, and size, priced against a menu catalog.
+     *
+     * @param catalog the catalog to price against
+     * @return a string representation of the pizza
+     */
+    public String toString(MenuCatalog catalog) {
         try {
             return String.format(
                     Locale.US, // Specify the desired locale
@@ -152,8 +262,8 @@ public abstract class Pizza implements Parcelable {
                     getStyle(),                 // Style (e.g., "Chicago Style")
                     getSize(),                  // Size (e.g., "MEDIUM")
                     getCrust(),                 // Crust (e.g., "PAN")
-                    getToppings().isEmpty() ? "None" : getToppings().toString(), // Toppings or "None"
-                    price()                     // Calculated price
+                    getToppingCount() == 0 ? "None" : getToppingList().toString(), // Toppings or "None"
+                    price(catalog)              // Calculated price
             );
         } catch (Exception e) {
             return "Error displaying pizza details: " + e.getMessage();
@@ -168,7 +278,7 @@ public abstract class Pizza implements Parcelable {
         dest.writeString(style);
         dest.writeString(crust.name());
         dest.writeString(size.name());
-        dest.writeTypedList(toppings);
+        dest.writeTypedList(getToppingList());
     }
 
     /**
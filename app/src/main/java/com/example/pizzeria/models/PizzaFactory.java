@@ -1,5 +1,7 @@
 package com.example.pizzeria.models;
 
+import com.example.pizzeria.store.Inventory;
+
 /**
  * Interface defining a factory for creating different types of pizzas.
  * Implementing classes are responsible for providing concrete
@@ -42,4 +44,14 @@ public interface PizzaFactory {
      * @return a new instance of a "Build Your Own" pizza
      */
     Pizza createBuildYourOwn();
+
+    /**
+     * Checks whether one pizza of a type, as this factory makes it, can be
+     * made from what is in stock. The check takes no lock.
+     *
+     * @param type      the pizza type
+     * @param inventory the store's inventory
+     * @return true if its crust and preset toppings are in stock
+     */
+    boolean isAvailable(PizzaType type, Inventory inventory);
 }
\ No newline at end of file
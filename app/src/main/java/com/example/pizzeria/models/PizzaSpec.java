@@ -0,0 +1,116 @@
+package com.example.pizzeria.models;
+
+import java.util.Locale;
+
+/**
+ * The canonical description of a pizza configuration: type, style, size,
+ * crust and toppings, with the int id PizzaSpecs assigned to it.
+ *
+ * There is exactly one PizzaSpec per configuration, so two specs are equal
+ * only if they are the same object, and comparing or grouping pizzas by
+ * configuration is a comparison of ids. Toppings are kept as a mask, so a
+ * spec does not remember the order toppings were added in.
+ *
+ * Obtain instances from PizzaSpecs.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class PizzaSpec {
+
+    private final int id;
+    private final PizzaType type;
+    private final String style;      // Interned by PizzaSpecs; may be null
+    private final Size size;
+    private final Crust crust;
+    private final int toppingMask;
+
+    /**
+     * Constructs a spec. Only PizzaSpecs creates specs.
+     */
+    PizzaSpec(int id, PizzaType type, String style, Size size, Crust crust, int toppingMask) {
+        this.id = id;
+        this.type = type;
+        this.style = style;
+        this.size = size;
+        this.crust = crust;
+        this.toppingMask = toppingMask;
+    }
+
+    /**
+     * Retrieves the id of this spec, unique for the life of the process.
+     *
+     * @return the spec id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the pizza type.
+     *
+     * @return the pizza type
+     */
+    public PizzaType getPizzaType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the style string.
+     *
+     * @return the style, e.g. "Chicago Style"
+     */
+    public String getStyle() {
+        return style;
+    }
+
+    /**
+     * Retrieves the size.
+     *
+     * @return the size
+     */
+    public Size getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the crust.
+     *
+     * @return the crust
+     */
+    public Crust getCrust() {
+        return crust;
+    }
+
+    /**
+     * Retrieves the toppings as a mask.
+     *
+     * @return the topping mask
+     */
+    public int getToppingMask() {
+        return toppingMask;
+    }
+
+    /**
+     * Builds a pizza with this configuration. The pizza shares the spec's
+     * ToppingSet until it is customized.
+     *
+     * @return a new pizza
+     */
+    public Pizza createPizza() {
+        Pizza pizza = type.create(crust, size, style);
+        if (pizza.getToppingMask() != toppingMask) {
+            pizza.setToppings(ToppingSet.of(toppingMask));
+        }
+        return pizza;
+    }
+
+    /**
+     * Returns the id and configuration, e.g. "#12 DELUXE New York Style LARGE BROOKLYN [..]".
+     *
+     * @return a string representation of the spec
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "#%d %s %s %s %s %s", id, type, style, size, crust, ToppingSet.of(toppingMask));
+    }
+}
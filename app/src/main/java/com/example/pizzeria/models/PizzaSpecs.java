@@ -0,0 +1,139 @@
+package com.example.pizzeria.models;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The process-wide dictionary of pizza configurations. Every distinct
+ * (type, style, size, crust, toppings) is interned once as a PizzaSpec with
+ * a small int id, so the same few hundred configurations that repeat across
+ * a day's orders are described once and referred to by id.
+ *
+ * Looking up a configuration that is already known is a lock-free read of
+ * a ConcurrentHashMap, and looking up a spec by id is a volatile array
+ * read. Only the first sighting of a configuration takes a lock to assign
+ * its id. Ids are dense, start at 0, and are never reused; they are only
+ * meaningful within this process, so anything written to storage carries
+ * the spec's fields alongside its id.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class PizzaSpecs {
+
+    private static final ConcurrentHashMap<Long, PizzaSpec> byKey = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Integer> styleIds = new ConcurrentHashMap<>();
+    private static final Object lock = new Object();
+
+    private static volatile PizzaSpec[] byId = new PizzaSpec[64];
+    private static int count;                    // Guarded by lock
+
+    /**
+     * Private constructor to prevent instantiation of the PizzaSpecs class.
+     */
+    private PizzaSpecs() {}
+
+    /**
+     * Retrieves the spec for a configuration, interning it on first use.
+     *
+     * @param type        the pizza type
+     * @param style       the style string; may be null
+     * @param size        the size
+     * @param crust       the crust
+     * @param toppingMask the toppings as a mask
+     * @return the canonical spec
+     * @throws IllegalArgumentException if the topping mask is invalid
+     */
+    public static PizzaSpec intern(PizzaType type, String style, Size size, Crust crust, int toppingMask) {
+        if (toppingMask < 0 || toppingMask > 0xFFFF) {
+            throw new IllegalArgumentException("Invalid topping mask: " + toppingMask);
+        }
+        Long key = key(type, styleId(style), size, crust, toppingMask);
+        PizzaSpec spec = byKey.get(key);
+        return spec != null ? spec : add(key, type, style, size, crust, toppingMask);
+    }
+
+    /**
+     * Retrieves the spec matching a pizza's current configuration.
+     *
+     * @param pizza the pizza
+     * @return the canonical spec
+     */
+    public static PizzaSpec of(Pizza pizza) {
+        return intern(pizza.getPizzaType(), pizza.getStyle(), pizza.getSize(), pizza.getCrust(),
+                pizza.getToppingMask());
+    }
+
+    /**
+     * Retrieves a spec by id.
+     *
+     * @param id the spec id
+     * @return the spec
+     * @throws IllegalArgumentException if no spec has that id
+     */
+    public static PizzaSpec get(int id) {
+        PizzaSpec[] specs = byId;
+        PizzaSpec spec = id >= 0 && id < specs.length ? specs[id] : null;
+        if (spec == null) {
+            throw new IllegalArgumentException("Unknown pizza spec: " + id);
+        }
+        return spec;
+    }
+
+    /**
+     * Counts the interned specs. Ids run from 0 to size() - 1.
+     *
+     * @return the number of specs
+     */
+    public static int size() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    /**
+     * Assigns the next id to a configuration seen for the first time.
+     */
+    private static PizzaSpec add(Long key, PizzaType type, String style, Size size, Crust crust, int toppingMask) {
+        synchronized (lock) {
+            PizzaSpec spec = byKey.get(key);
+            if (spec != null) {
+                return spec; // Another thread got here first
+            }
+            spec = new PizzaSpec(count, type, style == null ? null : style.intern(), size, crust, toppingMask);
+            PizzaSpec[] specs = byId;
+            if (count == specs.length) {
+                specs = Arrays.copyOf(specs, count * 2);
+            }
+            specs[count++] = spec;
+            byId = specs; // Volatile write publishes the new slot before the spec is reachable by key
+            byKey.put(key, spec);
+            return spec;
+        }
+    }
+
+    /**
+     * Maps a style string to a small id; 0 is reserved for a null style.
+     */
+    private static int styleId(String style) {
+        if (style == null) {
+            return 0;
+        }
+        Integer id = styleIds.get(style);
+        if (id == null) {
+            synchronized (lock) {
+                id = styleIds.computeIfAbsent(style, s -> styleIds.size() + 1);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Packs a configuration into a map key.
+     */
+    private static Long key(PizzaType type, int styleId, Size size, Crust crust, int toppingMask) {
+        return ((long) styleId << 32) | ((long) type.ordinal() << 24) | ((long) size.ordinal() << 20)
+                | ((long) crust.ordinal() << 16) | toppingMask;
+    }
+}
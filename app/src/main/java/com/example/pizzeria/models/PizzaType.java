@@ -0,0 +1,99 @@
+package com.example.pizzeria.models;
+
+/**
+ * Enum representing the kinds of pizzas offered on the menu.
+ * Each type knows its display name (as shown by the builder screen)
+ * and how to create itself through a PizzaFactory, so callers can
+ * work with types instead of matching on class names or strings.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public enum PizzaType {
+    DELUXE("Deluxe"),
+    MEATZZA("Meatzza"),
+    BBQ_CHICKEN("BBQ Chicken"),
+    BUILD_YOUR_OWN("Build Your Own");
+
+    private final String displayName; // Name shown on the menu and used for pricing
+
+    /**
+     * Constructs a PizzaType with the given display name.
+     *
+     * @param displayName the name of the pizza type as shown on the menu
+     */
+    PizzaType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Retrieves the display name of this pizza type.
+     *
+     * @return the display name (e.g., "Deluxe", "Build Your Own")
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Creates a new pizza of this type using the given factory.
+     *
+     * @param factory the style-specific factory (ChicagoPizza or NYPizza)
+     * @return a new pizza of this type
+     */
+    public Pizza create(PizzaFactory factory) {
+        switch (this) {
+            case DELUXE:
+                return factory.createDeluxe();
+            case MEATZZA:
+                return factory.createMeatzza();
+            case BBQ_CHICKEN:
+                return factory.createBBQChicken();
+            case BUILD_YOUR_OWN:
+                return factory.createBuildYourOwn();
+            default:
+                throw new IllegalArgumentException("Unknown pizza type: " + this);
+        }
+    }
+
+    /**
+     * Creates a new pizza of this type with an explicit crust, size and
+     * style, as when rebuilding a stored order. Toppings start as the
+     * type's presets.
+     *
+     * @param crust the crust of the pizza
+     * @param size  the size of the pizza
+     * @param style the style of the pizza
+     * @return a new pizza of this type
+     */
+    public Pizza create(Crust crust, Size size, String style) {
+        switch (this) {
+            case DELUXE:
+                return new Deluxe(crust, size, style);
+            case MEATZZA:
+                return new Meatzza(crust, size, style);
+            case BBQ_CHICKEN:
+                return new BBQChicken(crust, size, style);
+            case BUILD_YOUR_OWN:
+                return new BuildYourOwn(crust, size, style);
+            default:
+                throw new IllegalArgumentException("Unknown pizza type: " + this);
+        }
+    }
+
+    /**
+     * Finds the pizza type matching a display name, ignoring case.
+     * Accepts the spinner label "Build your own" as well.
+     *
+     * @param displayName the display name to look up
+     * @return the matching pizza type
+     * @throws IllegalArgumentException if no type matches
+     */
+    public static PizzaType fromDisplayName(String displayName) {
+        for (PizzaType type : values()) {
+            if (type.displayName.equalsIgnoreCase(displayName)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown pizza type: " + displayName);
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.pizzeria.models;
+
+import java.util.Collection;
+
+/**
+ * Answers price quotes for any pizza configuration with a single array read.
+ *
+ * The full configuration space is small: 4 pizza types x 2 styles x 3 sizes
+ * x 2^13 topping subsets. Every price in that space is precomputed into one
+ * flat table of cents, indexed by (type, style, size, topping mask). The
+ * same table serves the builder's price preview, Order totals and batch jobs.
+ *
+ * The table is computed from a MenuCatalog. When a new catalog is installed,
+ * rebuild() computes a complete new table and then publishes it with a single
+ * volatile write, so readers always see either the old table or the new one
+ * and never a half-built mix.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class PriceQuoteService {
+
+    private static final int TYPES = PizzaType.values().length;
+    private static final int STYLES = 2;                        // Chicago, New York
+    private static final int SIZES = Size.values().length;
+    private static final int MASK_BITS = Topping.values().length;
+    private static final int MASKS = 1 << MASK_BITS;
+
+    /** Style index for Chicago-style pizzas. */
+    public static final int CHICAGO = 0;
+
+    /** Style index for New York-style pizzas. */
+    public static final int NEW_YORK = 1;
+
+    private static final PriceQuoteService instance = new PriceQuoteService();
+
+    // Replaced as a whole on rebuild
+    private volatile Table table;
+
+    /**
+     * Private constructor; builds the initial table from the active catalog.
+     */
+    private PriceQuoteService() {
+        rebuild(MenuCatalogs.current());
+    }
+
+    /**
+     * Gets the shared price quote service.
+     *
+     * @return the price quote service
+     */
+    public static PriceQuoteService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Recomputes every price from a catalog and atomically replaces the
+     * table. MenuCatalogs calls this when a new catalog is installed.
+     *
+     * @param catalog the catalog to price from
+     */
+    void rebuild(MenuCatalog catalog) {
+        int[] next = new int[TYPES * STYLES * SIZES * MASKS];
+        int[] centsByToppingCount = new int[MASK_BITS + 1];
+
+        for (PizzaType type : PizzaType.values()) {
+            for (Size size : Size.values()) {
+                // Prices depend only on how many toppings there are, so price
+                // each count once and fan out to every mask with that count
+                for (int count = 0; count <= MASK_BITS; count++) {
+                    centsByToppingCount[count] = catalog.getPriceCents(type, size, count);
+                }
+                for (int style = 0; style < STYLES; style++) {
+                    int base = tableIndex(type, style, size, 0);
+                    for (int mask = 0; mask < MASKS; mask++) {
+                        next[base + mask] = centsByToppingCount[Integer.bitCount(mask)];
+                    }
+                }
+            }
+        }
+        table = new Table(catalog, next);
+    }
+
+    /**
+     * Quotes a configuration in cents.
+     *
+     * @param type        the pizza type
+     * @param style       the style index, CHICAGO or NEW_YORK
+     * @param size        the pizza size
+     * @param toppingMask the topping mask, see Topping.maskOf
+     * @return the price in cents
+     */
+    public int quoteCents(PizzaType type, int style, Size size, int toppingMask) {
+        return table.cents[tableIndex(type, style, size, toppingMask)];
+    }
+
+    /**
+     * Quotes a configuration in dollars.
+     *
+     * @param type        the pizza type
+     * @param style       the style index, CHICAGO or NEW_YORK
+     * @param size        the pizza size
+     * @param toppingMask the topping mask, see Topping.maskOf
+     * @return the price in dollars
+     */
+    public double quote(PizzaType type, int style, Size size, int toppingMask) {
+        return quoteCents(type, style, size, toppingMask) / 100.0;
+    }
+
+    /**
+     * Quotes an existing pizza in cents.
+     *
+     * @param pizza the pizza to price
+     * @return the price in cents
+     */
+    public int quoteCents(Pizza pizza) {
+        return quoteCents(pizza.getPizzaType(), styleIndex(pizza.getStyle()), pizza.getSize(),
+                pizza.getToppingMask());
+    }
+
+    /**
+     * Quotes an existing pizza in cents against a specific catalog, such as
+     * the one its order pinned. Uses the table when it was built from that
+     * catalog and prices from the catalog directly otherwise.
+     *
+     * @param pizza   the pizza to price
+     * @param catalog the catalog to price against
+     * @return the price in cents
+     */
+    public int quoteCents(Pizza pizza, MenuCatalog catalog) {
+        Table snapshot = table;
+        if (snapshot.catalog == catalog) {
+            return snapshot.cents[tableIndex(pizza.getPizzaType(), styleIndex(pizza.getStyle()),
+                    pizza.getSize(), pizza.getToppingMask())];
+        }
+        return catalog.getPriceCents(pizza.getPizzaType(), pizza.getSize(), pizza.getToppingCount());
+    }
+
+    /**
+     * Quotes an existing pizza in dollars.
+     *
+     * @param pizza the pizza to price
+     * @return the price in dollars
+     */
+    public double quote(Pizza pizza) {
+        return quoteCents(pizza) / 100.0;
+    }
+
+    /**
+     * Totals a batch of pizzas in cents against a single table snapshot,
+     * so a rebuild in the middle cannot mix old and new prices.
+     *
+     * @param pizzas the pizzas to price
+     * @return the total price in cents
+     */
+    public long totalCents(Collection<? extends Pizza> pizzas) {
+        return totalCents(pizzas, table.catalog);
+    }
+
+    /**
+     * Totals a batch of pizzas in cents against a specific catalog, such as
+     * the one an order pinned. Uses the table when it was built from that
+     * catalog and prices from the catalog directly otherwise.
+     *
+     * @param pizzas  the pizzas to price
+     * @param catalog the catalog to price against
+     * @return the total price in cents
+     */
+    public long totalCents(Collection<? extends Pizza> pizzas, MenuCatalog catalog) {
+        Table snapshot = table;
+        long total = 0;
+        if (snapshot.catalog == catalog) {
+            for (Pizza pizza : pizzas) {
+                total += snapshot.cents[tableIndex(pizza.getPizzaType(), styleIndex(pizza.getStyle()),
+                        pizza.getSize(), pizza.getToppingMask())];
+            }
+        } else {
+            for (Pizza pizza : pizzas) {
+                total += catalog.getPriceCents(pizza.getPizzaType(), pizza.getSize(), pizza.getToppingCount());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Totals line items in cents against a specific catalog, pricing each
+     * configuration once and multiplying by its quantity.
+     *
+     * @param items   the line items to price
+     * @param catalog the catalog to price against
+     * @return the total price in cents
+     */
+    public long totalLineItemCents(Collection<LineItem> items, MenuCatalog catalog) {
+        Table snapshot = table;
+        long total = 0;
+        for (LineItem item : items) {
+            Pizza pizza = item.getPizza();
+            long cents = snapshot.catalog == catalog
+                    ? snapshot.cents[tableIndex(pizza.getPizzaType(), styleIndex(pizza.getStyle()),
+                            pizza.getSize(), pizza.getToppingMask())]
+                    : catalog.getPriceCents(pizza.getPizzaType(), pizza.getSize(), pizza.getToppingCount());
+            total += cents * item.getQuantity();
+        }
+        return total;
+    }
+
+    /**
+     * Maps a style string to a style index. Accepts both the factory styles
+     * ("Chicago Style", "New York Style") and the builder styles ("Chicago", "NY").
+     *
+     * @param style the style string; null is treated as New York
+     * @return CHICAGO or NEW_YORK
+     */
+    public static int styleIndex(String style) {
+        return style != null && style.startsWith("Chicago") ? CHICAGO : NEW_YORK;
+    }
+
+    /**
+     * Computes the flat table index for a configuration.
+     *
+     * @param type        the pizza type
+     * @param style       the style index
+     * @param size        the pizza size
+     * @param toppingMask the topping mask
+     * @return the index into the price table
+     */
+    private static int tableIndex(PizzaType type, int style, Size size, int toppingMask) {
+        return (((type.ordinal() * STYLES + style) * SIZES + size.ordinal()) << MASK_BITS) | (toppingMask & (MASKS - 1));
+    }
+
+    /**
+     * A price table together with the catalog it was built from.
+     */
+    private static final class Table {
+        final MenuCatalog catalog;
+        final int[] cents;             // Prices in cents, indexed by tableIndex()
+
+        Table(MenuCatalog catalog, int[] cents) {
+            this.catalog = catalog;
+            this.cents = cents;
+        }
+    }
+}
@@ -26,6 +26,32 @@ public enum Topping implements Parcelable {
     SPINACH,
     PINEAPPLE;
 
+    /**
+     * Retrieves the bit representing this topping in a topping mask.
+     * Bit i of a mask is set when the topping with ordinal i is present.
+     *
+     * @return the single-bit mask for this topping
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Builds a topping mask from a collection of toppings.
+     *
+     * @param toppings the toppings to include; may be null
+     * @return the topping mask
+     */
+    public static int maskOf(Iterable<Topping> toppings) {
+        int mask = 0;
+        if (toppings != null) {
+            for (Topping topping : toppings) {
+                mask |= topping.mask();
+            }
+        }
+        return mask;
+    }
+
     /**
      * Parcelable implementation: Write the enum value to a Parcel.
      *
@@ -0,0 +1,123 @@
+package com.example.pizzeria.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of toppings, shared by every pizza that has exactly
+ * those toppings.
+ *
+ * There is one ToppingSet per topping mask, created on first use and kept
+ * for the life of the app, so preset pizzas point at the same set instead
+ * of each building its own list. A pizza only gets a list of its own once
+ * it is customized.
+ *
+ * The toppings are listed in Topping order.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class ToppingSet {
+
+    private static final Topping[] TOPPINGS = Topping.values();
+    private static final ToppingSet[] SETS = new ToppingSet[1 << TOPPINGS.length]; // Indexed by mask
+
+    /** The set with no toppings. */
+    public static final ToppingSet EMPTY = of(0);
+
+    private final int mask;
+    private final List<Topping> toppings;
+
+    /**
+     * Constructs the set for a mask. Use of() to obtain the shared instance.
+     *
+     * @param mask the topping mask
+     */
+    private ToppingSet(int mask) {
+        List<Topping> list = new ArrayList<>(Integer.bitCount(mask));
+        for (Topping topping : TOPPINGS) {
+            if ((mask & topping.mask()) != 0) {
+                list.add(topping);
+            }
+        }
+        this.mask = mask;
+        this.toppings = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Retrieves the shared set for a topping mask.
+     *
+     * @param mask the topping mask
+     * @return the set with exactly those toppings
+     * @throws IllegalArgumentException if the mask has bits for unknown toppings
+     */
+    public static ToppingSet of(int mask) {
+        if (mask < 0 || mask >= SETS.length) {
+            throw new IllegalArgumentException("Invalid topping mask: " + mask);
+        }
+        ToppingSet set = SETS[mask];
+        if (set == null) {
+            // Two threads may both build the set; either copy is fine since it is immutable
+            set = new ToppingSet(mask);
+            SETS[mask] = set;
+        }
+        return set;
+    }
+
+    /**
+     * Retrieves the shared set for a collection of toppings.
+     *
+     * @param toppings the toppings
+     * @return the set with exactly those toppings
+     */
+    public static ToppingSet of(Iterable<Topping> toppings) {
+        return of(Topping.maskOf(toppings));
+    }
+
+    /**
+     * Retrieves the toppings as a mask.
+     *
+     * @return the topping mask
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Retrieves the number of toppings.
+     *
+     * @return the topping count
+     */
+    public int size() {
+        return toppings.size();
+    }
+
+    /**
+     * Checks whether the set has a topping.
+     *
+     * @param topping the topping
+     * @return true if the topping is in the set
+     */
+    public boolean contains(Topping topping) {
+        return (mask & topping.mask()) != 0;
+    }
+
+    /**
+     * Retrieves the toppings as a list.
+     *
+     * @return an unmodifiable list of the toppings, in Topping order
+     */
+    public List<Topping> asList() {
+        return toppings;
+    }
+
+    /**
+     * Returns the toppings in list form, e.g. "[SAUSAGE, PEPPERONI]".
+     *
+     * @return a string representation of the set
+     */
+    @Override
+    public String toString() {
+        return toppings.toString();
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.pizzeria.promotions;
+
+import com.example.pizzeria.models.Pizza;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks which promotions an order qualifies for as pizzas are added and
+ * removed, and picks the discounts to apply.
+ *
+ * Adding or removing pizzas only touches the requirements the
+ * PromotionIndex returns for that pizza: each keeps its list of matching
+ * lines and how many pizzas they hold, and each rule keeps a count of
+ * requirements that still have too few. A rule is applicable once that
+ * count reaches zero. A line is one pizza configuration with a quantity,
+ * so a bulk order costs the same to track as a single pizza.
+ *
+ * The discount set is picked lazily, and only when something changed,
+ * by walking the applicable rules from highest discount down and letting
+ * each claim unclaimed pizzas for as many applications as it can. Rules
+ * that cannot apply are never visited.
+ *
+ * Like Order, this class is not thread-safe.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class PromotionEvaluator {
+
+    private static final int EXPECTED_LINES = 4;   // Most orders hold a few distinct pizzas
+
+    private final PromotionIndex index;
+    private final List<List<Line>> matches;        // Matching lines per requirement; null until one matches
+    private final int[] matchedPizzas;             // Per requirement, pizzas on its matching lines
+    private final int[] unmetRequirements;         // Per rule, requirements with too few matches
+    private final BitSet applicable = new BitSet();
+    private final Map<Pizza, Line> lines = new IdentityHashMap<>(EXPECTED_LINES);
+
+    private boolean dirty;
+    private int generation;                        // Stamp marking lines claimed in the current selection
+    private long discountCents;
+    private List<PromotionRule> applied = Collections.emptyList();
+
+    /**
+     * Constructs an evaluator for an empty order.
+     *
+     * @param index the promotions to evaluate
+     */
+    public PromotionEvaluator(PromotionIndex index) {
+        this.index = index;
+        this.matches = new ArrayList<>(index.getRequirementCount());
+        for (int i = 0; i < index.getRequirementCount(); i++) {
+            matches.add(null);
+        }
+        this.matchedPizzas = new int[index.getRequirementCount()];
+        this.unmetRequirements = new int[index.getRuleCount()];
+        for (int rule = 0; rule < unmetRequirements.length; rule++) {
+            unmetRequirements[rule] = index.endRequirement(rule) - index.firstRequirement(rule);
+        }
+    }
+
+    /**
+     * Records a pizza added to the order. The pizza's type, size and
+     * toppings are captured now; later changes to the pizza are not seen.
+     *
+     * @param pizza the pizza that was added
+     */
+    public void add(Pizza pizza) {
+        add(pizza, 1);
+    }
+
+    /**
+     * Records pizzas added to the order. Adding the same pizza object again
+     * grows its line instead of starting a new one.
+     *
+     * @param pizza    the pizza configuration that was added
+     * @param quantity how many of it were added
+     */
+    public void add(Pizza pizza, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        Line line = lines.get(pizza);
+        if (line == null) {
+            line = new Line(index.match(pizza.getPizzaType(), pizza.getSize(), pizza.getToppingMask()));
+            lines.put(pizza, line);
+            for (int requirement : line.requirements) {
+                List<Line> list = matches.get(requirement);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    matches.set(requirement, list);
+                }
+                list.add(line);
+            }
+        }
+        line.quantity += quantity;
+        for (int requirement : line.requirements) {
+            int needed = index.getRequirement(requirement).getQuantity();
+            int before = matchedPizzas[requirement];
+            matchedPizzas[requirement] += quantity;
+            if (before < needed && matchedPizzas[requirement] >= needed) {
+                int rule = index.ruleOf(requirement);
+                if (--unmetRequirements[rule] == 0) {
+                    applicable.set(rule);
+                }
+            }
+        }
+        if (line.requirements.length > 0) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Records a pizza removed from the order.
+     *
+     * @param pizza the pizza that was removed
+     */
+    public void remove(Pizza pizza) {
+        remove(pizza, 1);
+    }
+
+    /**
+     * Records pizzas removed from the order. The line is dropped once its
+     * quantity reaches zero.
+     *
+     * @param pizza    the pizza configuration that was removed
+     * @param quantity how many of it were removed
+     */
+    public void remove(Pizza pizza, int quantity) {
+        Line line = lines.get(pizza);
+        if (line == null || quantity <= 0) {
+            return;
+        }
+        int removed = Math.min(quantity, line.quantity);
+        line.quantity -= removed;
+        if (line.quantity == 0) {
+            lines.remove(pizza);
+            for (int requirement : line.requirements) {
+                matches.get(requirement).remove(line);
+            }
+        }
+        for (int requirement : line.requirements) {
+            int needed = index.getRequirement(requirement).getQuantity();
+            int before = matchedPizzas[requirement];
+            matchedPizzas[requirement] -= removed;
+            if (before >= needed && matchedPizzas[requirement] < needed) {
+                int rule = index.ruleOf(requirement);
+                if (unmetRequirements[rule]++ == 0) {
+                    applicable.clear(rule);
+                }
+            }
+        }
+        if (line.requirements.length > 0) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Forgets every pizza, as when the order is cleared.
+     */
+    public void clear() {
+        for (List<Line> list : matches) {
+            if (list != null) {
+                list.clear();
+            }
+        }
+        Arrays.fill(matchedPizzas, 0);
+        for (int rule = 0; rule < unmetRequirements.length; rule++) {
+            unmetRequirements[rule] = index.endRequirement(rule) - index.firstRequirement(rule);
+        }
+        applicable.clear();
+        lines.clear();
+        discountCents = 0;
+        applied = Collections.emptyList();
+        dirty = false;
+    }
+
+    /**
+     * Retrieves the promotions this evaluator chooses from.
+     *
+     * @return the promotion index
+     */
+    public PromotionIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Retrieves the total discount of the selected promotions.
+     *
+     * @return the discount in cents
+     */
+    public long getDiscountCents() {
+        evaluate();
+        return discountCents;
+    }
+
+    /**
+     * Retrieves the selected promotions, once per application.
+     *
+     * @return an unmodifiable list of applied rules, highest discount first
+     */
+    public List<PromotionRule> getAppliedPromotions() {
+        evaluate();
+        return applied;
+    }
+
+    /**
+     * Picks the discount set if anything has changed since the last pick.
+     */
+    private void evaluate() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        generation++;
+        long total = 0;
+        List<PromotionRule> picked = new ArrayList<>();
+        List<Line> claimed = new ArrayList<>();
+
+        for (int rule = applicable.nextSetBit(0); rule >= 0; rule = applicable.nextSetBit(rule + 1)) {
+            int first = index.firstRequirement(rule);
+            int end = index.endRequirement(rule);
+            // Claimed pizzas stay claimed, so each requirement's scan resumes where it stopped
+            int[] cursors = new int[end - first];
+            while (claimApplication(first, end, cursors, claimed)) {
+                PromotionRule promotion = index.getRule(rule);
+                picked.add(promotion);
+                total += promotion.getDiscountCents();
+            }
+        }
+        discountCents = total;
+        applied = Collections.unmodifiableList(picked);
+    }
+
+    /**
+     * Tries to claim enough unclaimed pizzas for one application of a rule.
+     * Releases any partial claim if the rule cannot be satisfied.
+     *
+     * @param first   the rule's first requirement
+     * @param end     one past the rule's last requirement
+     * @param cursors per requirement, how far its match list has been used up
+     * @param claimed scratch list for the lines claimed from by this attempt
+     * @return true if the application was claimed
+     */
+    private boolean claimApplication(int first, int end, int[] cursors, List<Line> claimed) {
+        claimed.clear();
+        for (int requirement = first; requirement < end; requirement++) {
+            List<Line> list = matches.get(requirement);
+            if (list == null) {
+                list = Collections.emptyList(); // Never matched
+            }
+            int needed = index.getRequirement(requirement).getQuantity();
+            int cursor = cursors[requirement - first];
+            while (needed > 0 && cursor < list.size()) {
+                Line line = list.get(cursor);
+                int taken = Math.min(needed, line.unclaimed(generation));
+                if (taken > 0) {
+                    if (line.pending == 0) {
+                        claimed.add(line);
+                    }
+                    line.claim(generation, taken);
+                    needed -= taken;
+                }
+                if (line.unclaimed(generation) == 0) {
+                    cursor++;
+                }
+            }
+            cursors[requirement - first] = cursor;
+            if (needed > 0) {
+                for (Line line : claimed) {
+                    line.claimed -= line.pending;
+                    line.pending = 0;
+                }
+                return false;
+            }
+        }
+        for (Line line : claimed) {
+            line.pending = 0;
+        }
+        return true;
+    }
+
+    /**
+     * One pizza configuration in the order, how many of it there are, and
+     * the requirements it matches.
+     */
+    private static final class Line {
+        final int[] requirements;
+        int quantity;
+        int claimedBy;  // Generation the claimed count belongs to
+        int claimed;    // Pizzas claimed in that generation
+        int pending;    // Of those, claimed by the application being attempted
+
+        Line(int[] requirements) {
+            this.requirements = requirements;
+        }
+
+        int unclaimed(int generation) {
+            return claimedBy == generation ? quantity - claimed : quantity;
+        }
+
+        void claim(int generation, int count) {
+            if (claimedBy != generation) {
+                claimedBy = generation;
+                claimed = 0;
+            }
+            claimed += count;
+            pending += count;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.pizzeria.promotions;
+
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of promotion rules, indexed so that a pizza can find the
+ * requirements it may satisfy without scanning every rule.
+ *
+ * Rules are ordered by discount, highest first, and their requirements are
+ * numbered in that order. Each requirement is filed in one bucket keyed by
+ * its pizza type and size, where either may be "any". A pizza therefore
+ * only looks at four buckets: (type, size), (type, any), (any, size) and
+ * (any, any), and checks each candidate's topping mask with a single AND.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class PromotionIndex {
+
+    private static final int[] NO_REQUIREMENTS = new int[0];
+    private static final int SIZE_KEYS = Size.values().length + 1;
+
+    /** An index with no rules. Declared after the constants its constructor uses. */
+    public static final PromotionIndex EMPTY = new PromotionIndex(Collections.emptyList());
+
+    private final PromotionRule[] rules;            // Highest discount first
+    private final PromotionRule.Requirement[] requirements;
+    private final int[] requirementRule;            // Rule index of each requirement
+    private final int[] firstRequirement;           // First requirement index of each rule, plus an end marker
+    private final int[][] buckets;                  // Requirement indexes by bucketKey()
+
+    /**
+     * Builds an index over a set of rules.
+     *
+     * @param rules the active promotion rules
+     */
+    public PromotionIndex(Collection<PromotionRule> rules) {
+        List<PromotionRule> sorted = new ArrayList<>(rules);
+        sorted.sort((a, b) -> Integer.compare(b.getDiscountCents(), a.getDiscountCents()));
+        this.rules = sorted.toArray(new PromotionRule[0]);
+
+        int count = 0;
+        for (PromotionRule rule : this.rules) {
+            count += rule.getRequirements().size();
+        }
+        requirements = new PromotionRule.Requirement[count];
+        requirementRule = new int[count];
+        firstRequirement = new int[this.rules.length + 1];
+
+        List<List<Integer>> bucketLists = new ArrayList<>();
+        for (int i = 0; i < (PizzaType.values().length + 1) * SIZE_KEYS; i++) {
+            bucketLists.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (int r = 0; r < this.rules.length; r++) {
+            firstRequirement[r] = next;
+            for (PromotionRule.Requirement requirement : this.rules[r].getRequirements()) {
+                requirements[next] = requirement;
+                requirementRule[next] = r;
+                bucketLists.get(bucketKey(requirement.getType(), requirement.getSize())).add(next);
+                next++;
+            }
+        }
+        firstRequirement[this.rules.length] = next;
+
+        buckets = new int[bucketLists.size()][];
+        for (int i = 0; i < buckets.length; i++) {
+            List<Integer> list = bucketLists.get(i);
+            if (list.isEmpty()) {
+                buckets[i] = NO_REQUIREMENTS;
+            } else {
+                buckets[i] = new int[list.size()];
+                for (int j = 0; j < list.size(); j++) {
+                    buckets[i][j] = list.get(j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of rules.
+     *
+     * @return the rule count
+     */
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    /**
+     * Retrieves the number of requirements across all rules.
+     *
+     * @return the requirement count
+     */
+    public int getRequirementCount() {
+        return requirements.length;
+    }
+
+    /**
+     * Retrieves a rule by index. Lower indexes have higher discounts.
+     *
+     * @param rule the rule index
+     * @return the rule
+     */
+    public PromotionRule getRule(int rule) {
+        return rules[rule];
+    }
+
+    /**
+     * Collects the requirements a pizza satisfies.
+     *
+     * @param type        the pizza type
+     * @param size        the pizza size
+     * @param toppingMask the pizza's topping mask
+     * @return the matching requirement indexes
+     */
+    int[] match(PizzaType type, Size size, int toppingMask) {
+        int[][] candidates = {
+                buckets[bucketKey(type, size)],
+                buckets[bucketKey(type, null)],
+                buckets[bucketKey(null, size)],
+                buckets[bucketKey(null, null)]
+        };
+        int total = 0;
+        for (int[] bucket : candidates) {
+            total += bucket.length;
+        }
+        if (total == 0) {
+            return NO_REQUIREMENTS;
+        }
+        int[] matched = new int[total];
+        int count = 0;
+        for (int[] bucket : candidates) {
+            for (int requirement : bucket) {
+                if (requirements[requirement].matchesToppings(toppingMask)) {
+                    matched[count++] = requirement;
+                }
+            }
+        }
+        return count == total ? matched : Arrays.copyOf(matched, count);
+    }
+
+    /**
+     * Retrieves a requirement by index.
+     */
+    PromotionRule.Requirement getRequirement(int requirement) {
+        return requirements[requirement];
+    }
+
+    /**
+     * Retrieves the rule index that owns a requirement.
+     */
+    int ruleOf(int requirement) {
+        return requirementRule[requirement];
+    }
+
+    /**
+     * Retrieves the first requirement index of a rule.
+     */
+    int firstRequirement(int rule) {
+        return firstRequirement[rule];
+    }
+
+    /**
+     * Retrieves the index one past the last requirement of a rule.
+     */
+    int endRequirement(int rule) {
+        return firstRequirement[rule + 1];
+    }
+
+    /**
+     * Computes the bucket for a type and size, where null means "any".
+     */
+    private static int bucketKey(PizzaType type, Size size) {
+        int typeKey = type == null ? 0 : type.ordinal() + 1;
+        int sizeKey = size == null ? 0 : size.ordinal() + 1;
+        return typeKey * SIZE_KEYS + sizeKey;
+    }
+}
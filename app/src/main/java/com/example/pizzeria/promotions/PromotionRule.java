@@ -0,0 +1,180 @@
+package com.example.pizzeria.promotions;
+
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A combo deal: a fixed discount granted when an order contains every one
+ * of the rule's requirements. Each pizza counts towards at most one
+ * requirement of one applied rule, and a rule is applied again for every
+ * further full set of matching pizzas.
+ *
+ * Examples:
+ * - "2 large Deluxe + any BBQ Chicken":
+ *   new PromotionRule("Deluxe Duo", 500,
+ *   new Requirement(PizzaType.DELUXE, Size.LARGE, 0, 0, 2),
+ *   new Requirement(PizzaType.BBQ_CHICKEN, null, 0, 0, 1))
+ * - "5+ toppings free extra cheese":
+ *   new PromotionRule("Free Extra Cheese", 169,
+ *   new Requirement(null, null, 0, 5, 1))
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class PromotionRule {
+
+    private final String name;
+    private final int discountCents;
+    private final List<Requirement> requirements;
+
+    /**
+     * Constructs a PromotionRule.
+     *
+     * @param name          the name shown to the customer
+     * @param discountCents the discount per application, in cents
+     * @param requirements  the pizzas the order must contain
+     * @throws IllegalArgumentException if the discount is not positive or
+     *                                  there are no requirements
+     */
+    public PromotionRule(String name, int discountCents, Requirement... requirements) {
+        if (discountCents <= 0) {
+            throw new IllegalArgumentException("Discount must be positive.");
+        }
+        if (requirements.length == 0) {
+            throw new IllegalArgumentException("A promotion needs at least one requirement.");
+        }
+        this.name = name;
+        this.discountCents = discountCents;
+        this.requirements = Collections.unmodifiableList(Arrays.asList(requirements.clone()));
+    }
+
+    /**
+     * Retrieves the name of the promotion.
+     *
+     * @return the promotion name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the discount granted each time the rule applies.
+     *
+     * @return the discount in cents
+     */
+    public int getDiscountCents() {
+        return discountCents;
+    }
+
+    /**
+     * Retrieves the requirements of the rule.
+     *
+     * @return an unmodifiable list of requirements
+     */
+    public List<Requirement> getRequirements() {
+        return requirements;
+    }
+
+    /**
+     * Provides the name and discount of the promotion.
+     *
+     * @return a string representation of the rule
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s (-$%.2f)", name, discountCents / 100.0);
+    }
+
+    /**
+     * A number of pizzas matching a type, a size and a set of toppings.
+     */
+    public static final class Requirement {
+
+        private final PizzaType type;
+        private final Size size;
+        private final int toppingMask;
+        private final int minToppings;
+        private final int quantity;
+
+        /**
+         * Constructs a Requirement.
+         *
+         * @param type        the pizza type, or null for any type
+         * @param size        the pizza size, or null for any size
+         * @param toppingMask toppings the pizza must have, see Topping.maskOf
+         * @param minToppings the minimum number of toppings on the pizza
+         * @param quantity    how many matching pizzas are needed
+         * @throws IllegalArgumentException if the quantity is not positive
+         */
+        public Requirement(PizzaType type, Size size, int toppingMask, int minToppings, int quantity) {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive.");
+            }
+            this.type = type;
+            this.size = size;
+            this.toppingMask = toppingMask;
+            this.minToppings = minToppings;
+            this.quantity = quantity;
+        }
+
+        /**
+         * Retrieves the required pizza type.
+         *
+         * @return the pizza type, or null for any type
+         */
+        public PizzaType getType() {
+            return type;
+        }
+
+        /**
+         * Retrieves the required pizza size.
+         *
+         * @return the size, or null for any size
+         */
+        public Size getSize() {
+            return size;
+        }
+
+        /**
+         * Retrieves the toppings a matching pizza must have.
+         *
+         * @return the topping mask
+         */
+        public int getToppingMask() {
+            return toppingMask;
+        }
+
+        /**
+         * Retrieves the minimum number of toppings on a matching pizza.
+         *
+         * @return the minimum topping count
+         */
+        public int getMinToppings() {
+            return minToppings;
+        }
+
+        /**
+         * Retrieves how many matching pizzas are needed.
+         *
+         * @return the quantity
+         */
+        public int getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * Checks the topping part of the requirement. Type and size are
+         * handled by the PromotionIndex buckets.
+         *
+         * @param mask the pizza's topping mask
+         * @return true if the pizza has the required toppings
+         */
+        boolean matchesToppings(int mask) {
+            return (mask & toppingMask) == toppingMask && Integer.bitCount(mask) >= minToppings;
+        }
+    }
+}
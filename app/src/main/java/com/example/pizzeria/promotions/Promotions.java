@@ -0,0 +1,42 @@
+package com.example.pizzeria.promotions;
+
+import java.util.Collection;
+
+/**
+ * Holds the active set of promotion rules.
+ *
+ * New orders take the index that is active when they are created, so
+ * installing new rules never changes the discounts of an order in progress.
+ * No promotions are active until rules are installed.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class Promotions {
+
+    private static volatile PromotionIndex current = PromotionIndex.EMPTY;
+
+    /**
+     * Private constructor to prevent instantiation of the Promotions class.
+     */
+    private Promotions() {}
+
+    /**
+     * Gets the active promotion index.
+     *
+     * @return the active index
+     */
+    public static PromotionIndex current() {
+        return current;
+    }
+
+    /**
+     * Indexes and activates a new set of rules, replacing the previous set.
+     *
+     * @param rules the rules to activate
+     */
+    public static void install(Collection<PromotionRule> rules) {
+        current = new PromotionIndex(rules);
+    }
+}
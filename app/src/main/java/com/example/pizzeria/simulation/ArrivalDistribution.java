@@ -0,0 +1,88 @@
+package com.example.pizzeria.simulation;
+
+import java.util.Random;
+
+/**
+ * Describes how customer orders arrive at the counter over a simulated day.
+ * Implementations return the absolute time of the next arrival, which lets
+ * them model rates that change over the course of the day (e.g., a dinner rush).
+ *
+ * Factory methods are provided for the common cases:
+ * - a constant-rate Poisson process
+ * - an hour-by-hour rate profile (non-homogeneous Poisson process)
+ * - a preset Friday rush profile
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public interface ArrivalDistribution {
+
+    /**
+     * Computes the time of the next order arrival.
+     *
+     * @param nowSeconds the current simulated time in seconds since opening
+     * @param random     the random source used by the simulation
+     * @return the absolute time of the next arrival in seconds
+     */
+    double nextArrival(double nowSeconds, Random random);
+
+    /**
+     * Creates a constant-rate Poisson arrival process.
+     *
+     * @param ordersPerHour the average number of orders per hour
+     * @return the arrival distribution
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    static ArrivalDistribution poisson(double ordersPerHour) {
+        if (ordersPerHour <= 0) {
+            throw new IllegalArgumentException("Order rate must be positive.");
+        }
+        double ratePerSecond = ordersPerHour / 3600.0;
+        return (now, random) -> now - Math.log(1.0 - random.nextDouble()) / ratePerSecond;
+    }
+
+    /**
+     * Creates an arrival process whose rate changes every hour.
+     * Arrivals are generated by thinning a Poisson process running at the
+     * peak rate, so the expected count in each hour matches the profile.
+     * After the last hour of the profile no more orders arrive.
+     *
+     * @param ordersPerHour the expected number of orders in each hour of the day
+     * @return the arrival distribution
+     * @throws IllegalArgumentException if the profile is empty or has no positive rate
+     */
+    static ArrivalDistribution hourlyProfile(double... ordersPerHour) {
+        double peak = 0.0;
+        for (double rate : ordersPerHour) {
+            peak = Math.max(peak, rate);
+        }
+        if (ordersPerHour.length == 0 || peak <= 0) {
+            throw new IllegalArgumentException("Hourly profile must contain a positive rate.");
+        }
+        double[] profile = ordersPerHour.clone();
+        double peakPerSecond = peak / 3600.0;
+        double peakRate = peak;
+        return (now, random) -> {
+            double time = now;
+            while (true) {
+                time -= Math.log(1.0 - random.nextDouble()) / peakPerSecond;
+                int hour = (int) (time / 3600.0);
+                if (hour >= profile.length) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                if (random.nextDouble() * peakRate < profile[hour]) {
+                    return time;
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a 12-hour Friday profile (11 AM to 11 PM) with a lunch bump
+     * and a dinner rush, totalling roughly 10,000 orders.
+     *
+     * @return the arrival distribution
+     */
+    static ArrivalDistribution fridayRush() {
+        return hourlyProfile(300, 700, 900, 500, 400, 700, 1400, 1700, 1500, 900, 600, 400);
+    }
+}
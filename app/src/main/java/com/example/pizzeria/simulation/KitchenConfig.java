@@ -0,0 +1,284 @@
+package com.example.pizzeria.simulation;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+
+/**
+ * Holds the parameters for a kitchen throughput simulation: staffing,
+ * oven capacity, per-crust bake times, per-type prep times, the order mix
+ * and the arrival distribution.
+ *
+ * All values have reasonable defaults, so a simulation can be run with
+ * a new KitchenConfig and only the parameters being swept need to be set.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class KitchenConfig {
+
+    private int prepStations = 3;         // Number of cooks preparing pizzas in parallel
+    private int ovenSlots = 6;            // Number of pizzas that can bake at the same time
+    private double openHours = 12.0;      // Length of the simulated day
+    private double chicagoShare = 0.4;    // Fraction of orders that are Chicago style
+    private int maxPizzasPerOrder = 4;    // Orders contain 1..max pizzas
+    private long seed = 42L;              // Seed for reproducible runs
+    private ArrivalDistribution arrivals = ArrivalDistribution.fridayRush();
+
+    // Bake times in minutes, indexed by Crust ordinal
+    private final double[] bakeMinutes = new double[Crust.values().length];
+
+    // Prep times in minutes, indexed by PizzaType ordinal
+    private final double[] prepMinutes = new double[PizzaType.values().length];
+
+    // Relative weights for picking pizza types and sizes
+    private final double[] typeWeights = new double[PizzaType.values().length];
+    private final double[] sizeWeights = new double[Size.values().length];
+
+    /**
+     * Constructs a KitchenConfig with default timings and order mix.
+     */
+    public KitchenConfig() {
+        bakeMinutes[Crust.DEEP_DISH.ordinal()] = 25.0;
+        bakeMinutes[Crust.PAN.ordinal()] = 18.0;
+        bakeMinutes[Crust.STUFFED.ordinal()] = 22.0;
+        bakeMinutes[Crust.BROOKLYN.ordinal()] = 10.0;
+        bakeMinutes[Crust.THIN.ordinal()] = 8.0;
+        bakeMinutes[Crust.HAND_TOSSED.ordinal()] = 12.0;
+
+        prepMinutes[PizzaType.DELUXE.ordinal()] = 4.0;
+        prepMinutes[PizzaType.MEATZZA.ordinal()] = 3.5;
+        prepMinutes[PizzaType.BBQ_CHICKEN.ordinal()] = 3.5;
+        prepMinutes[PizzaType.BUILD_YOUR_OWN.ordinal()] = 3.0;
+
+        typeWeights[PizzaType.DELUXE.ordinal()] = 0.25;
+        typeWeights[PizzaType.MEATZZA.ordinal()] = 0.2;
+        typeWeights[PizzaType.BBQ_CHICKEN.ordinal()] = 0.2;
+        typeWeights[PizzaType.BUILD_YOUR_OWN.ordinal()] = 0.35;
+
+        sizeWeights[Size.SMALL.ordinal()] = 0.25;
+        sizeWeights[Size.MEDIUM.ordinal()] = 0.45;
+        sizeWeights[Size.LARGE.ordinal()] = 0.3;
+    }
+
+    /**
+     * Sets the number of prep stations (cooks assembling pizzas).
+     *
+     * @param prepStations the number of prep stations, at least 1
+     */
+    public void setPrepStations(int prepStations) {
+        if (prepStations < 1) {
+            throw new IllegalArgumentException("At least one prep station is required.");
+        }
+        this.prepStations = prepStations;
+    }
+
+    /**
+     * Sets the number of pizzas that can bake at the same time across all ovens.
+     *
+     * @param ovenSlots the number of oven slots, at least 1
+     */
+    public void setOvenSlots(int ovenSlots) {
+        if (ovenSlots < 1) {
+            throw new IllegalArgumentException("At least one oven slot is required.");
+        }
+        this.ovenSlots = ovenSlots;
+    }
+
+    /**
+     * Sets the number of hours the shop accepts orders.
+     *
+     * @param openHours the length of the simulated day in hours
+     */
+    public void setOpenHours(double openHours) {
+        if (openHours <= 0) {
+            throw new IllegalArgumentException("Open hours must be positive.");
+        }
+        this.openHours = openHours;
+    }
+
+    /**
+     * Sets the fraction of orders that are Chicago style; the rest are New York style.
+     *
+     * @param chicagoShare a value between 0 and 1
+     */
+    public void setChicagoShare(double chicagoShare) {
+        if (chicagoShare < 0 || chicagoShare > 1) {
+            throw new IllegalArgumentException("Chicago share must be between 0 and 1.");
+        }
+        this.chicagoShare = chicagoShare;
+    }
+
+    /**
+     * Sets the maximum number of pizzas in a single order.
+     *
+     * @param maxPizzasPerOrder the maximum pizzas per order, at least 1
+     */
+    public void setMaxPizzasPerOrder(int maxPizzasPerOrder) {
+        if (maxPizzasPerOrder < 1) {
+            throw new IllegalArgumentException("Orders must allow at least one pizza.");
+        }
+        this.maxPizzasPerOrder = maxPizzasPerOrder;
+    }
+
+    /**
+     * Sets the random seed so that runs are reproducible.
+     *
+     * @param seed the random seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the distribution used to generate order arrivals.
+     *
+     * @param arrivals the arrival distribution
+     */
+    public void setArrivals(ArrivalDistribution arrivals) {
+        if (arrivals == null) {
+            throw new IllegalArgumentException("Arrival distribution cannot be null.");
+        }
+        this.arrivals = arrivals;
+    }
+
+    /**
+     * Sets the bake time for a crust.
+     *
+     * @param crust   the crust type
+     * @param minutes the bake time in minutes
+     */
+    public void setBakeMinutes(Crust crust, double minutes) {
+        bakeMinutes[crust.ordinal()] = minutes;
+    }
+
+    /**
+     * Sets the prep time for a pizza type.
+     *
+     * @param type    the pizza type
+     * @param minutes the prep time in minutes
+     */
+    public void setPrepMinutes(PizzaType type, double minutes) {
+        prepMinutes[type.ordinal()] = minutes;
+    }
+
+    /**
+     * Sets the relative weight of a pizza type in the order mix.
+     *
+     * @param type   the pizza type
+     * @param weight the relative weight, zero or more
+     */
+    public void setTypeWeight(PizzaType type, double weight) {
+        typeWeights[type.ordinal()] = weight;
+    }
+
+    /**
+     * Sets the relative weight of a size in the order mix.
+     *
+     * @param size   the pizza size
+     * @param weight the relative weight, zero or more
+     */
+    public void setSizeWeight(Size size, double weight) {
+        sizeWeights[size.ordinal()] = weight;
+    }
+
+    /**
+     * Retrieves the number of prep stations.
+     *
+     * @return the number of prep stations
+     */
+    public int getPrepStations() {
+        return prepStations;
+    }
+
+    /**
+     * Retrieves the number of oven slots.
+     *
+     * @return the number of oven slots
+     */
+    public int getOvenSlots() {
+        return ovenSlots;
+    }
+
+    /**
+     * Retrieves the length of the simulated day in hours.
+     *
+     * @return the length of the simulated day in hours
+     */
+    public double getOpenHours() {
+        return openHours;
+    }
+
+    /**
+     * Retrieves the fraction of Chicago-style orders.
+     *
+     * @return the fraction of Chicago-style orders
+     */
+    public double getChicagoShare() {
+        return chicagoShare;
+    }
+
+    /**
+     * Retrieves the maximum pizzas per order.
+     *
+     * @return the maximum pizzas per order
+     */
+    public int getMaxPizzasPerOrder() {
+        return maxPizzasPerOrder;
+    }
+
+    /**
+     * Retrieves the random seed.
+     *
+     * @return the random seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieves the arrival distribution.
+     *
+     * @return the arrival distribution
+     */
+    public ArrivalDistribution getArrivals() {
+        return arrivals;
+    }
+
+    /**
+     * Retrieves the bake time for a crust.
+     *
+     * @param crust the crust type
+     * @return the bake time in minutes
+     */
+    public double getBakeMinutes(Crust crust) {
+        return bakeMinutes[crust.ordinal()];
+    }
+
+    /**
+     * Retrieves the prep time for a pizza type.
+     *
+     * @param type the pizza type
+     * @return the prep time in minutes
+     */
+    public double getPrepMinutes(PizzaType type) {
+        return prepMinutes[type.ordinal()];
+    }
+
+    /**
+     * Retrieves a copy of the pizza type weights, indexed by PizzaType ordinal.
+     *
+     * @return the type weights
+     */
+    public double[] getTypeWeights() {
+        return typeWeights.clone();
+    }
+
+    /**
+     * Retrieves a copy of the size weights, indexed by Size ordinal.
+     *
+     * @return the size weights
+     */
+    public double[] getSizeWeights() {
+        return sizeWeights.clone();
+    }
+}
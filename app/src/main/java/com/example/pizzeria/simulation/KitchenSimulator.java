@@ -0,0 +1,288 @@
+package com.example.pizzeria.simulation;
+
+import com.example.pizzeria.models.ChicagoPizza;
+import com.example.pizzeria.models.NYPizza;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaFactory;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.OrderStores;
+import com.example.pizzeria.store.StorePartition;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Discrete-event simulation of the kitchen, used to estimate throughput
+ * and order latency before changing staffing or oven count.
+ *
+ * Orders arrive according to the configured ArrivalDistribution and are
+ * built as real Order and Pizza objects through the ChicagoPizza and NYPizza
+ * factories, numbered by a detached StorePartition so the simulation never
+ * uses up the store's order numbers. Each pizza waits for a free prep station, is prepared for the
+ * time configured for its PizzaType, then waits for a free oven slot and
+ * bakes for the time configured for its Crust. An order is complete when
+ * its last pizza leaves the oven.
+ *
+ * The simulation jumps from event to event instead of stepping through
+ * time, so a 12-hour day with 10,000 orders runs in well under a second.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class KitchenSimulator {
+
+    private static final int ORDER_ARRIVAL = 0;
+    private static final int PREP_DONE = 1;
+    private static final int BAKE_DONE = 2;
+    private static final int MAX_TOPPINGS = 7;
+
+    private final KitchenConfig config;
+    private final PizzaFactory chicagoFactory = new ChicagoPizza();
+    private final PizzaFactory nyFactory = new NYPizza();
+    private final Topping[] allToppings = Topping.values();
+    private StorePartition store;               // Numbers the simulated orders; new for each run
+
+    // Per-pizza state, indexed by pizza id
+    private int[] pizzaOrder = new int[1024];
+    private double[] pizzaPrepSeconds = new double[1024];
+    private double[] pizzaBakeSeconds = new double[1024];
+    private int pizzaCount;
+
+    // Per-order state, indexed by order id
+    private double[] orderArrival = new double[1024];
+    private int[] orderRemaining = new int[1024];
+    private int orderCount;
+
+    /**
+     * Constructs a KitchenSimulator for the given configuration.
+     *
+     * @param config the kitchen configuration to simulate
+     */
+    public KitchenSimulator(KitchenConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Kitchen configuration cannot be null.");
+        }
+        this.config = config;
+    }
+
+    /**
+     * Runs a full simulated day and reports the results. Orders stop arriving
+     * when the shop closes, but the kitchen keeps working until it is empty.
+     * Each call starts from a clean kitchen with the configured seed.
+     *
+     * @return the simulation report
+     */
+    public SimulationReport run() {
+        long startNanos = System.nanoTime();
+        Random random = new Random(config.getSeed());
+        store = StorePartition.detached(OrderStores.DEFAULT_STORE_ID);
+        double[] typeWeights = config.getTypeWeights();
+        double[] sizeWeights = config.getSizeWeights();
+        double closeTime = config.getOpenHours() * 3600.0;
+        ArrivalDistribution arrivals = config.getArrivals();
+
+        pizzaCount = 0;
+        orderCount = 0;
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        ArrayDeque<Integer> prepQueue = new ArrayDeque<>();
+        ArrayDeque<Integer> ovenQueue = new ArrayDeque<>();
+        int freePrepStations = config.getPrepStations();
+        int freeOvenSlots = config.getOvenSlots();
+
+        double[] latencies = new double[1024];
+        int completed = 0;
+        int pizzasBaked = 0;
+        double revenue = 0.0;
+        int maxPrepQueue = 0;
+        int maxOvenQueue = 0;
+        double prepQueueArea = 0.0;
+        double ovenQueueArea = 0.0;
+        double lastTime = 0.0;
+        long sequence = 0;
+
+        double firstArrival = arrivals.nextArrival(0.0, random);
+        if (firstArrival < closeTime) {
+            events.add(new Event(firstArrival, sequence++, ORDER_ARRIVAL, 0));
+        }
+
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            double now = event.time;
+
+            // Accumulate time-weighted queue lengths
+            prepQueueArea += prepQueue.size() * (now - lastTime);
+            ovenQueueArea += ovenQueue.size() * (now - lastTime);
+            lastTime = now;
+
+            switch (event.type) {
+                case ORDER_ARRIVAL:
+                    Order order = generateOrder(random, typeWeights, sizeWeights);
+                    revenue += order.calculateTotal();
+                    int orderId = registerOrder(now, order);
+                    for (int i = pizzaCount - orderRemaining[orderId]; i < pizzaCount; i++) {
+                        prepQueue.add(i);
+                    }
+                    double nextArrival = arrivals.nextArrival(now, random);
+                    if (nextArrival < closeTime) {
+                        events.add(new Event(nextArrival, sequence++, ORDER_ARRIVAL, 0));
+                    }
+                    break;
+                case PREP_DONE:
+                    freePrepStations++;
+                    ovenQueue.add(event.id);
+                    break;
+                case BAKE_DONE:
+                    freeOvenSlots++;
+                    pizzasBaked++;
+                    int owner = pizzaOrder[event.id];
+                    if (--orderRemaining[owner] == 0) {
+                        if (completed == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, completed * 2);
+                        }
+                        latencies[completed++] = (now - orderArrival[owner]) / 60.0;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event type: " + event.type);
+            }
+
+            // Hand waiting pizzas to any free stations
+            while (freePrepStations > 0 && !prepQueue.isEmpty()) {
+                int pizzaId = prepQueue.poll();
+                freePrepStations--;
+                events.add(new Event(now + pizzaPrepSeconds[pizzaId], sequence++, PREP_DONE, pizzaId));
+            }
+            while (freeOvenSlots > 0 && !ovenQueue.isEmpty()) {
+                int pizzaId = ovenQueue.poll();
+                freeOvenSlots--;
+                events.add(new Event(now + pizzaBakeSeconds[pizzaId], sequence++, BAKE_DONE, pizzaId));
+            }
+
+            maxPrepQueue = Math.max(maxPrepQueue, prepQueue.size());
+            maxOvenQueue = Math.max(maxOvenQueue, ovenQueue.size());
+        }
+
+        double hours = lastTime / 3600.0;
+        long wallMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+        return new SimulationReport(completed, pizzasBaked, revenue, hours,
+                Arrays.copyOf(latencies, completed), maxPrepQueue, maxOvenQueue,
+                lastTime > 0 ? prepQueueArea / lastTime : 0.0,
+                lastTime > 0 ? ovenQueueArea / lastTime : 0.0,
+                wallMillis);
+    }
+
+    /**
+     * Builds a random order according to the configured mix.
+     *
+     * @param random      the random source
+     * @param typeWeights the pizza type weights, indexed by ordinal
+     * @param sizeWeights the size weights, indexed by ordinal
+     * @return a new order containing at least one pizza
+     */
+    private Order generateOrder(Random random, double[] typeWeights, double[] sizeWeights) {
+        PizzaFactory factory = random.nextDouble() < config.getChicagoShare() ? chicagoFactory : nyFactory;
+        int pizzas = 1 + random.nextInt(config.getMaxPizzasPerOrder());
+        Order order = store.newOrder();
+        for (int i = 0; i < pizzas; i++) {
+            PizzaType type = PizzaType.values()[pick(random, typeWeights)];
+            Pizza pizza = type.create(factory);
+            pizza.setSize(Size.values()[pick(random, sizeWeights)]);
+            if (type == PizzaType.BUILD_YOUR_OWN) {
+                int toppings = 1 + random.nextInt(MAX_TOPPINGS);
+                while (pizza.getToppingCount() < toppings) {
+                    Topping topping = allToppings[random.nextInt(allToppings.length)];
+                    if (!pizza.hasTopping(topping)) {
+                        pizza.addTopping(topping);
+                    }
+                }
+            }
+            order.addPizza(pizza);
+        }
+        return order;
+    }
+
+    /**
+     * Records an arriving order and its pizzas in the simulation state.
+     *
+     * @param arrivalTime the arrival time in seconds
+     * @param order       the order that arrived
+     * @return the id of the order within this run
+     */
+    private int registerOrder(double arrivalTime, Order order) {
+        if (orderCount == orderArrival.length) {
+            orderArrival = Arrays.copyOf(orderArrival, orderCount * 2);
+            orderRemaining = Arrays.copyOf(orderRemaining, orderCount * 2);
+        }
+        int orderId = orderCount++;
+        orderArrival[orderId] = arrivalTime;
+        for (LineItem item : order.getLineItems()) {
+            Pizza pizza = item.getPizza();
+            double prepSeconds = config.getPrepMinutes(pizza.getPizzaType()) * 60.0;
+            double bakeSeconds = config.getBakeMinutes(pizza.getCrust()) * 60.0;
+            for (int i = 0; i < item.getQuantity(); i++) { // Every pie is its own kitchen job
+                if (pizzaCount == pizzaOrder.length) {
+                    pizzaOrder = Arrays.copyOf(pizzaOrder, pizzaCount * 2);
+                    pizzaPrepSeconds = Arrays.copyOf(pizzaPrepSeconds, pizzaCount * 2);
+                    pizzaBakeSeconds = Arrays.copyOf(pizzaBakeSeconds, pizzaCount * 2);
+                }
+                pizzaOrder[pizzaCount] = orderId;
+                pizzaPrepSeconds[pizzaCount] = prepSeconds;
+                pizzaBakeSeconds[pizzaCount] = bakeSeconds;
+                pizzaCount++;
+                orderRemaining[orderId]++;
+            }
+        }
+        return orderId;
+    }
+
+    /**
+     * Picks an index at random, proportional to the given weights.
+     *
+     * @param random  the random source
+     * @param weights the relative weights
+     * @return the chosen index
+     */
+    private static int pick(Random random, double[] weights) {
+        double total = 0.0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * A scheduled simulation event. Events are ordered by time, and events
+     * at the same time are processed in the order they were scheduled.
+     */
+    private static final class Event implements Comparable<Event> {
+        final double time;
+        final long sequence;
+        final int type;
+        final int id;
+
+        Event(double time, long sequence, int type, int id) {
+            this.time = time;
+            this.sequence = sequence;
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.pizzeria.simulation;
+
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.store.OrderStores;
+import com.example.pizzeria.store.StorePartition;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Holds the parameters for a load test of the order intake path:
+ * how many terminals to run, how long to run them, the order mix,
+ * the think time between orders and the store orders are placed into.
+ * By default that is the app's default store, so a load test exercises the
+ * same numbering, stock and order history as real orders. A test that must
+ * leave the store alone passes a detached StorePartition to setStore.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class LoadConfig {
+
+    private int terminals = 1000;          // Number of simulated POS terminals
+    private long durationMillis = 10_000L; // How long terminals keep placing orders
+    private long thinkTimeMillis = 50L;    // Pause between orders on a terminal
+    private int maxPizzasPerOrder = 4;     // Orders contain 1..max pizzas
+    private double chicagoShare = 0.4;     // Fraction of Chicago-style pizzas
+    private long seed = 42L;               // Base seed; each terminal derives its own
+
+    // Relative weights for picking pizza types, indexed by PizzaType ordinal
+    private final double[] typeWeights = {0.25, 0.2, 0.2, 0.35};
+
+    // Where orders are numbered and placed, and how to read them back for verification
+    private Supplier<Order> orderSource;
+    private OrderSink sink;
+    private Supplier<List<Order>> storeContents;
+
+    /**
+     * Constructs a configuration with the defaults, placing orders into
+     * the default store.
+     */
+    public LoadConfig() {
+        setStore(OrderStores.defaultPartition());
+    }
+
+    /**
+     * Sets the number of concurrent terminals.
+     *
+     * @param terminals the number of terminals, at least 1
+     */
+    public void setTerminals(int terminals) {
+        if (terminals < 1) {
+            throw new IllegalArgumentException("At least one terminal is required.");
+        }
+        this.terminals = terminals;
+    }
+
+    /**
+     * Sets how long the terminals keep placing orders.
+     *
+     * @param durationMillis the test duration in milliseconds
+     */
+    public void setDurationMillis(long durationMillis) {
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("Duration must be positive.");
+        }
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Sets the pause each terminal takes between orders.
+     *
+     * @param thinkTimeMillis the think time in milliseconds, zero for none
+     */
+    public void setThinkTimeMillis(long thinkTimeMillis) {
+        if (thinkTimeMillis < 0) {
+            throw new IllegalArgumentException("Think time cannot be negative.");
+        }
+        this.thinkTimeMillis = thinkTimeMillis;
+    }
+
+    /**
+     * Sets the maximum number of pizzas in a single order.
+     *
+     * @param maxPizzasPerOrder the maximum pizzas per order, at least 1
+     */
+    public void setMaxPizzasPerOrder(int maxPizzasPerOrder) {
+        if (maxPizzasPerOrder < 1) {
+            throw new IllegalArgumentException("Orders must allow at least one pizza.");
+        }
+        this.maxPizzasPerOrder = maxPizzasPerOrder;
+    }
+
+    /**
+     * Sets the fraction of pizzas that are Chicago style.
+     *
+     * @param chicagoShare a value between 0 and 1
+     */
+    public void setChicagoShare(double chicagoShare) {
+        if (chicagoShare < 0 || chicagoShare > 1) {
+            throw new IllegalArgumentException("Chicago share must be between 0 and 1.");
+        }
+        this.chicagoShare = chicagoShare;
+    }
+
+    /**
+     * Sets the base random seed.
+     *
+     * @param seed the random seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the relative weight of a pizza type in the order mix.
+     *
+     * @param type   the pizza type
+     * @param weight the relative weight, zero or more
+     */
+    public void setTypeWeight(PizzaType type, double weight) {
+        typeWeights[type.ordinal()] = weight;
+    }
+
+    /**
+     * Sets the store partition that numbers, places and reads back orders.
+     *
+     * @param store the store partition
+     */
+    public void setStore(StorePartition store) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store cannot be null.");
+        }
+        setStore(store::newOrder, store::addPlacedOrder, store::getPlacedOrders);
+    }
+
+    /**
+     * Sets the store that orders are placed into and how to read it back.
+     *
+     * @param orderSource   creates each new, empty order with its number
+     * @param sink          receives each placed order
+     * @param storeContents returns all orders currently held by the store
+     */
+    public void setStore(Supplier<Order> orderSource, OrderSink sink, Supplier<List<Order>> storeContents) {
+        if (orderSource == null || sink == null || storeContents == null) {
+            throw new IllegalArgumentException("Store callbacks cannot be null.");
+        }
+        this.orderSource = orderSource;
+        this.sink = sink;
+        this.storeContents = storeContents;
+    }
+
+    /**
+     * Retrieves the number of terminals.
+     *
+     * @return the number of terminals
+     */
+    public int getTerminals() {
+        return terminals;
+    }
+
+    /**
+     * Retrieves the test duration.
+     *
+     * @return the test duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Retrieves the think time between orders.
+     *
+     * @return the think time in milliseconds
+     */
+    public long getThinkTimeMillis() {
+        return thinkTimeMillis;
+    }
+
+    /**
+     * Retrieves the maximum pizzas per order.
+     *
+     * @return the maximum pizzas per order
+     */
+    public int getMaxPizzasPerOrder() {
+        return maxPizzasPerOrder;
+    }
+
+    /**
+     * Retrieves the fraction of Chicago-style pizzas.
+     *
+     * @return the Chicago share
+     */
+    public double getChicagoShare() {
+        return chicagoShare;
+    }
+
+    /**
+     * Retrieves the base random seed.
+     *
+     * @return the random seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieves a copy of the pizza type weights, indexed by PizzaType ordinal.
+     *
+     * @return the type weights
+     */
+    public double[] getTypeWeights() {
+        return typeWeights.clone();
+    }
+
+    /**
+     * Retrieves the source of new orders.
+     *
+     * @return the order source
+     */
+    public Supplier<Order> getOrderSource() {
+        return orderSource;
+    }
+
+    /**
+     * Retrieves the store that orders are placed into.
+     *
+     * @return the order sink
+     */
+    public OrderSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Retrieves the callback that reads back the store contents.
+     *
+     * @return the store contents supplier
+     */
+    public Supplier<List<Order>> getStoreContents() {
+        return storeContents;
+    }
+}
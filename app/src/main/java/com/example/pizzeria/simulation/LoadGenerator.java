@@ -0,0 +1,242 @@
+package com.example.pizzeria.simulation;
+
+import com.example.pizzeria.models.ChicagoPizza;
+import com.example.pizzeria.models.NYPizza;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaFactory;
+import com.example.pizzeria.models.PizzaType;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Stress harness for the order intake path. Runs many simulated POS
+ * terminals at once; each terminal repeatedly builds pizzas through a
+ * PizzaFactory, adds them with Order.addPizza and places the order into
+ * the configured store, pausing for the think time between orders.
+ *
+ * Terminals run on virtual threads when the runtime provides them
+ * (a desktop JVM 21+). Android does not, so on device each terminal
+ * gets a platform thread from a cached pool instead.
+ *
+ * After the run the generator checks the order numbers it was handed for
+ * duplicates, and reads the store back to find orders that were placed
+ * without error but never showed up.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class LoadGenerator {
+
+    private final LoadConfig config;
+    private boolean usedVirtualThreads;
+
+    /**
+     * Constructs a LoadGenerator for the given configuration.
+     *
+     * @param config the load test configuration
+     */
+    public LoadGenerator(LoadConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Load configuration cannot be null.");
+        }
+        this.config = config;
+    }
+
+    /**
+     * Runs the load test and blocks until every terminal has finished.
+     *
+     * @return the load test report
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public LoadReport run() throws InterruptedException {
+        Set<Order> existing = Collections.newSetFromMap(new IdentityHashMap<>());
+        existing.addAll(config.getStoreContents().get());
+
+        int terminals = config.getTerminals();
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<TerminalResult>> futures = new ArrayList<>(terminals);
+        ExecutorService executor = newTerminalExecutor();
+        long startNanos;
+        try {
+            long deadline = System.nanoTime() + config.getDurationMillis() * 1_000_000L;
+            for (int i = 0; i < terminals; i++) {
+                int terminalId = i;
+                futures.add(executor.submit(() -> runTerminal(terminalId, deadline, startGate)));
+            }
+            startNanos = System.nanoTime();
+            startGate.countDown();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<TerminalResult> results = new ArrayList<>(terminals);
+        for (Future<TerminalResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Terminal crashed during load test.", e.getCause());
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        return buildReport(results, existing, elapsedNanos);
+    }
+
+    /**
+     * Runs a single terminal until the deadline passes.
+     *
+     * @param terminalId the terminal index, used to derive its random seed
+     * @param deadline   the System.nanoTime() at which to stop
+     * @param startGate  released once every terminal has been submitted
+     * @return the results recorded by this terminal
+     * @throws InterruptedException if the terminal is interrupted
+     */
+    private TerminalResult runTerminal(int terminalId, long deadline, CountDownLatch startGate)
+            throws InterruptedException {
+        Random random = new Random(config.getSeed() + terminalId);
+        PizzaFactory chicagoFactory = new ChicagoPizza();
+        PizzaFactory nyFactory = new NYPizza();
+        double[] typeWeights = config.getTypeWeights();
+        Supplier<Order> orderSource = config.getOrderSource();
+        OrderSink sink = config.getSink();
+        TerminalResult result = new TerminalResult();
+
+        startGate.await();
+        while (System.nanoTime() < deadline) {
+            long begin = System.nanoTime();
+            Order order = orderSource.get();
+            int pizzas = 1 + random.nextInt(config.getMaxPizzasPerOrder());
+            for (int i = 0; i < pizzas; i++) {
+                PizzaFactory factory = random.nextDouble() < config.getChicagoShare() ? chicagoFactory : nyFactory;
+                order.addPizza(PizzaType.values()[pick(random, typeWeights)].create(factory));
+            }
+            try {
+                sink.place(order);
+                result.record(order, System.nanoTime() - begin);
+            } catch (RuntimeException e) {
+                result.failures++;
+            }
+            if (config.getThinkTimeMillis() > 0) {
+                Thread.sleep(config.getThinkTimeMillis());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges terminal results and verifies them against the store contents.
+     *
+     * @param results      the results from each terminal
+     * @param existing     orders that were already in the store before the run
+     * @param elapsedNanos the wall clock duration of the run
+     * @return the load test report
+     */
+    private LoadReport buildReport(List<TerminalResult> results, Set<Order> existing, long elapsedNanos) {
+        int placed = 0;
+        int failures = 0;
+        for (TerminalResult result : results) {
+            placed += result.count;
+            failures += result.failures;
+        }
+
+        long[] latencies = new long[placed];
+        Map<Integer, Integer> numberCounts = new HashMap<>(placed * 2);
+        Set<Order> stored = Collections.newSetFromMap(new IdentityHashMap<>());
+        stored.addAll(config.getStoreContents().get());
+        stored.removeAll(existing);
+
+        int offset = 0;
+        int lost = 0;
+        for (TerminalResult result : results) {
+            System.arraycopy(result.latencies, 0, latencies, offset, result.count);
+            offset += result.count;
+            for (Order order : result.orders) {
+                numberCounts.merge(order.getOrderNumber(), 1, Integer::sum);
+                if (!stored.contains(order)) {
+                    lost++;
+                }
+            }
+        }
+
+        int duplicates = 0;
+        for (int count : numberCounts.values()) {
+            duplicates += count - 1;
+        }
+
+        return new LoadReport(config.getTerminals(), usedVirtualThreads, placed, failures,
+                duplicates, lost, elapsedNanos, latencies);
+    }
+
+    /**
+     * Creates an executor that runs each terminal on its own thread, preferring
+     * virtual threads when the runtime supports them.
+     *
+     * @return the terminal executor
+     */
+    private ExecutorService newTerminalExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            usedVirtualThreads = true;
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            usedVirtualThreads = false;
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Picks an index at random, proportional to the given weights.
+     *
+     * @param random  the random source
+     * @param weights the relative weights
+     * @return the chosen index
+     */
+    private static int pick(Random random, double[] weights) {
+        double total = 0.0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Per-terminal recording. Only touched by its own terminal thread,
+     * so it needs no synchronization.
+     */
+    private static final class TerminalResult {
+        final List<Order> orders = new ArrayList<>();
+        long[] latencies = new long[256];
+        int count;
+        int failures;
+
+        void record(Order order, long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            orders.add(order);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.pizzeria.simulation;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Holds the results of a load test run: throughput, placement latency
+ * percentiles and the integrity checks on order numbers and store contents.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class LoadReport {
+
+    private final int terminals;
+    private final boolean virtualThreads;
+    private final int ordersPlaced;
+    private final int failures;
+    private final int duplicateOrderNumbers;
+    private final int lostOrders;
+    private final long elapsedNanos;
+    private final long[] sortedLatencyNanos;
+
+    /**
+     * Constructs a LoadReport. The latency array is sorted in place.
+     *
+     * @param terminals             the number of terminals that ran
+     * @param virtualThreads        whether terminals ran on virtual threads
+     * @param ordersPlaced          the number of orders placed without error
+     * @param failures              the number of placements that threw an exception
+     * @param duplicateOrderNumbers the number of orders that reused another order's number
+     * @param lostOrders            the number of placed orders missing from the store
+     * @param elapsedNanos          the wall clock duration of the run
+     * @param latencyNanos          the build-and-place latency of each order
+     */
+    LoadReport(int terminals, boolean virtualThreads, int ordersPlaced, int failures,
+               int duplicateOrderNumbers, int lostOrders, long elapsedNanos, long[] latencyNanos) {
+        this.terminals = terminals;
+        this.virtualThreads = virtualThreads;
+        this.ordersPlaced = ordersPlaced;
+        this.failures = failures;
+        this.duplicateOrderNumbers = duplicateOrderNumbers;
+        this.lostOrders = lostOrders;
+        this.elapsedNanos = elapsedNanos;
+        Arrays.sort(latencyNanos);
+        this.sortedLatencyNanos = latencyNanos;
+    }
+
+    /**
+     * Retrieves the number of orders placed without error.
+     *
+     * @return the number of placed orders
+     */
+    public int getOrdersPlaced() {
+        return ordersPlaced;
+    }
+
+    /**
+     * Retrieves the number of placements that threw an exception.
+     *
+     * @return the number of failed placements
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * Retrieves the number of orders that were handed an order number
+     * already used by another order in the same run.
+     *
+     * @return the number of duplicate order numbers
+     */
+    public int getDuplicateOrderNumbers() {
+        return duplicateOrderNumbers;
+    }
+
+    /**
+     * Retrieves the number of orders that were placed without error
+     * but are missing from the store afterwards.
+     *
+     * @return the number of lost orders
+     */
+    public int getLostOrders() {
+        return lostOrders;
+    }
+
+    /**
+     * Checks whether the run finished without failures, duplicates or lost orders.
+     *
+     * @return true if the store held up under this load
+     */
+    public boolean isConsistent() {
+        return failures == 0 && duplicateOrderNumbers == 0 && lostOrders == 0;
+    }
+
+    /**
+     * Calculates the number of orders placed per second.
+     *
+     * @return the throughput in orders per second
+     */
+    public double getOrdersPerSecond() {
+        return elapsedNanos > 0 ? ordersPlaced / (elapsedNanos / 1e9) : 0.0;
+    }
+
+    /**
+     * Retrieves a placement latency percentile using the nearest-rank method.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in microseconds, or 0 if nothing was placed
+     */
+    public double getLatencyPercentileMicros(double percentile) {
+        if (sortedLatencyNanos.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencyNanos.length);
+        int index = Math.min(Math.max(rank - 1, 0), sortedLatencyNanos.length - 1);
+        return sortedLatencyNanos[index] / 1000.0;
+    }
+
+    /**
+     * Provides a multi-line summary of the load test results.
+     *
+     * @return a string representation of the report
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "Terminals: %d (%s threads), Elapsed: %.2f s%n" +
+                "Placed: %d, Throughput: %.1f orders/s%n" +
+                "Latency (us): p50 %.1f, p95 %.1f, p99 %.1f, max %.1f%n" +
+                "Failures: %d, Duplicate numbers: %d, Lost orders: %d",
+                terminals, virtualThreads ? "virtual" : "platform", elapsedNanos / 1e9,
+                ordersPlaced, getOrdersPerSecond(),
+                getLatencyPercentileMicros(50), getLatencyPercentileMicros(95),
+                getLatencyPercentileMicros(99), getLatencyPercentileMicros(100),
+                failures, duplicateOrderNumbers, lostOrders);
+    }
+}
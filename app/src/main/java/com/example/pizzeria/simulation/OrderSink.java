@@ -0,0 +1,20 @@
+package com.example.pizzeria.simulation;
+
+import com.example.pizzeria.models.Order;
+
+/**
+ * Destination for orders placed by the load generator.
+ * By default orders go to the default store, but any order store
+ * can be plugged in.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public interface OrderSink {
+
+    /**
+     * Places a completed order.
+     *
+     * @param order the order to place
+     */
+    void place(Order order);
+}
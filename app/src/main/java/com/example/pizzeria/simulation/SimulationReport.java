@@ -0,0 +1,189 @@
+package com.example.pizzeria.simulation;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Holds the results of a kitchen throughput simulation run.
+ * Latencies are measured from the moment an order arrives at the counter
+ * until the last pizza of that order comes out of the oven.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class SimulationReport {
+
+    private final int ordersCompleted;
+    private final int pizzasBaked;
+    private final double revenue;
+    private final double simulatedHours;
+    private final double[] sortedLatencyMinutes;
+    private final int maxPrepQueue;
+    private final int maxOvenQueue;
+    private final double averagePrepQueue;
+    private final double averageOvenQueue;
+    private final long wallClockMillis;
+
+    /**
+     * Constructs a SimulationReport. The latency array is sorted in place.
+     *
+     * @param ordersCompleted  the number of orders that finished baking
+     * @param pizzasBaked      the number of pizzas that finished baking
+     * @param revenue          the total pre-tax price of all simulated orders
+     * @param simulatedHours   the time from opening until the last pizza was baked
+     * @param latencyMinutes   the latency of each completed order in minutes
+     * @param maxPrepQueue     the longest prep queue observed
+     * @param maxOvenQueue     the longest oven queue observed
+     * @param averagePrepQueue the time-weighted average prep queue length
+     * @param averageOvenQueue the time-weighted average oven queue length
+     * @param wallClockMillis  the real time taken to run the simulation
+     */
+    SimulationReport(int ordersCompleted, int pizzasBaked, double revenue, double simulatedHours,
+                     double[] latencyMinutes, int maxPrepQueue, int maxOvenQueue,
+                     double averagePrepQueue, double averageOvenQueue, long wallClockMillis) {
+        this.ordersCompleted = ordersCompleted;
+        this.pizzasBaked = pizzasBaked;
+        this.revenue = revenue;
+        this.simulatedHours = simulatedHours;
+        Arrays.sort(latencyMinutes);
+        this.sortedLatencyMinutes = latencyMinutes;
+        this.maxPrepQueue = maxPrepQueue;
+        this.maxOvenQueue = maxOvenQueue;
+        this.averagePrepQueue = averagePrepQueue;
+        this.averageOvenQueue = averageOvenQueue;
+        this.wallClockMillis = wallClockMillis;
+    }
+
+    /**
+     * Retrieves the number of completed orders.
+     *
+     * @return the number of completed orders
+     */
+    public int getOrdersCompleted() {
+        return ordersCompleted;
+    }
+
+    /**
+     * Retrieves the number of baked pizzas.
+     *
+     * @return the number of baked pizzas
+     */
+    public int getPizzasBaked() {
+        return pizzasBaked;
+    }
+
+    /**
+     * Retrieves the total pre-tax revenue of the simulated orders.
+     *
+     * @return the revenue in dollars
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Retrieves the simulated time from opening until the kitchen drained.
+     *
+     * @return the simulated duration in hours
+     */
+    public double getSimulatedHours() {
+        return simulatedHours;
+    }
+
+    /**
+     * Calculates the average number of orders completed per simulated hour.
+     *
+     * @return the order throughput per hour
+     */
+    public double getOrdersPerHour() {
+        return simulatedHours > 0 ? ordersCompleted / simulatedHours : 0.0;
+    }
+
+    /**
+     * Calculates the average number of pizzas baked per simulated hour.
+     *
+     * @return the pizza throughput per hour
+     */
+    public double getPizzasPerHour() {
+        return simulatedHours > 0 ? pizzasBaked / simulatedHours : 0.0;
+    }
+
+    /**
+     * Retrieves an order latency percentile using the nearest-rank method.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in minutes, or 0 if no orders completed
+     */
+    public double getLatencyPercentile(double percentile) {
+        if (sortedLatencyMinutes.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencyMinutes.length);
+        int index = Math.min(Math.max(rank - 1, 0), sortedLatencyMinutes.length - 1);
+        return sortedLatencyMinutes[index];
+    }
+
+    /**
+     * Retrieves the longest prep queue observed.
+     *
+     * @return the maximum number of pizzas waiting for a prep station
+     */
+    public int getMaxPrepQueue() {
+        return maxPrepQueue;
+    }
+
+    /**
+     * Retrieves the longest oven queue observed.
+     *
+     * @return the maximum number of pizzas waiting for an oven slot
+     */
+    public int getMaxOvenQueue() {
+        return maxOvenQueue;
+    }
+
+    /**
+     * Retrieves the time-weighted average prep queue length.
+     *
+     * @return the average number of pizzas waiting for a prep station
+     */
+    public double getAveragePrepQueue() {
+        return averagePrepQueue;
+    }
+
+    /**
+     * Retrieves the time-weighted average oven queue length.
+     *
+     * @return the average number of pizzas waiting for an oven slot
+     */
+    public double getAverageOvenQueue() {
+        return averageOvenQueue;
+    }
+
+    /**
+     * Retrieves the real time spent running the simulation.
+     *
+     * @return the wall clock time in milliseconds
+     */
+    public long getWallClockMillis() {
+        return wallClockMillis;
+    }
+
+    /**
+     * Provides a multi-line summary of the simulation results.
+     *
+     * @return a string representation of the report
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "Orders: %d, Pizzas: %d, Revenue: $%.2f%n" +
+                "Simulated: %.2f h, Throughput: %.1f orders/h, %.1f pizzas/h%n" +
+                "Latency (min): p50 %.1f, p95 %.1f, p99 %.1f%n" +
+                "Prep queue: max %d, avg %.2f | Oven queue: max %d, avg %.2f%n" +
+                "Wall clock: %d ms",
+                ordersCompleted, pizzasBaked, revenue,
+                simulatedHours, getOrdersPerHour(), getPizzasPerHour(),
+                getLatencyPercentile(50), getLatencyPercentile(95), getLatencyPercentile(99),
+                maxPrepQueue, averagePrepQueue, maxOvenQueue, averageOvenQueue,
+                wallClockMillis);
+    }
+}
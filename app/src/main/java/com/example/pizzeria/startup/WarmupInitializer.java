@@ -0,0 +1,96 @@
+package com.example.pizzeria.startup;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+
+import com.example.pizzeria.PizzaImageCache;
+import com.example.pizzeria.models.ChicagoPizza;
+import com.example.pizzeria.models.MenuCatalogs;
+import com.example.pizzeria.models.NYPizza;
+import com.example.pizzeria.models.PizzaFactory;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.PriceQuoteService;
+import com.example.pizzeria.tasks.BackgroundExecutors;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * App Startup initializer that warms caches off the main thread so the
+ * first trip through the builder does not pay for them.
+ *
+ * It queues one task on a serial background executor that:
+ * - maps the installed menu catalog snapshot, if there is one
+ * - loads the pizza model classes and builds the PriceQuoteService table
+ * - decodes all pizza images into the PizzaImageCache
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class WarmupInitializer implements Initializer<Void> {
+
+    private static final String TAG = "WarmupInitializer";
+
+    /**
+     * Queues the warm-up and returns immediately.
+     *
+     * @param context the application context
+     * @return always null; this initializer provides no component
+     */
+    @NonNull
+    @Override
+    public Void create(@NonNull Context context) {
+        Context appContext = context.getApplicationContext();
+        BackgroundExecutors.serial("StartupWarmup").execute(() -> {
+            loadMenuCatalog(appContext);
+            warmPricing();
+            PizzaImageCache.warmUp(appContext);
+        });
+        return null;
+    }
+
+    /**
+     * This initializer has no dependencies on other initializers.
+     *
+     * @return an empty list
+     */
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Installs the menu catalog from internal storage, compiling the text
+     * catalog first if it is newer than the snapshot. Falls back to the
+     * built-in menu when there is no catalog or it cannot be read.
+     *
+     * @param context the application context
+     */
+    private static void loadMenuCatalog(Context context) {
+        File source = new File(context.getFilesDir(), MenuCatalogs.SOURCE_FILE_NAME);
+        File snapshot = new File(context.getFilesDir(), MenuCatalogs.SNAPSHOT_FILE_NAME);
+        try {
+            MenuCatalogs.reload(source, snapshot);
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(TAG, "Using the built-in menu catalog", e);
+        }
+    }
+
+    /**
+     * Builds one pizza of every type and style and builds the price table,
+     * which loads and initializes the model and pricing classes.
+     */
+    private static void warmPricing() {
+        PriceQuoteService quotes = PriceQuoteService.getInstance();
+        for (PizzaFactory factory : new PizzaFactory[]{new ChicagoPizza(), new NYPizza()}) {
+            for (PizzaType type : PizzaType.values()) {
+                quotes.quoteCents(type.create(factory));
+            }
+        }
+    }
+}
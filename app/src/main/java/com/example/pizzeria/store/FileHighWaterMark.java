@@ -0,0 +1,90 @@
+package com.example.pizzeria.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A HighWaterMark stored as a single 8-byte block count in a file.
+ *
+ * Each lease takes an exclusive file lock, reads the count, writes the
+ * incremented count and forces it to disk before returning, so processes
+ * sharing the file never lease the same block and a lease survives a crash.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class FileHighWaterMark implements HighWaterMark {
+
+    private final File file;
+
+    /**
+     * Constructs a FileHighWaterMark. The file is created on the first lease.
+     *
+     * @param file the file holding the block count
+     */
+    public FileHighWaterMark(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Leases the next block and records it durably.
+     *
+     * @return the index of the leased block
+     * @throws IOException if the file cannot be read, written or synced
+     */
+    @Override
+    public synchronized long next() throws IOException {
+        return update(count -> count + 1);
+    }
+
+    /**
+     * Leases consecutive blocks and records them in one durable write.
+     *
+     * @param blocks the number of blocks to lease, at least 1
+     * @return the index of the first leased block
+     * @throws IOException if the file cannot be read, written or synced
+     */
+    @Override
+    public synchronized long next(int blocks) throws IOException {
+        return update(count -> count + blocks);
+    }
+
+    /**
+     * Raises the block count to an index in one durable write, if it is
+     * not already there.
+     *
+     * @param block the lowest block index next() may return afterwards
+     * @throws IOException if the file cannot be read, written or synced
+     */
+    @Override
+    public synchronized void advanceTo(long block) throws IOException {
+        update(count -> Math.max(count, block));
+    }
+
+    /**
+     * Replaces the block count under the file lock and forces it to disk.
+     *
+     * @param change computes the new count from the current one
+     * @return the count before the change
+     */
+    private long update(LongUnaryOperator change) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.lock();     // Released when the channel closes
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            long block = 0;
+            if (channel.read(buffer, 0) == Long.BYTES) {
+                buffer.flip();
+                block = buffer.getLong();
+            }
+            buffer.clear();
+            buffer.putLong(change.applyAsLong(block)).flip();
+            channel.write(buffer, 0);
+            channel.force(true);
+            return block;
+        }
+    }
+}
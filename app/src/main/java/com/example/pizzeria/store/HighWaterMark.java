@@ -0,0 +1,82 @@
+package com.example.pizzeria.store;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A durable counter of leased number blocks. Every call to next() returns
+ * a block index that has never been returned before, including across
+ * restarts, and makes that lease durable before returning.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public interface HighWaterMark {
+
+    /**
+     * Leases the next block.
+     *
+     * @return the index of the leased block, starting at 0
+     * @throws IOException if the lease cannot be made durable
+     */
+    long next() throws IOException;
+
+    /**
+     * Leases several consecutive blocks. By default they are leased one at
+     * a time, which keeps them consecutive as long as one caller leases at
+     * a time, as the OrderNumberAllocator does.
+     *
+     * @param blocks the number of blocks to lease, at least 1
+     * @return the index of the first leased block
+     * @throws IOException if the lease cannot be made durable
+     */
+    default long next(int blocks) throws IOException {
+        long first = next();
+        for (int i = 1; i < blocks; i++) {
+            next();
+        }
+        return first;
+    }
+
+    /**
+     * Makes sure no block below an index is leased from now on, as when
+     * numbers up to that block were issued elsewhere. By default blocks
+     * are leased and discarded until the index is reached, which skips one
+     * more block if the count is already there.
+     *
+     * @param block the lowest block index next() may return afterwards
+     * @throws IOException if the new count cannot be made durable
+     */
+    default void advanceTo(long block) throws IOException {
+        long leased = next();
+        while (leased + 1 < block) {
+            leased = next();
+        }
+    }
+
+    /**
+     * Creates a high-water mark that lives only in memory. Numbers are
+     * unique within the process but start over on restart, so it is only
+     * suitable for simulations and tests.
+     *
+     * @return an in-memory high-water mark
+     */
+    static HighWaterMark inMemory() {
+        AtomicLong count = new AtomicLong();
+        return new HighWaterMark() {
+            @Override
+            public long next() {
+                return count.getAndIncrement();
+            }
+
+            @Override
+            public long next(int blocks) {
+                return count.getAndAdd(blocks);
+            }
+
+            @Override
+            public void advanceTo(long block) {
+                count.accumulateAndGet(block, Math::max);
+            }
+        };
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.pizzeria.store;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.Topping;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The ingredient stock of a single location: one counter per topping and
+ * per crust, counting the portions left. A pizza takes one portion of its
+ * crust and one of each of its toppings.
+ *
+ * Placing an order reserves its portions and canceling it returns them.
+ * A reservation takes no lock: each counter is decremented with a
+ * compare-and-set, in a fixed order, and only while it covers the demand,
+ * so terminals placing orders at the same time can never take more than
+ * is in stock. If any ingredient is short, the portions already taken are
+ * returned and nothing is reserved. Availability checks are plain reads.
+ *
+ * Reservations are kept by order number for the RESERVATIONS_KEPT most
+ * recently placed orders, the ones that may still be canceled at the
+ * counter; an older order is forgotten and canceling it returns nothing,
+ * as its stock has long been used and counted again.
+ *
+ * An ingredient is UNTRACKED until its stock is set, and never runs out.
+ * Stock is not part of the store's snapshots; it is set again at startup.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class Inventory {
+
+    /** Stock level of an ingredient that is not counted and never runs out. */
+    public static final int UNTRACKED = -1;
+
+    /** Number of most recent reservations kept for cancellations. */
+    static final int RESERVATIONS_KEPT = 1024;
+
+    private static final Topping[] TOPPINGS = Topping.values();
+    private static final Crust[] CRUSTS = Crust.values();
+    private static final int CRUST_OFFSET = TOPPINGS.length;   // Crust counters follow the topping counters
+
+    private final AtomicIntegerArray stock = new AtomicIntegerArray(TOPPINGS.length + CRUSTS.length);
+    private final ConcurrentHashMap<Integer, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Reservation> reservedInOrder = new ConcurrentLinkedQueue<>(); // Oldest first
+
+    /**
+     * Constructs an inventory in which nothing is tracked.
+     */
+    Inventory() {
+        for (int i = 0; i < stock.length(); i++) {
+            stock.set(i, UNTRACKED);
+        }
+    }
+
+    /**
+     * Retrieves the portions of a topping left.
+     *
+     * @param topping the topping
+     * @return the portions left, or UNTRACKED
+     */
+    public int getStock(Topping topping) {
+        return stock.get(topping.ordinal());
+    }
+
+    /**
+     * Retrieves the portions of a crust left.
+     *
+     * @param crust the crust
+     * @return the portions left, or UNTRACKED
+     */
+    public int getStock(Crust crust) {
+        return stock.get(CRUST_OFFSET + crust.ordinal());
+    }
+
+    /**
+     * Sets the portions of a topping on hand, as after a stock count.
+     * Orders already placed keep their reservations.
+     *
+     * @param topping  the topping
+     * @param portions the portions on hand, or UNTRACKED to stop counting it
+     * @throws IllegalArgumentException if portions is negative and not UNTRACKED
+     */
+    public void setStock(Topping topping, int portions) {
+        stock.set(topping.ordinal(), checkPortions(portions));
+    }
+
+    /**
+     * Sets the portions of a crust on hand, as after a stock count.
+     * Orders already placed keep their reservations.
+     *
+     * @param crust    the crust
+     * @param portions the portions on hand, or UNTRACKED to stop counting it
+     * @throws IllegalArgumentException if portions is negative and not UNTRACKED
+     */
+    public void setStock(Crust crust, int portions) {
+        stock.set(CRUST_OFFSET + crust.ordinal(), checkPortions(portions));
+    }
+
+    /**
+     * Adds delivered portions of a topping. Does nothing if it is not tracked.
+     *
+     * @param topping  the topping
+     * @param portions the portions delivered
+     * @throws IllegalArgumentException if portions is negative
+     */
+    public void restock(Topping topping, int portions) {
+        restock(topping.ordinal(), portions);
+    }
+
+    /**
+     * Adds delivered portions of a crust. Does nothing if it is not tracked.
+     *
+     * @param crust    the crust
+     * @param portions the portions delivered
+     * @throws IllegalArgumentException if portions is negative
+     */
+    public void restock(Crust crust, int portions) {
+        restock(CRUST_OFFSET + crust.ordinal(), portions);
+    }
+
+    /**
+     * Checks whether a topping is in stock.
+     *
+     * @param topping the topping
+     * @return true if at least one portion is left or it is not tracked
+     */
+    public boolean isAvailable(Topping topping) {
+        return stock.get(topping.ordinal()) != 0;
+    }
+
+    /**
+     * Checks whether a crust is in stock.
+     *
+     * @param crust the crust
+     * @return true if at least one portion is left or it is not tracked
+     */
+    public boolean isAvailable(Crust crust) {
+        return stock.get(CRUST_OFFSET + crust.ordinal()) != 0;
+    }
+
+    /**
+     * Checks whether one pizza with a crust and toppings could be made now.
+     * Another terminal may take the last portion before the order is placed.
+     *
+     * @param crust       the crust
+     * @param toppingMask the toppings, as a Topping mask
+     * @return true if the crust and every topping are in stock
+     */
+    public boolean isAvailable(Crust crust, int toppingMask) {
+        if (!isAvailable(crust)) {
+            return false;
+        }
+        for (int mask = toppingMask; mask != 0; mask &= mask - 1) {
+            if (stock.get(Integer.numberOfTrailingZeros(mask)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes the portions an order needs. Either all of them are taken or,
+     * if an ingredient is short, none are. Reserving an order that is
+     * already reserved does nothing. The oldest reservation is forgotten
+     * once more than RESERVATIONS_KEPT are held.
+     *
+     * @param order the order being placed
+     * @throws IllegalStateException if an ingredient does not have enough portions left, or
+     *                               another order with the same number holds a reservation
+     */
+    void reserve(Order order) {
+        Reservation held = reservations.get(order.getOrderNumber());
+        if (held != null) {
+            checkHeldBy(held, order);
+            return;
+        }
+        int[] demand = demandOf(order);
+        for (int i = 0; i < demand.length; i++) {
+            if (demand[i] == 0) {
+                continue;
+            }
+            while (true) {
+                int left = stock.get(i);
+                if (left == UNTRACKED) {
+                    demand[i] = 0; // Nothing taken, so nothing to return
+                    break;
+                }
+                if (left < demand[i]) {
+                    returnPortions(demand, i);
+                    throw new IllegalStateException("Not enough " + ingredientName(i) + " left for order "
+                            + order.getOrderNumber() + ": " + demand[i] + " needed, " + left + " in stock.");
+                }
+                if (stock.compareAndSet(i, left, left - demand[i])) {
+                    break;
+                }
+            }
+        }
+        Reservation reservation = new Reservation(order, demand);
+        held = reservations.putIfAbsent(order.getOrderNumber(), reservation);
+        if (held != null) {
+            returnPortions(demand, demand.length); // Reserved concurrently by another caller
+            checkHeldBy(held, order);
+            return;
+        }
+        reservedInOrder.add(reservation);
+        while (reservations.size() > RESERVATIONS_KEPT) {
+            Reservation oldest = reservedInOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            reservations.remove(oldest.order.getOrderNumber(), oldest);
+        }
+    }
+
+    /**
+     * Checks that a reservation held under an order's number is that
+     * order's own, and not another order's with the same number.
+     */
+    private static void checkHeldBy(Reservation held, Order order) {
+        if (held.order != order) {
+            throw new IllegalStateException("Order number " + order.getOrderNumber() + " is already reserved.");
+        }
+    }
+
+    /**
+     * Returns the portions reserved for an order, as when it is canceled.
+     * Does nothing if the order holds no reservation, including when
+     * another order with the same number holds one.
+     *
+     * @param order the order
+     */
+    void release(Order order) {
+        Reservation reserved = reservations.get(order.getOrderNumber());
+        if (reserved != null && reserved.order == order
+                && reservations.remove(order.getOrderNumber(), reserved)) {
+            reservedInOrder.remove(reserved);
+            returnPortions(reserved.portions, reserved.portions.length);
+        }
+    }
+
+    /**
+     * Forgets every reservation without returning the portions, as when
+     * the placed orders are cleared.
+     */
+    void clearReservations() {
+        reservations.clear();
+        reservedInOrder.clear();
+    }
+
+    /**
+     * Totals the portions of each ingredient an order needs.
+     */
+    private static int[] demandOf(Order order) {
+        int[] demand = new int[TOPPINGS.length + CRUSTS.length];
+        for (LineItem item : order.getLineItems()) {
+            PizzaSpec spec = item.getSpec();
+            int quantity = item.getQuantity();
+            demand[CRUST_OFFSET + spec.getCrust().ordinal()] += quantity;
+            for (int mask = spec.getToppingMask(); mask != 0; mask &= mask - 1) {
+                demand[Integer.numberOfTrailingZeros(mask)] += quantity;
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Adds back the portions taken for the first count ingredients.
+     * Counters that stopped being tracked meanwhile stay untracked.
+     */
+    private void returnPortions(int[] taken, int count) {
+        for (int i = 0; i < count; i++) {
+            if (taken[i] != 0) {
+                restock(i, taken[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds portions to a tracked counter.
+     */
+    private void restock(int index, int portions) {
+        if (portions < 0) {
+            throw new IllegalArgumentException("Cannot restock a negative number of portions.");
+        }
+        while (true) {
+            int left = stock.get(index);
+            if (left == UNTRACKED || stock.compareAndSet(index, left, left + portions)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Names the ingredient behind a counter.
+     */
+    private static String ingredientName(int index) {
+        return index < CRUST_OFFSET ? TOPPINGS[index].name() : CRUSTS[index - CRUST_OFFSET].getDisplayName() + " crust";
+    }
+
+    /**
+     * Validates a stock level.
+     */
+    private static int checkPortions(int portions) {
+        if (portions < 0 && portions != UNTRACKED) {
+            throw new IllegalArgumentException("Stock cannot be negative: " + portions);
+        }
+        return portions;
+    }
+
+    /**
+     * The portions taken for one order, indexed like the stock counters.
+     */
+    private static final class Reservation {
+        final Order order;
+        final int[] portions;
+
+        Reservation(Order order, int[] portions) {
+            this.order = order;
+            this.portions = portions;
+        }
+    }
+}
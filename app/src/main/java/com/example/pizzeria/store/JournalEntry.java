@@ -0,0 +1,98 @@
+package com.example.pizzeria.store;
+
+import java.util.Locale;
+
+/**
+ * One event in a store's order journal: an order was placed or canceled.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class JournalEntry {
+
+    /**
+     * The kind of event recorded.
+     */
+    public enum Kind {
+        PLACED,
+        CANCELED
+    }
+
+    private final long timestampMillis;
+    private final Kind kind;
+    private final int storeId;
+    private final int orderNumber;
+    private final long totalCents;
+
+    /**
+     * Constructs a JournalEntry.
+     *
+     * @param timestampMillis the wall clock time of the event
+     * @param kind            what happened to the order
+     * @param storeId         the store the order belongs to
+     * @param orderNumber     the order number within the store
+     * @param totalCents      the order total before tax, in cents
+     */
+    public JournalEntry(long timestampMillis, Kind kind, int storeId, int orderNumber, long totalCents) {
+        this.timestampMillis = timestampMillis;
+        this.kind = kind;
+        this.storeId = storeId;
+        this.orderNumber = orderNumber;
+        this.totalCents = totalCents;
+    }
+
+    /**
+     * Retrieves the wall clock time of the event.
+     *
+     * @return the timestamp in milliseconds since the epoch
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Retrieves what happened to the order.
+     *
+     * @return the event kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Retrieves the store the order belongs to.
+     *
+     * @return the store id
+     */
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Retrieves the order number within the store.
+     *
+     * @return the order number
+     */
+    public int getOrderNumber() {
+        return orderNumber;
+    }
+
+    /**
+     * Retrieves the order total before tax at the time of the event.
+     *
+     * @return the total in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Provides a one-line description of the event.
+     *
+     * @return a string representation of the entry
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d %s store %d order %d $%.2f",
+                timestampMillis, kind, storeId, orderNumber, totalCents / 100.0);
+    }
+}
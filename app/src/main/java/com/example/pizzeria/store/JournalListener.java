@@ -0,0 +1,45 @@
+package com.example.pizzeria.store;
+
+import com.example.pizzeria.models.Order;
+
+import java.util.List;
+
+/**
+ * Receives every journal entry recorded by any store, for example to mirror
+ * placed and canceled orders into durable storage.
+ *
+ * Listeners are called on the thread that placed or canceled the order,
+ * while it holds the store's lock, so they must return quickly: hand slow
+ * work such as disk writes off to another thread.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public interface JournalListener {
+
+    /**
+     * Called after an entry is added to a store's journal.
+     *
+     * @param entry the journal entry
+     * @param order the order that was placed or canceled; placed orders are
+     *              no longer modified, so it is safe to read from another thread.
+     *              Null for the cancellation of an order the store no longer
+     *              holds, such as one from an earlier session
+     */
+    void onJournalEntry(JournalEntry entry, Order order);
+
+    /**
+     * Called after a batch of entries is added to a store's journal at
+     * once, as when orders are imported. Listeners that keep an index can
+     * override it to update the index once for the whole batch; by default
+     * each entry is passed to onJournalEntry in turn.
+     *
+     * @param entries the journal entries, in the order they were added
+     * @param orders  the order each entry describes, at the same index; may
+     *                hold nulls as for onJournalEntry
+     */
+    default void onJournalEntries(List<JournalEntry> entries, List<Order> orders) {
+        for (int i = 0; i < entries.size(); i++) {
+            onJournalEntry(entries.get(i), orders.get(i));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.pizzeria.store;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.PizzaSpecs;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compact binary encoding of orders for state snapshots.
+ *
+ * An order is its store id, order number, placement time (0 if not placed)
+ * and line item count, followed by each line item as a PizzaSpec id and a
+ * quantity. Spec ids are only valid in the process that wrote them, so a
+ * snapshot carries a table of the specs its orders use: each spec's id,
+ * one byte each for type, size, crust and style, and the topping mask.
+ * Known style strings are stored as a code; any other style is stored as
+ * UTF-8.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+final class OrderCodec {
+
+    // Style strings used by the factories and the builder screen
+    private static final String[] STYLES = {"Chicago Style", "New York Style", "Chicago", "NY"};
+    private static final int OTHER_STYLE = 0xFF;
+
+    /**
+     * Private constructor to prevent instantiation of the OrderCodec class.
+     */
+    private OrderCodec() {}
+
+    /**
+     * Writes an order at the buffer's position. The specs it refers to
+     * must be in the spec table of the snapshot; see collectSpecs.
+     *
+     * @param order  the order to encode
+     * @param buffer the destination
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    static void encode(Order order, ByteBuffer buffer) {
+        List<LineItem> items = order.getLineItems();
+        buffer.putInt(order.getStoreId());
+        buffer.putInt(order.getOrderNumber());
+        buffer.putLong(order.getPlacedAtMillis());
+        buffer.putShort((short) items.size());
+        for (LineItem item : items) {
+            buffer.putInt(item.getSpec().getId());
+            buffer.putInt(item.getQuantity());
+        }
+    }
+
+    /**
+     * Collects the ids of the specs an order refers to, for the spec table.
+     *
+     * @param order     the order
+     * @param usedSpecs receives the spec ids
+     */
+    static void collectSpecs(Order order, BitSet usedSpecs) {
+        for (LineItem item : order.getLineItems()) {
+            usedSpecs.set(item.getSpec().getId());
+        }
+    }
+
+    /**
+     * Reads an order at the buffer's position. The restored order is priced
+     * against the active menu catalog.
+     *
+     * @param buffer the source
+     * @param specs  the snapshot's spec table, from decodeSpecs
+     * @return the decoded order
+     * @throws IllegalArgumentException if the data is not a valid order
+     */
+    static Order decode(ByteBuffer buffer, PizzaSpec[] specs) {
+        int orderNumber = 0;
+        try {
+            int storeId = buffer.getInt();
+            orderNumber = buffer.getInt();
+            long placedAtMillis = buffer.getLong();
+            int itemCount = buffer.getShort() & 0xFFFF;
+            Order order = new Order(storeId, orderNumber);
+            order.markPlaced(placedAtMillis);
+            for (int i = 0; i < itemCount; i++) {
+                PizzaSpec spec = specs[buffer.getInt()];
+                if (spec == null) {
+                    throw new IllegalArgumentException("Order " + orderNumber + " refers to an unknown pizza spec.");
+                }
+                order.addPizza(spec, buffer.getInt());
+            }
+            return order;
+        } catch (ArrayIndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("Corrupt order " + orderNumber + " in snapshot.", e);
+        }
+    }
+
+    /**
+     * Writes the spec table for a set of spec ids.
+     *
+     * @param usedSpecs the ids collected by collectSpecs
+     * @param buffer    the destination
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    static void encodeSpecs(BitSet usedSpecs, ByteBuffer buffer) {
+        buffer.putInt(usedSpecs.cardinality());
+        for (int id = usedSpecs.nextSetBit(0); id >= 0; id = usedSpecs.nextSetBit(id + 1)) {
+            PizzaSpec spec = PizzaSpecs.get(id);
+            buffer.putInt(id);
+            buffer.put((byte) spec.getPizzaType().ordinal());
+            buffer.put((byte) spec.getSize().ordinal());
+            buffer.put((byte) spec.getCrust().ordinal());
+            encodeStyle(spec.getStyle(), buffer);
+            buffer.putShort((short) spec.getToppingMask());
+        }
+    }
+
+    /**
+     * Reads a spec table written by encodeSpecs and interns each spec in
+     * this process.
+     *
+     * @param buffer the source
+     * @return the specs, indexed by the id they were written with
+     * @throws IllegalArgumentException if the table is corrupt
+     */
+    static PizzaSpec[] decodeSpecs(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Corrupt pizza spec table in snapshot.");
+        }
+        int[] ids = new int[count];
+        PizzaSpec[] read = new PizzaSpec[count];
+        int maxId = -1;
+        try {
+            for (int i = 0; i < count; i++) {
+                ids[i] = buffer.getInt();
+                if (ids[i] < 0) {
+                    throw new IllegalArgumentException("Corrupt pizza spec table in snapshot.");
+                }
+                PizzaType type = PizzaType.values()[buffer.get()];
+                Size size = Size.values()[buffer.get()];
+                Crust crust = Crust.values()[buffer.get()];
+                String style = decodeStyle(buffer);
+                read[i] = PizzaSpecs.intern(type, style, size, crust, buffer.getShort() & 0xFFFF);
+                maxId = Math.max(maxId, ids[i]);
+            }
+        } catch (ArrayIndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("Corrupt pizza spec table in snapshot.", e);
+        }
+        PizzaSpec[] specs = new PizzaSpec[maxId + 1];
+        for (int i = 0; i < count; i++) {
+            specs[ids[i]] = read[i];
+        }
+        return specs;
+    }
+
+    /**
+     * Writes a style as a code, or as UTF-8 if it is not a known style.
+     */
+    private static void encodeStyle(String style, ByteBuffer buffer) {
+        for (int i = 0; i < STYLES.length; i++) {
+            if (STYLES[i].equals(style)) {
+                buffer.put((byte) i);
+                return;
+            }
+        }
+        byte[] bytes = String.valueOf(style).getBytes(StandardCharsets.UTF_8);
+        buffer.put((byte) OTHER_STYLE);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a style written by encodeStyle.
+     */
+    private static String decodeStyle(ByteBuffer buffer) {
+        int code = buffer.get() & 0xFF;
+        if (code != OTHER_STYLE) {
+            return STYLES[code];
+        }
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.pizzeria.store;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out order numbers that are unique across restarts and devices
+ * without a durable write per order (hi/lo allocation).
+ *
+ * Numbers are leased in blocks from a HighWaterMark, which costs one
+ * durable write per block. Within a block, allocation is a single atomic
+ * increment; only the thread that finds the block exhausted takes a lock
+ * to lease the next one. Numbers left in a block when the process stops
+ * are skipped, never reissued.
+ *
+ * Devices sharing a number range are striped: with N devices, the k-th
+ * block leased by device i is global block k * N + i, so two devices never
+ * issue the same number as long as each has a distinct index.
+ *
+ * Block b covers the numbers 1 + b * blockSize through (b + 1) * blockSize.
+ *
+ * A batch of numbers is taken with a single atomic add, and the blocks it
+ * needs beyond the current one are leased together with one durable write.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderNumberAllocator {
+
+    /** Block size used when none is given. */
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private final HighWaterMark highWaterMark;
+    private final int blockSize;
+    private final int deviceIndex;
+    private final int deviceCount;
+
+    private volatile Block current = Block.EXHAUSTED;
+
+    /**
+     * Constructs an allocator for a single device.
+     *
+     * @param highWaterMark where blocks are leased from
+     */
+    public OrderNumberAllocator(HighWaterMark highWaterMark) {
+        this(highWaterMark, DEFAULT_BLOCK_SIZE, 0, 1);
+    }
+
+    /**
+     * Constructs an allocator for one of several devices sharing a range.
+     *
+     * @param highWaterMark where this device leases its blocks from
+     * @param blockSize     numbers per block
+     * @param deviceIndex   this device's index, from 0 to deviceCount - 1
+     * @param deviceCount   the number of devices sharing the range
+     * @throws IllegalArgumentException if the block size or device index is invalid
+     */
+    public OrderNumberAllocator(HighWaterMark highWaterMark, int blockSize, int deviceIndex, int deviceCount) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        if (deviceCount <= 0 || deviceIndex < 0 || deviceIndex >= deviceCount) {
+            throw new IllegalArgumentException("Invalid device index " + deviceIndex + " of " + deviceCount);
+        }
+        this.highWaterMark = highWaterMark;
+        this.blockSize = blockSize;
+        this.deviceIndex = deviceIndex;
+        this.deviceCount = deviceCount;
+    }
+
+    /**
+     * Allocates the next order number.
+     *
+     * @return a number that has never been allocated before
+     * @throws IllegalStateException if a new block cannot be leased
+     */
+    public int next() {
+        while (true) {
+            Block block = current;
+            int offset = block.next.getAndIncrement();
+            if (offset < block.size) {
+                return numberAt(block, offset);
+            }
+            lease(block, 1);
+        }
+    }
+
+    /**
+     * Allocates several order numbers at once. They are in increasing
+     * order but need not be consecutive.
+     *
+     * @param count how many numbers to allocate
+     * @return numbers that have never been allocated before
+     * @throws IllegalArgumentException if count is negative
+     * @throws IllegalStateException    if new blocks cannot be leased
+     */
+    public int[] next(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot allocate " + count + " order numbers.");
+        }
+        int[] numbers = new int[count];
+        int filled = 0;
+        while (filled < count) {
+            Block block = current;
+            int wanted = count - filled;
+            int offset = block.next.getAndAdd(wanted);
+            int taken = offset < block.size ? Math.min(wanted, block.size - offset) : 0;
+            for (int i = 0; i < taken; i++) {
+                numbers[filled++] = numberAt(block, offset + i);
+            }
+            if (filled < count) {
+                lease(block, count - filled);
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Makes sure no number up to a given one is allocated from now on, as
+     * when orders numbered elsewhere are imported. Unused numbers in the
+     * current block are skipped if the block does not lie above it.
+     * Numbers allocated while the skip runs may still come from the old block.
+     *
+     * @param orderNumber the highest number that must not be allocated again
+     * @throws IllegalStateException if the high-water mark cannot be advanced
+     */
+    public synchronized void skipPast(int orderNumber) {
+        if (current.size > 0 && numberAt(current, 0) > orderNumber) {
+            return;
+        }
+        // Lowest global block lying wholly above the number, then this device's first stripe at or above it
+        long global = (orderNumber + blockSize - 1L) / blockSize;
+        long local = Math.max(0, (global - deviceIndex + deviceCount - 1) / deviceCount);
+        try {
+            highWaterMark.advanceTo(local);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not skip past order number " + orderNumber, e);
+        }
+        current = Block.EXHAUSTED;
+    }
+
+    /**
+     * Leases enough blocks for the numbers still needed, in one durable
+     * write, unless another thread already replaced the exhausted block.
+     *
+     * @param exhausted the block the caller found exhausted
+     * @param needed    the numbers the caller still needs
+     */
+    private synchronized void lease(Block exhausted, int needed) {
+        if (current != exhausted) {
+            return;
+        }
+        int blocks = Math.max(1, (needed + blockSize - 1) / blockSize);
+        long local;
+        try {
+            local = highWaterMark.next(blocks);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not lease order numbers", e);
+        }
+        current = new Block(local, Math.multiplyExact(blocks, blockSize));
+    }
+
+    /**
+     * Maps an offset into a leased run of this device's blocks to its
+     * number: each local block is one stripe of the global sequence.
+     */
+    private int numberAt(Block block, int offset) {
+        long global = (block.firstLocal + offset / blockSize) * deviceCount + deviceIndex;
+        return Math.toIntExact(1 + global * blockSize + offset % blockSize);
+    }
+
+    /**
+     * A leased run of consecutive local blocks and the offset of the next
+     * number to hand out.
+     */
+    private static final class Block {
+        static final Block EXHAUSTED = new Block(0, 0);
+
+        final long firstLocal;
+        final int size;
+        final AtomicInteger next = new AtomicInteger();
+
+        Block(long firstLocal, int size) {
+            this.firstLocal = firstLocal;
+            this.size = size;
+        }
+    }
+}
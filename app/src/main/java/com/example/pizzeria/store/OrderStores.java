@@ -0,0 +1,258 @@
+package com.example.pizzeria.store;
+
+import android.util.Log;
+
+import com.example.pizzeria.models.Order;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of order stores partitioned by store id. Each location works
+ * only against its own StorePartition; cross-store reports merge the
+ * partitions in parallel. Journal listeners registered here see the
+ * placed and canceled orders of every store. A listener that throws is
+ * logged and skipped, so it never fails the placement or cancellation it
+ * was told about, which is already recorded.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class OrderStores {
+
+    /** The store used by the app when no location is chosen. */
+    public static final int DEFAULT_STORE_ID = 1;
+
+    private static final String TAG = "OrderStores";
+
+    // Each partition is created, and restored, once; callers that arrive meanwhile wait for it
+    private static final Map<Integer, FutureTask<StorePartition>> partitions = new ConcurrentHashMap<>();
+    private static final List<JournalListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Creates each store's order-number allocator; in-memory until configured
+    private static volatile IntFunction<OrderNumberAllocator> allocators =
+            storeId -> new OrderNumberAllocator(HighWaterMark.inMemory());
+
+    /**
+     * Private constructor to prevent instantiation of the OrderStores class.
+     */
+    private OrderStores() {}
+
+    /**
+     * Sets how order-number allocators are created for new partitions.
+     * Must be called before any partition is used.
+     *
+     * @param factory creates the allocator for a store id
+     * @throws IllegalStateException if a partition already exists
+     */
+    public static synchronized void setAllocatorFactory(IntFunction<OrderNumberAllocator> factory) {
+        if (!partitions.isEmpty()) {
+            throw new IllegalStateException("Order stores are already in use.");
+        }
+        allocators = factory;
+    }
+
+    /**
+     * Registers a listener for the journal entries of every store.
+     *
+     * @param listener the listener to add
+     */
+    public static void addJournalListener(JournalListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a journal listener.
+     *
+     * @param listener the listener to remove
+     */
+    public static void removeJournalListener(JournalListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Passes a new journal entry to every listener.
+     *
+     * @param entry the entry just recorded
+     * @param order the order it describes
+     */
+    static void publish(JournalEntry entry, Order order) {
+        for (JournalListener listener : listeners) {
+            try {
+                listener.onJournalEntry(entry, order);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Journal listener failed on order " + entry.getOrderNumber(), e);
+            }
+        }
+    }
+
+    /**
+     * Passes a batch of new journal entries to every listener.
+     *
+     * @param entries the entries just recorded
+     * @param orders  the order each entry describes, at the same index
+     */
+    static void publish(List<JournalEntry> entries, List<Order> orders) {
+        for (JournalListener listener : listeners) {
+            try {
+                listener.onJournalEntries(entries, orders);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Journal listener failed on a batch of " + entries.size() + " entries", e);
+            }
+        }
+    }
+
+    /**
+     * Gets the partition of a store, creating it on first use. A new
+     * partition is restored from its state snapshot if there is one. If it
+     * is being created elsewhere, such as by StateSnapshots.restoreInBackground,
+     * this waits for it.
+     *
+     * @param storeId the store id
+     * @return the store's partition
+     */
+    public static StorePartition partition(int storeId) {
+        FutureTask<StorePartition> creation = partitions.get(storeId);
+        if (creation == null) {
+            FutureTask<StorePartition> created = newCreation(storeId);
+            creation = partitions.putIfAbsent(storeId, created);
+            if (creation == null) {
+                creation = created;
+                creation.run();
+            }
+        }
+        return await(storeId, creation);
+    }
+
+    /**
+     * Creates and restores a store's partition on an executor, unless it
+     * has been created or is being created already. If the executor turns
+     * the work away, the partition is created on first use instead.
+     *
+     * @param storeId  the store id
+     * @param executor the executor to create it on
+     */
+    static void createPartition(int storeId, Executor executor) {
+        FutureTask<StorePartition> created = newCreation(storeId);
+        if (partitions.putIfAbsent(storeId, created) != null) {
+            return;
+        }
+        try {
+            executor.execute(created);
+        } catch (RejectedExecutionException e) {
+            created.run();
+        }
+    }
+
+    /**
+     * Creates the work of creating a partition and restoring it.
+     */
+    private static FutureTask<StorePartition> newCreation(int storeId) {
+        return new FutureTask<>(() -> {
+            StorePartition partition = new StorePartition(storeId, allocators.apply(storeId));
+            StateSnapshots.restore(partition);
+            return partition;
+        });
+    }
+
+    /**
+     * Waits for a partition to be created. If creating it failed, the next
+     * call tries again.
+     */
+    private static StorePartition await(int storeId, FutureTask<StorePartition> creation) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return creation.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    partitions.remove(storeId, creation);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException("Could not create store " + storeId, cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the partitions that have finished being created.
+     */
+    private static List<StorePartition> created() {
+        List<StorePartition> list = new ArrayList<>(partitions.size());
+        for (FutureTask<StorePartition> creation : partitions.values()) {
+            if (creation.isDone()) {
+                try {
+                    list.add(creation.get());
+                } catch (InterruptedException | ExecutionException e) {
+                    // Failed; it is created again on next use
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the partition of the default store.
+     *
+     * @return the default store's partition
+     */
+    public static StorePartition defaultPartition() {
+        return partition(DEFAULT_STORE_ID);
+    }
+
+    /**
+     * Gets every partition created so far, ordered by store id. One still
+     * being created is left out.
+     *
+     * @return a list of partitions
+     */
+    public static List<StorePartition> partitions() {
+        List<StorePartition> list = created();
+        list.sort(Comparator.comparingInt(StorePartition::getStoreId));
+        return list;
+    }
+
+    /**
+     * Merges the aggregates of every store in parallel.
+     *
+     * @return the aggregates across all stores
+     */
+    public static StoreAggregates aggregateAll() {
+        return created().parallelStream()
+                .map(StorePartition::getAggregates)
+                .reduce(StoreAggregates.EMPTY, StoreAggregates::merge);
+    }
+
+    /**
+     * Takes a snapshot of every store's aggregates in parallel.
+     *
+     * @return aggregates by store id
+     */
+    public static Map<Integer, StoreAggregates> aggregateByStore() {
+        return created().parallelStream()
+                .collect(Collectors.toConcurrentMap(StorePartition::getStoreId, StorePartition::getAggregates));
+    }
+}
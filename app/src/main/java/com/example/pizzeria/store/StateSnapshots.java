@@ -0,0 +1,169 @@
+package com.example.pizzeria.store;
+
+import android.util.Log;
+
+import com.example.pizzeria.tasks.BackgroundExecutors;
+import com.example.pizzeria.tasks.TaskExecutor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Saves each store's cart and recent history to a compact binary snapshot
+ * so they survive the process being killed, and restores them when the
+ * store's partition is first used after a restart.
+ *
+ * Snapshot layout (big-endian):
+ * - magic, format, store id
+ * - aggregates: order count, pizza count, revenue in cents, pizzas per type
+ * - the same four for the placed orders included below
+ * - cart flag, number of placed orders N, cart length, spec table length
+ * - the cart, encoded by OrderCodec
+ * - the table of pizza specs the orders refer to, encoded by OrderCodec
+ * - a CRC32 of everything before it
+ * - the N placed orders, encoded by OrderCodec
+ * - a CRC32 of the placed orders
+ *
+ * Restoring maps the file, checks the header's CRC and decodes the cart
+ * and aggregates; a snapshot whose header fails the check is ignored.
+ * The placed orders are checked and decoded only when the store first
+ * needs them, and if they fail they are dropped and taken out of the
+ * aggregates. Restores run on the snapshot executor: the app starts the
+ * default store's restore when it launches, with restoreInBackground,
+ * and the store waits for it when it is first used.
+ *
+ * Snapshots are written one at a time on a serial executor that reuses one
+ * buffer, and replace the previous file with a rename.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class StateSnapshots {
+
+    private static final String TAG = "StateSnapshots";
+
+    static final int MAGIC = 0x505A5353;            // "PZSS"
+    static final int FORMAT = 6;                   // 6: separate CRC32s for the header and the orders
+
+    private static final int RECENT_ORDERS = 100;   // Placed orders kept per store
+    private static final int INITIAL_BUFFER_BYTES = 16 * 1024;
+
+    private static final TaskExecutor writer = BackgroundExecutors.serial("StateSnapshots");
+
+    private static volatile File directory;        // Null until configured; snapshots are off
+    private static ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES); // Used by the writer only
+
+    /**
+     * Private constructor to prevent instantiation of the StateSnapshots class.
+     */
+    private StateSnapshots() {}
+
+    /**
+     * Enables snapshots, stored in a directory. Must be called before any
+     * store partition is used for partitions to be restored.
+     *
+     * @param snapshotDirectory the directory for snapshot files
+     */
+    public static void setDirectory(File snapshotDirectory) {
+        directory = snapshotDirectory;
+    }
+
+    /**
+     * Queues a snapshot of every store. Returns immediately. If the writer
+     * is too far behind to queue more, the snapshot is skipped; the next
+     * one covers it.
+     */
+    public static void saveAll() {
+        if (directory == null) {
+            return;
+        }
+        for (StorePartition partition : OrderStores.partitions()) {
+            try {
+                writer.execute(() -> save(partition));
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates a store's partition and restores it from its snapshot on the
+     * snapshot executor, so the file is not read on the thread that first
+     * uses the store. That thread waits for the restore to finish. Has no
+     * effect if the partition is already created. Call after setDirectory.
+     *
+     * @param storeId the store to restore
+     */
+    public static void restoreInBackground(int storeId) {
+        OrderStores.createPartition(storeId, writer);
+    }
+
+    /**
+     * Restores a newly created partition from its snapshot, if there is
+     * one. A missing or unreadable snapshot leaves the partition empty.
+     *
+     * @param partition the partition to restore
+     */
+    static void restore(StorePartition partition) {
+        File dir = directory;
+        if (dir == null) {
+            return;
+        }
+        File file = fileFor(dir, partition.getStoreId());
+        if (!file.exists()) {
+            return;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            partition.restoreSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | IllegalArgumentException e) {
+            // Start the store empty rather than fail on a damaged snapshot
+            Log.w(TAG, "Ignored the snapshot of store " + partition.getStoreId(), e);
+        }
+    }
+
+    /**
+     * Writes one store's snapshot. Runs on the writer.
+     *
+     * @param partition the store to save
+     */
+    private static void save(StorePartition partition) {
+        while (true) {
+            buffer.clear();
+            try {
+                partition.writeSnapshot(buffer, RECENT_ORDERS);
+                break;
+            } catch (BufferOverflowException | IndexOutOfBoundsException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        buffer.flip();
+
+        File file = fileFor(directory, partition.getStoreId());
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            // No fsync: the snapshot only has to survive the process, not the device
+            out.getChannel().write(buffer);
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Computes the snapshot file of a store.
+     */
+    private static File fileFor(File dir, int storeId) {
+        return new File(dir, "store_" + storeId + ".snapshot");
+    }
+}
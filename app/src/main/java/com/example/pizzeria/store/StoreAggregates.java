@@ -0,0 +1,100 @@
+package com.example.pizzeria.store;
+
+import com.example.pizzeria.models.PizzaType;
+
+import java.util.Locale;
+
+/**
+ * An immutable summary of placed orders: order and pizza counts, revenue
+ * and pizzas sold per type. Summaries from several stores can be merged
+ * in any order.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class StoreAggregates {
+
+    /** The summary of no orders. */
+    public static final StoreAggregates EMPTY = new StoreAggregates(0, 0, 0, new long[PizzaType.values().length]);
+
+    private final long orderCount;
+    private final long pizzaCount;
+    private final long revenueCents;
+    private final long[] pizzasByType;
+
+    /**
+     * Constructs a StoreAggregates. The array is not copied.
+     *
+     * @param orderCount   the number of placed orders
+     * @param pizzaCount   the number of pizzas in those orders
+     * @param revenueCents the revenue before tax, in cents
+     * @param pizzasByType pizzas sold, indexed by PizzaType ordinal
+     */
+    StoreAggregates(long orderCount, long pizzaCount, long revenueCents, long[] pizzasByType) {
+        this.orderCount = orderCount;
+        this.pizzaCount = pizzaCount;
+        this.revenueCents = revenueCents;
+        this.pizzasByType = pizzasByType;
+    }
+
+    /**
+     * Combines this summary with another.
+     *
+     * @param other the summary to add
+     * @return a new summary covering both
+     */
+    public StoreAggregates merge(StoreAggregates other) {
+        long[] byType = pizzasByType.clone();
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] += other.pizzasByType[i];
+        }
+        return new StoreAggregates(orderCount + other.orderCount, pizzaCount + other.pizzaCount,
+                revenueCents + other.revenueCents, byType);
+    }
+
+    /**
+     * Retrieves the number of placed orders.
+     *
+     * @return the order count
+     */
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Retrieves the number of pizzas in the placed orders.
+     *
+     * @return the pizza count
+     */
+    public long getPizzaCount() {
+        return pizzaCount;
+    }
+
+    /**
+     * Retrieves the revenue before tax.
+     *
+     * @return the revenue in cents
+     */
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+
+    /**
+     * Retrieves the number of pizzas sold of a type.
+     *
+     * @param type the pizza type
+     * @return the pizza count for that type
+     */
+    public long getPizzaCount(PizzaType type) {
+        return pizzasByType[type.ordinal()];
+    }
+
+    /**
+     * Provides a one-line summary.
+     *
+     * @return a string representation of the aggregates
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d orders, %d pizzas, $%.2f", orderCount, pizzaCount, revenueCents / 100.0);
+    }
+}
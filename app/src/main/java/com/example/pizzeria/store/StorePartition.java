@@ -0,0 +1,846 @@
+package com.example.pizzeria.store;
+
+import android.util.Log;
+
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.PizzaType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * The order store of a single location: its order-number sequence, the
+ * cart being filled at the counter, the placed orders, running aggregates
+ * and an append-only journal of placed and canceled orders.
+ *
+ * Every partition has its own lock and counters, so locations sharing a
+ * process never contend with each other.
+ *
+ * A partition restored from a StateSnapshots file gets its cart and
+ * aggregates immediately; the placed orders are decoded the first time
+ * they are needed.
+ *
+ * Placing an order reserves its ingredients in the partition's Inventory
+ * and canceling it returns them. Imported and restored orders were made
+ * elsewhere or earlier and reserve nothing.
+ *
+ * No two placed orders share a number. An order whose number is already
+ * placed, such as one numbered before an import took that number, is
+ * rejected when it is placed and its ingredients are returned.
+ *
+ * A detached partition stands on its own for simulations and load tests:
+ * its order numbers come from memory and its journal is never published,
+ * so nothing it places reaches the history, indexes or exports.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class StorePartition {
+
+    private static final String TAG = "StorePartition";
+
+    private final int storeId;
+    private final List<Order> placedOrders = new ArrayList<>();
+    private final Map<Integer, Order> placedByNumber = new HashMap<>(); // placedOrders by order number
+    private final List<JournalEntry> journal = new ArrayList<>();
+
+    private final OrderNumberAllocator orderNumbers;
+    private final boolean published;            // Whether journal entries go to the OrderStores listeners
+    private final Inventory inventory = new Inventory();
+    private Order currentOrder;                 // The cart, created on first use
+    private PendingHistory pendingHistory;      // Restored placed orders not yet decoded
+
+    // Running aggregates over placedOrders
+    private long orderCount;
+    private long pizzaCount;
+    private long revenueCents;
+    private final long[] pizzasByType = new long[PizzaType.values().length];
+
+    /**
+     * Constructs an empty partition whose journal is published to the
+     * OrderStores listeners.
+     *
+     * @param storeId      the store this partition belongs to
+     * @param orderNumbers the store's order-number allocator
+     */
+    StorePartition(int storeId, OrderNumberAllocator orderNumbers) {
+        this(storeId, orderNumbers, true);
+    }
+
+    /**
+     * Constructs an empty partition.
+     *
+     * @param storeId      the store this partition belongs to
+     * @param orderNumbers the store's order-number allocator
+     * @param published    whether journal entries go to the OrderStores listeners
+     */
+    private StorePartition(int storeId, OrderNumberAllocator orderNumbers, boolean published) {
+        this.storeId = storeId;
+        this.orderNumbers = orderNumbers;
+        this.published = published;
+    }
+
+    /**
+     * Creates a partition that is not registered with OrderStores, with an
+     * in-memory order-number sequence, unlimited stock and an unpublished
+     * journal. Simulations and load tests place orders here so they never
+     * use up real order numbers or stock, or show up in the order history.
+     *
+     * @param storeId the store id its orders carry
+     * @return a new, empty partition
+     */
+    public static StorePartition detached(int storeId) {
+        return new StorePartition(storeId, new OrderNumberAllocator(HighWaterMark.inMemory()), false);
+    }
+
+    /**
+     * Retrieves the store this partition belongs to.
+     *
+     * @return the store id
+     */
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Retrieves the ingredient stock of this store. Its checks and
+     * reservations do not take the partition lock.
+     *
+     * @return the inventory
+     */
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Allocates the next order number of this store. Does not take the
+     * partition lock.
+     *
+     * @return the order number
+     */
+    public int nextOrderNumber() {
+        return orderNumbers.next();
+    }
+
+    /**
+     * Creates an empty order with the next order number of this store.
+     *
+     * @return the new order
+     */
+    public Order newOrder() {
+        return new Order(storeId, orderNumbers.next());
+    }
+
+    /**
+     * Creates empty orders with the next order numbers of this store,
+     * allocated together so a batch costs at most one lease.
+     *
+     * @param count how many orders to create
+     * @return the new orders, in increasing order-number order
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<Order> newOrders(int count) {
+        int[] numbers = orderNumbers.next(count);
+        List<Order> orders = new ArrayList<>(count);
+        for (int number : numbers) {
+            orders.add(new Order(storeId, number));
+        }
+        return orders;
+    }
+
+    /**
+     * Gets the cart. If there is none, a new order is started.
+     *
+     * @return the current order
+     */
+    public synchronized Order getCurrentOrder() {
+        if (currentOrder == null) {
+            currentOrder = newOrder();
+        }
+        return currentOrder;
+    }
+
+    /**
+     * Replaces the cart with a new, empty order.
+     */
+    public synchronized void resetCurrentOrder() {
+        currentOrder = newOrder();
+    }
+
+    /**
+     * Places the cart if it has any pizzas and starts a new one, as
+     * addPlacedOrder does. If an ingredient is short the cart is left as
+     * it is.
+     *
+     * @return the placed order, or null if the cart was empty
+     * @throws IllegalStateException if the inventory cannot cover the cart or its number is already placed
+     */
+    public Order placeCurrentOrder() {
+        Order cart;
+        synchronized (this) {
+            cart = currentOrder;
+        }
+        if (cart == null || cart.isEmpty()) {
+            return null;
+        }
+        addPlacedOrder(cart);
+        return cart;
+    }
+
+    /**
+     * Places an order, as addPlacedOrder does.
+     *
+     * @param order the order to place
+     * @throws IllegalStateException if the inventory cannot cover the order or its number is already placed
+     */
+    public void placeOrder(Order order) {
+        addPlacedOrder(order);
+    }
+
+    /**
+     * Adds an order to the placed orders. An order without a placement
+     * time is stamped with the current time. If it is the cart or a copy
+     * of it, a new cart is started; otherwise the cart is left alone.
+     *
+     * Its ingredients are reserved first, before the partition lock is
+     * taken, so terminals placing orders at the same time only meet on the
+     * stock counters they share. The lock is then held only to record the
+     * order; journal listeners are called while it is held.
+     *
+     * @param order the order to add
+     * @throws IllegalStateException if the inventory cannot cover the order or its number is already placed
+     */
+    public void addPlacedOrder(Order order) {
+        inventory.reserve(order);
+        recordPlacedOrder(order);
+    }
+
+    /**
+     * Records a placed order whose ingredients are reserved, starting a new
+     * cart if it is the cart. If its number is already placed, the
+     * reservation is returned instead.
+     *
+     * @param order the order to record
+     * @throws IllegalStateException if the order's number is already placed
+     */
+    private synchronized void recordPlacedOrder(Order order) {
+        decodePendingHistory();
+        if (!numberFree(order)) {
+            throw numberTaken(order);
+        }
+        // Everything that can fail comes before the first change, so a failure leaves the store as it was
+        long total;
+        Order nextCart;
+        try {
+            total = order.calculateTotalCents();
+            nextCart = isCart(order) ? newOrder() : null;
+        } catch (RuntimeException e) {
+            inventory.release(order);
+            throw e;
+        }
+        placedByNumber.put(order.getOrderNumber(), order);
+        order.markPlaced(System.currentTimeMillis());
+        placedOrders.add(order);
+        orderCount++;
+        pizzaCount += order.getPizzaCount();
+        revenueCents += total;
+        for (LineItem item : order.getLineItems()) {
+            pizzasByType[item.getPizza().getPizzaType().ordinal()] += item.getQuantity();
+        }
+        JournalEntry entry = new JournalEntry(order.getPlacedAtMillis(), JournalEntry.Kind.PLACED,
+                storeId, order.getOrderNumber(), total);
+        journal.add(entry);
+        if (nextCart != null) {
+            currentOrder = nextCart;
+        }
+        publish(entry, order);
+    }
+
+    /**
+     * Places orders as one batch. Their ingredients are reserved first,
+     * without the partition lock; an order the inventory cannot cover is
+     * left out. The rest are placed under one lock with the same placement
+     * time, the aggregates are updated in one pass and journal listeners
+     * get a single batch, so indexes and the history are updated once for
+     * all of them. An order that is placed already, listed more than once
+     * or whose number is already placed is left out as well. If the cart or
+     * a copy of it is among them a new cart is started.
+     *
+     * If recording the batch fails, none of it is placed and every
+     * reservation it took is returned before the exception is thrown.
+     *
+     * @param orders     the orders to place, each with this store's id
+     * @param onRejected receives each order left out and the reason; may be null
+     * @return the orders placed, in the given order
+     * @throws IllegalArgumentException if an order belongs to another store
+     */
+    public List<Order> placeOrders(Collection<Order> orders, BiConsumer<Order, IllegalStateException> onRejected) {
+        for (Order order : orders) {
+            if (order.getStoreId() != storeId) {
+                throw new IllegalArgumentException("Order " + order.getOrderNumber() + " is for store "
+                        + order.getStoreId() + ", not " + storeId);
+            }
+        }
+        Set<Order> listed = Collections.newSetFromMap(new IdentityHashMap<>(orders.size()));
+        List<Order> reserved = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            try {
+                if (!listed.add(order)) {
+                    throw new IllegalStateException("Order " + order.getOrderNumber() + " is listed more than once.");
+                }
+                if (order.isPlaced()) {
+                    throw new IllegalStateException("Order " + order.getOrderNumber() + " is already placed.");
+                }
+                inventory.reserve(order);
+                reserved.add(order);
+            } catch (IllegalStateException e) {
+                if (onRejected != null) {
+                    onRejected.accept(order, e);
+                }
+            }
+        }
+        if (reserved.isEmpty()) {
+            return reserved;
+        }
+        List<Order> taken = new ArrayList<>();
+        List<Order> placed;
+        try {
+            placed = recordPlacedOrders(reserved, taken);
+        } catch (RuntimeException e) {
+            for (Order order : reserved) {
+                inventory.release(order); // Nothing was recorded
+            }
+            throw e;
+        }
+        for (Order order : taken) {
+            if (onRejected != null) {
+                onRejected.accept(order, numberTaken(order));
+            }
+        }
+        return placed;
+    }
+
+    /**
+     * Records placed orders whose ingredients are reserved, as one batch.
+     * Orders whose numbers are already placed are not recorded, and their
+     * reservations are returned. If this throws, nothing was recorded.
+     *
+     * @param orders the orders to record, none of them placed
+     * @param taken  receives the orders whose numbers are already placed
+     * @return the orders recorded
+     */
+    private synchronized List<Order> recordPlacedOrders(List<Order> orders, List<Order> taken) {
+        decodePendingHistory();
+        // Everything that can fail comes before the first change, so a failure leaves the store as it was
+        long[] totals = new long[orders.size()];
+        boolean cartListed = false;
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = orders.get(i).calculateTotalCents();
+            cartListed |= isCart(orders.get(i));
+        }
+        Order nextCart = cartListed ? newOrder() : null;
+
+        long now = System.currentTimeMillis();
+        List<Order> placed = new ArrayList<>(orders.size());
+        List<JournalEntry> entries = new ArrayList<>(orders.size());
+        boolean cartPlaced = false;
+        for (int i = 0; i < totals.length; i++) {
+            Order order = orders.get(i);
+            if (!numberFree(order)) {
+                taken.add(order);
+                continue;
+            }
+            placedByNumber.put(order.getOrderNumber(), order);
+            placed.add(order);
+            order.markPlaced(now);
+            long total = totals[i];
+            orderCount++;
+            pizzaCount += order.getPizzaCount();
+            revenueCents += total;
+            for (LineItem item : order.getLineItems()) {
+                pizzasByType[item.getPizza().getPizzaType().ordinal()] += item.getQuantity();
+            }
+            entries.add(new JournalEntry(order.getPlacedAtMillis(), JournalEntry.Kind.PLACED,
+                    storeId, order.getOrderNumber(), total));
+            cartPlaced |= isCart(order);
+        }
+        if (placed.isEmpty()) {
+            return placed;
+        }
+        placedOrders.addAll(placed);
+        journal.addAll(entries);
+        if (cartPlaced) {
+            currentOrder = nextCart;
+        }
+        publish(entries, placed);
+        return placed;
+    }
+
+    /**
+     * Checks that no placed order holds an order's number. If another
+     * order holds it, the reservation of this one is returned; if this
+     * order holds it already, its reservation is the placed order's and
+     * is kept.
+     *
+     * @return true if the number is free
+     */
+    private boolean numberFree(Order order) {
+        Order holder = placedByNumber.get(order.getOrderNumber());
+        if (holder == null) {
+            return true;
+        }
+        if (holder != order) {
+            inventory.release(order);
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an order is the cart or a copy of it, such as the one
+     * the checkout pipeline places.
+     */
+    private boolean isCart(Order order) {
+        return currentOrder != null && currentOrder.getOrderNumber() == order.getOrderNumber();
+    }
+
+    /**
+     * Creates the exception for an order whose number is already placed.
+     */
+    private static IllegalStateException numberTaken(Order order) {
+        return new IllegalStateException("Order number " + order.getOrderNumber() + " is already placed.");
+    }
+
+    /**
+     * Adds orders placed elsewhere, such as an earlier export of this store,
+     * as one batch: the lock is taken once, the aggregates are updated in
+     * one pass and journal listeners get a single batch, so indexes are
+     * updated once for all of them. Orders keep their placement times and
+     * take their place among the placed orders by time. An order whose
+     * number is already placed here is skipped.
+     *
+     * The order-number sequence first moves past the imported numbers, so
+     * they are not issued again. That may sync the high-water mark to disk,
+     * so it happens before the partition lock is taken. The cart is moved
+     * to a fresh number if an imported order took its number; any other
+     * order numbered before the import and not yet placed is rejected when
+     * it is placed.
+     *
+     * @param orders the orders to add, each with this store's id
+     * @return the number of orders added
+     * @throws IllegalArgumentException if an order belongs to another store
+     * @throws IllegalStateException    if the order-number sequence cannot be advanced
+     */
+    public int importOrders(List<Order> orders) {
+        int highest = 0;
+        for (Order order : orders) {
+            if (order.getStoreId() != storeId) {
+                throw new IllegalArgumentException("Order " + order.getOrderNumber() + " is for store "
+                        + order.getStoreId() + ", not " + storeId);
+            }
+            highest = Math.max(highest, order.getOrderNumber());
+        }
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        orderNumbers.skipPast(highest);
+        return recordImportedOrders(orders);
+    }
+
+    /**
+     * Records imported orders as one batch, skipping numbers already placed.
+     *
+     * @param orders the orders to record, each with this store's id
+     * @return the number of orders recorded
+     */
+    private synchronized int recordImportedOrders(List<Order> orders) {
+        decodePendingHistory();
+        List<Order> added = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (placedByNumber.putIfAbsent(order.getOrderNumber(), order) == null) {
+                added.add(order);
+            }
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+        if (currentOrder != null && placedByNumber.containsKey(currentOrder.getOrderNumber())) {
+            // The cart's number was issued before the skip; move its pizzas to a fresh number
+            Order cart = newOrder();
+            for (LineItem item : currentOrder.getLineItems()) {
+                cart.addPizza(item.getSpec(), item.getQuantity());
+            }
+            currentOrder = cart;
+        }
+
+        long now = System.currentTimeMillis();
+        List<JournalEntry> entries = new ArrayList<>(added.size());
+        for (Order order : added) {
+            order.markPlaced(now);
+            long total = order.calculateTotalCents();
+            orderCount++;
+            pizzaCount += order.getPizzaCount();
+            revenueCents += total;
+            for (LineItem item : order.getLineItems()) {
+                pizzasByType[item.getPizza().getPizzaType().ordinal()] += item.getQuantity();
+            }
+            entries.add(new JournalEntry(order.getPlacedAtMillis(), JournalEntry.Kind.PLACED,
+                    storeId, order.getOrderNumber(), total));
+        }
+        placedOrders.addAll(added);
+        // Both runs are in time order, so the sort is a single merge
+        placedOrders.sort(Comparator.comparingLong(Order::getPlacedAtMillis));
+        journal.addAll(entries);
+        publish(entries, added);
+        return added.size();
+    }
+
+    /**
+     * Removes a placed order, as when it is canceled, and returns its
+     * ingredients to the inventory.
+     *
+     * @param order the order to remove
+     * @return true if the order was found and removed
+     */
+    public synchronized boolean removePlacedOrder(Order order) {
+        decodePendingHistory();
+        if (!placedOrders.remove(order)) {
+            return false;
+        }
+        placedByNumber.remove(order.getOrderNumber(), order);
+        long total = order.calculateTotalCents();
+        orderCount--;
+        pizzaCount -= order.getPizzaCount();
+        revenueCents -= total;
+        for (LineItem item : order.getLineItems()) {
+            pizzasByType[item.getPizza().getPizzaType().ordinal()] -= item.getQuantity();
+        }
+        JournalEntry entry = new JournalEntry(System.currentTimeMillis(), JournalEntry.Kind.CANCELED,
+                storeId, order.getOrderNumber(), total);
+        journal.add(entry);
+        inventory.release(order);
+        publish(entry, order);
+        return true;
+    }
+
+    /**
+     * Cancels an order by number. A placed order held here is removed as
+     * by removePlacedOrder. One that is no longer held, such as an order
+     * from an earlier session that is only in the order history, gets a
+     * CANCELED journal entry published without an order, so the history,
+     * indexes and columns all drop it. Its total is not known here, so the
+     * aggregates are left as they are.
+     *
+     * @param orderNumber the order number
+     * @return true if the order was held here and removed
+     */
+    public synchronized boolean cancelOrder(int orderNumber) {
+        decodePendingHistory();
+        Order held = placedByNumber.get(orderNumber);
+        if (held != null) {
+            return removePlacedOrder(held);
+        }
+        JournalEntry entry = new JournalEntry(System.currentTimeMillis(), JournalEntry.Kind.CANCELED,
+                storeId, orderNumber, 0);
+        journal.add(entry);
+        publish(entry, null);
+        return false;
+    }
+
+    /**
+     * Passes a journal entry to the OrderStores listeners, unless this
+     * partition is detached.
+     */
+    private void publish(JournalEntry entry, Order order) {
+        if (published) {
+            OrderStores.publish(entry, order);
+        }
+    }
+
+    /**
+     * Passes a batch of journal entries to the OrderStores listeners,
+     * unless this partition is detached.
+     */
+    private void publish(List<JournalEntry> entries, List<Order> orders) {
+        if (published) {
+            OrderStores.publish(entries, orders);
+        }
+    }
+
+    /**
+     * Gets a copy of the placed orders, oldest first.
+     *
+     * @return the list of placed orders
+     */
+    public synchronized List<Order> getPlacedOrders() {
+        decodePendingHistory();
+        return new ArrayList<>(placedOrders);
+    }
+
+    /**
+     * Gets a snapshot of the aggregates over the placed orders.
+     *
+     * @return the store's aggregates
+     */
+    public synchronized StoreAggregates getAggregates() {
+        return new StoreAggregates(orderCount, pizzaCount, revenueCents, pizzasByType.clone());
+    }
+
+    /**
+     * Gets a copy of the journal, oldest first.
+     *
+     * @return the list of journal entries
+     */
+    public synchronized List<JournalEntry> getJournal() {
+        return new ArrayList<>(journal);
+    }
+
+    /**
+     * Clears the placed orders, the aggregates and the journal, and starts
+     * a new cart. Order numbers are never reused, and the stock their
+     * orders used is not returned.
+     */
+    public synchronized void clear() {
+        pendingHistory = null;
+        placedOrders.clear();
+        placedByNumber.clear();
+        journal.clear();
+        orderCount = 0;
+        pizzaCount = 0;
+        revenueCents = 0;
+        Arrays.fill(pizzasByType, 0);
+        inventory.clearReservations();
+        resetCurrentOrder();
+    }
+
+    /**
+     * Writes the cart, the aggregates and the most recent placed orders in
+     * the StateSnapshots format, starting at the buffer's position.
+     *
+     * @param buffer       the destination
+     * @param recentOrders the maximum number of placed orders to include
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    synchronized void writeSnapshot(ByteBuffer buffer, int recentOrders) {
+        decodePendingHistory();
+        List<Order> recent = placedOrders.subList(Math.max(0, placedOrders.size() - recentOrders),
+                placedOrders.size());
+        int count = recent.size();
+
+        // What the included orders add to the aggregates, taken back out if they cannot be restored
+        long recentPizzas = 0;
+        long recentRevenueCents = 0;
+        long[] recentPizzasByType = new long[pizzasByType.length];
+        BitSet usedSpecs = new BitSet();
+        for (Order order : recent) {
+            recentPizzas += order.getPizzaCount();
+            recentRevenueCents += order.calculateTotalCents();
+            for (LineItem item : order.getLineItems()) {
+                recentPizzasByType[item.getPizza().getPizzaType().ordinal()] += item.getQuantity();
+            }
+            OrderCodec.collectSpecs(order, usedSpecs);
+        }
+        if (currentOrder != null) {
+            OrderCodec.collectSpecs(currentOrder, usedSpecs);
+        }
+
+        int snapshotStart = buffer.position();
+        buffer.putInt(StateSnapshots.MAGIC);
+        buffer.putInt(StateSnapshots.FORMAT);
+        buffer.putInt(storeId);
+        putAggregates(buffer, orderCount, pizzaCount, revenueCents, pizzasByType);
+        putAggregates(buffer, count, recentPizzas, recentRevenueCents, recentPizzasByType);
+        buffer.put((byte) (currentOrder != null ? 1 : 0));
+        buffer.putInt(count);
+        // Lengths are filled in once each part has been written
+        int lengths = buffer.position();
+        buffer.position(lengths + 2 * Integer.BYTES);
+
+        int start = buffer.position();
+        if (currentOrder != null) {
+            OrderCodec.encode(currentOrder, buffer);
+        }
+        buffer.putInt(lengths, buffer.position() - start);
+        start = buffer.position();
+        OrderCodec.encodeSpecs(usedSpecs, buffer);
+        buffer.putInt(lengths + Integer.BYTES, buffer.position() - start);
+        putCrc(buffer, snapshotStart);
+
+        int bodiesStart = buffer.position();
+        for (Order order : recent) {
+            OrderCodec.encode(order, buffer);
+        }
+        putCrc(buffer, bodiesStart);
+    }
+
+    /**
+     * Writes an order count, pizza count, revenue and pizzas per type.
+     */
+    private static void putAggregates(ByteBuffer buffer, long orders, long pizzas, long revenueCents,
+                                      long[] pizzasByType) {
+        buffer.putLong(orders);
+        buffer.putLong(pizzas);
+        buffer.putLong(revenueCents);
+        for (long typeCount : pizzasByType) {
+            buffer.putLong(typeCount);
+        }
+    }
+
+    /**
+     * Writes the CRC32 of the bytes from a position up to the buffer's position.
+     */
+    private static void putCrc(ByteBuffer buffer, int from) {
+        ByteBuffer written = buffer.duplicate();
+        written.flip();
+        written.position(from);
+        buffer.putInt(crcOf(written));
+    }
+
+    /**
+     * Computes the CRC32 of a buffer's remaining bytes.
+     */
+    private static int crcOf(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Restores the cart and aggregates from a snapshot. Only the header,
+     * cart and spec table are checked and decoded here; the placed orders
+     * are kept encoded, and their checksum unchecked, until they are first
+     * needed. Nothing is restored unless the header is intact.
+     *
+     * @param snapshot the snapshot, positioned at its start and limited to its end
+     * @throws IllegalArgumentException if the snapshot is damaged or not for this store
+     */
+    synchronized void restoreSnapshot(ByteBuffer snapshot) {
+        int snapshotStart = snapshot.position();
+        try {
+            if (snapshot.getInt() != StateSnapshots.MAGIC || snapshot.getInt() != StateSnapshots.FORMAT) {
+                throw new IllegalArgumentException("Not a state snapshot.");
+            }
+            if (snapshot.getInt() != storeId) {
+                throw new IllegalArgumentException("Snapshot is for another store.");
+            }
+            long[] totals = new long[3 + pizzasByType.length];      // Orders, pizzas, revenue, per type
+            long[] historyTotals = new long[totals.length];
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] = snapshot.getLong();
+            }
+            for (int i = 0; i < historyTotals.length; i++) {
+                historyTotals[i] = snapshot.getLong();
+            }
+            boolean hasCart = snapshot.get() != 0;
+            int count = snapshot.getInt();
+            int cartLength = snapshot.getInt();
+            int specsLength = snapshot.getInt();
+            int cartStart = snapshot.position();
+            long headerEnd = (long) cartStart + cartLength + specsLength;
+            int bodiesEnd = snapshot.limit() - Integer.BYTES;
+            if (count < 0 || cartLength < 0 || specsLength < 0 || headerEnd + Integer.BYTES > bodiesEnd) {
+                throw new IllegalArgumentException("Snapshot is truncated.");
+            }
+            ByteBuffer header = snapshot.duplicate();
+            header.position(snapshotStart);
+            header.limit((int) headerEnd);
+            if (crcOf(header) != snapshot.getInt((int) headerEnd)) {
+                throw new IllegalArgumentException("Snapshot checksum does not match.");
+            }
+
+            ByteBuffer specTable = snapshot.duplicate();
+            specTable.position(cartStart + cartLength);
+            specTable.limit((int) headerEnd);
+            PizzaSpec[] specs = OrderCodec.decodeSpecs(specTable);
+            Order cart = null;
+            if (hasCart) {
+                ByteBuffer cartBody = snapshot.duplicate();
+                cartBody.limit(cartStart + cartLength);
+                cart = OrderCodec.decode(cartBody, specs);
+            }
+            ByteBuffer bodies = snapshot.duplicate();
+            bodies.position((int) headerEnd + Integer.BYTES);
+            bodies.limit(bodiesEnd);
+            int bodiesCrc = snapshot.getInt(bodiesEnd);
+
+            orderCount = totals[0];
+            pizzaCount = totals[1];
+            revenueCents = totals[2];
+            System.arraycopy(totals, 3, pizzasByType, 0, pizzasByType.length);
+            currentOrder = cart;
+            pendingHistory = count == 0 ? null
+                    : new PendingHistory(bodies.slice(), bodiesCrc, count, specs, historyTotals);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Snapshot is truncated.", e);
+        }
+    }
+
+    /**
+     * Decodes restored placed orders, if any are still pending, ahead of
+     * orders placed since the restore. If they fail their checksum or
+     * cannot be decoded they are dropped with a warning and taken out of
+     * the aggregates, so a damaged snapshot never blocks the store.
+     */
+    private void decodePendingHistory() {
+        PendingHistory history = pendingHistory;
+        if (history == null) {
+            return;
+        }
+        pendingHistory = null;
+        List<Order> restored = new ArrayList<>(history.count);
+        try {
+            if (crcOf(history.bodies.duplicate()) != history.crc) {
+                throw new IllegalArgumentException("Snapshot checksum does not match.");
+            }
+            for (int i = 0; i < history.count; i++) {
+                restored.add(OrderCodec.decode(history.bodies, history.specs));
+            }
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Dropped the restored order history of store " + storeId, e);
+            orderCount -= history.totals[0];
+            pizzaCount -= history.totals[1];
+            revenueCents -= history.totals[2];
+            for (int i = 0; i < pizzasByType.length; i++) {
+                pizzasByType[i] -= history.totals[3 + i];
+            }
+            return;
+        }
+        placedOrders.addAll(0, restored);
+        for (Order order : restored) {
+            placedByNumber.putIfAbsent(order.getOrderNumber(), order);
+        }
+    }
+
+    /**
+     * Placed orders restored from a snapshot and not yet decoded, with what
+     * they add to the restored aggregates.
+     */
+    private static final class PendingHistory {
+        final ByteBuffer bodies;        // The encoded orders, oldest first
+        final int crc;                  // CRC32 of the bodies
+        final int count;
+        final PizzaSpec[] specs;        // The snapshot's spec table for the bodies
+        final long[] totals;            // Orders, pizzas, revenue in cents, pizzas per type
+
+        PendingHistory(ByteBuffer bodies, int crc, int count, PizzaSpec[] specs, long[] totals) {
+            this.bodies = bodies;
+            this.crc = crc;
+            this.count = count;
+            this.specs = specs;
+            this.totals = totals;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pizzeria.tasks;
+
+import android.os.Process;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The app's shared background executors. Blocking and heavy work goes
+ * here, never on the main thread, so the main thread only renders:
+ * - io: file, database and network access; a few threads, since such work
+ *   mostly waits
+ * - cpu: computation such as compiling the menu catalog or benchmarks;
+ *   one thread per core, at background priority
+ * - serial: one executor per named resource, running its tasks one at a
+ *   time in submission order, e.g. every write of one file
+ *
+ * Each executor has a bounded queue and reports its queue depth and
+ * timings to the MetricsRegistry; see TaskExecutor. Results for a screen
+ * are delivered on the main thread with TaskExecutor.submit.
+ *
+ * This class cannot be instantiated.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class BackgroundExecutors {
+
+    private static final int IO_THREADS = 4;
+    private static final int CPU_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int QUEUE_CAPACITY = 256;              // Tasks waiting per executor
+
+    private static final TaskExecutor io = new TaskExecutor("io", IO_THREADS, QUEUE_CAPACITY,
+            Process.THREAD_PRIORITY_BACKGROUND);
+    private static final TaskExecutor cpu = new TaskExecutor("cpu", CPU_THREADS, QUEUE_CAPACITY,
+            Process.THREAD_PRIORITY_BACKGROUND);
+    private static final Map<String, TaskExecutor> serial = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation of the BackgroundExecutors class.
+     */
+    private BackgroundExecutors() {}
+
+    /**
+     * Gets the executor for blocking I/O.
+     *
+     * @return the I/O executor
+     */
+    public static TaskExecutor io() {
+        return io;
+    }
+
+    /**
+     * Gets the executor for computation.
+     *
+     * @return the CPU executor
+     */
+    public static TaskExecutor cpu() {
+        return cpu;
+    }
+
+    /**
+     * Gets the serial executor of a resource, creating it on first use. Its
+     * tasks run one at a time, in the order they were submitted, on a
+     * thread named after the resource.
+     *
+     * @param resource the resource name, e.g. "StateSnapshots"
+     * @return the resource's serial executor
+     */
+    public static TaskExecutor serial(String resource) {
+        return serial.computeIfAbsent(resource, name -> new TaskExecutor("serial." + name, 1, QUEUE_CAPACITY,
+                Process.THREAD_PRIORITY_BACKGROUND));
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.pizzeria.tasks;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A unit of background work whose result is delivered on the main thread,
+ * tied to the lifecycle of the screen that asked for it. When the screen
+ * is destroyed the task is canceled and its result is dropped. A read is
+ * also skipped if it has not started; a write always runs, since others
+ * may depend on its effect.
+ *
+ * Tasks are created by TaskExecutor.submit and submitWrite, or by
+ * awaiting for work that is carried out elsewhere, such as in the checkout
+ * pipeline, and finished with complete or fail.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class Task<T> implements Runnable, DefaultLifecycleObserver {
+
+    private static final String TAG = "Task";
+    private static final Executor MAIN_LOOPER = new Handler(Looper.getMainLooper())::post;
+    private static volatile Executor mainThread = MAIN_LOOPER;
+
+    private final Lifecycle lifecycle;                  // Null when the result is not tied to a screen
+    private final Callable<T> work;                     // Null when the work is carried out elsewhere
+    private final Consumer<? super T> onResult;
+    private final Consumer<? super Exception> onError;  // Null to log failures
+    private final boolean write;                        // Runs even when canceled
+
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a task and ties it to its owner's lifecycle. Called on the
+     * main thread; the task starts canceled if the owner is already destroyed.
+     */
+    Task(LifecycleOwner owner, Callable<T> work, Consumer<? super T> onResult, Consumer<? super Exception> onError,
+         boolean write) {
+        this.lifecycle = owner == null ? null : owner.getLifecycle();
+        this.work = work;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.write = write;
+        if (lifecycle != null) {
+            if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+                cancelled = true;
+            } else {
+                lifecycle.addObserver(this);
+            }
+        }
+    }
+
+    /**
+     * Creates a task for work carried out elsewhere, whose outcome is
+     * reported with complete or fail. Like a write, it is delivered unless
+     * the owner is destroyed first. Must be called on the main thread.
+     *
+     * @param owner    the screen the result is for; null to always deliver
+     * @param onResult receives the result on the main thread
+     * @param onError  receives the exception on the main thread; null to log it
+     * @param <T>      the result type
+     * @return the task
+     */
+    public static <T> Task<T> awaiting(LifecycleOwner owner, Consumer<? super T> onResult,
+                                       Consumer<? super Exception> onError) {
+        return new Task<>(owner, null, onResult, onError, true);
+    }
+
+    /**
+     * Replaces the main thread as where outcomes are delivered. JVM tests
+     * have no main looper, so they deliver outcomes directly or on a
+     * thread of their own.
+     *
+     * @param executor runs each delivery; null to deliver on the main thread again
+     */
+    @VisibleForTesting
+    public static void setMainThreadExecutor(Executor executor) {
+        mainThread = executor == null ? MAIN_LOOPER : executor;
+    }
+
+    /**
+     * Cancels the task: nothing will be delivered, and a read will not
+     * start if it has not yet. Must be called on the main thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (lifecycle != null) {
+            lifecycle.removeObserver(this);
+        }
+    }
+
+    /**
+     * Checks whether the task was canceled, directly or by its owner being destroyed.
+     *
+     * @return true if the task is canceled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Runs the work on a background thread and posts the outcome to the
+     * main thread.
+     */
+    @Override
+    public void run() {
+        if (work == null || (cancelled && !write)) {
+            return;
+        }
+        T result;
+        try {
+            result = work.call();
+        } catch (Exception e) {
+            fail(e);
+            return;
+        }
+        complete(result);
+    }
+
+    /**
+     * Cancels the task when its owner is destroyed.
+     *
+     * @param owner the destroyed owner
+     */
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        cancel();
+    }
+
+    /**
+     * Posts a result to the main thread. Can be called from any thread.
+     *
+     * @param result the result of the work
+     */
+    public void complete(T result) {
+        mainThread.execute(() -> {
+            if (finish()) {
+                onResult.accept(result);
+            }
+        });
+    }
+
+    /**
+     * Posts a failure to the main thread. Can be called from any thread.
+     *
+     * @param e the exception thrown by the work, or the rejection
+     */
+    public void fail(Exception e) {
+        mainThread.execute(() -> {
+            if (!finish()) {
+                return;
+            }
+            if (onError != null) {
+                onError.accept(e);
+            } else {
+                Log.w(TAG, "Background task failed", e);
+            }
+        });
+    }
+
+    /**
+     * Detaches the finished task from its owner. Runs on the main thread.
+     *
+     * @return true if the outcome should still be delivered
+     */
+    private boolean finish() {
+        if (cancelled) {
+            return false;
+        }
+        if (lifecycle != null) {
+            lifecycle.removeObserver(this);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.pizzeria.tasks;
+
+import android.os.Process;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.pizzeria.metrics.Counter;
+import com.example.pizzeria.metrics.Gauge;
+import com.example.pizzeria.metrics.LatencyHistogram;
+import com.example.pizzeria.metrics.MetricsRegistry;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A named executor with a fixed number of threads and a bounded queue.
+ * Obtain instances from BackgroundExecutors.
+ *
+ * Every executor records, under "executor.&lt;name&gt;":
+ * - queueDepth: a gauge of the tasks waiting to start, with its maximum
+ * - wait: a histogram of the time from submission to start
+ * - run: a histogram of execution time
+ * - rejected: a counter of tasks turned away because the queue was full
+ *
+ * Idle threads exit after a while, so an executor that is rarely used
+ * costs no thread between bursts.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public final class TaskExecutor implements Executor {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final ThreadPoolExecutor pool;
+    private final Gauge queueDepth;
+    private final LatencyHistogram waitLatency;
+    private final LatencyHistogram runLatency;
+    private final Counter rejected;
+
+    /**
+     * Constructs an executor. Only BackgroundExecutors creates executors.
+     *
+     * @param name           the executor name, used for its threads and metrics
+     * @param threads        the maximum number of threads
+     * @param queueCapacity  the maximum number of waiting tasks
+     * @param threadPriority the Android thread priority of its threads
+     */
+    TaskExecutor(String name, int threads, int queueCapacity, int threadPriority) {
+        this.name = name;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(threadPriority);
+                runnable.run();
+            }, threads == 1 ? name : name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pool.allowCoreThreadTimeOut(true);
+        String prefix = "executor." + name + ".";
+        this.queueDepth = MetricsRegistry.gauge(prefix + "queueDepth");
+        this.waitLatency = MetricsRegistry.histogram(prefix + "wait");
+        this.runLatency = MetricsRegistry.histogram(prefix + "run");
+        this.rejected = MetricsRegistry.counter(prefix + "rejected");
+    }
+
+    /**
+     * Retrieves the executor name.
+     *
+     * @return the name, e.g. "io" or "serial.StateSnapshots"
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Queues a task with no result. Exceptions it throws are left to the
+     * thread's uncaught exception handler.
+     *
+     * @param task the task
+     * @throws RejectedExecutionException if the queue is full
+     */
+    @Override
+    public void execute(Runnable task) {
+        long submitted = System.nanoTime();
+        queueDepth.increment();
+        try {
+            pool.execute(() -> {
+                queueDepth.decrement();
+                long start = System.nanoTime();
+                waitLatency.record(start - submitted);
+                try {
+                    task.run();
+                } finally {
+                    runLatency.recordSince(start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrement();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs work in the background and delivers its result on the main
+     * thread. Errors are logged. Must be called on the main thread.
+     *
+     * @param owner    the screen the result is for; null to always deliver
+     * @param work     the work to run
+     * @param onResult receives the result on the main thread
+     * @param <T>      the result type
+     * @return the task, which can be canceled
+     */
+    public <T> Task<T> submit(LifecycleOwner owner, Callable<T> work, Consumer<? super T> onResult) {
+        return submit(owner, work, onResult, null);
+    }
+
+    /**
+     * Runs work in the background and delivers its result or failure on
+     * the main thread. Nothing is delivered once the owner is destroyed or
+     * the task is canceled, and work that has not started by then is
+     * skipped. Work already running is not interrupted. If the queue is
+     * full, the failure is a RejectedExecutionException. Must be called on
+     * the main thread.
+     *
+     * @param owner    the screen the result is for; null to always deliver
+     * @param work     the work to run
+     * @param onResult receives the result on the main thread
+     * @param onError  receives the exception on the main thread; null to log it
+     * @param <T>      the result type
+     * @return the task, which can be canceled
+     */
+    public <T> Task<T> submit(LifecycleOwner owner, Callable<T> work, Consumer<? super T> onResult,
+                              Consumer<? super Exception> onError) {
+        Task<T> task = new Task<>(owner, work, onResult, onError, false);
+        if (task.isCancelled()) {
+            return task; // The owner is already destroyed
+        }
+        return enqueue(task);
+    }
+
+    /**
+     * Runs work that changes state in the background and delivers its
+     * result on the main thread. Errors are logged. Must be called on the
+     * main thread.
+     *
+     * @param owner    the screen the result is for; null to always deliver
+     * @param work     the work to run
+     * @param onResult receives the result on the main thread
+     * @param <T>      the result type
+     * @return the task, which can be canceled
+     */
+    public <T> Task<T> submitWrite(LifecycleOwner owner, Callable<T> work, Consumer<? super T> onResult) {
+        return submitWrite(owner, work, onResult, null);
+    }
+
+    /**
+     * Runs work that changes state in the background and delivers its
+     * result or failure on the main thread. Unlike submit, the work always
+     * runs, even if the owner is destroyed or the task is canceled first;
+     * only the delivery is dropped. Must be called on the main thread.
+     *
+     * @param owner    the screen the result is for; null to always deliver
+     * @param work     the work to run
+     * @param onResult receives the result on the main thread
+     * @param onError  receives the exception on the main thread; null to log it
+     * @param <T>      the result type
+     * @return the task, which can be canceled
+     */
+    public <T> Task<T> submitWrite(LifecycleOwner owner, Callable<T> work, Consumer<? super T> onResult,
+                                   Consumer<? super Exception> onError) {
+        return enqueue(new Task<>(owner, work, onResult, onError, true));
+    }
+
+    /**
+     * Queues a task, failing it if the queue is full.
+     */
+    private <T> Task<T> enqueue(Task<T> task) {
+        try {
+            execute(task);
+        } catch (RejectedExecutionException e) {
+            task.fail(e);
+        }
+        return task;
+    }
+
+    /**
+     * Returns the executor name and its current queue depth.
+     *
+     * @return a string representation of the executor
+     */
+    @Override
+    public String toString() {
+        return name + " (" + queueDepth.get() + " queued)";
+    }
+}
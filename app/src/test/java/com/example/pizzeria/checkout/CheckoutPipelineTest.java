@@ -0,0 +1,177 @@
+package com.example.pizzeria.checkout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.store.StorePartition;
+import com.example.pizzeria.tasks.Task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for CheckoutPipeline: a full pipeline turns orders away
+ * without placing them, the pipeline places a copy of the cart rather
+ * than the cart itself, and an order is not placed when a stage fails it.
+ * Outcomes are delivered on the pipeline's threads, as there is no main
+ * looper here.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class CheckoutPipelineTest {
+
+    private static final int STORE = 1;
+    private static final String STYLE = "New York Style";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final StorePartition store = StorePartition.detached(STORE);
+    private final AtomicInteger persisted = new AtomicInteger();
+
+    @Before
+    public void deliverOnPipelineThreads() {
+        Task.setMainThreadExecutor(Runnable::run);
+    }
+
+    @After
+    public void deliverOnMainThread() {
+        Task.setMainThreadExecutor(null);
+    }
+
+    @Test
+    public void fullPipelineTurnsOrdersAway() throws Exception {
+        CountDownLatch kitchenOpen = new CountDownLatch(1);
+        CheckoutPipeline pipeline = new CheckoutPipeline(store, orders -> {
+            try {
+                kitchenOpen.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, order -> persisted.incrementAndGet());
+
+        // With the kitchen stuck every queue fills, so the intake has to turn orders away
+        List<CompletableFuture<Receipt>> accepted = new ArrayList<>();
+        Order rejected = null;
+        for (int i = 0; i < 10 * CheckoutPipeline.QUEUE_CAPACITY && rejected == null; i++) {
+            Order order = deluxeOrder(STORE, store.nextOrderNumber());
+            CompletableFuture<Receipt> outcome = new CompletableFuture<>();
+            if (submit(pipeline, order, outcome) == null) {
+                rejected = order;
+            } else {
+                accepted.add(outcome);
+            }
+        }
+        assertNotNull(rejected);
+
+        kitchenOpen.countDown();
+        for (CompletableFuture<Receipt> outcome : accepted) {
+            assertTrue(outcome.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getOrder().isPlaced());
+        }
+        assertEquals(accepted.size(), store.getPlacedOrders().size());
+        assertEquals(accepted.size(), persisted.get());
+        for (Order placed : store.getPlacedOrders()) {
+            assertNotEquals(rejected.getOrderNumber(), placed.getOrderNumber());
+        }
+        assertFalse(rejected.isPlaced());
+    }
+
+    @Test
+    public void copyOfTheCartIsPlaced() throws Exception {
+        CheckoutPipeline pipeline = new CheckoutPipeline(store, orders -> { }, order -> persisted.incrementAndGet());
+        Order cart = store.getCurrentOrder();
+        cart.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE));
+
+        CompletableFuture<Receipt> outcome = new CompletableFuture<>();
+        submit(pipeline, cart, outcome);
+        // Changed after it was submitted, so the change is not placed
+        cart.addPizza(PizzaType.MEATZZA.create(Crust.HAND_TOSSED, Size.SMALL, STYLE));
+
+        Order placed = outcome.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getOrder();
+        assertNotSame(cart, placed);
+        assertEquals(cart.getOrderNumber(), placed.getOrderNumber());
+        assertEquals(1, placed.getPizzaCount());
+        assertTrue(placed.isPlaced());
+        assertFalse(cart.isPlaced());
+        assertEquals(2, cart.getPizzaCount());
+        assertSame(placed, store.getPlacedOrders().get(0));
+
+        // Placing the copy started a new cart
+        assertNotEquals(cart.getOrderNumber(), store.getCurrentOrder().getOrderNumber());
+        assertTrue(store.getCurrentOrder().isEmpty());
+    }
+
+    @Test
+    public void orderFailedByValidationIsNotPlaced() throws Exception {
+        CheckoutPipeline pipeline = new CheckoutPipeline(store, orders -> { }, order -> persisted.incrementAndGet());
+        store.getInventory().setStock(Crust.BROOKLYN, 0);
+        Order cart = store.getCurrentOrder();
+        cart.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE));
+
+        CompletableFuture<Receipt> outOfStock = new CompletableFuture<>();
+        submit(pipeline, cart, outOfStock);
+        assertFailed(IllegalStateException.class, outOfStock);
+
+        CompletableFuture<Receipt> empty = new CompletableFuture<>();
+        submit(pipeline, new Order(STORE, store.nextOrderNumber()), empty);
+        assertFailed(IllegalStateException.class, empty);
+
+        assertTrue(store.getPlacedOrders().isEmpty());
+        assertEquals(0, persisted.get());
+        assertEquals(0, store.getInventory().getStock(Crust.BROOKLYN));
+        // The cart is kept so it can be changed
+        assertSame(cart, store.getCurrentOrder());
+        assertEquals(1, cart.getPizzaCount());
+    }
+
+    @Test
+    public void orderInAFailedBatchIsNotPlaced() throws Exception {
+        CountDownLatch dispatched = new CountDownLatch(1);
+        CheckoutPipeline pipeline = new CheckoutPipeline(store, orders -> dispatched.countDown(),
+                order -> persisted.incrementAndGet());
+        store.getInventory().setStock(Crust.BROOKLYN, 5);
+
+        // Passes validation, but the store refuses the whole batch when persisting it
+        CompletableFuture<Receipt> outcome = new CompletableFuture<>();
+        submit(pipeline, deluxeOrder(STORE + 1, 1), outcome);
+        assertFailed(IllegalArgumentException.class, outcome);
+
+        assertTrue(store.getPlacedOrders().isEmpty());
+        assertEquals(0, persisted.get());
+        assertEquals(5, store.getInventory().getStock(Crust.BROOKLYN));
+        assertEquals(1, dispatched.getCount());
+    }
+
+    private static Task<Receipt> submit(CheckoutPipeline pipeline, Order order, CompletableFuture<Receipt> outcome) {
+        return pipeline.submit(null, order, outcome::complete, outcome::completeExceptionally);
+    }
+
+    private static void assertFailed(Class<? extends Exception> expected, CompletableFuture<Receipt> outcome) {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> outcome.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(expected, e.getCause().getClass());
+    }
+
+    private static Order deluxeOrder(int storeId, int orderNumber) {
+        Order order = new Order(storeId, orderNumber);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE));
+        return order;
+    }
+}
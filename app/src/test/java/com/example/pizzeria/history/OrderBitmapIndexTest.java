@@ -0,0 +1,149 @@
+package com.example.pizzeria.history;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.JournalEntry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for OrderBitmapIndex: find combines toppings, type, size,
+ * crust and placement days, cancellations remove orders from every
+ * bitmap, and an order canceled while loadFrom reads the history stays
+ * out of the index.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderBitmapIndexTest {
+
+    private static final int STORE = 1;
+    private static final String STYLE = "New York Style";
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long NOON = 1_700_000_000_000L / DAY * DAY + DAY / 2;
+
+    @Test
+    public void findCombinesEveryCondition() {
+        OrderBitmapIndex index = new OrderBitmapIndex(STORE);
+        index.add(order(1, custom(Size.SMALL, Topping.HAM, Topping.PINEAPPLE)), NOON);
+        index.add(order(2, custom(Size.LARGE, Topping.HAM)), NOON);
+        index.add(order(3, custom(Size.LARGE, Topping.HAM, Topping.PINEAPPLE),
+                PizzaType.DELUXE.create(Crust.BROOKLYN, Size.SMALL, STYLE)), NOON + 3 * DAY);
+
+        int hawaiian = Topping.HAM.mask() | Topping.PINEAPPLE.mask();
+        assertNumbers(index.find(hawaiian, null, null, null, Long.MIN_VALUE, Long.MAX_VALUE), 1, 3);
+        assertNumbers(index.find(hawaiian, null, Size.LARGE, null, Long.MIN_VALUE, Long.MAX_VALUE), 3);
+        assertNumbers(index.find(0, PizzaType.DELUXE, null, null, Long.MIN_VALUE, Long.MAX_VALUE), 3);
+        assertNumbers(index.find(Topping.HAM.mask(), null, null, null, NOON - DAY, NOON + DAY), 1, 2);
+        assertNumbers(index.find(0, null, null, Crust.BROOKLYN, NOON, NOON));
+        assertNumbers(index.find(0, null, null, null, Long.MIN_VALUE, Long.MAX_VALUE), 1, 2, 3);
+
+        // Each pizza matches on its own attributes, but an order matches on any of its pizzas
+        assertNumbers(index.find(0, PizzaType.DELUXE, Size.LARGE, null, Long.MIN_VALUE, Long.MAX_VALUE), 3);
+    }
+
+    @Test
+    public void canceledOrdersLeaveEveryBitmap() {
+        OrderBitmapIndex index = new OrderBitmapIndex(STORE);
+        index.onJournalEntry(placed(4), order(4, custom(Size.SMALL, Topping.ONION)));
+        index.onJournalEntry(placed(5), order(5, custom(Size.SMALL, Topping.ONION)));
+        index.onJournalEntry(canceled(4), null);
+
+        assertNumbers(index.withToppings(Topping.ONION), 5);
+        assertNumbers(index.ofSize(Size.SMALL), 5);
+        assertNumbers(index.placedBetween(NOON, NOON), 5);
+        assertNumbers(index.all(), 5);
+    }
+
+    @Test
+    public void orderCanceledWhileLoadingStaysOut() {
+        OrderBitmapIndex index = new OrderBitmapIndex(STORE);
+        OrderDatabase history = new OrderDatabase(null, "unused") {
+            @Override
+            public void scanLineItems(int storeId, LineItemVisitor visitor) {
+                visitor.visit(7, NOON, PizzaType.BUILD_YOUR_OWN.ordinal(), Size.SMALL.ordinal(),
+                        Crust.HAND_TOSSED.ordinal(), Topping.HAM.mask(), 1000, 1);
+                // Canceled after the scan read it, before the index took the loaded bitmaps
+                index.onJournalEntry(canceled(7), null);
+                visitor.visit(8, NOON, PizzaType.BUILD_YOUR_OWN.ordinal(), Size.SMALL.ordinal(),
+                        Crust.HAND_TOSSED.ordinal(), Topping.HAM.mask(), 1000, 1);
+                // Placed live while loading, as after the history was read
+                index.onJournalEntry(placed(9), order(9, custom(Size.SMALL, Topping.HAM)));
+            }
+        };
+        index.loadFrom(history);
+
+        assertNumbers(index.withToppings(Topping.HAM), 8, 9);
+        assertNumbers(index.all(), 8, 9);
+
+        // Once loaded, cancellations apply directly
+        index.onJournalEntry(canceled(8), null);
+        assertNumbers(index.all(), 9);
+    }
+
+    @Test
+    public void largeBatchIsMergedLikeSingleEntries() {
+        OrderBitmapIndex single = new OrderBitmapIndex(STORE);
+        OrderBitmapIndex batched = new OrderBitmapIndex(STORE);
+        List<JournalEntry> entries = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int number = 1; number <= 1500; number++) {
+            Order order = order(number, custom(Size.values()[number % Size.values().length],
+                    Topping.values()[number % Topping.values().length]));
+            entries.add(placed(number));
+            orders.add(order);
+            if (number % 7 == 0) {
+                entries.add(canceled(number));
+                orders.add(null);
+            }
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            single.onJournalEntry(entries.get(i), orders.get(i));
+        }
+        batched.onJournalEntries(entries, orders);
+
+        assertArrayEquals(single.all().toArray(), batched.all().toArray());
+        for (Topping topping : Topping.values()) {
+            assertArrayEquals(single.withToppings(topping).toArray(), batched.withToppings(topping).toArray());
+        }
+        assertFalse(batched.all().contains(7));
+    }
+
+    private static Pizza custom(Size size, Topping... toppings) {
+        Pizza pizza = PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, size, STYLE);
+        for (Topping topping : toppings) {
+            pizza.addTopping(topping);
+        }
+        return pizza;
+    }
+
+    private static Order order(int orderNumber, Pizza... pizzas) {
+        Order order = new Order(STORE, orderNumber);
+        for (Pizza pizza : pizzas) {
+            order.addPizza(pizza);
+        }
+        order.markPlaced(NOON);
+        return order;
+    }
+
+    private static JournalEntry placed(int orderNumber) {
+        return new JournalEntry(NOON, JournalEntry.Kind.PLACED, STORE, orderNumber, 0);
+    }
+
+    private static JournalEntry canceled(int orderNumber) {
+        return new JournalEntry(NOON, JournalEntry.Kind.CANCELED, STORE, orderNumber, 0);
+    }
+
+    private static void assertNumbers(RoaringBitmap actual, int... expected) {
+        assertArrayEquals(expected, actual.toArray());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.pizzeria.history;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.PriceQuoteService;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.JournalEntry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unit tests for OrderColumns: after a random mix of placed orders and
+ * cancellations, including cancellations of orders the columns never had
+ * and of orders canceled twice, every scan agrees with a naive walk over
+ * the orders that are still placed.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderColumnsTest {
+
+    private static final int STORE = 1;
+    private static final String STYLE = "New York Style";
+    private static final long PLACED_AT = 1_700_000_000_000L;
+
+    @Test
+    public void scansMatchANaiveWalkOverTheOrders() {
+        Random random = new Random(3);
+        OrderColumns columns = new OrderColumns(STORE);
+        List<Order> orders = new ArrayList<>();
+        Set<Integer> canceled = new HashSet<>();
+        int rows = 0;
+        for (int number = 1; number <= 20_000; number++) {
+            Order order = randomOrder(random, number);
+            orders.add(order);
+            rows += order.getLineItems().size();
+            columns.onJournalEntry(entry(JournalEntry.Kind.PLACED, number), order);
+            if (random.nextInt(5) == 0) {
+                // A recent order, an old one, one never placed here, or one canceled before
+                int target = random.nextBoolean() ? number - random.nextInt(Math.min(number, 10))
+                        : random.nextBoolean() ? 1 + random.nextInt(number) : 1_000_000 + number;
+                columns.onJournalEntry(entry(JournalEntry.Kind.CANCELED, target), null);
+                canceled.add(target);
+            }
+        }
+        assertEquals(rows, columns.getRowCount());
+
+        long pizzas = 0;
+        long[] bySize = new long[Size.values().length];
+        long[] byType = new long[PizzaType.values().length];
+        long[] byTopping = new long[Topping.values().length];
+        PriceQuoteService quotes = PriceQuoteService.getInstance();
+        for (Order order : orders) {
+            if (canceled.contains(order.getOrderNumber())) {
+                continue;
+            }
+            for (LineItem item : order.getLineItems()) {
+                Pizza pizza = item.getPizza();
+                long revenue = (long) quotes.quoteCents(pizza, order.getCatalog()) * item.getQuantity();
+                pizzas += item.getQuantity();
+                bySize[pizza.getSize().ordinal()] += revenue;
+                byType[pizza.getPizzaType().ordinal()] += revenue;
+                for (Topping topping : pizza.getToppingList()) {
+                    byTopping[topping.ordinal()] += item.getQuantity();
+                }
+            }
+        }
+        assertEquals(pizzas, columns.pizzaCount());
+        assertArrayEquals(bySize, columns.revenueBySize());
+        assertArrayEquals(byType, columns.revenueByType());
+        assertArrayEquals(byTopping, columns.toppingCounts());
+    }
+
+    @Test
+    public void orderCanceledBeforeItIsLoadedStaysCanceled() {
+        OrderColumns columns = new OrderColumns(STORE);
+        columns.onJournalEntry(entry(JournalEntry.Kind.CANCELED, 5), null);
+        columns.loadFrom(new OrderDatabase(null, "unused") {
+            @Override
+            public void scanLineItems(int storeId, LineItemVisitor visitor) {
+                for (int number = 4; number <= 6; number++) {
+                    visitor.visit(number, PLACED_AT, PizzaType.DELUXE.ordinal(), Size.LARGE.ordinal(),
+                            Crust.BROOKLYN.ordinal(), 0, 1000, 2);
+                }
+            }
+        });
+        assertEquals(2, columns.getRowCount());
+        assertEquals(4, columns.pizzaCount());
+
+        columns.onJournalEntry(entry(JournalEntry.Kind.CANCELED, 4), null);
+        assertEquals(2, columns.pizzaCount());
+    }
+
+    /**
+     * Creates an order of one to three lines of random pizzas.
+     */
+    private static Order randomOrder(Random random, int orderNumber) {
+        Order order = new Order(STORE, orderNumber);
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            Size size = Size.values()[random.nextInt(Size.values().length)];
+            Pizza pizza;
+            if (random.nextBoolean()) {
+                pizza = PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, size, STYLE);
+                for (int t = random.nextInt(4); t > 0; t--) {
+                    Topping topping = Topping.values()[random.nextInt(Topping.values().length)];
+                    if (!pizza.getToppingList().contains(topping)) {
+                        pizza.addTopping(topping);
+                    }
+                }
+            } else {
+                pizza = PizzaType.MEATZZA.create(Crust.HAND_TOSSED, size, STYLE);
+            }
+            order.addPizza(pizza, 1 + random.nextInt(3));
+        }
+        order.markPlaced(PLACED_AT + orderNumber * 60_000L);
+        return order;
+    }
+
+    private static JournalEntry entry(JournalEntry.Kind kind, int orderNumber) {
+        return new JournalEntry(PLACED_AT, kind, STORE, orderNumber, 0);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.pizzeria.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+import com.example.pizzeria.store.OrderStores;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for the export format: text written by ExportFormat is read
+ * back by OrderImporter with its quantities, toppings and placement times,
+ * and the manifest watermark survives a last line cut short by a crash.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderImporterTest {
+
+    private static final String STYLE = "New York Style";
+    private static final long PLACED_AT = 1_700_000_000_000L;
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("export").toFile();
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = directory.listFiles();
+        for (File file : files != null ? files : new File[0]) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void exportedOrdersAreImportedAsWritten() throws IOException {
+        int storeId = 9101;
+        Order order = new Order(storeId, 12);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE), 3);
+        order.addPizza(PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, Size.SMALL, STYLE));
+        Pizza custom = PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, Size.MEDIUM, STYLE);
+        custom.addTopping(Topping.HAM);
+        custom.addTopping(Topping.PINEAPPLE);
+        order.addPizza(custom, 2);
+        order.markPlaced(PLACED_AT);
+
+        StringWriter text = new StringWriter();
+        ExportFormat.writeOrder(text, order, order.calculateTotalCents());
+        assertTrue(text.toString().contains("\n3" + ExportFormat.QUANTITY));
+        assertTrue(text.toString().contains(ExportFormat.TOPPINGS + ExportFormat.NO_TOPPINGS + ExportFormat.PRICE));
+        File segment = write("orders-000001.txt", text.toString());
+
+        ImportReport report = new OrderImporter(null, storeId).importFrom(segment);
+        assertEquals(1, report.getOrders());
+        Order imported = OrderStores.partition(storeId).getPlacedOrders().get(0);
+        assertEquals(12, imported.getOrderNumber());
+        assertEquals(PLACED_AT, imported.getPlacedAtMillis());
+        List<LineItem> lines = imported.getLineItems();
+        assertEquals(3, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(order.getLineItems().get(i).getQuantity(), lines.get(i).getQuantity());
+            assertEquals(order.getLineItems().get(i).getSpec(), lines.get(i).getSpec());
+        }
+        assertEquals(0, lines.get(1).getPizza().getToppingCount());
+        assertEquals(Arrays.asList(Topping.HAM, Topping.PINEAPPLE), lines.get(2).getPizza().getToppingList());
+        assertEquals(order.calculateTotalCents(), imported.calculateTotalCents());
+    }
+
+    @Test
+    public void placementTimesAreReadWithAndWithoutFractionalSeconds() throws IOException {
+        int storeId = 9102;
+        String line = "Deluxe (New York Style), LARGE BROOKLYN"
+                + ExportFormat.TOPPINGS + "[SAUSAGE]" + ExportFormat.PRICE + "$0.00\n";
+        File segment = write("orders-000001.txt",
+                ExportFormat.ORDER_NUMBER + "1\n" + ExportFormat.PLACED_AT + "2023-11-14T22:13:20Z\n" + line
+                        + ExportFormat.TOTAL + "$0.00\n\n"
+                        + ExportFormat.ORDER_NUMBER + "2\n" + ExportFormat.PLACED_AT + "2023-11-14T22:13:20.125Z\n"
+                        + line + ExportFormat.TOTAL + "$0.00\n\n");
+
+        assertEquals(2, new OrderImporter(null, storeId).importFrom(segment).getOrders());
+        List<Order> placed = OrderStores.partition(storeId).getPlacedOrders();
+        assertEquals(PLACED_AT, placed.get(0).getPlacedAtMillis());
+        assertEquals(PLACED_AT + 125, placed.get(1).getPlacedAtMillis());
+    }
+
+    @Test
+    public void canceledOrdersAreNotImported() throws IOException {
+        int storeId = 9103;
+        StringWriter text = new StringWriter();
+        for (int number = 1; number <= 3; number++) {
+            Order order = new Order(storeId, number);
+            order.addPizza(PizzaType.MEATZZA.create(Crust.HAND_TOSSED, Size.SMALL, STYLE));
+            order.markPlaced(PLACED_AT + number);
+            ExportFormat.writeOrder(text, order, order.calculateTotalCents());
+        }
+        ExportFormat.writeCancellation(text, 2, PLACED_AT + 10);
+
+        ImportReport report = new OrderImporter(null, storeId).importFrom(write("orders-000001.txt", text.toString()));
+        assertEquals(2, report.getOrders());
+        assertEquals(1, report.getCanceled());
+        List<Order> placed = OrderStores.partition(storeId).getPlacedOrders();
+        assertEquals(1, placed.get(0).getOrderNumber());
+        assertEquals(3, placed.get(1).getOrderNumber());
+    }
+
+    @Test
+    public void manifestLineCutShortIsDropped() throws IOException {
+        File manifest = new File(directory, OrderExporter.MANIFEST_NAME);
+        assertEquals(0, OrderExporter.readWatermark(manifest).sequence);
+
+        String complete = ExportFormat.MANIFEST_HEADER
+                + ExportFormat.manifestLine(1, "orders-000001.txt", 40, 0, 40, 0, 4096)
+                + ExportFormat.manifestLine(2, "orders-000002.txt", 40, 7, 0, 7, 512);
+        write(OrderExporter.MANIFEST_NAME, complete + "3 orders-0000");
+
+        OrderExporter.Watermark mark = OrderExporter.readWatermark(manifest);
+        assertEquals(2, mark.sequence);
+        assertEquals(40, mark.orderRow);
+        assertEquals(7, mark.cancellation);
+        assertEquals(complete, new String(Files.readAllBytes(manifest.toPath()), StandardCharsets.UTF_8));
+        assertEquals(2, OrderExporter.readWatermark(manifest).sequence);
+    }
+
+    @Test
+    public void importSkipsTheSegmentOfALineCutShort() throws IOException {
+        int storeId = 9104;
+        Order order = new Order(storeId, 5);
+        order.addPizza(PizzaType.BBQ_CHICKEN.create(Crust.HAND_TOSSED, Size.SMALL, STYLE));
+        order.markPlaced(PLACED_AT);
+        StringWriter text = new StringWriter();
+        ExportFormat.writeOrder(text, order, order.calculateTotalCents());
+        write("orders-000001.txt", text.toString());
+        write(OrderExporter.MANIFEST_NAME, ExportFormat.MANIFEST_HEADER
+                + ExportFormat.manifestLine(1, "orders-000001.txt", 1, 0, 1, 0, text.toString().length())
+                + "2 orders-000002.txt 2");
+
+        ImportReport report = new OrderImporter(null, storeId).importFrom(directory);
+        assertEquals(1, report.getSegments());
+        assertEquals(1, report.getOrders());
+    }
+
+    private File write(String name, String text) throws IOException {
+        File file = new File(directory, name);
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write(text);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.pizzeria.history;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Randomized tests of RoaringBitmap against java.util.BitSet. Values are
+ * drawn from a few chunks, some sparse and some dense, so chunks switch
+ * between arrays and bitmaps in both directions as values come and go.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class RoaringBitmapTest {
+
+    private static final int ROUNDS = 40;
+
+    @Test
+    public void addRemoveAndContainsMatchABitSet() {
+        Random random = new Random(1);
+        for (int round = 0; round < ROUNDS; round++) {
+            RoaringBitmap bitmap = new RoaringBitmap();
+            BitSet expected = new BitSet();
+            int operations = 2 + random.nextInt(20_000);
+            for (int i = 0; i < operations; i++) {
+                int value = randomValue(random);
+                if (random.nextInt(3) == 0) {
+                    bitmap.remove(value);
+                    expected.clear(value);
+                } else {
+                    bitmap.add(value);
+                    expected.set(value);
+                }
+            }
+            assertMatches(expected, bitmap);
+            for (int i = 0; i < 1000; i++) {
+                int value = randomValue(random);
+                assertEquals(expected.get(value), bitmap.contains(value));
+            }
+        }
+    }
+
+    @Test
+    public void denseChunkShrinksBackToAnArray() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+        for (int value = 65536; value < 65536 + 10_000; value++) {
+            bitmap.add(value);
+            expected.set(value);
+        }
+        assertMatches(expected, bitmap);
+        for (int value = 65536; value < 65536 + 9_990; value++) {
+            bitmap.remove(value);
+            expected.clear(value);
+        }
+        assertMatches(expected, bitmap);
+        for (int value = 65536 + 9_990; value < 65536 + 10_000; value++) {
+            bitmap.remove(value);
+        }
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.toArray().length);
+    }
+
+    @Test
+    public void setOperationsMatchABitSet() {
+        Random random = new Random(2);
+        for (int round = 0; round < ROUNDS; round++) {
+            BitSet a = new BitSet();
+            BitSet b = new BitSet();
+            RoaringBitmap left = randomBitmap(random, a);
+            RoaringBitmap right = randomBitmap(random, b);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            BitSet andNot = (BitSet) a.clone();
+            andNot.andNot(b);
+            assertMatches(and, RoaringBitmap.and(left, right));
+            assertMatches(or, RoaringBitmap.or(left, right));
+            assertMatches(andNot, RoaringBitmap.andNot(left, right));
+
+            RoaringBitmap orInPlace = left.copy();
+            orInPlace.orInPlace(right);
+            assertMatches(or, orInPlace);
+            RoaringBitmap andNotInPlace = left.copy();
+            andNotInPlace.andNotInPlace(right);
+            assertMatches(andNot, andNotInPlace);
+
+            // The operands are left as they were
+            assertMatches(a, left);
+            assertMatches(b, right);
+        }
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        RoaringBitmap original = new RoaringBitmap();
+        for (int value = 0; value < 5000; value++) {
+            original.add(value * 3);
+        }
+        RoaringBitmap copy = original.copy();
+        copy.add(1);
+        copy.remove(0);
+        assertTrue(original.contains(0));
+        assertFalse(original.contains(1));
+        assertEquals(5000, original.cardinality());
+    }
+
+    @Test
+    public void negativeValuesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap().add(-1));
+    }
+
+    /**
+     * Draws a value from one of a few chunks: a dense one near 0, a sparse
+     * one, and one far from the others.
+     */
+    private static int randomValue(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(8192);
+            case 1:
+                return 65536 * 3 + random.nextInt(65536);
+            case 2:
+                return 65536 * 7 + random.nextInt(6000);
+            default:
+                return 65536 * 500 + random.nextInt(65536 * 2);
+        }
+    }
+
+    private static RoaringBitmap randomBitmap(Random random, BitSet expected) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        int count = random.nextInt(15_000);
+        for (int i = 0; i < count; i++) {
+            int value = randomValue(random);
+            bitmap.add(value);
+            expected.set(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Checks that a bitmap holds exactly the bits of a BitSet, through
+     * cardinality, toArray and forEach.
+     */
+    private static void assertMatches(BitSet expected, RoaringBitmap actual) {
+        int[] values = expected.stream().toArray();
+        assertEquals(values.length, actual.cardinality());
+        assertEquals(values.length == 0, actual.isEmpty());
+        assertArrayEquals(values, actual.toArray());
+        int[] visited = new int[values.length];
+        int[] at = {0};
+        actual.forEach(value -> visited[at[0]++] = value);
+        assertArrayEquals(values, visited);
+    }
+}
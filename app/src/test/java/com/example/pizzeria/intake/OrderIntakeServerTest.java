@@ -0,0 +1,231 @@
+package com.example.pizzeria.intake;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.store.OrderStores;
+import com.example.pizzeria.store.StorePartition;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests OrderIntakeServer over a loopback socket: keep-alive, pipelined
+ * orders placed as one batch, rejected requests and the health check.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderIntakeServerTest {
+
+    private static final String TOKEN = "s3cret-token";
+    private static final String DELUXE = "DELUXE CHICAGO LARGE DEEP_DISH 2\n";
+    private static final String CUSTOM = "BUILD_YOUR_OWN NY SMALL HAND_TOSSED 1 HAM ONION\n";
+
+    private StorePartition store;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private volatile boolean placerFails;
+    private OrderIntakeServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        store = StorePartition.detached(OrderStores.DEFAULT_STORE_ID);
+        server = new OrderIntakeServer(store, (orders, onRejected) -> {
+            if (placerFails) {
+                throw new IllegalStateException("Store unavailable");
+            }
+            batchSizes.add(orders.size());
+            return store.placeOrders(orders, onRejected);
+        }, InetAddress.getLoopbackAddress(), 0, TOKEN);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    public void healthAnswersOk() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, request("GET", "/health", TOKEN, null, false));
+            assertEquals("200 OK|OK", readReply(socket.getInputStream()));
+        }
+    }
+
+    @Test
+    public void requestWithoutTheTokenIsRefused() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, request("POST", "/orders", null, DELUXE, false)
+                    + request("POST", "/orders", "wrong", DELUXE, false));
+            assertEquals("401 Unauthorized|Missing or wrong token", readReply(socket.getInputStream()));
+            assertEquals("401 Unauthorized|Missing or wrong token", readReply(socket.getInputStream()));
+        }
+        assertEquals(0, store.getAggregates().getOrderCount());
+    }
+
+    @Test
+    public void keepAliveServesRequestsOneAfterAnother() throws IOException {
+        try (Socket socket = connect()) {
+            InputStream in = socket.getInputStream();
+            send(socket, request("POST", "/orders", TOKEN, DELUXE, false));
+            String first = readReply(in);
+            send(socket, request("POST", "/orders", TOKEN, CUSTOM, false));
+            String second = readReply(in);
+            send(socket, request("GET", "/health", TOKEN, null, false));
+            assertEquals("200 OK|OK", readReply(in));
+
+            assertEquals("201 Created", first.substring(0, first.indexOf('|')));
+            assertEquals("201 Created", second.substring(0, second.indexOf('|')));
+            assertNotEquals(first, second);
+        }
+        assertEquals(2, store.getAggregates().getOrderCount());
+        assertEquals(3, store.getAggregates().getPizzaCount());
+    }
+
+    @Test
+    public void pipelinedOrdersArePlacedTogetherAndAnsweredInOrder() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, request("POST", "/orders", TOKEN, DELUXE, false)
+                    + request("POST", "/orders", TOKEN, "DELUXE CHICAGO LARGE THIN 1\n", false)
+                    + request("POST", "/orders", TOKEN, CUSTOM, false)
+                    + request("GET", "/health", TOKEN, null, true));
+            InputStream in = socket.getInputStream();
+            List<String> replies = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                replies.add(readReply(in));
+            }
+            List<Order> placed = store.getPlacedOrders();
+            assertEquals(2, placed.size());
+            assertEquals("201 Created|" + placed.get(0).getOrderNumber(), replies.get(0));
+            assertEquals("400 Bad Request|The crust is not offered for this pizza type and style", replies.get(1));
+            assertEquals("201 Created|" + placed.get(1).getOrderNumber(), replies.get(2));
+            assertEquals("200 OK|OK", replies.get(3));
+            assertEquals(-1, in.read()); // Closed as the last request asked
+        }
+        assertEquals(List.of(2), batchSizes);
+    }
+
+    @Test
+    public void malformedRequestIsRefusedAndClosed() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, "PIZZA PLEASE\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            assertEquals("400 Bad Request|Malformed request", readReply(in));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void orderOutOfStockIsRefused() throws IOException {
+        store.getInventory().setStock(Crust.DEEP_DISH, 0);
+        try (Socket socket = connect()) {
+            send(socket, request("POST", "/orders", TOKEN, DELUXE, false));
+            assertEquals("409 Conflict|Some ingredients are out of stock", readReply(socket.getInputStream()));
+        }
+        assertEquals(0, store.getAggregates().getOrderCount());
+    }
+
+    @Test
+    public void failedRequestClosesOnlyItsConnection() throws IOException {
+        try (Socket healthy = connect(); Socket failing = connect()) {
+            placerFails = true;
+            send(failing, request("POST", "/orders", TOKEN, DELUXE, false));
+            InputStream in = failing.getInputStream();
+            assertEquals("500 Internal Server Error|The request failed", readReply(in));
+            assertEquals(-1, in.read());
+
+            placerFails = false;
+            send(healthy, request("POST", "/orders", TOKEN, DELUXE, false));
+            String reply = readReply(healthy.getInputStream());
+            assertEquals("201 Created", reply.substring(0, reply.indexOf('|')));
+        }
+        assertEquals(1, store.getAggregates().getOrderCount());
+    }
+
+    @Test
+    public void tokenMustBePrintable() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderIntakeServer(store, store::placeOrders,
+                InetAddress.getLoopbackAddress(), 0, "two words"));
+        assertThrows(IllegalArgumentException.class, () -> new OrderIntakeServer(store, store::placeOrders,
+                InetAddress.getLoopbackAddress(), 0, ""));
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String requests) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(requests.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static String request(String method, String path, String token, String body, boolean close) {
+        StringBuilder request = new StringBuilder(method).append(' ').append(path).append(" HTTP/1.1\r\n");
+        if (token != null) {
+            request.append("Authorization: Bearer ").append(token).append("\r\n");
+        }
+        if (close) {
+            request.append("Connection: close\r\n");
+        }
+        if (body != null) {
+            request.append(String.format(Locale.US, "Content-Length: %d\r\n", body.length()));
+        }
+        return request.append("\r\n").append(body != null ? body : "").toString();
+    }
+
+    /**
+     * Reads one reply and returns its status and body, without the body's
+     * trailing newline, as "status|body".
+     */
+    private static String readReply(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int contentLength = 0;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            if (header.toLowerCase(Locale.US).startsWith("content-length:")) {
+                contentLength = Integer.parseInt(header.substring("content-length:".length()).trim());
+            }
+        }
+        byte[] body = new byte[contentLength];
+        for (int read = 0; read < contentLength; ) {
+            int n = in.read(body, read, contentLength - read);
+            if (n < 0) {
+                throw new IOException("Reply cut short");
+            }
+            read += n;
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        return statusLine.substring("HTTP/1.1 ".length()) + "|" + text.trim();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) {
+                throw new IOException("Connection closed");
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.US_ASCII.name());
+    }
+}
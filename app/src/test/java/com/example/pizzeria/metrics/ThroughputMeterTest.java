@@ -0,0 +1,102 @@
+package com.example.pizzeria.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for ThroughputMeter and ThroughputWindow: buckets reused
+ * after the rings wrap around, slots left stale by an idle gap, placements
+ * recorded late with a timestamp older than the window, and the rates a
+ * window derives from its totals.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class ThroughputMeterTest {
+
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long START = 1_700_000_000_000L / HOUR * HOUR;
+
+    @Test
+    public void bucketIsReusedWhenTheRingWrapsAround() {
+        ThroughputMeter meter = new ThroughputMeter("test");
+        meter.record(START, 1000, 1);
+        meter.record(START + 30 * MINUTE, 2000, 2);
+        // Lands in the same per-second slot as the first placement
+        meter.record(START + HOUR, 4000, 4);
+
+        assertWindow(meter.window(SECOND, START + HOUR), 1, 4000, 4);
+        assertWindow(meter.window(HOUR, START + HOUR), 2, 6000, 6);
+        assertWindow(meter.window(2 * HOUR, START + HOUR), 3, 7000, 7);
+
+        // The per-minute ring still holds the first placement 23 hours on, and reuses its slot a day on
+        meter.record(START + 23 * HOUR, 8000, 8);
+        assertWindow(meter.window(ThroughputMeter.MINUTE_RING_MILLIS, START + 23 * HOUR), 4, 15_000, 15);
+        meter.record(START + 24 * HOUR, 16_000, 16);
+        assertWindow(meter.window(ThroughputMeter.MINUTE_RING_MILLIS, START + 24 * HOUR), 4, 30_000, 30);
+    }
+
+    @Test
+    public void staleBucketsAreResetAfterAnIdleGap() {
+        ThroughputMeter meter = new ThroughputMeter("test");
+        for (int i = 0; i < 5; i++) {
+            meter.record(START + i * SECOND, 1000, 1);
+        }
+        // Idle for two hours, so the per-second ring went round twice without a placement
+        long later = START + 2 * HOUR;
+        meter.record(later, 500, 2);
+
+        assertWindow(meter.window(SECOND, later), 1, 500, 2);
+        assertWindow(meter.window(5 * SECOND, later + 4 * SECOND), 1, 500, 2);
+        assertWindow(meter.window(HOUR, later + 4 * SECOND), 1, 500, 2);
+        assertWindow(meter.window(3 * HOUR, later), 6, 5500, 7);
+
+        // A window ending in the gap holds nothing, whatever its slots still hold
+        assertWindow(meter.window(HOUR, START + 2 * HOUR - SECOND), 0, 0, 0);
+        assertWindow(meter.window(5 * SECOND, START + 3 * HOUR + 4 * SECOND), 0, 0, 0);
+    }
+
+    @Test
+    public void placementOlderThanTheWindowIsLeftOut() {
+        ThroughputMeter meter = new ThroughputMeter("test");
+        long now = START + 10 * HOUR;
+        meter.record(now, 1000, 1);
+        // Recorded late: its per-second slot holds a newer bucket, so only the per-minute ring takes it
+        meter.record(now - 2 * HOUR, 2000, 2);
+        // Its per-second slot is free, but it is older than any window that ring answers
+        meter.record(now - 90 * MINUTE, 4000, 4);
+        // Older than a day, and its per-minute slot holds a newer bucket
+        meter.record(now - 24 * HOUR, 8000, 8);
+
+        assertWindow(meter.window(HOUR, now), 1, 1000, 1);
+        assertWindow(meter.window(3 * HOUR, now), 3, 7000, 7);
+        assertWindow(meter.window(ThroughputMeter.MINUTE_RING_MILLIS, now), 3, 7000, 7);
+    }
+
+    @Test
+    public void windowIsRoundedToWholeBuckets() {
+        ThroughputMeter meter = new ThroughputMeter("test");
+        meter.record(START, 3000, 2);
+        meter.record(START + 1500, 3000, 1);
+
+        ThroughputWindow window = meter.window(1500, START + 1500);
+        assertEquals(2 * SECOND, window.getWindowMillis());
+        assertEquals(60.0, window.getOrdersPerMinute(), 1e-9);
+        assertEquals(90.0, window.getPizzasPerMinute(), 1e-9);
+        assertEquals(60 * 60 * 30.0, window.getRevenuePerHour(), 1e-9);
+        assertEquals(61 * MINUTE, meter.window(HOUR + 1, START + 1500).getWindowMillis());
+
+        assertThrows(IllegalArgumentException.class, () -> meter.window(0, START));
+        assertThrows(IllegalArgumentException.class,
+                () -> meter.window(ThroughputMeter.MINUTE_RING_MILLIS + 1, START));
+    }
+
+    private static void assertWindow(ThroughputWindow window, long orders, long cents, long pizzas) {
+        assertEquals(orders, window.getOrders());
+        assertEquals(cents, window.getCents());
+        assertEquals(pizzas, window.getPizzas());
+    }
+}
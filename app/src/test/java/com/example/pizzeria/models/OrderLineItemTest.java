@@ -0,0 +1,172 @@
+package com.example.pizzeria.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Unit tests for how Order keeps pizzas as line items: merging identical
+ * pizzas, changing quantities and keeping lines apart from the pizzas
+ * they were made from.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderLineItemTest {
+
+    private static final String STYLE = "New York Style";
+
+    @Test
+    public void identicalPizzasShareALine() {
+        Order order = new Order(1, 1);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE));
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE), 2);
+
+        assertEquals(1, order.getLineItems().size());
+        assertEquals(3, order.getLineItems().get(0).getQuantity());
+        assertEquals(3, order.getPizzaCount());
+        assertEquals(3, order.getPizzas().size());
+    }
+
+    @Test
+    public void toppingOrderDoesNotSplitLines() {
+        Order order = new Order(1, 1);
+        order.addPizza(buildYourOwn(Topping.HAM, Topping.PINEAPPLE));
+        order.addPizza(buildYourOwn(Topping.PINEAPPLE, Topping.HAM));
+        assertEquals(1, order.getLineItems().size());
+        assertEquals(2, order.getPizzaCount());
+    }
+
+    @Test
+    public void differentConfigurationsGetTheirOwnLines() {
+        Order order = new Order(1, 1);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE));
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.SMALL, STYLE));
+        order.addPizza(PizzaType.DELUXE.create(Crust.PAN, Size.LARGE, "Chicago Style"));
+        assertEquals(3, order.getLineItems().size());
+    }
+
+    @Test
+    public void changingAnAddedPizzaDoesNotChangeTheOrder() {
+        Order order = new Order(1, 1);
+        Pizza pizza = buildYourOwn(Topping.HAM);
+        order.addPizza(pizza);
+        long total = order.calculateTotalCents();
+
+        pizza.addTopping(Topping.OLIVE);
+        pizza.setSize(Size.LARGE);
+        LineItem line = order.getLineItems().get(0);
+        assertNotSame(pizza, line.getPizza());
+        assertEquals(Topping.HAM.mask(), line.getPizza().getToppingMask());
+        assertEquals(Size.MEDIUM, line.getPizza().getSize());
+        assertSame(PizzaSpecs.of(line.getPizza()), line.getSpec());
+        assertEquals(total, order.calculateTotalCents());
+
+        // The changed pizza is now another configuration
+        order.addPizza(pizza);
+        assertEquals(2, order.getLineItems().size());
+        assertEquals(1, order.getLineItems().get(0).getQuantity());
+    }
+
+    @Test
+    public void quantityChangesFollowTheLine() {
+        Order order = new Order(1, 1);
+        Pizza pizza = PizzaType.MEATZZA.create(Crust.HAND_TOSSED, Size.MEDIUM, STYLE);
+        order.addPizza(pizza);
+        long unitCents = order.calculateTotalCents();
+
+        assertEquals(2, order.incrementQuantity(pizza));
+        assertTrue(order.setQuantity(pizza, 5));
+        assertEquals(5, order.getPizzaCount());
+        assertEquals(5 * unitCents, order.calculateTotalCents());
+
+        assertEquals(4, order.decrementQuantity(pizza));
+        order.removePizza(pizza);
+        assertEquals(3, order.getLineItems().get(0).getQuantity());
+
+        assertTrue(order.setQuantity(pizza, 0));
+        assertTrue(order.isEmpty());
+        assertEquals(0, order.decrementQuantity(pizza));
+        assertFalse(order.setQuantity(pizza, 2));
+    }
+
+    @Test
+    public void lineQuantityChangeKeepsItsPizza() {
+        LineItem line = new LineItem(PizzaType.BBQ_CHICKEN.create(Crust.THIN, Size.SMALL, STYLE), 1);
+        LineItem more = line.withQuantity(4);
+        assertSame(line.getPizza(), more.getPizza());
+        assertSame(line.getSpec(), more.getSpec());
+        assertEquals(4, more.getQuantity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantityMustBePositive() {
+        new Order(1, 1).addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE), 0);
+    }
+
+    @Test
+    public void removingTheLastPizzaDropsTheLine() {
+        Order order = new Order(1, 1);
+        Pizza pizza = PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE);
+        order.addPizza(pizza);
+        order.addPizza(PizzaType.MEATZZA.create(Crust.HAND_TOSSED, Size.MEDIUM, STYLE));
+        order.removePizza(pizza);
+        List<LineItem> lines = order.getLineItems();
+        assertEquals(1, lines.size());
+        assertEquals(PizzaType.MEATZZA, lines.get(0).getPizza().getPizzaType());
+    }
+
+    @Test
+    public void copyKeepsItsOwnLines() {
+        Order order = new Order(1, 7);
+        order.addPizza(buildYourOwn(Topping.HAM), 2);
+        Order copy = order.copy();
+        order.addPizza(buildYourOwn(Topping.PINEAPPLE));
+        copy.incrementQuantity(buildYourOwn(Topping.HAM));
+
+        assertEquals(7, copy.getOrderNumber());
+        assertEquals(1, copy.getLineItems().size());
+        assertEquals(3, copy.getPizzaCount());
+        assertEquals(2, order.getLineItems().get(0).getQuantity());
+        assertNotSame(order.getLineItems().get(0).getPizza(), copy.getLineItems().get(0).getPizza());
+    }
+
+    @Test
+    public void linesArePricedAgainstTheOrdersCatalog() throws IOException {
+        Order order = new Order(1, 1);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE), 2);
+        LineItem line = order.getLineItems().get(0);
+        MenuCatalog repriced = MenuCatalog.fromSnapshot(MenuCatalogCompiler.compile(new StringReader(
+                "version 99\n"
+                        + "base DELUXE 100 200 300\n"
+                        + "base MEATZZA 100 200 300\n"
+                        + "base BBQ_CHICKEN 100 200 300\n"
+                        + "base BUILD_YOUR_OWN 100 200 300\n"
+                        + "crust DELUXE DEEP_DISH BROOKLYN\n"
+                        + "crust MEATZZA STUFFED HAND_TOSSED\n"
+                        + "crust BBQ_CHICKEN PAN THIN\n"
+                        + "crust BUILD_YOUR_OWN PAN HAND_TOSSED\n")));
+
+        String pinned = line.toString(order.getCatalog());
+        assertTrue(pinned, pinned.startsWith("2 x Deluxe (New York Style), LARGE BROOKLYN, Toppings: "));
+        assertTrue(pinned, pinned.endsWith("| Price: $20.99"));
+        assertTrue(line.toString(repriced).endsWith("| Price: $3.00"));
+        assertTrue(order.toString().contains("| Price: $20.99]"));
+        assertEquals(3.0, line.getPizza().price(repriced), 0.0);
+    }
+
+    private static Pizza buildYourOwn(Topping... toppings) {
+        Pizza pizza = PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, Size.MEDIUM, STYLE);
+        for (Topping topping : toppings) {
+            pizza.addTopping(topping);
+        }
+        return pizza;
+    }
+}
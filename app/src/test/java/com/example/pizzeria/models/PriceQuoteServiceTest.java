@@ -0,0 +1,93 @@
+package com.example.pizzeria.models;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for PriceQuoteService: with the built-in catalog, every quote
+ * equals the price the Pizza subclasses used to compute, a fixed price per
+ * size for the presets and a base price plus $1.69 per topping for Build
+ * Your Own, for every type, style and size.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class PriceQuoteServiceTest {
+
+    private static final int MASKS = 1 << Topping.values().length;
+    private static final int MAX_TOPPINGS = 7;   // The most a Build Your Own pizza may have
+    private static final int SAMPLED_MASKS = 2000;
+
+    @Test
+    public void quotesMatchTheOriginalFormula() {
+        PriceQuoteService quotes = PriceQuoteService.getInstance();
+        Random random = new Random(4);
+        for (PizzaType type : PizzaType.values()) {
+            for (int style : new int[] {PriceQuoteService.CHICAGO, PriceQuoteService.NEW_YORK}) {
+                for (Size size : Size.values()) {
+                    // Every mask a pizza may have, and a random sample of the larger ones
+                    for (int mask = 0; mask < MASKS; mask++) {
+                        if (Integer.bitCount(mask) <= MAX_TOPPINGS || random.nextInt(MASKS) < SAMPLED_MASKS) {
+                            assertEquals(type + " " + size + " " + Integer.toBinaryString(mask),
+                                    originalCents(type, size, Integer.bitCount(mask)),
+                                    quotes.quoteCents(type, style, size, mask));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pizzaQuotesMatchTheOriginalFormula() {
+        PriceQuoteService quotes = PriceQuoteService.getInstance();
+        for (Size size : Size.values()) {
+            Pizza custom = PizzaType.BUILD_YOUR_OWN.create(Crust.PAN, size, "Chicago Style");
+            custom.addTopping(Topping.HAM);
+            custom.addTopping(Topping.ONION);
+            custom.addTopping(Topping.MUSHROOM);
+            assertEquals(originalCents(PizzaType.BUILD_YOUR_OWN, size, 3), quotes.quoteCents(custom));
+            assertEquals(originalCents(PizzaType.BUILD_YOUR_OWN, size, 3),
+                    quotes.quoteCents(custom, MenuCatalogs.current()));
+
+            Pizza deluxe = PizzaType.DELUXE.create(Crust.BROOKLYN, size, "New York Style");
+            assertEquals(originalCents(PizzaType.DELUXE, size, deluxe.getToppingCount()), quotes.quoteCents(deluxe));
+        }
+    }
+
+    /**
+     * Prices a pizza the way Deluxe, Meatzza, BBQChicken and BuildYourOwn
+     * did before prices came from the menu catalog.
+     */
+    private static int originalCents(PizzaType type, Size size, int toppings) {
+        double price;
+        switch (type) {
+            case DELUXE:
+                price = pick(size, 16.99, 18.99, 20.99);
+                break;
+            case MEATZZA:
+                price = pick(size, 17.99, 19.99, 21.99);
+                break;
+            case BBQ_CHICKEN:
+                price = pick(size, 14.99, 16.99, 19.99);
+                break;
+            default:
+                price = pick(size, 8.99, 10.99, 12.99) + toppings * 1.69;
+                break;
+        }
+        return (int) Math.round(price * 100);
+    }
+
+    private static double pick(Size size, double small, double medium, double large) {
+        switch (size) {
+            case SMALL:
+                return small;
+            case MEDIUM:
+                return medium;
+            default:
+                return large;
+        }
+    }
+}
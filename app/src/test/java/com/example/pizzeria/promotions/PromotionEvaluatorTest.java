@@ -0,0 +1,124 @@
+package com.example.pizzeria.promotions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for PromotionIndex and PromotionEvaluator, with no rules and
+ * with rules competing for the same pizzas.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class PromotionEvaluatorTest {
+
+    private static final PromotionRule DELUXE_DUO = new PromotionRule("Deluxe Duo", 500,
+            new PromotionRule.Requirement(PizzaType.DELUXE, Size.LARGE, 0, 0, 2));
+    private static final PromotionRule ANY_LARGE = new PromotionRule("Any Large", 200,
+            new PromotionRule.Requirement(null, Size.LARGE, 0, 0, 1));
+    private static final PromotionRule LARGE_PAIR = new PromotionRule("Large Pair", 600,
+            new PromotionRule.Requirement(null, Size.LARGE, 0, 0, 2));
+
+    @Test
+    public void emptyIndexHasNoRules() {
+        assertEquals(0, PromotionIndex.EMPTY.getRuleCount());
+        assertEquals(0, PromotionIndex.EMPTY.getRequirementCount());
+    }
+
+    @Test
+    public void noRulesGiveNoDiscount() {
+        PromotionEvaluator evaluator = new PromotionEvaluator(PromotionIndex.EMPTY);
+        evaluator.add(deluxe(Size.LARGE), 3);
+        assertEquals(0L, evaluator.getDiscountCents());
+        assertTrue(evaluator.getAppliedPromotions().isEmpty());
+    }
+
+    @Test
+    public void orderAcceptsPizzasWithNoPromotionsInstalled() {
+        Order order = new Order(1, 1);
+        order.addPizza(deluxe(Size.LARGE));
+        order.addPizza(deluxe(Size.SMALL), 2);
+        assertEquals(3, order.getPizzaCount());
+        assertEquals(0.0, order.getDiscount(), 0.0);
+    }
+
+    @Test
+    public void indexOrdersRulesByDiscount() {
+        PromotionIndex index = new PromotionIndex(Arrays.asList(ANY_LARGE, LARGE_PAIR, DELUXE_DUO));
+        assertEquals(3, index.getRuleCount());
+        assertEquals(LARGE_PAIR, index.getRule(0));
+        assertEquals(DELUXE_DUO, index.getRule(1));
+        assertEquals(ANY_LARGE, index.getRule(2));
+    }
+
+    @Test
+    public void overlappingRulesEachClaimDifferentPizzas() {
+        PromotionEvaluator evaluator = new PromotionEvaluator(
+                new PromotionIndex(Arrays.asList(DELUXE_DUO, ANY_LARGE)));
+        evaluator.add(deluxe(Size.LARGE), 3);
+        // The duo claims two pizzas, leaving one for the single-pizza rule
+        assertEquals(700L, evaluator.getDiscountCents());
+        assertEquals(Arrays.asList(DELUXE_DUO, ANY_LARGE), evaluator.getAppliedPromotions());
+    }
+
+    @Test
+    public void higherDiscountClaimsSharedPizzasFirst() {
+        PromotionEvaluator evaluator = new PromotionEvaluator(
+                new PromotionIndex(Arrays.asList(DELUXE_DUO, LARGE_PAIR)));
+        Pizza large = deluxe(Size.LARGE);
+        evaluator.add(large, 2);
+        assertEquals(Collections.singletonList(LARGE_PAIR), evaluator.getAppliedPromotions());
+        assertEquals(600L, evaluator.getDiscountCents());
+
+        evaluator.add(large, 2);
+        assertEquals(1200L, evaluator.getDiscountCents());
+    }
+
+    @Test
+    public void removingPizzasWithdrawsTheDiscount() {
+        PromotionEvaluator evaluator = new PromotionEvaluator(
+                new PromotionIndex(Arrays.asList(DELUXE_DUO, ANY_LARGE)));
+        Pizza large = deluxe(Size.LARGE);
+        evaluator.add(large, 2);
+        assertEquals(500L, evaluator.getDiscountCents());
+
+        evaluator.remove(large, 1);
+        assertEquals(Collections.singletonList(ANY_LARGE), evaluator.getAppliedPromotions());
+        evaluator.remove(large, 1);
+        assertEquals(0L, evaluator.getDiscountCents());
+    }
+
+    @Test
+    public void toppingRequirementsOnlyMatchPizzasWithThoseToppings() {
+        List<Topping> required = Arrays.asList(Topping.PINEAPPLE, Topping.HAM);
+        PromotionRule hawaiian = new PromotionRule("Hawaiian", 300,
+                new PromotionRule.Requirement(null, null, Topping.maskOf(required), 0, 1));
+        PromotionEvaluator evaluator = new PromotionEvaluator(
+                new PromotionIndex(Collections.singletonList(hawaiian)));
+        Pizza plain = PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, Size.MEDIUM, "New York Style");
+        evaluator.add(plain);
+        assertEquals(0L, evaluator.getDiscountCents());
+
+        Pizza withToppings = PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, Size.MEDIUM, "New York Style");
+        withToppings.addTopping(Topping.PINEAPPLE);
+        withToppings.addTopping(Topping.HAM);
+        evaluator.add(withToppings);
+        assertEquals(300L, evaluator.getDiscountCents());
+    }
+
+    private static Pizza deluxe(Size size) {
+        return PizzaType.DELUXE.create(Crust.BROOKLYN, size, "New York Style");
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.pizzeria.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for Inventory reservations: all-or-nothing reservations,
+ * terminals reserving against the same small stock at once, stock
+ * returned on cancellation and the bound on reservations kept.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class InventoryTest {
+
+    private static final int STORE = 1;
+    private static final String STYLE = "New York Style";
+
+    @Test
+    public void rejectedOrderReturnsEverythingItTook() {
+        Inventory inventory = new Inventory();
+        inventory.setStock(Topping.HAM, 5);
+        inventory.setStock(Crust.HAND_TOSSED, 1);
+        Order order = hamOrder(1, 2);   // Ham is taken before the crust runs short
+
+        assertThrows(IllegalStateException.class, () -> inventory.reserve(order));
+        assertEquals(5, inventory.getStock(Topping.HAM));
+        assertEquals(1, inventory.getStock(Crust.HAND_TOSSED));
+        inventory.release(order);
+        assertEquals(5, inventory.getStock(Topping.HAM));
+    }
+
+    @Test
+    public void untrackedIngredientsNeverRunOut() {
+        Inventory inventory = new Inventory();
+        inventory.setStock(Crust.HAND_TOSSED, 3);
+        inventory.reserve(hamOrder(1, 3));
+        assertEquals(0, inventory.getStock(Crust.HAND_TOSSED));
+        assertEquals(Inventory.UNTRACKED, inventory.getStock(Topping.HAM));
+    }
+
+    @Test
+    public void concurrentReservationsNeverOversell() throws Exception {
+        int crusts = 25;
+        int ham = 40;
+        Inventory inventory = new Inventory();
+        inventory.setStock(Crust.HAND_TOSSED, crusts);
+        inventory.setStock(Topping.HAM, ham);
+
+        int threads = 4;
+        AtomicInteger orderNumbers = new AtomicInteger();
+        AtomicInteger pizzasReserved = new AtomicInteger();
+        List<List<Order>> reserved = new ArrayList<>();
+        List<Thread> terminals = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            List<Order> mine = new ArrayList<>();
+            reserved.add(mine);
+            terminals.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    int quantity = 1 + i % 3;
+                    Order order = hamOrder(orderNumbers.incrementAndGet(), quantity);
+                    try {
+                        inventory.reserve(order);
+                        mine.add(order);
+                        pizzasReserved.addAndGet(quantity);
+                    } catch (IllegalStateException e) {
+                        // Out of crusts: the ham it took must be back
+                    }
+                }
+            }));
+        }
+        for (Thread terminal : terminals) {
+            terminal.start();
+        }
+        start.countDown();
+        for (Thread terminal : terminals) {
+            terminal.join();
+        }
+
+        int pizzas = pizzasReserved.get();
+        assertTrue(pizzas + " pizzas reserved from " + crusts + " crusts", pizzas <= crusts);
+        assertEquals(crusts - pizzas, inventory.getStock(Crust.HAND_TOSSED));
+        assertEquals(ham - pizzas, inventory.getStock(Topping.HAM));
+
+        for (List<Order> orders : reserved) {
+            for (Order order : orders) {
+                inventory.release(order);
+            }
+        }
+        assertEquals(crusts, inventory.getStock(Crust.HAND_TOSSED));
+        assertEquals(ham, inventory.getStock(Topping.HAM));
+    }
+
+    @Test
+    public void cancelingAnOrderReturnsItsStock() {
+        StorePartition store = StorePartition.detached(STORE);
+        store.getInventory().setStock(Crust.HAND_TOSSED, 10);
+        store.getInventory().setStock(Topping.HAM, 10);
+        Order order = hamOrder(store.nextOrderNumber(), 3);
+        store.addPlacedOrder(order);
+        assertEquals(7, store.getInventory().getStock(Crust.HAND_TOSSED));
+
+        assertTrue(store.cancelOrder(order.getOrderNumber()));
+        assertEquals(10, store.getInventory().getStock(Crust.HAND_TOSSED));
+        assertEquals(10, store.getInventory().getStock(Topping.HAM));
+        assertFalse(store.cancelOrder(order.getOrderNumber()));
+        assertEquals(10, store.getInventory().getStock(Crust.HAND_TOSSED));
+    }
+
+    @Test
+    public void anotherOrderWithTheSameNumberCannotTakeOrReturnTheReservation() {
+        Inventory inventory = new Inventory();
+        inventory.setStock(Crust.HAND_TOSSED, 10);
+        Order order = hamOrder(1, 2);
+        Order sameNumber = hamOrder(1, 3);
+        inventory.reserve(order);
+
+        assertThrows(IllegalStateException.class, () -> inventory.reserve(sameNumber));
+        inventory.release(sameNumber);
+        assertEquals(8, inventory.getStock(Crust.HAND_TOSSED));
+        inventory.release(order);
+        assertEquals(10, inventory.getStock(Crust.HAND_TOSSED));
+    }
+
+    @Test
+    public void onlyTheMostRecentReservationsAreKept() {
+        Inventory inventory = new Inventory();
+        int orders = Inventory.RESERVATIONS_KEPT + 10;
+        inventory.setStock(Crust.HAND_TOSSED, orders);
+        List<Order> placed = new ArrayList<>();
+        for (int number = 1; number <= orders; number++) {
+            Order order = hamOrder(number, 1);
+            inventory.reserve(order);
+            placed.add(order);
+        }
+        assertEquals(0, inventory.getStock(Crust.HAND_TOSSED));
+
+        // The oldest orders are forgotten; canceling them returns nothing
+        for (Order order : placed) {
+            inventory.release(order);
+        }
+        assertEquals(Inventory.RESERVATIONS_KEPT, inventory.getStock(Crust.HAND_TOSSED));
+    }
+
+    /**
+     * Creates an order of hand-tossed ham pizzas.
+     */
+    private static Order hamOrder(int orderNumber, int quantity) {
+        Pizza pizza = PizzaType.BUILD_YOUR_OWN.create(Crust.HAND_TOSSED, Size.MEDIUM, STYLE);
+        pizza.addTopping(Topping.HAM);
+        Order order = new Order(STORE, orderNumber);
+        order.addPizza(pizza, quantity);
+        return order;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.pizzeria.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.LineItem;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.Pizza;
+import com.example.pizzeria.models.PizzaSpec;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+import com.example.pizzeria.models.Topping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Unit tests for OrderCodec: orders and spec tables survive a round trip,
+ * including styles stored as UTF-8, and damaged data is rejected.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderCodecTest {
+
+    private static final int STORE = 1;
+
+    @Test
+    public void orderSurvivesARoundTrip() {
+        Order order = new Order(STORE, 42);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, "New York Style"), 3);
+        Pizza custom = PizzaType.BUILD_YOUR_OWN.create(Crust.PAN, Size.SMALL, "Sicilian");
+        custom.addTopping(Topping.HAM);
+        custom.addTopping(Topping.PINEAPPLE);
+        order.addPizza(custom);
+        order.markPlaced(1_700_000_000_123L);
+
+        Order decoded = roundTrip(order);
+        assertEquals(STORE, decoded.getStoreId());
+        assertEquals(42, decoded.getOrderNumber());
+        assertEquals(1_700_000_000_123L, decoded.getPlacedAtMillis());
+        List<LineItem> lines = decoded.getLineItems();
+        assertEquals(2, lines.size());
+        assertSame(order.getLineItems().get(0).getSpec(), lines.get(0).getSpec());
+        assertEquals(3, lines.get(0).getQuantity());
+        assertSame(order.getLineItems().get(1).getSpec(), lines.get(1).getSpec());
+        assertEquals("Sicilian", lines.get(1).getPizza().getStyle());
+        assertEquals(order.calculateTotalCents(), decoded.calculateTotalCents());
+    }
+
+    @Test
+    public void cartIsDecodedUnplaced() {
+        Order cart = new Order(STORE, 7);
+        cart.addPizza(PizzaType.MEATZZA.create(Crust.STUFFED, Size.MEDIUM, "Chicago Style"));
+        Order decoded = roundTrip(cart);
+        assertFalse(decoded.isPlaced());
+        assertEquals(1, decoded.getPizzaCount());
+    }
+
+    @Test
+    public void unknownSpecIsRejected() {
+        Order order = new Order(STORE, 9);
+        order.addPizza(PizzaType.BBQ_CHICKEN.create(Crust.PAN, Size.SMALL, "Chicago Style"));
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        OrderCodec.encode(order, buffer);
+        buffer.flip();
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decode(buffer, new PizzaSpec[0]));
+    }
+
+    @Test
+    public void truncatedOrderIsRejected() {
+        Order order = new Order(STORE, 9);
+        order.addPizza(PizzaType.BBQ_CHICKEN.create(Crust.PAN, Size.SMALL, "Chicago Style"));
+        BitSet used = new BitSet();
+        OrderCodec.collectSpecs(order, used);
+        ByteBuffer specs = ByteBuffer.allocate(256);
+        OrderCodec.encodeSpecs(used, specs);
+        specs.flip();
+        PizzaSpec[] table = OrderCodec.decodeSpecs(specs);
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        OrderCodec.encode(order, buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 2);
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decode(buffer, table));
+    }
+
+    @Test
+    public void damagedSpecTableIsRejected() {
+        ByteBuffer negativeCount = ByteBuffer.allocate(4).putInt(0, -1);
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decodeSpecs(negativeCount));
+
+        ByteBuffer badType = ByteBuffer.allocate(32);
+        badType.putInt(1).putInt(0).put((byte) 99).put((byte) 0).put((byte) 0).put((byte) 0).putShort((short) 0);
+        badType.flip();
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decodeSpecs(badType));
+
+        ByteBuffer cutShort = ByteBuffer.allocate(6).putInt(0, 1);
+        assertThrows(IllegalArgumentException.class, () -> OrderCodec.decodeSpecs(cutShort));
+    }
+
+    /**
+     * Encodes an order with its spec table and decodes it again.
+     */
+    private static Order roundTrip(Order order) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        BitSet used = new BitSet();
+        OrderCodec.collectSpecs(order, used);
+        OrderCodec.encode(order, buffer);
+        int specsAt = buffer.position();
+        OrderCodec.encodeSpecs(used, buffer);
+        buffer.flip();
+
+        ByteBuffer specs = buffer.duplicate();
+        specs.position(specsAt);
+        PizzaSpec[] table = OrderCodec.decodeSpecs(specs);
+        Order decoded = OrderCodec.decode(buffer, table);
+        assertEquals(specsAt, buffer.position());
+        return decoded;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.pizzeria.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Unit tests for OrderNumberAllocator and FileHighWaterMark: device
+ * striping, batches that cross block boundaries and skipping past
+ * imported numbers.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class OrderNumberAllocatorTest {
+
+    @Test
+    public void singleDeviceNumbersAreConsecutive() {
+        OrderNumberAllocator allocator = new OrderNumberAllocator(HighWaterMark.inMemory(), 10, 0, 1);
+        for (int expected = 1; expected <= 35; expected++) {
+            assertEquals(expected, allocator.next());
+        }
+    }
+
+    @Test
+    public void devicesSharingARangeGetDisjointStripes() {
+        OrderNumberAllocator first = new OrderNumberAllocator(HighWaterMark.inMemory(), 10, 0, 3);
+        OrderNumberAllocator second = new OrderNumberAllocator(HighWaterMark.inMemory(), 10, 1, 3);
+        assertEquals(1, first.next());
+        assertEquals(11, second.next());
+
+        Set<Integer> issued = new HashSet<>();
+        issued.add(1);
+        issued.add(11);
+        int previousFirst = 1;
+        int previousSecond = 11;
+        for (int i = 0; i < 100; i++) {
+            int a = first.next();
+            int b = second.next();
+            assertTrue(a > previousFirst);
+            assertTrue(b > previousSecond);
+            assertTrue("Number issued twice: " + a, issued.add(a));
+            assertTrue("Number issued twice: " + b, issued.add(b));
+            // Block k of device i is global block 3k + i
+            assertEquals(0, (a - 1) / 10 % 3);
+            assertEquals(1, (b - 1) / 10 % 3);
+            previousFirst = a;
+            previousSecond = b;
+        }
+    }
+
+    @Test
+    public void batchCrossingBlocksLeasesOnce() {
+        CountingHighWaterMark marks = new CountingHighWaterMark();
+        OrderNumberAllocator allocator = new OrderNumberAllocator(marks, 10, 0, 1);
+        assertEquals(1, allocator.next());
+        assertEquals(1, marks.leases);
+
+        int[] batch = allocator.next(25);
+        assertEquals(25, batch.length);
+        for (int i = 0; i < batch.length; i++) {
+            assertEquals(2 + i, batch[i]);
+        }
+        // Nine numbers were left in the first block; the other sixteen need two blocks, leased together
+        assertEquals(2, marks.leases);
+        assertEquals(27, allocator.next());
+        assertEquals(2, marks.leases);
+    }
+
+    @Test
+    public void stripedBatchSkipsOtherDevicesBlocks() {
+        OrderNumberAllocator allocator = new OrderNumberAllocator(HighWaterMark.inMemory(), 10, 0, 2);
+        int[] batch = allocator.next(25);
+        int[] expected = new int[25];
+        for (int i = 0; i < 10; i++) {
+            expected[i] = 1 + i;
+            expected[10 + i] = 21 + i;
+        }
+        for (int i = 0; i < 5; i++) {
+            expected[20 + i] = 41 + i;
+        }
+        assertArrayEquals(expected, batch);
+        assertEquals(46, allocator.next());
+    }
+
+    @Test
+    public void emptyBatchLeasesNothing() {
+        CountingHighWaterMark marks = new CountingHighWaterMark();
+        OrderNumberAllocator allocator = new OrderNumberAllocator(marks, 10, 0, 1);
+        assertEquals(0, allocator.next(0).length);
+        assertEquals(0, marks.leases);
+    }
+
+    @Test
+    public void skipPastMovesToTheFirstBlockAboveTheNumber() {
+        OrderNumberAllocator allocator = new OrderNumberAllocator(HighWaterMark.inMemory(), 10, 0, 1);
+        assertEquals(1, allocator.next());
+        allocator.skipPast(57);
+        assertEquals(61, allocator.next());
+        // Numbers below the current block are already behind it
+        allocator.skipPast(40);
+        assertEquals(62, allocator.next());
+    }
+
+    @Test
+    public void skipPastKeepsToTheDevicesStripe() {
+        OrderNumberAllocator allocator = new OrderNumberAllocator(HighWaterMark.inMemory(), 10, 1, 2);
+        assertEquals(11, allocator.next());
+        allocator.skipPast(45);
+        // Global block 5 belongs to device 1
+        assertEquals(51, allocator.next());
+        allocator.skipPast(60);
+        assertEquals(71, allocator.next());
+    }
+
+    @Test
+    public void fileHighWaterMarkSurvivesReopening() throws IOException {
+        File file = File.createTempFile("order_numbers", ".hwm");
+        try {
+            assertTrue(file.delete());
+            FileHighWaterMark marks = new FileHighWaterMark(file);
+            assertEquals(0L, marks.next());
+            assertEquals(1L, marks.next(3));
+            marks.advanceTo(10);
+
+            FileHighWaterMark reopened = new FileHighWaterMark(file);
+            assertEquals(10L, reopened.next());
+            reopened.advanceTo(5);
+            assertEquals(11L, reopened.next());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * An in-memory high-water mark that counts how often it is asked for blocks.
+     */
+    private static final class CountingHighWaterMark implements HighWaterMark {
+        long blocks;
+        int leases;
+
+        @Override
+        public long next() {
+            return next(1);
+        }
+
+        @Override
+        public long next(int count) {
+            leases++;
+            long first = blocks;
+            blocks += count;
+            return first;
+        }
+    }
+}
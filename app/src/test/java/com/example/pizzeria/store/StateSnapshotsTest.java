@@ -0,0 +1,162 @@
+package com.example.pizzeria.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for state snapshots: a store survives a round trip, a
+ * damaged header is rejected, damaged orders are dropped from the store
+ * and its aggregates, and a store restored in the background is waited for.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class StateSnapshotsTest {
+
+    private static final int STORE = 1;
+    private static final String STYLE = "New York Style";
+
+    @Test
+    public void storeSurvivesARoundTrip() {
+        StorePartition store = storeWithOrders(3);
+        store.getCurrentOrder().addPizza(PizzaType.MEATZZA.create(Crust.HAND_TOSSED, Size.SMALL, STYLE), 2);
+
+        StorePartition restored = StorePartition.detached(STORE);
+        restored.restoreSnapshot(snapshotOf(store, 100));
+
+        assertEquals(store.getAggregates().toString(), restored.getAggregates().toString());
+        assertEquals(store.getCurrentOrder().getOrderNumber(), restored.getCurrentOrder().getOrderNumber());
+        assertEquals(2, restored.getCurrentOrder().getPizzaCount());
+        assertFalse(restored.getCurrentOrder().isPlaced());
+        List<Order> placed = store.getPlacedOrders();
+        List<Order> restoredPlaced = restored.getPlacedOrders();
+        assertEquals(placed.size(), restoredPlaced.size());
+        for (int i = 0; i < placed.size(); i++) {
+            assertEquals(placed.get(i).getOrderNumber(), restoredPlaced.get(i).getOrderNumber());
+            assertEquals(placed.get(i).getPlacedAtMillis(), restoredPlaced.get(i).getPlacedAtMillis());
+            assertEquals(placed.get(i).calculateTotalCents(), restoredPlaced.get(i).calculateTotalCents());
+        }
+    }
+
+    @Test
+    public void onlyTheMostRecentOrdersAreKept() {
+        StorePartition store = storeWithOrders(5);
+        StorePartition restored = StorePartition.detached(STORE);
+        restored.restoreSnapshot(snapshotOf(store, 2));
+
+        assertEquals(5, restored.getAggregates().getOrderCount());
+        List<Order> kept = restored.getPlacedOrders();
+        assertEquals(2, kept.size());
+        assertEquals(store.getPlacedOrders().get(4).getOrderNumber(), kept.get(1).getOrderNumber());
+    }
+
+    @Test
+    public void damagedHeaderRestoresNothing() {
+        StorePartition store = storeWithOrders(2);
+        ByteBuffer snapshot = snapshotOf(store, 100);
+        snapshot.put(20, (byte) (snapshot.get(20) ^ 1));  // Inside the aggregates
+
+        StorePartition restored = StorePartition.detached(STORE);
+        assertThrows(IllegalArgumentException.class, () -> restored.restoreSnapshot(snapshot));
+        assertEquals(0, restored.getAggregates().getOrderCount());
+        assertTrue(restored.getPlacedOrders().isEmpty());
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected() {
+        ByteBuffer snapshot = snapshotOf(storeWithOrders(2), 100);
+        for (int limit : new int[] {0, 10, 100, snapshot.limit() / 2}) {
+            ByteBuffer cut = snapshot.duplicate();
+            cut.limit(limit);
+            assertThrows(IllegalArgumentException.class, () -> StorePartition.detached(STORE).restoreSnapshot(cut));
+        }
+    }
+
+    @Test
+    public void snapshotOfAnotherStoreIsRejected() {
+        ByteBuffer snapshot = snapshotOf(storeWithOrders(1), 100);
+        assertThrows(IllegalArgumentException.class, () -> StorePartition.detached(STORE + 1).restoreSnapshot(snapshot));
+    }
+
+    @Test
+    public void damagedOrdersAreDroppedFromTheAggregates() {
+        StorePartition store = storeWithOrders(4);
+        ByteBuffer snapshot = snapshotOf(store, 3);
+        int lastOrderByte = snapshot.limit() - Integer.BYTES - 1;
+        snapshot.put(lastOrderByte, (byte) (snapshot.get(lastOrderByte) ^ 1));
+
+        StorePartition restored = StorePartition.detached(STORE);
+        restored.restoreSnapshot(snapshot);
+        // The header is intact, so the cart and aggregates come back at once
+        assertEquals(4, restored.getAggregates().getOrderCount());
+
+        assertTrue(restored.getPlacedOrders().isEmpty());
+        // Only the order that was not in the snapshot is still counted
+        Order oldest = store.getPlacedOrders().get(0);
+        assertEquals(1, restored.getAggregates().getOrderCount());
+        assertEquals(oldest.getPizzaCount(), restored.getAggregates().getPizzaCount());
+        assertEquals(oldest.calculateTotalCents(), restored.getAggregates().getRevenueCents());
+    }
+
+    @Test
+    public void partitionWaitsForABackgroundRestore() throws Exception {
+        int storeId = 9001;
+        CountDownLatch queued = new CountDownLatch(1);
+        AtomicReference<Runnable> creation = new AtomicReference<>();
+        OrderStores.createPartition(storeId, task -> {
+            creation.set(task);
+            queued.countDown();
+        });
+        assertTrue(queued.await(1, TimeUnit.SECONDS));
+
+        AtomicReference<StorePartition> seen = new AtomicReference<>();
+        Thread user = new Thread(() -> seen.set(OrderStores.partition(storeId)));
+        user.start();
+        user.join(200);
+        assertTrue("The store must wait for the restore", user.isAlive());
+
+        creation.get().run();
+        user.join(5000);
+        assertFalse(user.isAlive());
+        assertSame(seen.get(), OrderStores.partition(storeId));
+        assertEquals(storeId, seen.get().getStoreId());
+    }
+
+    /**
+     * Creates a store with placed orders of one to n pizzas.
+     */
+    private static StorePartition storeWithOrders(int count) {
+        StorePartition store = StorePartition.detached(STORE);
+        for (int i = 1; i <= count; i++) {
+            Order order = store.newOrder();
+            order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE), i);
+            store.addPlacedOrder(order);
+        }
+        return store;
+    }
+
+    /**
+     * Writes a store's snapshot and returns it ready for restoring.
+     */
+    private static ByteBuffer snapshotOf(StorePartition store, int recentOrders) {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        store.writeSnapshot(buffer, recentOrders);
+        buffer.flip();
+        return buffer;
+    }
+}
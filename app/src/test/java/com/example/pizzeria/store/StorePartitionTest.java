@@ -0,0 +1,133 @@
+package com.example.pizzeria.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.pizzeria.models.Crust;
+import com.example.pizzeria.models.Order;
+import com.example.pizzeria.models.PizzaType;
+import com.example.pizzeria.models.Size;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for how a StorePartition keeps placed order numbers unique:
+ * importing orders, placing orders numbered before an import and moving
+ * the cart off an imported number.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class StorePartitionTest {
+
+    private static final int STORE = 1;
+    private static final String STYLE = "New York Style";
+
+    @Test
+    public void importedNumbersAreNotIssuedAgain() {
+        StorePartition store = StorePartition.detached(STORE);
+        assertEquals(1, store.importOrders(Collections.singletonList(pizzaOrder(120))));
+        assertTrue(store.newOrder().getOrderNumber() > 120);
+    }
+
+    @Test
+    public void importSkipsNumbersAlreadyPlaced() {
+        StorePartition store = StorePartition.detached(STORE);
+        Order placed = pizzaOrder(store.nextOrderNumber());
+        store.addPlacedOrder(placed);
+
+        assertEquals(0, store.importOrders(Collections.singletonList(pizzaOrder(placed.getOrderNumber()))));
+        assertEquals(1, store.getPlacedOrders().size());
+        assertSame(placed, store.getPlacedOrders().get(0));
+    }
+
+    @Test
+    public void orderNumberedBeforeAnImportIsRejected() {
+        StorePartition store = StorePartition.detached(STORE);
+        store.getInventory().setStock(Crust.BROOKLYN, 5);
+        Order inFlight = pizzaOrder(store.nextOrderNumber());
+        store.importOrders(Collections.singletonList(pizzaOrder(inFlight.getOrderNumber())));
+
+        List<Order> rejected = new ArrayList<>();
+        List<Order> placed = store.placeOrders(Collections.singletonList(inFlight),
+                (order, e) -> rejected.add(order));
+        assertTrue(placed.isEmpty());
+        assertEquals(Collections.singletonList(inFlight), rejected);
+        assertEquals(5, store.getInventory().getStock(Crust.BROOKLYN));
+
+        assertThrows(IllegalStateException.class, () -> store.addPlacedOrder(inFlight));
+        assertEquals(5, store.getInventory().getStock(Crust.BROOKLYN));
+        assertEquals(1, store.getAggregates().getOrderCount());
+    }
+
+    @Test
+    public void placingAnOrderAgainKeepsItsReservation() {
+        StorePartition store = StorePartition.detached(STORE);
+        store.getInventory().setStock(Crust.BROOKLYN, 5);
+        Order order = pizzaOrder(store.nextOrderNumber());
+        store.addPlacedOrder(order);
+
+        assertThrows(IllegalStateException.class, () -> store.addPlacedOrder(order));
+        assertEquals(4, store.getInventory().getStock(Crust.BROOKLYN));
+        assertTrue(store.cancelOrder(order.getOrderNumber()));
+        assertEquals(5, store.getInventory().getStock(Crust.BROOKLYN));
+    }
+
+    @Test
+    public void batchLeavesOutPlacedAndRepeatedOrders() {
+        StorePartition store = StorePartition.detached(STORE);
+        store.getInventory().setStock(Crust.BROOKLYN, 5);
+        Order placedBefore = pizzaOrder(store.nextOrderNumber());
+        store.addPlacedOrder(placedBefore);
+        Order fresh = pizzaOrder(store.nextOrderNumber());
+
+        List<Order> rejected = new ArrayList<>();
+        List<Order> placed = store.placeOrders(Arrays.asList(placedBefore, fresh, fresh),
+                (order, e) -> rejected.add(order));
+        assertEquals(Collections.singletonList(fresh), placed);
+        assertEquals(Arrays.asList(placedBefore, fresh), rejected);
+        assertEquals(3, store.getInventory().getStock(Crust.BROOKLYN));
+        assertEquals(2, store.getAggregates().getOrderCount());
+    }
+
+    @Test
+    public void placingACopyOfTheCartStartsANewCart() {
+        StorePartition store = StorePartition.detached(STORE);
+        Order cart = store.getCurrentOrder();
+        cart.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE));
+
+        Order copy = cart.copy();
+        assertEquals(Collections.singletonList(copy), store.placeOrders(Collections.singletonList(copy), null));
+        assertNotEquals(cart.getOrderNumber(), store.getCurrentOrder().getOrderNumber());
+        assertTrue(store.getCurrentOrder().isEmpty());
+    }
+
+    @Test
+    public void importMovesTheCartOffAnImportedNumber() {
+        StorePartition store = StorePartition.detached(STORE);
+        Order cart = store.getCurrentOrder();
+        cart.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE), 2);
+        store.importOrders(Collections.singletonList(pizzaOrder(cart.getOrderNumber())));
+
+        Order moved = store.getCurrentOrder();
+        assertNotEquals(cart.getOrderNumber(), moved.getOrderNumber());
+        assertEquals(2, moved.getPizzaCount());
+        assertSame(moved, store.placeCurrentOrder());
+    }
+
+    /**
+     * Creates an order of this store with one pizza on a Brooklyn crust.
+     */
+    private static Order pizzaOrder(int orderNumber) {
+        Order order = new Order(STORE, orderNumber);
+        order.addPizza(PizzaType.DELUXE.create(Crust.BROOKLYN, Size.LARGE, STYLE));
+        return order;
+    }
+}
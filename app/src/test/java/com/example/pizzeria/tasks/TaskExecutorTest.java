@@ -0,0 +1,163 @@
+package com.example.pizzeria.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for TaskExecutor and Task: a canceled read that has not
+ * started is skipped while a canceled write still runs, nothing is
+ * delivered once the owner is destroyed, and a task turned away by a full
+ * queue is delivered as a failure. The test thread stands in for the main
+ * thread: outcomes are queued for it and delivered when it runs them.
+ *
+ * @author Yousef Naam & Lukas Chang
+ */
+public class TaskExecutorTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final BlockingQueue<Runnable> mainThread = new LinkedBlockingQueue<>();
+    private final List<Object> delivered = new ArrayList<>();
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    @Before
+    public void queueDeliveries() {
+        Task.setMainThreadExecutor(mainThread::add);
+    }
+
+    @After
+    public void deliverOnMainThread() {
+        gate.countDown();
+        Task.setMainThreadExecutor(null);
+    }
+
+    @Test
+    public void canceledReadIsSkippedAndCanceledWriteRuns() throws Exception {
+        TaskExecutor executor = new TaskExecutor("test", 1, 8, 0);
+        executor.execute(this::awaitGate);
+        AtomicBoolean readRan = new AtomicBoolean();
+        AtomicBoolean writeRan = new AtomicBoolean();
+        Task<String> read = executor.submit(null, () -> {
+            readRan.set(true);
+            return "read";
+        }, delivered::add);
+        Task<String> write = executor.submitWrite(null, () -> {
+            writeRan.set(true);
+            return "write";
+        }, delivered::add);
+        read.cancel();
+        write.cancel();
+
+        gate.countDown();
+        awaitIdle(executor);
+        assertFalse(readRan.get());
+        assertTrue(writeRan.get());
+        runDeliveries();
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void resultIsDroppedAfterOnDestroy() throws Exception {
+        TaskExecutor executor = new TaskExecutor("test", 1, 8, 0);
+        Screen screen = new Screen();
+        Task<String> task = executor.submit(screen, () -> "result", delivered::add, delivered::add);
+
+        // The result is posted, then the screen is destroyed before the main thread gets to it
+        Runnable delivery = mainThread.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(delivery);
+        screen.lifecycle.setCurrentState(Lifecycle.State.DESTROYED);
+        assertTrue(task.isCancelled());
+        delivery.run();
+        assertTrue(delivered.isEmpty());
+
+        // Reads for a destroyed screen are not run at all, writes are but deliver nothing
+        AtomicBoolean readRan = new AtomicBoolean();
+        assertTrue(executor.submit(screen, () -> readRan.getAndSet(true), delivered::add).isCancelled());
+        Task<String> write = executor.submitWrite(screen, () -> "write", delivered::add);
+        assertTrue(write.isCancelled());
+        awaitIdle(executor);
+        runDeliveries();
+        assertFalse(readRan.get());
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void rejectionIsDeliveredAsAFailure() throws Exception {
+        TaskExecutor executor = new TaskExecutor("test", 1, 1, 0);
+        executor.execute(this::awaitGate);     // Takes the only thread
+        executor.execute(() -> { });            // Takes the only place in the queue
+
+        Task<String> task = executor.submit(null, () -> "result", delivered::add, delivered::add);
+        assertFalse(task.isCancelled());
+        runDeliveries();
+        assertEquals(1, delivered.size());
+        assertTrue(delivered.get(0) instanceof RejectedExecutionException);
+    }
+
+    /**
+     * Blocks the calling executor thread until the test opens the gate.
+     */
+    private void awaitGate() {
+        try {
+            gate.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until the single-threaded executor has run everything queued before this call.
+     */
+    private static void awaitIdle(TaskExecutor executor) throws InterruptedException {
+        CountDownLatch idle = new CountDownLatch(1);
+        executor.execute(idle::countDown);
+        assertTrue(idle.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Runs the deliveries posted so far, as the main thread would.
+     */
+    private void runDeliveries() {
+        for (Runnable delivery = mainThread.poll(); delivery != null; delivery = mainThread.poll()) {
+            delivery.run();
+        }
+    }
+
+    /**
+     * A screen whose lifecycle the test moves by hand.
+     */
+    private static final class Screen implements LifecycleOwner {
+
+        final LifecycleRegistry lifecycle = LifecycleRegistry.createUnsafe(this);
+
+        Screen() {
+            lifecycle.setCurrentState(Lifecycle.State.RESUMED);
+        }
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return lifecycle;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.pizzeria.macrobenchmark
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Generates the baseline profile shipped with the app. Covers startup
+ * and the order journey so both are AOT-compiled on install.
+ *
+ * Run with: ./gradlew :app:generateBaselineProfile
+ */
+@RunWith(AndroidJUnit4::class)
+class BaselineProfileGenerator {
+
+    @get:Rule
+    val baselineProfileRule = BaselineProfileRule()
+
+    @Test
+    fun generate() = baselineProfileRule.collect(
+        packageName = TARGET_PACKAGE,
+        includeInStartupProfile = true
+    ) {
+        pressHome()
+        startActivityAndWait()
+        waitForMainMenu()
+        orderJourney()
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.pizzeria.macrobenchmark
+
+import androidx.benchmark.macro.BaselineProfileMode
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.FrameTimingMetric
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures frame timing for the open-builder, add-to-order and place-order
+ * journey, starting from a freshly launched main menu each iteration.
+ */
+@RunWith(AndroidJUnit4::class)
+class OrderJourneyBenchmark {
+
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Test
+    fun orderJourneyNoCompilation() = journey(CompilationMode.None())
+
+    @Test
+    fun orderJourneyBaselineProfile() = journey(CompilationMode.Partial(BaselineProfileMode.Require))
+
+    private fun journey(compilationMode: CompilationMode) =
+        benchmarkRule.measureRepeated(
+            packageName = TARGET_PACKAGE,
+            metrics = listOf(FrameTimingMetric()),
+            compilationMode = compilationMode,
+            startupMode = StartupMode.COLD,
+            iterations = 5,
+            setupBlock = {
+                pressHome()
+                startActivityAndWait()
+                waitForMainMenu()
+            }
+        ) {
+            orderJourney()
+        }
+}
@@ -0,0 +1,57 @@
+package com.example.pizzeria.macrobenchmark
+
+import androidx.benchmark.macro.MacrobenchmarkScope
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.Until
+
+/**
+ * Shared UI steps for the benchmarks and the baseline profile generator.
+ * Views are located by their resource ids in the app's layouts.
+ */
+const val TARGET_PACKAGE = "com.example.pizzeria"
+
+private const val TIMEOUT_MILLIS = 5_000L
+
+/**
+ * Waits for the main menu to be drawn after a launch.
+ */
+fun MacrobenchmarkScope.waitForMainMenu() {
+    device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "chicagoStyleButton")), TIMEOUT_MILLIS)
+}
+
+/**
+ * Opens the Chicago builder from the main menu and waits for it to load.
+ */
+fun MacrobenchmarkScope.openBuilder() {
+    device.findObject(By.res(TARGET_PACKAGE, "chicagoStyleButton")).click()
+    device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "addToOrderButton")), TIMEOUT_MILLIS)
+}
+
+/**
+ * Adds the currently configured pizza to the order and returns to the main menu.
+ */
+fun MacrobenchmarkScope.addToOrder() {
+    device.findObject(By.res(TARGET_PACKAGE, "addToOrderButton")).click()
+    device.waitForIdle()
+    device.pressBack()
+    waitForMainMenu()
+}
+
+/**
+ * Opens the current order and places it, waiting for the order summary screen.
+ */
+fun MacrobenchmarkScope.placeOrder() {
+    device.findObject(By.res(TARGET_PACKAGE, "currentOrderButton")).click()
+    device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "placeOrderButton")), TIMEOUT_MILLIS)
+    device.findObject(By.res(TARGET_PACKAGE, "placeOrderButton")).click()
+    device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "orderNumberDropdown")), TIMEOUT_MILLIS)
+}
+
+/**
+ * Runs the full counter journey: open the builder, add a pizza, place the order.
+ */
+fun MacrobenchmarkScope.orderJourney() {
+    openBuilder()
+    addToOrder()
+    placeOrder()
+}
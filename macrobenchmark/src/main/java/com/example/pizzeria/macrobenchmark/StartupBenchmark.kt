@@ -0,0 +1,49 @@
+package com.example.pizzeria.macrobenchmark
+
+import androidx.benchmark.macro.BaselineProfileMode
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.StartupTimingMetric
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures time to the main menu for cold and warm starts, with and
+ * without the baseline profile, so the profile's effect is visible.
+ */
+@RunWith(AndroidJUnit4::class)
+class StartupBenchmark {
+
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Test
+    fun coldStartNoCompilation() = startup(StartupMode.COLD, CompilationMode.None())
+
+    @Test
+    fun coldStartBaselineProfile() =
+        startup(StartupMode.COLD, CompilationMode.Partial(BaselineProfileMode.Require))
+
+    @Test
+    fun warmStartNoCompilation() = startup(StartupMode.WARM, CompilationMode.None())
+
+    @Test
+    fun warmStartBaselineProfile() =
+        startup(StartupMode.WARM, CompilationMode.Partial(BaselineProfileMode.Require))
+
+    private fun startup(startupMode: StartupMode, compilationMode: CompilationMode) =
+        benchmarkRule.measureRepeated(
+            packageName = TARGET_PACKAGE,
+            metrics = listOf(StartupTimingMetric()),
+            compilationMode = compilationMode,
+            startupMode = startupMode,
+            iterations = 10,
+            setupBlock = { pressHome() }
+        ) {
+            startActivityAndWait()
+            waitForMainMenu()
+        }
+}
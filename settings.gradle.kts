@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "Pizzeria"
 include(":app")
+include(":macrobenchmark")